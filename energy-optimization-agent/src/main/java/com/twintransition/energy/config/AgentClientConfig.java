@@ -0,0 +1,49 @@
+package com.twintransition.energy.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Connection pool for the WebClient used to reach the Python agent.
+ * Reactor Netty's default pool (2 x CPU connections, small pending queue) would
+ * reject requests long before the async execution mode runs out of capacity.
+ * The pool is shared by all agent instances (max-connections is per instance) and every
+ * phase of a call is bounded: connect, waiting for a pooled connection, and the response.
+ */
+@Configuration
+public class AgentClientConfig {
+
+    @Bean
+    public WebClientCustomizer agentConnectionPoolCustomizer(
+            @Value("${optimization.agent.max-connections:200}") int maxConnections,
+            @Value("${optimization.agent.max-pending-acquires:1000}") int maxPendingAcquires,
+            @Value("${optimization.agent.pending-acquire-timeout:PT5S}") Duration pendingAcquireTimeout,
+            @Value("${optimization.agent.max-idle-time:PT4S}") Duration maxIdleTime,
+            @Value("${optimization.agent.connect-timeout:PT2S}") Duration connectTimeout,
+            @Value("${optimization.agent.response-timeout:PT30S}") Duration responseTimeout) {
+
+        ConnectionProvider provider = ConnectionProvider.builder("optimization-agent")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxPendingAcquires)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                // Uvicorn closes idle keep-alive connections after 5 s (--timeout-keep-alive): drop ours first
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(maxIdleTime)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+
+        return builder -> builder.clientConnector(new ReactorClientHttpConnector(httpClient));
+    }
+}
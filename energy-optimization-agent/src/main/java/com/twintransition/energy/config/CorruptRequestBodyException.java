@@ -0,0 +1,14 @@
+package com.twintransition.energy.config;
+
+import java.io.IOException;
+
+/**
+ * Thrown while a compressed request body is read, when the gzip or deflate data turns out to be
+ * corrupt or truncated past its header. Answered with 400, like a body with a bad header.
+ */
+public class CorruptRequestBodyException extends IOException {
+
+    public CorruptRequestBodyException(String encoding, IOException cause) {
+        super("Request body is not valid " + encoding + ": " + cause.getMessage(), cause);
+    }
+}
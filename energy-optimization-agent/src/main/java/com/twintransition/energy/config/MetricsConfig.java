@@ -0,0 +1,73 @@
+package com.twintransition.energy.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.Nullable;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.twintransition.energy.service.OptimizationMetrics;
+
+/**
+ * Times the @Valid step of the MVC endpoints as the "validation" stage of {@link OptimizationMetrics}
+ * by decorating the validator Spring Boot would use anyway.
+ * Without metrics (disabled, or a test slice without the bean) MVC keeps its default validator.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<OptimizationMetrics> metrics;
+    private final ObjectProvider<LocalValidatorFactoryBean> validator;
+
+    public MetricsConfig(ObjectProvider<OptimizationMetrics> metrics, ObjectProvider<LocalValidatorFactoryBean> validator) {
+        this.metrics = metrics;
+        this.validator = validator;
+    }
+
+    @Override
+    public Validator getValidator() {
+        OptimizationMetrics optimizationMetrics = metrics.getIfAvailable();
+        LocalValidatorFactoryBean delegate = validator.getIfUnique();
+        if (optimizationMetrics == null || !optimizationMetrics.isEnabled() || delegate == null) {
+            return null;
+        }
+        return new TimedValidator(delegate, optimizationMetrics);
+    }
+
+    private record TimedValidator(SmartValidator delegate, OptimizationMetrics metrics) implements SmartValidator {
+
+        @Override
+        public boolean supports(Class<?> clazz) {
+            return delegate.supports(clazz);
+        }
+
+        @Override
+        public void validate(Object target, Errors errors) {
+            long start = System.nanoTime();
+            delegate.validate(target, errors);
+            metrics.recordStage("validation", System.nanoTime() - start);
+        }
+
+        @Override
+        public void validate(Object target, Errors errors, Object... validationHints) {
+            long start = System.nanoTime();
+            delegate.validate(target, errors, validationHints);
+            metrics.recordStage("validation", System.nanoTime() - start);
+        }
+
+        @Override
+        public void validateValue(Class<?> targetType, @Nullable String fieldName, @Nullable Object value,
+                                  Errors errors, Object... validationHints) {
+            delegate.validateValue(targetType, fieldName, value, errors, validationHints);
+        }
+
+        @Override
+        @Nullable
+        public <T> T unwrap(@Nullable Class<T> type) {
+            return delegate.unwrap(type);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.twintransition.energy.config;
+
+import java.io.IOException;
+
+/**
+ * Thrown while a compressed request body is read, once its decompressed size passes
+ * {@code optimization.wire.max-decompressed-bytes}. It is an IOException so that it travels
+ * through the body readers (Jackson, the telemetry parser) and is answered with 413.
+ */
+public class RequestBodyTooLargeException extends IOException {
+
+    private final long maxBytes;
+
+    public RequestBodyTooLargeException(long maxBytes) {
+        super("Decompressed request body exceeds " + maxBytes + " bytes.");
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -0,0 +1,282 @@
+package com.twintransition.energy.config;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Accepts request bodies sent with {@code Content-Encoding: gzip} or {@code deflate} and hands
+ * the controllers the decompressed stream, whatever the body format (JSON, CBOR, NDJSON, CSV).
+ * Other encodings are refused with 415, and a body without a valid gzip or zlib header with 400
+ * before it reaches a controller; data corrupted past the header fails the read with
+ * {@link CorruptRequestBodyException} (400). The decompressed size is capped to stop compression
+ * bombs: past it the read fails with {@link RequestBodyTooLargeException} (413).
+ */
+@Component
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    private final long maxDecompressedBytes;
+
+    public RequestDecompressionFilter(
+            @Value("${optimization.wire.max-decompressed-bytes:67108864}") long maxDecompressedBytes) {
+        this.maxDecompressedBytes = maxDecompressedBytes;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || encoding.isBlank() || encoding.equalsIgnoreCase("identity")) {
+            chain.doFilter(request, response);
+            return;
+        }
+        switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip" -> {
+                // The header is read here, before any controller: a body that is not gzip is the client's error
+                RawBody raw = new RawBody(request.getInputStream());
+                GZIPInputStream decompressed;
+                try {
+                    decompressed = new GZIPInputStream(raw, 8192);
+                } catch (ZipException | EOFException e) {
+                    response.sendError(HttpStatus.BAD_REQUEST.value(), "Request body is not valid gzip: " + e.getMessage());
+                    return;
+                }
+                chain.doFilter(new DecompressedRequest(request, raw, decompressed, "gzip", maxDecompressedBytes), response);
+            }
+            case "deflate" -> {
+                // Same for the zlib header (RFC 1950): method 8, window up to 32K, check bits making it a multiple of 31
+                RawBody raw = new RawBody(request.getInputStream());
+                PushbackInputStream header = new PushbackInputStream(raw, 2);
+                int cmf = header.read();
+                int flg = header.read();
+                if (flg < 0 || (cmf & 0x0F) != 8 || (cmf >> 4) > 7 || ((cmf << 8) | flg) % 31 != 0) {
+                    response.sendError(HttpStatus.BAD_REQUEST.value(),
+                            "Request body is not valid deflate: " + (flg < 0 ? "missing zlib header" : "bad zlib header"));
+                    return;
+                }
+                header.unread(new byte[] { (byte) cmf, (byte) flg });
+                chain.doFilter(new DecompressedRequest(request, raw, new InflaterInputStream(header), "deflate",
+                        maxDecompressedBytes), response);
+            }
+            default -> {
+                response.setHeader("Accept-Encoding", "gzip, deflate");
+                response.sendError(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value(), "Unsupported Content-Encoding: " + encoding);
+            }
+        }
+    }
+
+    /**
+     * Request whose body is the decompressed stream; the length is unknown until it is read.
+     */
+    private static final class DecompressedRequest extends HttpServletRequestWrapper {
+
+        private final ServletInputStream body;
+
+        DecompressedRequest(HttpServletRequest request, RawBody raw, InputStream decompressed, String encoding, long maxBytes) {
+            super(request);
+            this.body = new LimitedServletInputStream(raw, decompressed, encoding, maxBytes);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return body;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() == null ? StandardCharsets.UTF_8 : Charset.forName(getCharacterEncoding());
+            return new BufferedReader(new InputStreamReader(body, charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+    }
+
+    /**
+     * The compressed body as the decompressor sees it: the container's stream, or the bytes
+     * collected from it once the request switched to non-blocking reads.
+     */
+    private static final class RawBody extends InputStream {
+
+        private final ServletInputStream servletStream;
+        private InputStream source;
+
+        RawBody(ServletInputStream servletStream) {
+            this.servletStream = servletStream;
+            this.source = servletStream;
+        }
+
+        void replaceWith(byte[] rest) {
+            source = new ByteArrayInputStream(rest);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return source.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return source.read(buffer, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            servletStream.close();
+        }
+    }
+
+    private static final class LimitedServletInputStream extends ServletInputStream {
+
+        private final RawBody raw;
+        private final InputStream in;
+        private final String encoding;
+        private final long maxBytes;
+        private long read;
+        private boolean finished;
+        private ReadListener readListener;
+        private volatile boolean buffered;
+
+        LimitedServletInputStream(RawBody raw, InputStream in, String encoding, long maxBytes) {
+            this.raw = raw;
+            this.in = in;
+            this.encoding = encoding;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value;
+            try {
+                value = in.read();
+            } catch (ZipException | EOFException e) {
+                throw new CorruptRequestBodyException(encoding, e);
+            }
+            count(value < 0 ? -1 : 1);
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count;
+            try {
+                count = in.read(buffer, offset, length);
+            } catch (ZipException | EOFException e) {
+                throw new CorruptRequestBodyException(encoding, e);
+            }
+            count(count);
+            return count;
+        }
+
+        private void count(int bytes) throws IOException {
+            if (bytes < 0) {
+                finished = true;
+                return;
+            }
+            read += bytes;
+            if (read > maxBytes) {
+                throw new RequestBodyTooLargeException(maxBytes);
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        /**
+         * Always true for blocking reads; with a {@link ReadListener}, true once the whole
+         * compressed body has arrived, since only then can inflating never block.
+         */
+        @Override
+        public boolean isReady() {
+            return readListener == null || buffered;
+        }
+
+        /**
+         * Inflating has no non-blocking mode, so the compressed bytes are collected from the
+         * container without blocking (they are at most {@code maxBytes}, the decompressed limit),
+         * then the listener reads the decompressed body out of memory.
+         */
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            if (readListener == null) {
+                throw new NullPointerException("readListener");
+            }
+            if (this.readListener != null) {
+                throw new IllegalStateException("A ReadListener is already set.");
+            }
+            this.readListener = readListener;
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            ServletInputStream servletStream = raw.servletStream;
+            servletStream.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] chunk = new byte[8192];
+                    while (servletStream.isReady() && !servletStream.isFinished()) {
+                        int count = servletStream.read(chunk);
+                        if (count < 0) {
+                            break;
+                        }
+                        compressed.write(chunk, 0, count);
+                        if (compressed.size() > maxBytes) {
+                            throw new RequestBodyTooLargeException(maxBytes);
+                        }
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    raw.replaceWith(compressed.toByteArray());
+                    buffered = true;
+                    readListener.onDataAvailable();
+                    if (finished) {
+                        readListener.onAllDataRead();
+                    }
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    readListener.onError(error);
+                }
+            });
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
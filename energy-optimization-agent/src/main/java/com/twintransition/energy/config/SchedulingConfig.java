@@ -0,0 +1,12 @@
+package com.twintransition.energy.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the @Scheduled background jobs (forecaster state snapshots, flushes...).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
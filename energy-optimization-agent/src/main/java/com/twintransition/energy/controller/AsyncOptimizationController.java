@@ -0,0 +1,65 @@
+package com.twintransition.energy.controller;
+
+import com.twintransition.energy.dto.ApiResponse;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.service.AdmissionLane;
+import com.twintransition.energy.service.OptimizationMetrics;
+import com.twintransition.energy.service.OptimizationService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.MessageSource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+/**
+ * Non-blocking variant of the recommendation endpoint, enabled with
+ * {@code optimization.execution.mode=async}.
+ * The handler returns the agent call as a {@link Mono}; Spring MVC releases the servlet
+ * thread immediately and completes the response asynchronously once the agent answers,
+ * so concurrent capacity is no longer bounded by the Tomcat worker pool.
+ */
+@RestController
+@RequestMapping("/api/v1/optimization")
+@ConditionalOnProperty(prefix = "optimization.execution", name = "mode", havingValue = "async")
+public class AsyncOptimizationController {
+
+    private final OptimizationService optimizationService;
+    private final MessageSource messageSource;
+    private final OptimizationMetrics metrics;
+
+    public AsyncOptimizationController(OptimizationService optimizationService, MessageSource messageSource,
+                                       ObjectProvider<OptimizationMetrics> metrics) {
+        this.optimizationService = optimizationService;
+        this.messageSource = messageSource;
+        this.metrics = metrics.getIfAvailable(OptimizationMetrics::disabled);
+    }
+
+    /**
+     * Endpoint to generate an energy optimization recommendation without blocking the servlet thread.
+     * Uses the 'Accept-Language' header for i18n messaging.
+     * @param request The data required for optimization (historical consumption, forecast, limits).
+     * @param siteId Optional 'X-Site-Id' header: the site the recommendation is recorded under in the history.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return A deferred response containing the recommendation and success message.
+     */
+    @PostMapping("/recommend")
+    public Mono<ResponseEntity<ApiResponse<OptimizationRecommendation>>> generateRecommendation(
+            @Valid @RequestBody OptimizationRequest request,
+            @RequestHeader(value = "X-Site-Id", required = false) String siteId,
+            Locale locale) {
+
+        long start = System.nanoTime();
+        return optimizationService.generateRecommendationAsync(siteId, request, AdmissionLane.INTERACTIVE)
+                .doOnSuccess(recommendation -> metrics.recordStage("service", System.nanoTime() - start))
+                .map(recommendation -> ResponseEntity.ok(new ApiResponse<>(
+                        metrics.timeStage("message", () -> messageSource.getMessage("recommendation.success", null, locale)),
+                        recommendation
+                )));
+    }
+}
@@ -0,0 +1,47 @@
+package com.twintransition.energy.controller;
+
+import com.twintransition.energy.dto.ApiResponse;
+import com.twintransition.energy.dto.BatchOptimizationRequest;
+import com.twintransition.energy.dto.BatchOptimizationResponse;
+import com.twintransition.energy.service.BatchRecommendationService;
+import org.springframework.context.MessageSource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/v1/optimization")
+public class BatchOptimizationController {
+
+    private final BatchRecommendationService batchRecommendationService;
+    private final MessageSource messageSource;
+
+    public BatchOptimizationController(BatchRecommendationService batchRecommendationService, MessageSource messageSource) {
+        this.batchRecommendationService = batchRecommendationService;
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Endpoint to generate recommendations for a whole portfolio of sites in one call.
+     * Sites are fanned out to the agent with bounded concurrency; invalid sites or agent
+     * failures are reported per item and never fail the batch.
+     * @param batch The keyed optimization requests.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return A deferred response with the per-site results and the batch latency.
+     */
+    @PostMapping("/recommend/batch")
+    public Mono<ResponseEntity<ApiResponse<BatchOptimizationResponse>>> generateBatch(
+            @Valid @RequestBody BatchOptimizationRequest batch,
+            Locale locale) {
+
+        return batchRecommendationService.generateBatch(batch)
+                .map(response -> ResponseEntity.ok(new ApiResponse<>(
+                        messageSource.getMessage("recommendation.batch.success", null, locale),
+                        response
+                )));
+    }
+}
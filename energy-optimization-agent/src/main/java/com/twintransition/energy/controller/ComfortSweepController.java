@@ -0,0 +1,44 @@
+package com.twintransition.energy.controller;
+
+import com.twintransition.energy.dto.ApiResponse;
+import com.twintransition.energy.dto.ComfortSweepRequest;
+import com.twintransition.energy.dto.ComfortSweepResponse;
+import com.twintransition.energy.service.ComfortSweepService;
+import org.springframework.context.MessageSource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/v1/optimization")
+public class ComfortSweepController {
+
+    private final ComfortSweepService comfortSweepService;
+    private final MessageSource messageSource;
+
+    public ComfortSweepController(ComfortSweepService comfortSweepService, MessageSource messageSource) {
+        this.comfortSweepService = comfortSweepService;
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Endpoint to compare the savings of many comfort limit combinations in one call.
+     * The demand forecast is computed once and shared by every scenario.
+     * @param request The history, weather forecast and grid of comfort limits.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return The shared forecast and the savings and CO2 reduction of each scenario.
+     */
+    @PostMapping("/sweep")
+    public ResponseEntity<ApiResponse<ComfortSweepResponse>> sweep(
+            @Valid @RequestBody ComfortSweepRequest request,
+            Locale locale) {
+
+        return ResponseEntity.ok(new ApiResponse<>(
+                messageSource.getMessage("recommendation.sweep.success", null, locale),
+                comfortSweepService.sweep(request)
+        ));
+    }
+}
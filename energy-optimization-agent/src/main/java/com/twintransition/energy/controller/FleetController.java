@@ -0,0 +1,114 @@
+package com.twintransition.energy.controller;
+
+import com.twintransition.energy.dto.ApiResponse;
+import com.twintransition.energy.dto.FleetRunReport;
+import com.twintransition.energy.dto.FleetSiteRegistration;
+import com.twintransition.energy.dto.FleetSiteStatus;
+import com.twintransition.energy.service.FleetReoptimizationService;
+import org.springframework.context.MessageSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+
+import java.net.URI;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/v1/fleet")
+public class FleetController {
+
+    private final FleetReoptimizationService fleetService;
+    private final MessageSource messageSource;
+
+    public FleetController(FleetReoptimizationService fleetService, MessageSource messageSource) {
+        this.fleetService = fleetService;
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Endpoint enrolling a site (or updating its limits and language) for the scheduled re-optimization.
+     * @param siteId The site; its history is read from the series store.
+     * @param registration The comfort limits and language of the site's recommendations.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return The registration wrapped in the standard API envelope.
+     */
+    @PutMapping("/sites/{siteId}")
+    public ResponseEntity<ApiResponse<FleetSiteRegistration>> registerSite(
+            @PathVariable String siteId,
+            @Valid @RequestBody FleetSiteRegistration registration,
+            Locale locale) {
+
+        fleetService.register(siteId, registration);
+        return ResponseEntity.ok(new ApiResponse<>(
+                messageSource.getMessage("fleet.site.registered", null, locale),
+                registration
+        ));
+    }
+
+    /**
+     * Endpoint removing a site from the scheduled re-optimization.
+     * @param siteId The site.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return An empty payload with the confirmation message.
+     */
+    @DeleteMapping("/sites/{siteId}")
+    public ResponseEntity<ApiResponse<Void>> unregisterSite(@PathVariable String siteId, Locale locale) {
+        fleetService.unregister(siteId);
+        return ResponseEntity.ok(new ApiResponse<>(
+                messageSource.getMessage("fleet.site.removed", null, locale),
+                null
+        ));
+    }
+
+    /**
+     * Endpoint serving the latest recommendation computed for a site by the scheduled runs,
+     * without calling the agent.
+     * @param siteId The site.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return The site's latest recommendation and the outcome of its last visit.
+     */
+    @GetMapping("/sites/{siteId}/recommendation")
+    public ResponseEntity<ApiResponse<FleetSiteStatus>> getLatestRecommendation(@PathVariable String siteId, Locale locale) {
+        return ResponseEntity.ok(new ApiResponse<>(
+                messageSource.getMessage("fleet.site.success", null, locale),
+                fleetService.latest(siteId)
+        ));
+    }
+
+    /**
+     * Endpoint starting a fleet run in the background; clients poll /runs/latest for its report.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return 202 Accepted with the report location, or 409 Conflict if a run is already in progress.
+     */
+    @PostMapping("/runs")
+    public ResponseEntity<ApiResponse<Void>> runNow(Locale locale) {
+        if (!fleetService.startRun()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse<>(
+                    messageSource.getMessage("fleet.run.busy", null, locale),
+                    null
+            ));
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/fleet/runs/latest"))
+                .body(new ApiResponse<>(
+                        messageSource.getMessage("fleet.run.started", null, locale),
+                        null,
+                        202
+                ));
+    }
+
+    /**
+     * Endpoint returning the report of the last completed run (duration, sites per second, per-partition lag).
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return The last run report.
+     */
+    @GetMapping("/runs/latest")
+    public ResponseEntity<ApiResponse<FleetRunReport>> getLastReport(Locale locale) {
+        return ResponseEntity.ok(new ApiResponse<>(
+                messageSource.getMessage("fleet.report.success", null, locale),
+                fleetService.lastReport()
+        ));
+    }
+}
@@ -0,0 +1,69 @@
+package com.twintransition.energy.controller;
+
+import com.twintransition.energy.dto.ApiResponse;
+import com.twintransition.energy.dto.ConsumptionReading;
+import com.twintransition.energy.dto.SiteForecastDto;
+import com.twintransition.energy.service.ColumnarSeriesStore;
+import com.twintransition.energy.service.OnlineForecastService;
+import org.springframework.context.MessageSource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/v1/forecast/sites")
+public class ForecastController {
+
+    private final OnlineForecastService onlineForecastService;
+    private final MessageSource messageSource;
+
+    public ForecastController(OnlineForecastService onlineForecastService, MessageSource messageSource) {
+        this.onlineForecastService = onlineForecastService;
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Endpoint pushing new consumption readings into the site's online forecaster.
+     * Each reading is absorbed in constant time.
+     * @param siteId The site the readings belong to: 1 to 128 letters, digits, '.', '_' or '-'.
+     * @param readings The new readings, in any order.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return The updated 24-hour forecast of the site.
+     */
+    @PostMapping("/{siteId}/readings")
+    public ResponseEntity<ApiResponse<SiteForecastDto>> addReadings(
+            @PathVariable @Pattern(regexp = ColumnarSeriesStore.SITE_ID_REGEX,
+                    message = "Site id must be 1 to 128 letters, digits, '.', '_' or '-'.") String siteId,
+            @RequestBody @NotEmpty(message = "At least one reading is required.") List<@Valid ConsumptionReading> readings,
+            Locale locale) {
+
+        for (ConsumptionReading reading : readings) {
+            onlineForecastService.addReading(siteId, reading.timestamp(), reading.consumptionKwh());
+        }
+
+        return ResponseEntity.ok(new ApiResponse<>(
+                messageSource.getMessage("forecast.readings.success", null, locale),
+                onlineForecastService.forecast(siteId)
+        ));
+    }
+
+    /**
+     * Endpoint serving the 24-hour forecast from the site's online forecaster state.
+     * @param siteId The site.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return The forecast, or 404 if the site has never received readings.
+     */
+    @GetMapping("/{siteId}")
+    public ResponseEntity<ApiResponse<SiteForecastDto>> getForecast(@PathVariable String siteId, Locale locale) {
+        return ResponseEntity.ok(new ApiResponse<>(
+                messageSource.getMessage("forecast.success", null, locale),
+                onlineForecastService.forecast(siteId)
+        ));
+    }
+}
@@ -3,7 +3,10 @@ package com.twintransition.energy.controller;
 import com.twintransition.energy.dto.ApiResponse; // <-- CORREÇÃO 1: Adicionar a importação
 import com.twintransition.energy.dto.OptimizationRequest;
 import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.service.OptimizationMetrics;
 import com.twintransition.energy.service.OptimizationService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.MessageSource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,22 +14,32 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import java.util.Locale;
 
+/**
+ * Blocking variant of the recommendation endpoint (default execution mode).
+ * The servlet thread waits for the Python agent; see {@link AsyncOptimizationController}
+ * for the non-blocking variant selected with {@code optimization.execution.mode=async}.
+ */
 @RestController
 @RequestMapping("/api/v1/optimization")
+@ConditionalOnProperty(prefix = "optimization.execution", name = "mode", havingValue = "blocking", matchIfMissing = true)
 public class OptimizationController {
 
     private final OptimizationService optimizationService;
     private final MessageSource messageSource;
+    private final OptimizationMetrics metrics;
 
-    public OptimizationController(OptimizationService optimizationService, MessageSource messageSource) {
+    public OptimizationController(OptimizationService optimizationService, MessageSource messageSource,
+                                  ObjectProvider<OptimizationMetrics> metrics) {
         this.optimizationService = optimizationService;
         this.messageSource = messageSource;
+        this.metrics = metrics.getIfAvailable(OptimizationMetrics::disabled);
     }
 
     /**
      * Endpoint to generate an energy optimization recommendation.
      * Uses the 'Accept-Language' header for i18n messaging.
      * * @param request The data required for optimization (historical consumption, forecast, limits).
+     * @param siteId Optional 'X-Site-Id' header: the site the recommendation is recorded under in the history.
      * @param locale The locale derived from the 'Accept-Language' header.
      * @return A response containing the recommendation and success message.
      */
@@ -34,15 +47,17 @@ public class OptimizationController {
     
     public ResponseEntity<ApiResponse<OptimizationRecommendation>> generateRecommendation(
             @Valid @RequestBody OptimizationRequest request,
+            @RequestHeader(value = "X-Site-Id", required = false) String siteId,
             Locale locale) {
         
-        OptimizationRecommendation recommendation = optimizationService.generateRecommendation(request);
+        OptimizationRecommendation recommendation = metrics.timeStage("service",
+                () -> optimizationService.generateRecommendation(siteId, request));
 
-        String successMessage = messageSource.getMessage(
+        String successMessage = metrics.timeStage("message", () -> messageSource.getMessage(
                 "recommendation.success", 
                 null, 
                 locale
-        );
+        ));
         
         return ResponseEntity.ok(
                 new ApiResponse<>(successMessage, recommendation)
@@ -0,0 +1,76 @@
+package com.twintransition.energy.controller;
+
+import com.twintransition.energy.dto.ApiResponse;
+import com.twintransition.energy.service.AdmissionLimiter;
+import com.twintransition.energy.service.AgentEndpointPool;
+import com.twintransition.energy.service.AgentRequestEncoder;
+import com.twintransition.energy.service.RecommendationCache;
+import com.twintransition.energy.service.RecommendationHistoryService;
+import com.twintransition.energy.service.RequestCoalescer;
+import com.twintransition.energy.service.TelemetryIngestionService;
+import org.springframework.context.MessageSource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Exposes the runtime counters of the recommendation pipeline (cache hits and evictions, coalesced calls...).
+ */
+@RestController
+@RequestMapping("/api/v1/optimization")
+public class OptimizationStatsController {
+
+    private final RecommendationCache recommendationCache;
+    private final RequestCoalescer requestCoalescer;
+    private final TelemetryIngestionService telemetryIngestionService;
+    private final AgentEndpointPool agentEndpointPool;
+    private final AgentRequestEncoder agentRequestEncoder;
+    private final AdmissionLimiter admissionLimiter;
+    private final RecommendationHistoryService historyService;
+    private final MessageSource messageSource;
+
+    public OptimizationStatsController(RecommendationCache recommendationCache,
+                                       RequestCoalescer requestCoalescer,
+                                       TelemetryIngestionService telemetryIngestionService,
+                                       AgentEndpointPool agentEndpointPool,
+                                       AgentRequestEncoder agentRequestEncoder,
+                                       AdmissionLimiter admissionLimiter,
+                                       RecommendationHistoryService historyService,
+                                       MessageSource messageSource) {
+        this.recommendationCache = recommendationCache;
+        this.requestCoalescer = requestCoalescer;
+        this.telemetryIngestionService = telemetryIngestionService;
+        this.agentEndpointPool = agentEndpointPool;
+        this.agentRequestEncoder = agentRequestEncoder;
+        this.admissionLimiter = admissionLimiter;
+        this.historyService = historyService;
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Endpoint returning a snapshot of the pipeline counters, keyed by component.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return The counters wrapped in the standard API envelope.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStats(Locale locale) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cache", recommendationCache.stats());
+        stats.put("coalescing", requestCoalescer.stats());
+        stats.put("telemetry", telemetryIngestionService.stats());
+        stats.put("telemetryLateReadings", telemetryIngestionService.lateReadings());
+        stats.put("agents", agentEndpointPool.stats());
+        stats.put("wire", agentRequestEncoder.stats());
+        stats.put("admission", admissionLimiter.stats());
+        stats.put("history", historyService.stats());
+
+        return ResponseEntity.ok(
+                new ApiResponse<>(messageSource.getMessage("stats.success", null, locale), stats)
+        );
+    }
+}
@@ -0,0 +1,76 @@
+package com.twintransition.energy.controller;
+
+import com.twintransition.energy.dto.ApiResponse;
+import com.twintransition.energy.dto.RecommendationHistoryPage;
+import com.twintransition.energy.dto.RecommendationWindowTotal;
+import com.twintransition.energy.service.RecommendationHistoryService;
+import org.springframework.context.MessageSource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/v1/recommendations/history")
+public class RecommendationHistoryController {
+
+    private final RecommendationHistoryService historyService;
+    private final MessageSource messageSource;
+
+    public RecommendationHistoryController(RecommendationHistoryService historyService, MessageSource messageSource) {
+        this.historyService = historyService;
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Endpoint reading a page of a site's recommendation history, newest first.
+     * @param siteId The site ('anonymous' for /recommend calls sent without X-Site-Id).
+     * @param from Start of the range (inclusive, ISO-8601).
+     * @param to End of the range (exclusive, ISO-8601).
+     * @param limit Page size.
+     * @param cursor The nextCursor of the previous page; omitted for the first page.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return The page and the cursor of the next one.
+     */
+    @GetMapping("/{siteId}")
+    public ResponseEntity<ApiResponse<RecommendationHistoryPage>> getHistory(
+            @PathVariable String siteId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String cursor,
+            Locale locale) {
+
+        return ResponseEntity.ok(new ApiResponse<>(
+                messageSource.getMessage("history.page.success", null, locale),
+                historyService.page(siteId, from, to, limit, cursor)
+        ));
+    }
+
+    /**
+     * Endpoint summing a site's recorded savings and CO2 reductions per time window.
+     * @param siteId The site.
+     * @param from Start of the range and of the first window (inclusive, ISO-8601).
+     * @param to End of the range (exclusive, ISO-8601).
+     * @param window Window size (ISO-8601 duration, e.g. P1D).
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return The totals of each window that has recommendations.
+     */
+    @GetMapping("/{siteId}/totals")
+    public ResponseEntity<ApiResponse<List<RecommendationWindowTotal>>> getTotals(
+            @PathVariable String siteId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "P1D") Duration window,
+            Locale locale) {
+
+        return ResponseEntity.ok(new ApiResponse<>(
+                messageSource.getMessage("history.totals.success", null, locale),
+                historyService.totals(siteId, from, to, window)
+        ));
+    }
+}
@@ -0,0 +1,63 @@
+package com.twintransition.energy.controller;
+
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.RecommendationStage;
+import com.twintransition.energy.service.RecommendationStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+
+import java.util.Locale;
+
+/**
+ * Streaming variant of the recommendation endpoint, available in both execution modes.
+ * Events are written and flushed one by one as the {@link Flux} emits them, so clients can show
+ * the forecast and the hourly plan while the final recommendation is still being computed.
+ */
+@RestController
+@RequestMapping("/api/v1/optimization")
+public class RecommendationStreamController {
+
+    private final RecommendationStreamService streamService;
+
+    public RecommendationStreamController(RecommendationStreamService streamService) {
+        this.streamService = streamService;
+    }
+
+    /**
+     * Endpoint streaming the recommendation as Server-Sent Events: a 'forecast' event, 24 'action'
+     * events and a final 'summary' (or 'error') event, each with a JSON data field.
+     * @param request The data required for optimization (historical consumption, forecast, limits).
+     * @param siteId Optional 'X-Site-Id' header: the site the recommendation is recorded under in the history.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return The event stream.
+     */
+    @PostMapping(value = "/recommend/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamEvents(
+            @Valid @RequestBody OptimizationRequest request,
+            @RequestHeader(value = "X-Site-Id", required = false) String siteId,
+            Locale locale) {
+
+        return streamService.stream(siteId, request, locale)
+                .map(stage -> ServerSentEvent.builder(stage.data()).event(stage.stage()).build());
+    }
+
+    /**
+     * Same stream as newline-delimited JSON, one {@link RecommendationStage} object per line.
+     * @param request The data required for optimization (historical consumption, forecast, limits).
+     * @param siteId Optional 'X-Site-Id' header: the site the recommendation is recorded under in the history.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return The stages, in order.
+     */
+    @PostMapping(value = "/recommend/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RecommendationStage> streamLines(
+            @Valid @RequestBody OptimizationRequest request,
+            @RequestHeader(value = "X-Site-Id", required = false) String siteId,
+            Locale locale) {
+
+        return streamService.stream(siteId, request, locale);
+    }
+}
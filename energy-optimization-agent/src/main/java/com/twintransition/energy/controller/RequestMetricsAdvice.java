@@ -0,0 +1,49 @@
+package com.twintransition.energy.controller;
+
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.service.OptimizationMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Records the "json.read" stage (body deserialization) and the payload size of
+ * recommendation requests in {@link OptimizationMetrics}.
+ */
+@ControllerAdvice
+public class RequestMetricsAdvice extends RequestBodyAdviceAdapter {
+
+    private static final ThreadLocal<long[]> READ_START = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final OptimizationMetrics metrics;
+
+    public RequestMetricsAdvice(ObjectProvider<OptimizationMetrics> metrics) {
+        this.metrics = metrics.getIfAvailable(OptimizationMetrics::disabled);
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return metrics.isEnabled() && targetType == OptimizationRequest.class;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) {
+        metrics.recordPayloadBytes(inputMessage.getHeaders().getContentLength());
+        READ_START.get()[0] = System.nanoTime();
+        return inputMessage;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        metrics.recordStage("json.read", System.nanoTime() - READ_START.get()[0]);
+        return body;
+    }
+}
@@ -1,12 +1,26 @@
 package com.twintransition.energy.controller;
 
+import com.twintransition.energy.config.CorruptRequestBodyException;
+import com.twintransition.energy.config.RequestBodyTooLargeException;
+import com.twintransition.energy.service.AdmissionRejectedException;
+import com.twintransition.energy.service.AgentException;
+import com.twintransition.energy.service.BatchTooLargeException;
+import com.twintransition.energy.service.IngestionBackpressureException;
+import com.twintransition.energy.service.InvalidRequestException;
+import com.twintransition.energy.service.MalformedTelemetryException;
+import com.twintransition.energy.service.RecommendationHistoryDisabledException;
+import com.twintransition.energy.service.ResourceNotFoundException;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -43,4 +57,191 @@ public class RestExceptionHandler {
 
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
-}
+
+    /**
+     * Handles constraint violations on handler method parameters (e.g. a {@code @NotEmpty} list
+     * body or a {@code @Pattern} path variable), with the same body as the @Valid failures.
+     */
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<Map<String, Object>> handleMethodValidation(HandlerMethodValidationException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("error", "Validation Failed");
+        response.put("errors", ex.getAllErrors().stream()
+                .map(MessageSourceResolvable::getDefaultMessage)
+                .toArray());
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles request-level rule violations detected by the services (e.g. an invalid history cursor).
+     * Other IllegalArgumentExceptions are server faults and stay 500s.
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidRequest(InvalidRequestException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("error", "Invalid Request");
+        response.put("errors", new Object[] { ex.getMessage() });
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles batches and sweeps over the configured size: 400 with the maximum so clients can split them.
+     */
+    @ExceptionHandler(BatchTooLargeException.class)
+    public ResponseEntity<Map<String, Object>> handleBatchTooLarge(BatchTooLargeException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("error", "Batch Too Large");
+        response.put("maxItems", ex.getMaxItems());
+        response.put("errors", new Object[] { ex.getMessage() });
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles compressed bodies that inflate past optimization.wire.max-decompressed-bytes: 413 with the limit.
+     */
+    @ExceptionHandler(RequestBodyTooLargeException.class)
+    public ResponseEntity<Map<String, Object>> handleBodyTooLarge(RequestBodyTooLargeException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.PAYLOAD_TOO_LARGE.value());
+        response.put("error", "Payload Too Large");
+        response.put("maxBytes", ex.getMaxBytes());
+        response.put("errors", new Object[] { ex.getMessage() });
+
+        return new ResponseEntity<>(response, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    /**
+     * Handles gzip / deflate bodies corrupted past their header.
+     */
+    @ExceptionHandler(CorruptRequestBodyException.class)
+    public ResponseEntity<Map<String, Object>> handleCorruptBody(CorruptRequestBodyException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("error", "Corrupt Request Body");
+        response.put("errors", new Object[] { ex.getMessage() });
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Bodies read through a message converter arrive wrapped in HttpMessageNotReadableException:
+     * the decompression failures above keep their own status, anything else gets Spring's default 400.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, Object>> handleNotReadable(HttpMessageNotReadableException ex) {
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof RequestBodyTooLargeException tooLarge) {
+                return handleBodyTooLarge(tooLarge);
+            }
+            if (cause instanceof CorruptRequestBodyException corrupt) {
+                return handleCorruptBody(corrupt);
+            }
+        }
+        throw ex;
+    }
+
+    /**
+     * Handles lookups of resources that do not exist (e.g. a site without readings).
+     */
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleNotFound(ResourceNotFoundException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.NOT_FOUND.value());
+        response.put("error", "Not Found");
+        response.put("errors", new Object[] { ex.getMessage() });
+
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handles calls to the history endpoints while optimization.history is disabled: 404, as if they did not exist.
+     */
+    @ExceptionHandler(RecommendationHistoryDisabledException.class)
+    public ResponseEntity<Map<String, Object>> handleHistoryDisabled(RecommendationHistoryDisabledException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.NOT_FOUND.value());
+        response.put("error", "Not Found");
+        response.put("errors", new Object[] { ex.getMessage() });
+
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handles a telemetry body that is not valid JSON: 400 with the line where parsing stopped
+     * and how many readings before it were accepted.
+     */
+    @ExceptionHandler(MalformedTelemetryException.class)
+    public ResponseEntity<Map<String, Object>> handleMalformedTelemetry(MalformedTelemetryException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("error", "Malformed Telemetry");
+        response.put("accepted", ex.getAccepted());
+        response.put("line", ex.getLine());
+        response.put("errors", new Object[] { ex.getMessage() });
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles a full telemetry buffer: 503 with 'Retry-After' so clients back off.
+     */
+    @ExceptionHandler(IngestionBackpressureException.class)
+    public ResponseEntity<Map<String, Object>> handleIngestionBackpressure(IngestionBackpressureException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put("error", "Ingestion Backpressure");
+        response.put("accepted", ex.getAccepted());
+        response.put("errors", new Object[] { ex.getMessage() });
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
+    /**
+     * Handles requests turned away by the admission limiter: 429 with 'Retry-After' so clients back off.
+     */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleAdmissionRejected(AdmissionRejectedException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        response.put("error", "Too Many Requests");
+        response.put("lane", ex.getLane().tag());
+        response.put("errors", new Object[] { ex.getMessage() });
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
+    /**
+     * Handles failures of the external optimization agent: 502, with the agent status when there was one.
+     */
+    @ExceptionHandler(AgentException.class)
+    public ResponseEntity<Map<String, Object>> handleAgentError(AgentException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.BAD_GATEWAY.value());
+        response.put("error", "Optimization Agent Error");
+        response.put("agentStatus", ex.getStatusCode());
+        response.put("errors", new Object[] { ex.getMessage() });
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_GATEWAY);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.twintransition.energy.controller;
+
+import com.twintransition.energy.dto.ApiResponse;
+import com.twintransition.energy.dto.IngestionResult;
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.SeriesRange;
+import com.twintransition.energy.dto.SiteHistoryOptimizationRequest;
+import com.twintransition.energy.service.ColumnarSeriesStore;
+import com.twintransition.energy.service.OptimizationService;
+import com.twintransition.energy.service.SeriesResampler;
+import org.springframework.context.MessageSource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/v1/series/sites")
+public class SeriesStoreController {
+
+    private final ColumnarSeriesStore seriesStore;
+    private final OptimizationService optimizationService;
+    private final SeriesResampler resampler;
+    private final MessageSource messageSource;
+
+    public SeriesStoreController(ColumnarSeriesStore seriesStore, OptimizationService optimizationService,
+                                 SeriesResampler resampler, MessageSource messageSource) {
+        this.seriesStore = seriesStore;
+        this.optimizationService = optimizationService;
+        this.resampler = resampler;
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Endpoint importing a CSV history (timestamp,consumption_kwh,temperature_c) into the site's column files.
+     * @param siteId The site the history belongs to.
+     * @param body The CSV content, header line first.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return How many rows were appended and skipped.
+     */
+    @PostMapping(value = "/{siteId}/import", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<ApiResponse<IngestionResult>> importCsv(
+            @PathVariable String siteId,
+            InputStream body,
+            Locale locale) throws IOException {
+
+        return ResponseEntity.ok(new ApiResponse<>(
+                messageSource.getMessage("series.import.success", null, locale),
+                seriesStore.importCsv(siteId, body)
+        ));
+    }
+
+    /**
+     * Endpoint reading the stored history of a site, optionally aggregated and downsampled for previews.
+     * @param siteId The site.
+     * @param from Start of the range (inclusive, ISO-8601).
+     * @param to End of the range (exclusive, ISO-8601).
+     * @param bucket Optional bucket size (ISO-8601 duration, e.g. PT1H) to aggregate the readings into.
+     * @param points Optional maximum number of readings, kept by LTTB downsampling after bucketing.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return The readings of the range, one array per column.
+     */
+    @GetMapping("/{siteId}")
+    public ResponseEntity<ApiResponse<SeriesRange>> readRange(
+            @PathVariable String siteId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) Duration bucket,
+            @RequestParam(required = false) Integer points,
+            Locale locale) {
+
+        SeriesRange range = seriesStore.read(siteId, from, to);
+        if (bucket != null) {
+            range = resampler.resample(range, bucket);
+        }
+        if (points != null) {
+            range = SeriesResampler.lttb(range, points);
+        }
+        return ResponseEntity.ok(new ApiResponse<>(
+                messageSource.getMessage("series.range.success", null, locale),
+                range
+        ));
+    }
+
+    /**
+     * Endpoint generating a recommendation from the site's stored history instead of inline series.
+     * @param siteId The site.
+     * @param request The history range, optional weather forecast, limits and language.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return A deferred response containing the recommendation and success message.
+     */
+    @PostMapping("/{siteId}/recommend")
+    public Mono<ResponseEntity<ApiResponse<OptimizationRecommendation>>> generateRecommendation(
+            @PathVariable String siteId,
+            @Valid @RequestBody SiteHistoryOptimizationRequest request,
+            Locale locale) {
+
+        return optimizationService.generateRecommendationForSite(siteId, request)
+                .map(recommendation -> ResponseEntity.ok(new ApiResponse<>(
+                        messageSource.getMessage("recommendation.success", null, locale),
+                        recommendation
+                )));
+    }
+}
@@ -0,0 +1,46 @@
+package com.twintransition.energy.controller;
+
+import com.twintransition.energy.dto.ApiResponse;
+import com.twintransition.energy.dto.IngestionResult;
+import com.twintransition.energy.service.TelemetryIngestionService;
+import org.springframework.context.MessageSource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/v1/telemetry")
+public class TelemetryController {
+
+    private final TelemetryIngestionService telemetryIngestionService;
+    private final MessageSource messageSource;
+
+    public TelemetryController(TelemetryIngestionService telemetryIngestionService, MessageSource messageSource) {
+        this.telemetryIngestionService = telemetryIngestionService;
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Streaming ingestion endpoint for meter readings {siteId, timestamp, consumptionKwh, temperatureC}.
+     * The body is read incrementally, so arbitrarily large (chunked) uploads use constant memory.
+     * Returns 503 with 'Retry-After' when the write buffer stays full, and 400 with the line
+     * number when the body is not valid JSON.
+     * @param body NDJSON (one reading per line) or a JSON array of readings, ISO-8601 timestamps, in time order per site.
+     * @param locale The locale derived from the 'Accept-Language' header.
+     * @return The number of accepted readings, of invalid ones and of late ones (older than the site's history).
+     */
+    @PostMapping(value = "/readings", consumes = { "application/x-ndjson", MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<ApiResponse<IngestionResult>> ingest(InputStream body, Locale locale) throws IOException {
+        IngestionResult result = telemetryIngestionService.ingest(body);
+
+        return ResponseEntity.accepted().body(new ApiResponse<>(
+                messageSource.getMessage("telemetry.ingest.success", null, locale),
+                result,
+                202
+        ));
+    }
+}
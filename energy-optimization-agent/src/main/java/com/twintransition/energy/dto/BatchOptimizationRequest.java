@@ -0,0 +1,15 @@
+package com.twintransition.energy.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Batch of keyed optimization requests, typically a whole building portfolio.
+ */
+public record BatchOptimizationRequest(
+        @NotNull(message = "Batch items cannot be null.")
+        @Size(min = 1, message = "Batch must contain at least one site.")
+        List<SiteOptimizationRequest> items
+) {}
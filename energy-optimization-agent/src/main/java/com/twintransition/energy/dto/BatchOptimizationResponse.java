@@ -0,0 +1,14 @@
+package com.twintransition.energy.dto;
+
+import java.util.List;
+
+/**
+ * Result of a batch: per-site results in request order, success/failure counts and
+ * the total wall-clock latency of the batch.
+ */
+public record BatchOptimizationResponse(
+        List<SiteRecommendationResult> results,
+        int succeeded,
+        int failed,
+        long batchLatencyMs
+) {}
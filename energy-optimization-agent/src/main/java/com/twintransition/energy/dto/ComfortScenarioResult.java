@@ -0,0 +1,13 @@
+package com.twintransition.energy.dto;
+
+/**
+ * Outcome of one comfort limit scenario of a sweep.
+ * @param actionType "HVAC_Adjustment" or "None", as in the recommendation of the same limits.
+ */
+public record ComfortScenarioResult(
+        double maxTemp,
+        double minComfortTemp,
+        String actionType,
+        double estimatedCostSavingsEur,
+        double estimatedCarbonFootprintReductionKgCO2
+) {}
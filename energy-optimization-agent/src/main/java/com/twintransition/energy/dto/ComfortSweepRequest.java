@@ -0,0 +1,32 @@
+package com.twintransition.energy.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * What-if sweep: one history and weather forecast evaluated against many comfort limit scenarios.
+ */
+public record ComfortSweepRequest(
+
+        @NotNull(message = "Historical data cannot be null.")
+        @SeriesSize(min = 1, message = "Historical consumption must contain at least one data point.")
+        TimeSeries historicalConsumptionKwH,
+
+        @NotNull(message = "Weather forecast cannot be null.")
+        @SeriesSize(min = 1, message = "Weather forecast must contain at least one data point.")
+        TimeSeries weatherForecastDegreesC,
+
+        @NotNull(message = "Sweep scenarios cannot be null.")
+        @Size(min = 1, max = ComfortSweepRequest.MAX_SCENARIOS,
+                message = "Sweep must contain between {min} and {max} scenarios.")
+        List<@NotNull(message = "Sweep scenario cannot be null.") @Valid OptimizationLimitsDto> scenarios
+) {
+
+    /**
+     * Hard ceiling checked by bean validation; optimization.sweep.max-scenarios can only lower it.
+     */
+    public static final int MAX_SCENARIOS = 10_000;
+}
@@ -0,0 +1,14 @@
+package com.twintransition.energy.dto;
+
+import java.util.List;
+
+/**
+ * Result of a comfort sweep: the demand forecast shared by every scenario, the per-scenario
+ * savings in request order, how many scenarios call for an HVAC action and the sweep latency.
+ */
+public record ComfortSweepResponse(
+        TimeSeries demandForecastKwh,
+        List<ComfortScenarioResult> scenarios,
+        int actionScenarios,
+        long sweepLatencyMs
+) {}
@@ -0,0 +1,16 @@
+package com.twintransition.energy.dto;
+
+import java.time.Instant;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * A single meter consumption reading pushed to the online forecaster.
+ */
+public record ConsumptionReading(
+        @NotNull(message = "Reading timestamp is required.")
+        Instant timestamp,
+
+        @NotNull(message = "Reading consumption is required.")
+        Double consumptionKwh
+) {}
@@ -0,0 +1,44 @@
+package com.twintransition.energy.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Outcome of one fleet re-optimization run.
+ * @param durationMs Wall-clock time of the whole run.
+ * @param optimized Sites that got a new recommendation.
+ * @param unchanged Sites skipped because their inputs had the same fingerprint as the last run.
+ * @param noData Sites without stored history in the window.
+ * @param failed Sites whose recommendation failed (they are retried on the next run).
+ * @param sitesPerSecond Sites visited per second of run time.
+ */
+public record FleetRunReport(
+        Instant startedAt,
+        long durationMs,
+        int sites,
+        int optimized,
+        int unchanged,
+        int noData,
+        int failed,
+        double sitesPerSecond,
+        List<Partition> partitions
+) {
+
+    /**
+     * One partition of the run, processed sequentially by a single worker.
+     * @param startLagMs Time between the start of the run and the start of this partition
+     *                   (non-zero when there are more partitions than workers).
+     * @param completionLagMs Time between the start of the run and the end of this partition.
+     */
+    public record Partition(
+            int partition,
+            int sites,
+            int optimized,
+            int unchanged,
+            int noData,
+            int failed,
+            long startLagMs,
+            long durationMs,
+            long completionLagMs
+    ) {}
+}
@@ -0,0 +1,17 @@
+package com.twintransition.energy.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * A site enrolled in the scheduled fleet re-optimization: the comfort limits and the
+ * language its recommendations are generated with. The history comes from the series store.
+ */
+public record FleetSiteRegistration(
+        @Valid
+        @NotNull(message = "Optimization limits must be specified.")
+        OptimizationLimitsDto limits,
+
+        @NotNull(message = "Selected language must be provided.")
+        String selectedLanguage
+) {}
@@ -0,0 +1,20 @@
+package com.twintransition.energy.dto;
+
+import java.time.Instant;
+
+/**
+ * Latest result of the fleet re-optimization for one site.
+ * @param recommendation The last successful recommendation, kept across later failures.
+ * @param computedAt When that recommendation was computed.
+ * @param lastRunAt When the site was last visited by a run.
+ * @param lastOutcome OPTIMIZED, UNCHANGED, NO_DATA or FAILED.
+ * @param error The error of the last visit, if it failed.
+ */
+public record FleetSiteStatus(
+        String siteId,
+        OptimizationRecommendation recommendation,
+        Instant computedAt,
+        Instant lastRunAt,
+        String lastOutcome,
+        String error
+) {}
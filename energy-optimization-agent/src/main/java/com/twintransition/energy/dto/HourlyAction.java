@@ -0,0 +1,16 @@
+package com.twintransition.energy.dto;
+
+/**
+ * Action for one forecast hour, streamed before the final recommendation.
+ * @param hour Hour of the day (0-23).
+ * @param outdoorTempC Forecast outdoor temperature; shorter forecasts hold their last value.
+ * @param actionType "HVAC_Adjustment" or "None".
+ * @param setpointC Target temperature of the hour, or null when no action is needed.
+ */
+public record HourlyAction(
+        int hour,
+        double forecastDemandKwh,
+        double outdoorTempC,
+        String actionType,
+        Double setpointC
+) {}
@@ -0,0 +1,15 @@
+package com.twintransition.energy.dto;
+
+/**
+ * Outcome of one ingestion request.
+ * @param accepted Readings placed in the write buffer.
+ * @param invalid Readings skipped because a field was missing or implausible (e.g. a timestamp in the future).
+ * @param late Readings rejected because the site already had newer readings: the history is append-only.
+ * @param elapsedMs Time spent parsing and enqueueing the request body.
+ */
+public record IngestionResult(
+        long accepted,
+        long invalid,
+        long late,
+        long elapsedMs
+) {}
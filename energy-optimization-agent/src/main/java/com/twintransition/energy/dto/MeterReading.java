@@ -0,0 +1,42 @@
+package com.twintransition.energy.dto;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.InstantDeserializer;
+
+/**
+ * One telemetry reading of the ingestion stream (one NDJSON line or array element).
+ * Validated by the ingestion service with plain checks rather than Bean Validation,
+ * which would dominate the per-reading cost at 100k readings/s.
+ * @param timestamp ISO-8601 instant; numeric timestamps are read as missing (see {@link IsoTimestampDeserializer}).
+ * @param temperatureC Outdoor temperature, optional.
+ */
+public record MeterReading(
+        String siteId,
+        @JsonDeserialize(using = IsoTimestampDeserializer.class)
+        Instant timestamp,
+        Double consumptionKwh,
+        Double temperatureC
+) {
+
+    /**
+     * Accepts only ISO-8601 strings. A number is ambiguous (Jackson reads it as epoch seconds, meters
+     * often send epoch millis, which would land tens of thousands of years ahead), so it deserializes
+     * to null and the reading is counted as invalid instead of being guessed.
+     */
+    public static class IsoTimestampDeserializer extends JsonDeserializer<Instant> {
+        @Override
+        public Instant deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT || parser.currentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+                return null;
+            }
+            return InstantDeserializer.INSTANT.deserialize(parser, context);
+        }
+    }
+}
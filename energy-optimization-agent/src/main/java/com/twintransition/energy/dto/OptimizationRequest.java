@@ -2,27 +2,55 @@ package com.twintransition.energy.dto;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Size;
+import jakarta.validation.constraints.Positive;
 
 /**
  * Data Transfer Object (DTO) para a requisição de otimização de energia.
  * Contém os dados de entrada necessários para o Agente Python (ML e Limites).
+ * As séries são {@link TimeSeries} (double[] primitivo) para evitar milhares de Double
+ * por requisição com históricos longos; no JSON continuam sendo arrays de números.
+ * historyIntervalMinutes é opcional: minutos entre os pontos do histórico (nulo = horário).
+ * Históricos mais finos que optimization.resampling.bucket são agregados antes do Agente.
  */
 public record OptimizationRequest(
         
         @NotNull(message = "Historical data cannot be null.")
-        @Size(min = 1, message = "Historical consumption must contain at least one data point.")
-        List<Double> historicalConsumptionKwH,
+        @SeriesSize(min = 1, message = "Historical consumption must contain at least one data point.")
+        TimeSeries historicalConsumptionKwH,
 
         @NotNull(message = "Weather forecast cannot be null.")
-        @Size(min = 1, message = "Weather forecast must contain at least one data point.")
-        List<Double> weatherForecastDegreesC,
+        @SeriesSize(min = 1, message = "Weather forecast must contain at least one data point.")
+        TimeSeries weatherForecastDegreesC,
 
         @NotNull(message = "Optimization limits must be specified.")
         OptimizationLimitsDto limits,
         
         // CORREÇÃO FINAL: Campo de idioma necessário para a lógica Python
         @NotNull(message = "Selected language must be provided.")
-        String selectedLanguage
-) {}
\ No newline at end of file
+        String selectedLanguage,
+
+        @Positive(message = "History interval must be a positive number of minutes.")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Integer historyIntervalMinutes
+) {
+    // Histórico horário (sem historyIntervalMinutes)
+    public OptimizationRequest(
+            TimeSeries historicalConsumptionKwH,
+            TimeSeries weatherForecastDegreesC,
+            OptimizationLimitsDto limits,
+            String selectedLanguage) {
+        this(historicalConsumptionKwH, weatherForecastDegreesC, limits, selectedLanguage, null);
+    }
+
+    // Construtor de conveniência para chamadores que ainda usam listas (ex.: testes)
+    public OptimizationRequest(
+            List<Double> historicalConsumptionKwH,
+            List<Double> weatherForecastDegreesC,
+            OptimizationLimitsDto limits,
+            String selectedLanguage) {
+        this(TimeSeries.fromList(historicalConsumptionKwH), TimeSeries.fromList(weatherForecastDegreesC), limits, selectedLanguage, null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.twintransition.energy.dto;
+
+import java.time.Instant;
+
+/**
+ * One recorded recommendation.
+ * @param inputsHash SHA-256 fingerprint of the normalized request (the recommendation cache key).
+ */
+public record RecommendationHistoryEntry(
+        long id,
+        String siteId,
+        Instant recordedAt,
+        String inputsHash,
+        String recommendationId,
+        double estimatedCostSavingsEur,
+        double estimatedCarbonFootprintReductionKgCO2,
+        String actionableScript
+) {}
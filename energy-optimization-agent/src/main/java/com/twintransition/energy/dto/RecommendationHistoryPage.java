@@ -0,0 +1,12 @@
+package com.twintransition.energy.dto;
+
+import java.util.List;
+
+/**
+ * A page of a site's recommendation history, newest first.
+ * @param nextCursor Opaque cursor of the next (older) page, null on the last page.
+ */
+public record RecommendationHistoryPage(
+        List<RecommendationHistoryEntry> entries,
+        String nextCursor
+) {}
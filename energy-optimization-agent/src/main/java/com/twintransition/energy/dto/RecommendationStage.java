@@ -0,0 +1,19 @@
+package com.twintransition.energy.dto;
+
+/**
+ * One event of a streamed recommendation, in order: a {@code forecast} (the 24-hour demand
+ * forecast), one {@code action} per hour ({@link HourlyAction}), then a {@code summary}
+ * ({@link ApiResponse} of the {@link OptimizationRecommendation}) or an {@code error}
+ * ({@link ApiResponse} without data, with the HTTP status the request would have failed with).
+ * @param stage The event name (the SSE event field).
+ */
+public record RecommendationStage(
+        String stage,
+        Object data
+) {
+
+    public static final String FORECAST = "forecast";
+    public static final String ACTION = "action";
+    public static final String SUMMARY = "summary";
+    public static final String ERROR = "error";
+}
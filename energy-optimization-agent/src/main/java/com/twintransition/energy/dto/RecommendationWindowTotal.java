@@ -0,0 +1,13 @@
+package com.twintransition.energy.dto;
+
+import java.time.Instant;
+
+/**
+ * Totals of the recommendations recorded in one time window; windows without any are omitted.
+ */
+public record RecommendationWindowTotal(
+        Instant windowStart,
+        long recommendations,
+        double estimatedCostSavingsEur,
+        double estimatedCarbonFootprintReductionKgCO2
+) {}
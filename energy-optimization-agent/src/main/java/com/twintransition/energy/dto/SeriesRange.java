@@ -0,0 +1,18 @@
+package com.twintransition.energy.dto;
+
+/**
+ * Slice of a site's stored history, one array per column, ordered by time.
+ * @param timestamps Reading timestamps in epoch milliseconds.
+ * @param consumptionKwh Consumption of each reading.
+ * @param temperatureC Temperature of each reading (NaN when it was not recorded).
+ */
+public record SeriesRange(
+        String siteId,
+        long[] timestamps,
+        TimeSeries consumptionKwh,
+        TimeSeries temperatureC
+) {
+    public int size() {
+        return timestamps.length;
+    }
+}
@@ -0,0 +1,50 @@
+package com.twintransition.energy.dto;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+
+/**
+ * Equivalent of {@code @Size} for {@link TimeSeries}: checks the number of points
+ * without touching (or boxing) the values. A null series is valid; combine with {@code @NotNull}.
+ */
+@Documented
+@Constraint(validatedBy = SeriesSize.Validator.class)
+@Target({ ElementType.FIELD, ElementType.PARAMETER, ElementType.RECORD_COMPONENT, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SeriesSize {
+
+    String message() default "Time series size is out of bounds.";
+
+    int min() default 0;
+
+    int max() default Integer.MAX_VALUE;
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    class Validator implements ConstraintValidator<SeriesSize, TimeSeries> {
+
+        private int min;
+        private int max;
+
+        @Override
+        public void initialize(SeriesSize annotation) {
+            this.min = annotation.min();
+            this.max = annotation.max();
+        }
+
+        @Override
+        public boolean isValid(TimeSeries series, ConstraintValidatorContext context) {
+            return series == null || (series.size() >= min && series.size() <= max);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.twintransition.energy.dto;
+
+import java.time.Instant;
+
+/**
+ * 24-hour demand forecast served from the online forecaster state of a site.
+ * @param forecastKwh Forecast consumption for hours 0..23 (in the forecaster time zone).
+ * @param readingCount Number of readings absorbed so far.
+ * @param lastReadingAt Timestamp of the most recent reading.
+ */
+public record SiteForecastDto(
+        String siteId,
+        double[] forecastKwh,
+        long readingCount,
+        Instant lastReadingAt
+) {}
@@ -0,0 +1,30 @@
+package com.twintransition.energy.dto;
+
+import java.time.Instant;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Optimization request whose historical consumption is read from the series store
+ * instead of being sent inline.
+ * @param from Start of the history range (inclusive).
+ * @param to End of the history range (exclusive).
+ * @param weatherForecastDegreesC Optional; defaults to the last 24 stored temperatures of the range.
+ */
+public record SiteHistoryOptimizationRequest(
+        @NotNull(message = "History start must be provided.")
+        Instant from,
+
+        @NotNull(message = "History end must be provided.")
+        Instant to,
+
+        TimeSeries weatherForecastDegreesC,
+
+        @Valid
+        @NotNull(message = "Optimization limits must be specified.")
+        OptimizationLimitsDto limits,
+
+        @NotNull(message = "Selected language must be provided.")
+        String selectedLanguage
+) {}
@@ -0,0 +1,19 @@
+package com.twintransition.energy.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One keyed entry of a batch request: the site it belongs to and its optimization input.
+ * The nested request is validated per item by the batch service, so an invalid site
+ * is reported in its own result instead of failing the whole batch.
+ */
+public record SiteOptimizationRequest(
+        @NotBlank(message = "Site id is required.")
+        String siteId,
+
+        @Valid
+        @NotNull(message = "Optimization request must be provided.")
+        OptimizationRequest request
+) {}
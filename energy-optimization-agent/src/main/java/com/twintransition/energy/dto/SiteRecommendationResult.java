@@ -0,0 +1,18 @@
+package com.twintransition.energy.dto;
+
+/**
+ * Per-site outcome of a batch: either a recommendation or an error message.
+ */
+public record SiteRecommendationResult(
+        String siteId,
+        OptimizationRecommendation recommendation,
+        String error
+) {
+    public static SiteRecommendationResult success(String siteId, OptimizationRecommendation recommendation) {
+        return new SiteRecommendationResult(siteId, recommendation, null);
+    }
+
+    public static SiteRecommendationResult failure(String siteId, String error) {
+        return new SiteRecommendationResult(siteId, null, error);
+    }
+}
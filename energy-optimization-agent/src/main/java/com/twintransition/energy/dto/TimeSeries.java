@@ -0,0 +1,170 @@
+package com.twintransition.energy.dto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Compact, immutable time series backed by a primitive double[].
+ * In JSON it stays a plain array of numbers; the custom (de)serializers stream tokens straight
+ * into and out of the array, so no boxed Double is ever allocated. In formats with native
+ * binary values (CBOR) it is written as one byte string of packed little-endian doubles.
+ */
+@JsonSerialize(using = TimeSeries.Serializer.class)
+@JsonDeserialize(using = TimeSeries.Deserializer.class)
+public final class TimeSeries {
+
+    private static final double[] EMPTY = new double[0];
+
+    private final double[] values;
+
+    private TimeSeries(double[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Creates a series from a copy of the given values.
+     */
+    public static TimeSeries of(double... values) {
+        return new TimeSeries(values.clone());
+    }
+
+    /**
+     * Creates a series that takes ownership of the array (the caller must not modify it afterwards).
+     */
+    public static TimeSeries wrap(double[] values) {
+        return new TimeSeries(values);
+    }
+
+    /**
+     * Bridge for callers still holding boxed lists; returns null for a null list.
+     */
+    public static TimeSeries fromList(List<Double> values) {
+        if (values == null) {
+            return null;
+        }
+        double[] array = new double[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return new TimeSeries(array);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public double get(int index) {
+        return values[index];
+    }
+
+    /**
+     * The backing array, exposed for allocation-free reads. It must not be modified.
+     */
+    public double[] array() {
+        return values;
+    }
+
+    public double[] toArray() {
+        return values.clone();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof TimeSeries series && Arrays.equals(values, series.values));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return values.length <= 8
+                ? Arrays.toString(values)
+                : "TimeSeries[size=" + values.length + "]";
+    }
+
+    /**
+     * Packs the values as little-endian IEEE 754 doubles (8 bytes per point).
+     */
+    public byte[] toLittleEndianBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asDoubleBuffer().put(values);
+        return buffer.array();
+    }
+
+    /**
+     * Reads a series packed by {@link #toLittleEndianBytes()}.
+     */
+    public static TimeSeries fromLittleEndianBytes(byte[] bytes) {
+        if (bytes.length % Double.BYTES != 0) {
+            throw new IllegalArgumentException("Packed time series length must be a multiple of 8 bytes.");
+        }
+        double[] values = new double[bytes.length / Double.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values);
+        return new TimeSeries(values);
+    }
+
+    /**
+     * Writes the series as an array of numbers, or as packed doubles when the format has native binary values.
+     */
+    public static class Serializer extends JsonSerializer<TimeSeries> {
+        @Override
+        public void serialize(TimeSeries series, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            if (gen.canWriteBinaryNatively()) {
+                gen.writeBinary(series.toLittleEndianBytes());
+            } else {
+                gen.writeArray(series.values, 0, series.values.length);
+            }
+        }
+    }
+
+    /**
+     * Reads an array of numbers directly into a growing double[], or a packed binary value.
+     */
+    public static class Deserializer extends JsonDeserializer<TimeSeries> {
+        @Override
+        public TimeSeries deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_EMBEDDED_OBJECT) {
+                byte[] packed = parser.getBinaryValue();
+                if (packed.length % Double.BYTES != 0) {
+                    return (TimeSeries) context.handleWeirdNativeValue(context.constructType(TimeSeries.class), packed, parser);
+                }
+                return fromLittleEndianBytes(packed);
+            }
+            if (!parser.isExpectedStartArrayToken()) {
+                return (TimeSeries) context.handleUnexpectedToken(TimeSeries.class, parser);
+            }
+
+            double[] buffer = EMPTY;
+            int size = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT) {
+                    return (TimeSeries) context.handleUnexpectedToken(TimeSeries.class, token, parser,
+                            "Time series values must be numbers.");
+                }
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.max(16, size + (size >> 1)));
+                }
+                // Fast parsing comes from StreamReadFeature.USE_FAST_DOUBLE_PARSER (spring.jackson.parser.use-fast-double-parser)
+                buffer[size++] = parser.getDoubleValue();
+            }
+            return new TimeSeries(size == buffer.length ? buffer : Arrays.copyOf(buffer, size));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.twintransition.energy.service;
+
+import java.util.Locale;
+
+/**
+ * Priority lanes of the {@link AdmissionLimiter}: when a slot frees up, the waiting request of the
+ * highest-priority lane gets it, so interactive traffic is served ahead of bulk work.
+ */
+public enum AdmissionLane {
+
+    /** Requests of a user waiting on the UI ({@code /recommend}, site recommendations). */
+    INTERACTIVE,
+
+    /** Portfolio batches ({@code /recommend/batch}). */
+    BATCH,
+
+    /** Scheduled fleet re-optimization runs. */
+    SCHEDULED;
+
+    /**
+     * Lower-case name used in stats, metric tags and error bodies.
+     */
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,435 @@
+package com.twintransition.energy.service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Concurrency limit in front of the recommendation computation ({@code optimization.admission}).
+ *
+ * <ul>
+ *   <li>Limit: fixed ({@code mode=fixed}) or adaptive AIMD ({@code mode=adaptive}). The adaptive limit
+ *       grows by one per window of successful calls while they stay under {@code latency-tolerance}
+ *       times the lowest recent latency, and is multiplied by {@code backoff-ratio} when latency goes
+ *       past that or the agent reports overload (no response, 429, 502-504), at most once per latency.</li>
+ *   <li>Lanes: requests wait in one FIFO queue per {@link AdmissionLane}; a freed slot goes to the
+ *       highest-priority lane. Batch and scheduled work together never hold more than
+ *       {@code background-share} of the limit, so interactive requests always find headroom.</li>
+ *   <li>Rejection: a request whose lane queue is full, or that waited longer than the lane's
+ *       {@code max-wait}, fails fast with {@link AdmissionRejectedException} (429 with Retry-After).</li>
+ * </ul>
+ */
+@Component
+public class AdmissionLimiter {
+
+    private static final int LATENCY_WINDOW = 256;
+
+    private enum Completion { SUCCESS, OVERLOAD, FAILURE, CANCELLED }
+
+    private enum WaiterState { WAITING, GRANTED, CANCELLED, EXPIRED, REJECTED }
+
+    private final Settings settings;
+    private final LongSupplier clock;
+    private final Scheduler timer = Schedulers.parallel();
+    private final Map<AdmissionLane, Lane> lanes = new EnumMap<>(AdmissionLane.class);
+
+    // Guarded by this
+    private double limit;
+    private int inFlight;
+    private int backgroundInFlight;
+    private double averageLatencyNanos;
+    private long windowMinLatencyNanos = Long.MAX_VALUE;
+    private long previousMinLatencyNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private long lastDecreaseNanos;
+    private long limitIncreases;
+    private long limitDecreases;
+
+    @Autowired
+    public AdmissionLimiter(
+            @Value("${optimization.admission.enabled:true}") boolean enabled,
+            @Value("${optimization.admission.mode:adaptive}") String mode,
+            @Value("${optimization.admission.initial-limit:20}") int initialLimit,
+            @Value("${optimization.admission.min-limit:2}") int minLimit,
+            @Value("${optimization.admission.max-limit:200}") int maxLimit,
+            @Value("${optimization.admission.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${optimization.admission.latency-tolerance:2.0}") double latencyTolerance,
+            @Value("${optimization.admission.background-share:0.75}") double backgroundShare,
+            @Value("${optimization.admission.lanes.interactive.max-queue:100}") int interactiveMaxQueue,
+            @Value("${optimization.admission.lanes.interactive.max-wait:PT0.5S}") Duration interactiveMaxWait,
+            @Value("${optimization.admission.lanes.batch.max-queue:1000}") int batchMaxQueue,
+            @Value("${optimization.admission.lanes.batch.max-wait:PT30S}") Duration batchMaxWait,
+            @Value("${optimization.admission.lanes.scheduled.max-queue:1000}") int scheduledMaxQueue,
+            @Value("${optimization.admission.lanes.scheduled.max-wait:PT30S}") Duration scheduledMaxWait,
+            OptimizationMetrics metrics) {
+        this(new Settings(enabled, parseMode(mode), initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance,
+                backgroundShare, Map.of(
+                        AdmissionLane.INTERACTIVE, new LaneSettings(interactiveMaxQueue, interactiveMaxWait),
+                        AdmissionLane.BATCH, new LaneSettings(batchMaxQueue, batchMaxWait),
+                        AdmissionLane.SCHEDULED, new LaneSettings(scheduledMaxQueue, scheduledMaxWait))),
+                System::nanoTime);
+        metrics.registerAdmission(this);
+    }
+
+    AdmissionLimiter(Settings settings, LongSupplier clock) {
+        if (settings.minLimit() < 1 || settings.initialLimit() < settings.minLimit()
+                || settings.maxLimit() < settings.initialLimit()) {
+            throw new IllegalArgumentException("Admission limits must satisfy 1 <= min-limit <= initial-limit <= max-limit.");
+        }
+        this.settings = settings;
+        this.clock = clock;
+        this.limit = settings.initialLimit();
+        for (AdmissionLane lane : AdmissionLane.values()) {
+            lanes.put(lane, new Lane(lane, settings.lanes().get(lane)));
+        }
+    }
+
+    /**
+     * A limiter that admits everything immediately, for callers that build the service by hand.
+     */
+    public static AdmissionLimiter unlimited() {
+        LaneSettings lane = new LaneSettings(0, Duration.ZERO);
+        return new AdmissionLimiter(new Settings(false, false, 1, 1, 1, 1.0, 1.0, 1.0,
+                Map.of(AdmissionLane.INTERACTIVE, lane, AdmissionLane.BATCH, lane, AdmissionLane.SCHEDULED, lane)),
+                System::nanoTime);
+    }
+
+    private static boolean parseMode(String mode) {
+        return switch (mode.trim().toLowerCase(Locale.ROOT)) {
+            case "adaptive" -> true;
+            case "fixed" -> false;
+            default -> throw new IllegalArgumentException("Unknown admission mode: " + mode);
+        };
+    }
+
+    public boolean isEnabled() {
+        return settings.enabled();
+    }
+
+    /**
+     * Runs the work once a slot of the lane is free.
+     * @param lane Priority lane of the caller.
+     * @param work Supplier of the computation, invoked only once admitted.
+     * @throws AdmissionRejectedException (in the Mono) when the lane queue is full or the wait runs out.
+     */
+    public <T> Mono<T> admit(AdmissionLane lane, Supplier<Mono<T>> work) {
+        if (!settings.enabled()) {
+            return Mono.defer(work);
+        }
+        Lane state = lanes.get(lane);
+        // The slot is released before the signal travels downstream (unlike doFinally),
+        // so a caller that issues its next request right away finds it free
+        return acquire(state).flatMap(start -> Mono.defer(work)
+                .doOnSuccess(value -> release(state, start, Completion.SUCCESS))
+                .doOnError(error -> release(state, start, isOverload(error) ? Completion.OVERLOAD : Completion.FAILURE))
+                .doOnCancel(() -> release(state, start, Completion.CANCELLED)));
+    }
+
+    /**
+     * Emits the grant time once the request holds a slot.
+     */
+    private Mono<Long> acquire(Lane lane) {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(lane, sink);
+            // Only called when cancelled before the grant reached the subscriber: a granted slot is then unused
+            sink.onCancel(() -> cancel(waiter));
+            List<Waiter> granted;
+            boolean waiting;
+            long retryAfter = 0;
+            synchronized (this) {
+                lane.queue.addLast(waiter);
+                granted = drain();
+                if (waiter.state == WaiterState.WAITING && lane.queue.size() > lane.settings.maxQueue()) {
+                    lane.queue.removeLastOccurrence(waiter);
+                    waiter.state = WaiterState.REJECTED;
+                    lane.rejected++;
+                    retryAfter = retryAfterSeconds();
+                }
+                waiting = waiter.state == WaiterState.WAITING;
+            }
+            deliver(granted);
+            if (waiter.state == WaiterState.REJECTED) {
+                sink.error(new AdmissionRejectedException(lane.lane, "queue full", retryAfter));
+            } else if (waiting) {
+                waiter.expiry = timer.schedule(() -> expire(waiter),
+                        lane.settings.maxWait().toNanos(), TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    /**
+     * Hands free slots to waiting requests, highest-priority lane first (EnumMap iterates in declaration order).
+     */
+    private List<Waiter> drain() {
+        List<Waiter> granted = null;
+        for (Lane lane : lanes.values()) {
+            while (!lane.queue.isEmpty() && canStart(lane.lane)) {
+                Waiter waiter = lane.queue.pollFirst();
+                waiter.state = WaiterState.GRANTED;
+                waiter.grantedAt = clock.getAsLong();
+                inFlight++;
+                lane.inFlight++;
+                lane.admitted++;
+                if (lane.lane != AdmissionLane.INTERACTIVE) {
+                    backgroundInFlight++;
+                }
+                if (granted == null) {
+                    granted = new ArrayList<>();
+                }
+                granted.add(waiter);
+            }
+        }
+        return granted;
+    }
+
+    private boolean canStart(AdmissionLane lane) {
+        int current = currentLimit();
+        return inFlight < current
+                && (lane == AdmissionLane.INTERACTIVE
+                    || backgroundInFlight < Math.max(1, (int) (current * settings.backgroundShare())));
+    }
+
+    private static void deliver(List<Waiter> granted) {
+        if (granted == null) {
+            return;
+        }
+        for (Waiter waiter : granted) {
+            Disposable expiry = waiter.expiry;
+            if (expiry != null) {
+                expiry.dispose();
+            }
+            waiter.sink.success(waiter.grantedAt);
+        }
+    }
+
+    private void cancel(Waiter waiter) {
+        Lane lane = waiter.lane;
+        synchronized (this) {
+            if (waiter.state == WaiterState.WAITING) {
+                lane.queue.remove(waiter);
+                waiter.state = WaiterState.CANCELLED;
+                return;
+            }
+            if (waiter.state != WaiterState.GRANTED) {
+                return;
+            }
+        }
+        release(lane, waiter.grantedAt, Completion.CANCELLED);
+    }
+
+    private void expire(Waiter waiter) {
+        Lane lane = waiter.lane;
+        long retryAfter;
+        synchronized (this) {
+            if (waiter.state != WaiterState.WAITING) {
+                return;
+            }
+            lane.queue.remove(waiter);
+            waiter.state = WaiterState.EXPIRED;
+            lane.rejected++;
+            retryAfter = retryAfterSeconds();
+        }
+        waiter.sink.error(new AdmissionRejectedException(lane.lane,
+                "no slot within " + lane.settings.maxWait().toMillis() + " ms", retryAfter));
+    }
+
+    private void release(Lane lane, long start, Completion completion) {
+        long now = clock.getAsLong();
+        List<Waiter> granted;
+        synchronized (this) {
+            int wasInFlight = inFlight;
+            inFlight--;
+            lane.inFlight--;
+            if (lane.lane != AdmissionLane.INTERACTIVE) {
+                backgroundInFlight--;
+            }
+            adjust(completion, now - start, now, wasInFlight);
+            granted = drain();
+        }
+        deliver(granted);
+    }
+
+    /**
+     * AIMD step; also keeps the average latency used for the Retry-After hint.
+     */
+    private void adjust(Completion completion, long latency, long now, int wasInFlight) {
+        if (completion == Completion.SUCCESS) {
+            averageLatencyNanos = averageLatencyNanos == 0 ? latency : 0.9 * averageLatencyNanos + 0.1 * latency;
+            windowMinLatencyNanos = Math.min(windowMinLatencyNanos, latency);
+            if (++windowSamples == LATENCY_WINDOW) {
+                previousMinLatencyNanos = windowMinLatencyNanos;
+                windowMinLatencyNanos = Long.MAX_VALUE;
+                windowSamples = 0;
+            }
+        }
+        if (!settings.adaptive() || completion == Completion.CANCELLED || completion == Completion.FAILURE) {
+            return;
+        }
+        long noLoadLatency = Math.min(windowMinLatencyNanos, previousMinLatencyNanos);
+        if (completion == Completion.OVERLOAD || latency > noLoadLatency * settings.latencyTolerance()) {
+            // One decrease per observed latency: the calls already in flight carry the same congestion signal
+            if (lastDecreaseNanos == 0 || now - lastDecreaseNanos >= latency) {
+                limit = Math.max(settings.minLimit(), limit * settings.backoffRatio());
+                lastDecreaseNanos = now;
+                limitDecreases++;
+            }
+        } else if (wasInFlight * 2 >= limit && limit < settings.maxLimit()) {
+            // Only grow a limit that is actually in use
+            limit = Math.min(settings.maxLimit(), limit + 1.0 / limit);
+            limitIncreases++;
+        }
+    }
+
+    /**
+     * Agent answers that mean "too much load" rather than a bad request.
+     */
+    private static boolean isOverload(Throwable error) {
+        if (!(error instanceof AgentException agentError)) {
+            return false;
+        }
+        int status = agentError.getStatusCode();
+        return status == 0 || status == 429 || status == 502 || status == 503 || status == 504;
+    }
+
+    /**
+     * Time to drain everything queued at the current limit and latency, between 1 and 60 seconds.
+     */
+    private long retryAfterSeconds() {
+        int queued = 0;
+        for (Lane lane : lanes.values()) {
+            queued += lane.queue.size();
+        }
+        double latencyNanos = averageLatencyNanos > 0 ? averageLatencyNanos : TimeUnit.SECONDS.toNanos(1);
+        double seconds = (queued + 1) * latencyNanos / currentLimit() / TimeUnit.SECONDS.toNanos(1);
+        return Math.max(1, Math.min(60, (long) Math.ceil(seconds)));
+    }
+
+    private int currentLimit() {
+        return Math.max(settings.minLimit(), (int) limit);
+    }
+
+    public synchronized int getLimit() {
+        return currentLimit();
+    }
+
+    public synchronized int queued(AdmissionLane lane) {
+        return lanes.get(lane).queue.size();
+    }
+
+    public synchronized int inFlight(AdmissionLane lane) {
+        return lanes.get(lane).inFlight;
+    }
+
+    public synchronized long admitted(AdmissionLane lane) {
+        return lanes.get(lane).admitted;
+    }
+
+    public synchronized long rejected(AdmissionLane lane) {
+        return lanes.get(lane).rejected;
+    }
+
+    public synchronized Stats stats() {
+        Map<String, LaneStats> laneStats = new LinkedHashMap<>();
+        for (Lane lane : lanes.values()) {
+            laneStats.put(lane.lane.tag(), new LaneStats(lane.inFlight, lane.queue.size(), lane.admitted, lane.rejected));
+        }
+        return new Stats(settings.enabled(), settings.adaptive() ? "adaptive" : "fixed", currentLimit(), inFlight,
+                TimeUnit.NANOSECONDS.toMillis((long) averageLatencyNanos), limitIncreases, limitDecreases, laneStats);
+    }
+
+    private static final class Lane {
+
+        final AdmissionLane lane;
+        final LaneSettings settings;
+        final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+        int inFlight;
+        long admitted;
+        long rejected;
+
+        Lane(AdmissionLane lane, LaneSettings settings) {
+            this.lane = lane;
+            this.settings = settings;
+        }
+    }
+
+    private static final class Waiter {
+
+        final Lane lane;
+        final MonoSink<Long> sink;
+        WaiterState state = WaiterState.WAITING;
+        long grantedAt;
+        volatile Disposable expiry;
+
+        Waiter(Lane lane, MonoSink<Long> sink) {
+            this.lane = lane;
+            this.sink = sink;
+        }
+    }
+
+    /**
+     * @param adaptive AIMD limit when true, {@code initialLimit} forever otherwise.
+     * @param backgroundShare Fraction of the limit that batch and scheduled requests may hold together.
+     */
+    record Settings(
+            boolean enabled,
+            boolean adaptive,
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            double backoffRatio,
+            double latencyTolerance,
+            double backgroundShare,
+            Map<AdmissionLane, LaneSettings> lanes
+    ) {}
+
+    /**
+     * @param maxQueue Requests of the lane allowed to wait for a slot (0 = never wait).
+     * @param maxWait Longest a request of the lane waits before being rejected.
+     */
+    record LaneSettings(int maxQueue, Duration maxWait) {}
+
+    /**
+     * Snapshot of the admission state.
+     * @param averageLatencyMs Moving average latency of admitted calls, source of the Retry-After hint.
+     * @param limitIncreases Additive increases of the adaptive limit.
+     * @param limitDecreases Multiplicative decreases of the adaptive limit.
+     */
+    public record Stats(
+            boolean enabled,
+            String mode,
+            int limit,
+            int inFlight,
+            long averageLatencyMs,
+            long limitIncreases,
+            long limitDecreases,
+            Map<String, LaneStats> lanes
+    ) {}
+
+    /**
+     * @param rejected Requests turned away with 429 (queue full or wait expired).
+     */
+    public record LaneStats(
+            int inFlight,
+            int queued,
+            long admitted,
+            long rejected
+    ) {}
+}
@@ -0,0 +1,25 @@
+package com.twintransition.energy.service;
+
+/**
+ * Thrown when the admission limiter turns a recommendation request away: its lane queue is full,
+ * or no slot freed up within the lane's maximum wait. The client should retry after the hint.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final AdmissionLane lane;
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(AdmissionLane lane, String reason, long retryAfterSeconds) {
+        super("Too many concurrent recommendation requests (" + lane.tag() + " lane, " + reason + ").");
+        this.lane = lane;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public AdmissionLane getLane() {
+        return lane;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
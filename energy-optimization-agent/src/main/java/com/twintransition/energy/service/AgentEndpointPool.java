@@ -0,0 +1,373 @@
+package com.twintransition.energy.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Set of interchangeable optimization agent instances ({@code optimization.agent.base-urls}).
+ *
+ * <ul>
+ *   <li>Balancing: each call goes to the healthy instance with the fewest outstanding requests
+ *       (ties rotate), so a worker stuck on a slow pandas/sklearn job stops receiving traffic.</li>
+ *   <li>Circuit breaker: after {@code failure-threshold} consecutive failures (5xx or no response)
+ *       an instance is ejected for {@code open-duration}, then gets a single trial call.</li>
+ *   <li>Hedging (optional): when the first instance has not answered within the observed
+ *       {@code percentile} latency, a duplicate goes to another instance and the first answer wins.
+ *       A failed first attempt is thereby retried on another instance once the delay elapses.</li>
+ * </ul>
+ */
+@Component
+public class AgentEndpointPool {
+
+    private static final int LATENCY_WINDOW = 1024;
+    private static final int MIN_LATENCY_SAMPLES = 100;
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final List<Endpoint> endpoints;
+    private final Settings settings;
+    private final LongSupplier clock;
+    private final AtomicInteger rotation = new AtomicInteger();
+    private final AtomicLong hedgesSent = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    // Recent successful call latencies (ns), source of the hedge delay
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private long latencyCount;
+    private volatile long hedgeDelayNanos;
+
+    @Autowired
+    public AgentEndpointPool(
+            WebClient.Builder webClientBuilder,
+            @Value("${optimization.agent.base-urls:${optimization.agent.base-url}}") String[] baseUrls,
+            @Value("${optimization.agent.hedging.enabled:false}") boolean hedgingEnabled,
+            @Value("${optimization.agent.hedging.percentile:0.95}") double hedgePercentile,
+            @Value("${optimization.agent.hedging.initial-delay:PT1S}") Duration initialHedgeDelay,
+            @Value("${optimization.agent.hedging.min-delay:PT0.02S}") Duration minHedgeDelay,
+            @Value("${optimization.agent.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${optimization.agent.circuit-breaker.open-duration:PT10S}") Duration openDuration) {
+        this(clients(webClientBuilder, baseUrls), new Settings(hedgingEnabled, hedgePercentile, initialHedgeDelay,
+                minHedgeDelay, failureThreshold, openDuration), System::nanoTime);
+    }
+
+    AgentEndpointPool(List<Endpoint> endpoints, Settings settings, LongSupplier clock) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one optimization agent URL is required.");
+        }
+        this.endpoints = List.copyOf(endpoints);
+        this.settings = settings;
+        this.clock = clock;
+        this.hedgeDelayNanos = settings.initialHedgeDelay().toNanos();
+    }
+
+    /**
+     * Pool of a single instance, without hedging, for callers that build the service by hand.
+     */
+    public static AgentEndpointPool single(String baseUrl, WebClient webClient) {
+        return new AgentEndpointPool(List.of(new Endpoint(baseUrl, webClient)),
+                new Settings(false, 0.95, Duration.ofSeconds(1), Duration.ZERO, 5, Duration.ofSeconds(10)), System::nanoTime);
+    }
+
+    private static List<Endpoint> clients(WebClient.Builder webClientBuilder, String[] baseUrls) {
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (String baseUrl : baseUrls) {
+            String url = baseUrl.trim();
+            if (!url.isEmpty()) {
+                // build() snapshots the current base URL, so the shared builder can be reused
+                endpoints.add(new Endpoint(url, webClientBuilder.baseUrl(url).build()));
+            }
+        }
+        return endpoints;
+    }
+
+    /**
+     * Runs the call against the least loaded healthy instance, hedging it when enabled.
+     * @param call The request to send, given the instance's WebClient.
+     * @throws AgentException (in the Mono) when every instance is ejected.
+     */
+    public <T> Mono<T> execute(Function<WebClient, Mono<T>> call) {
+        return Mono.defer(() -> {
+            Endpoint primary = select(null);
+            if (primary == null) {
+                rejected.incrementAndGet();
+                return Mono.error(new AgentException("All optimization agent instances are unavailable.", 0));
+            }
+            Mono<T> first = attempt(primary, call);
+            if (!settings.hedgingEnabled() || endpoints.size() < 2) {
+                return first;
+            }
+            Mono<T> hedge = Mono.defer(() -> {
+                Endpoint secondary = select(primary);
+                if (secondary == null) {
+                    return Mono.<T>empty();
+                }
+                hedgesSent.incrementAndGet();
+                return attempt(secondary, call);
+            }).delaySubscription(Duration.ofNanos(hedgeDelayNanos));
+
+            // A rejected request (4xx) would be rejected by any instance: it ends the race at once
+            // and cancels the other attempt, instead of waiting for it
+            return Mono.firstWithValue(decisive(first), decisive(hedge))
+                    .onErrorMap(NoSuchElementException.class, AgentEndpointPool::firstCause)
+                    .flatMap(Outcome::toMono);
+        });
+    }
+
+    /**
+     * Turns non-instance errors into values, so that firstWithValue takes them as the winner.
+     */
+    private static <T> Mono<Outcome<T>> decisive(Mono<T> attempt) {
+        return attempt.map(value -> new Outcome<T>(value, null))
+                .onErrorResume(error -> !isInstanceFailure(error), error -> Mono.just(new Outcome<>(null, error)));
+    }
+
+    private record Outcome<T>(T value, Throwable error) {
+
+        Mono<T> toMono() {
+            return error == null ? Mono.just(value) : Mono.error(error);
+        }
+    }
+
+    /**
+     * firstWithValue reports "no value" with the sources' errors as suppressed: surface the primary's.
+     */
+    private static Throwable firstCause(NoSuchElementException error) {
+        return Arrays.stream(error.getSuppressed()).findFirst().orElse(error);
+    }
+
+    private <T> Mono<T> attempt(Endpoint endpoint, Function<WebClient, Mono<T>> call) {
+        return Mono.defer(() -> {
+            long start = clock.getAsLong();
+            endpoint.outstanding.incrementAndGet();
+            endpoint.requests.incrementAndGet();
+            // The slot is released before the signal travels downstream (unlike doFinally),
+            // so a caller that issues its next request right away sees the updated load
+            return call.apply(endpoint.webClient)
+                    .doOnSuccess(value -> {
+                        endpoint.outstanding.decrementAndGet();
+                        endpoint.onSuccess();
+                        recordLatency(clock.getAsLong() - start);
+                    })
+                    .doOnError(error -> {
+                        endpoint.outstanding.decrementAndGet();
+                        if (isInstanceFailure(error)) {
+                            endpoint.onFailure(clock.getAsLong(), settings);
+                        } else {
+                            endpoint.onSuccess();
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        endpoint.outstanding.decrementAndGet();
+                        endpoint.onCancel();
+                    });
+        });
+    }
+
+    /**
+     * A 4xx means the request itself is wrong: it says nothing about the instance's health.
+     */
+    private static boolean isInstanceFailure(Throwable error) {
+        return !(error instanceof AgentException agentError)
+                || agentError.getStatusCode() == 0 || agentError.getStatusCode() >= 500;
+    }
+
+    /**
+     * Healthy instance with the fewest outstanding requests, scanning from a rotating offset
+     * so that ties are spread evenly.
+     */
+    Endpoint select(Endpoint excluded) {
+        long now = clock.getAsLong();
+        int size = endpoints.size();
+        int offset = Math.floorMod(rotation.getAndIncrement(), size);
+        Endpoint best = null;
+        int bestOutstanding = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Endpoint candidate = endpoints.get((offset + i) % size);
+            if (candidate == excluded || !candidate.isAvailable(now)) {
+                continue;
+            }
+            int outstanding = candidate.outstanding.get();
+            if (outstanding < bestOutstanding) {
+                best = candidate;
+                bestOutstanding = outstanding;
+            }
+        }
+        if (best != null && !best.tryAcquire(now)) {
+            // Half-open instance whose single trial slot was just taken: look again without it
+            return endpoints.size() > 1 ? selectExcluding(excluded, best, now) : null;
+        }
+        return best;
+    }
+
+    private Endpoint selectExcluding(Endpoint excluded, Endpoint busy, long now) {
+        Endpoint best = null;
+        for (Endpoint candidate : endpoints) {
+            if (candidate != excluded && candidate != busy && candidate.isAvailable(now)
+                    && (best == null || candidate.outstanding.get() < best.outstanding.get())) {
+                best = candidate;
+            }
+        }
+        return best != null && best.tryAcquire(now) ? best : null;
+    }
+
+    private void recordLatency(long nanos) {
+        if (!settings.hedgingEnabled()) {
+            return;
+        }
+        long[] snapshot = null;
+        synchronized (latencies) {
+            latencies[(int) (latencyCount % LATENCY_WINDOW)] = nanos;
+            latencyCount++;
+            if (latencyCount >= MIN_LATENCY_SAMPLES && latencyCount % RECOMPUTE_EVERY == 0) {
+                snapshot = Arrays.copyOf(latencies, (int) Math.min(latencyCount, LATENCY_WINDOW));
+            }
+        }
+        if (snapshot != null) {
+            Arrays.sort(snapshot);
+            long percentile = snapshot[(int) Math.min(snapshot.length - 1, Math.ceil(settings.hedgePercentile() * snapshot.length) - 1)];
+            hedgeDelayNanos = Math.max(settings.minHedgeDelay().toNanos(), percentile);
+        }
+    }
+
+    public Stats stats() {
+        long now = clock.getAsLong();
+        List<EndpointStats> endpointStats = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            endpointStats.add(new EndpointStats(endpoint.baseUrl, endpoint.state(now).name(), endpoint.outstanding.get(),
+                    endpoint.requests.get(), endpoint.failures.get(), endpoint.ejections.get()));
+        }
+        return new Stats(endpointStats, settings.hedgingEnabled(), Duration.ofNanos(hedgeDelayNanos).toMillis(),
+                hedgesSent.get(), rejected.get());
+    }
+
+    /**
+     * Pool behaviour; see the class comment.
+     */
+    record Settings(
+            boolean hedgingEnabled,
+            double hedgePercentile,
+            Duration initialHedgeDelay,
+            Duration minHedgeDelay,
+            int failureThreshold,
+            Duration openDuration
+    ) {}
+
+    enum BreakerState { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * One agent instance with its load counter and circuit breaker.
+     */
+    static final class Endpoint {
+
+        private final String baseUrl;
+        private final WebClient webClient;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong ejections = new AtomicLong();
+
+        // Circuit breaker state, guarded by 'this'
+        private int consecutiveFailures;
+        private long openUntil;
+        private boolean open;
+        private boolean trialInFlight;
+
+        Endpoint(String baseUrl, WebClient webClient) {
+            this.baseUrl = baseUrl;
+            this.webClient = webClient;
+        }
+
+        synchronized BreakerState state(long now) {
+            if (!open) {
+                return BreakerState.CLOSED;
+            }
+            return now - openUntil >= 0 ? BreakerState.HALF_OPEN : BreakerState.OPEN;
+        }
+
+        synchronized boolean isAvailable(long now) {
+            BreakerState state = state(now);
+            return state == BreakerState.CLOSED || (state == BreakerState.HALF_OPEN && !trialInFlight);
+        }
+
+        /**
+         * Claims the call: always granted when closed, only one trial at a time when half-open.
+         */
+        synchronized boolean tryAcquire(long now) {
+            BreakerState state = state(now);
+            if (state == BreakerState.CLOSED) {
+                return true;
+            }
+            if (state == BreakerState.HALF_OPEN && !trialInFlight) {
+                trialInFlight = true;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void onSuccess() {
+            consecutiveFailures = 0;
+            open = false;
+            trialInFlight = false;
+        }
+
+        /**
+         * A cancelled call (e.g. the losing side of a hedge) proves nothing: free the trial slot.
+         */
+        synchronized void onCancel() {
+            trialInFlight = false;
+        }
+
+        synchronized void onFailure(long now, Settings settings) {
+            failures.incrementAndGet();
+            consecutiveFailures++;
+            if (trialInFlight || consecutiveFailures >= settings.failureThreshold()) {
+                if (!open || trialInFlight) {
+                    ejections.incrementAndGet();
+                }
+                open = true;
+                trialInFlight = false;
+                openUntil = now + settings.openDuration().toNanos();
+            }
+        }
+    }
+
+    /**
+     * Snapshot of the pool counters.
+     * @param hedgeDelayMs Current hedge delay (observed percentile latency, or the initial delay).
+     * @param hedgesSent Duplicate requests sent to a second instance.
+     * @param rejected Calls refused because every instance was ejected.
+     */
+    public record Stats(
+            List<EndpointStats> endpoints,
+            boolean hedgingEnabled,
+            long hedgeDelayMs,
+            long hedgesSent,
+            long rejected
+    ) {}
+
+    /**
+     * @param state CLOSED (healthy), OPEN (ejected) or HALF_OPEN (waiting for a trial call).
+     * @param ejections Times the circuit breaker opened.
+     */
+    public record EndpointStats(
+            String baseUrl,
+            String state,
+            int outstanding,
+            long requests,
+            long failures,
+            long ejections
+    ) {}
+}
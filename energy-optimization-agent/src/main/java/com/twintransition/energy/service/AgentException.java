@@ -0,0 +1,32 @@
+package com.twintransition.energy.service;
+
+/**
+ * Failure of a call to the external optimization agent.
+ * Carries the HTTP status the agent answered with, or 0 when no response was received
+ * (connection refused, timeout, unreadable body...).
+ */
+public class AgentException extends RuntimeException {
+
+    private final int statusCode;
+
+    public AgentException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public AgentException(String message, int statusCode, Throwable cause) {
+        super(message, cause);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Status class of the agent response ("4xx", "5xx"...), or "none" without a response.
+     */
+    public String getStatusClass() {
+        return statusCode > 0 ? (statusCode / 100) + "xx" : "none";
+    }
+}
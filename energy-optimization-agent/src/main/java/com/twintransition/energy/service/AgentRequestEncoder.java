@@ -0,0 +1,176 @@
+package com.twintransition.energy.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.twintransition.energy.dto.OptimizationRequest;
+
+/**
+ * Encodes the requests sent to the optimization agent ({@code optimization.agent.wire}).
+ *
+ * <ul>
+ *   <li>{@code format=cbor}: CBOR body, each series packed as one byte string of little-endian doubles
+ *       (8 bytes per point instead of ~18 characters of JSON).</li>
+ *   <li>{@code compression=gzip}: bodies of at least {@code compression-min-bytes} are gzipped and sent
+ *       with {@code Content-Encoding: gzip}.</li>
+ * </ul>
+ * An agent that does not understand the negotiated encoding answers 415 (or 422 from a FastAPI
+ * route that could not parse the body): the call is repeated as plain JSON and, once that succeeds,
+ * every later call uses plain JSON.
+ */
+@Component
+public class AgentRequestEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(AgentRequestEncoder.class);
+
+    /**
+     * Body format of the agent requests.
+     */
+    public enum WireFormat { JSON, CBOR }
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+    private final int compressionMinBytes;
+    private volatile WireFormat format;
+    private volatile boolean gzip;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong encodedBytes = new AtomicLong();
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    @Autowired
+    public AgentRequestEncoder(
+            ObjectMapper jsonMapper,
+            Jackson2ObjectMapperBuilder mapperBuilder,
+            @Value("${optimization.agent.wire.format:json}") String format,
+            @Value("${optimization.agent.wire.compression:none}") String compression,
+            @Value("${optimization.agent.wire.compression-min-bytes:8192}") int compressionMinBytes) {
+        this(jsonMapper, mapperBuilder.factory(new CBORFactory()).build(), format, compression, compressionMinBytes);
+    }
+
+    public AgentRequestEncoder(ObjectMapper jsonMapper, ObjectMapper cborMapper, String format, String compression,
+                               int compressionMinBytes) {
+        this.jsonMapper = jsonMapper;
+        this.cborMapper = cborMapper;
+        this.format = WireFormat.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        this.gzip = switch (compression.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip" -> true;
+            case "none" -> false;
+            default -> throw new IllegalArgumentException("Unknown agent wire compression: " + compression);
+        };
+        this.compressionMinBytes = compressionMinBytes;
+        if (this.format == WireFormat.CBOR && cborMapper == null) {
+            throw new IllegalArgumentException("CBOR wire format requires a CBOR ObjectMapper.");
+        }
+    }
+
+    /**
+     * Plain JSON without compression, for callers that build the service by hand.
+     */
+    public static AgentRequestEncoder json() {
+        return new AgentRequestEncoder(new ObjectMapper(), (ObjectMapper) null, "json", "none", 0);
+    }
+
+    /**
+     * Encodes the request in the currently negotiated format and compression.
+     */
+    public EncodedRequest encode(OptimizationRequest request) {
+        return encode(request, format, gzip);
+    }
+
+    /**
+     * Encodes the request as uncompressed JSON, the encoding every agent understands.
+     */
+    public EncodedRequest encodeJson(OptimizationRequest request) {
+        return encode(request, WireFormat.JSON, false);
+    }
+
+    private EncodedRequest encode(OptimizationRequest request, WireFormat wireFormat, boolean compress) {
+        try {
+            byte[] body = wireFormat == WireFormat.CBOR
+                    ? cborMapper.writeValueAsBytes(request)
+                    : jsonMapper.writeValueAsBytes(request);
+            requests.incrementAndGet();
+            encodedBytes.addAndGet(body.length);
+            String contentEncoding = null;
+            if (compress && body.length >= compressionMinBytes) {
+                body = gzip(body);
+                contentEncoding = "gzip";
+            }
+            wireBytes.addAndGet(body.length);
+            MediaType contentType = wireFormat == WireFormat.CBOR ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+            return new EncodedRequest(body, contentType, contentEncoding);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode the optimization request", e);
+        }
+    }
+
+    static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed, 8192)) {
+            out.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Whether the agent refused this body because of its encoding, so that a plain JSON retry makes sense.
+     */
+    public boolean isEncodingRejection(Throwable error, EncodedRequest sent) {
+        boolean negotiated = !MediaType.APPLICATION_JSON.equals(sent.contentType()) || sent.contentEncoding() != null;
+        return negotiated && error instanceof AgentException agentError
+                && (agentError.getStatusCode() == 415 || agentError.getStatusCode() == 422);
+    }
+
+    /**
+     * Switches every later request to plain JSON after the agent accepted a JSON retry.
+     */
+    public void fallBackToJson() {
+        if (format != WireFormat.JSON || gzip) {
+            log.warn("The optimization agent rejected {} requests{}: falling back to plain JSON",
+                    format, gzip ? " with gzip" : "");
+            format = WireFormat.JSON;
+            gzip = false;
+            fallbacks.incrementAndGet();
+        }
+    }
+
+    public WireStats stats() {
+        return new WireStats(format.name().toLowerCase(Locale.ROOT), gzip ? "gzip" : "none",
+                requests.get(), encodedBytes.get(), wireBytes.get(), fallbacks.get());
+    }
+
+    /**
+     * @param contentEncoding "gzip", or null when the body is not compressed.
+     */
+    public record EncodedRequest(byte[] body, MediaType contentType, String contentEncoding) {}
+
+    /**
+     * @param encodedBytes Bytes produced by the serializer, before compression.
+     * @param wireBytes Bytes actually sent.
+     * @param fallbacks Times the agent rejected the negotiated encoding.
+     */
+    public record WireStats(
+            String format,
+            String compression,
+            long requests,
+            long encodedBytes,
+            long wireBytes,
+            long fallbacks
+    ) {}
+}
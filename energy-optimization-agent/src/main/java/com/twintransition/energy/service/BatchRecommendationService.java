@@ -0,0 +1,83 @@
+package com.twintransition.energy.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.twintransition.energy.dto.BatchOptimizationRequest;
+import com.twintransition.energy.dto.BatchOptimizationResponse;
+import com.twintransition.energy.dto.SiteOptimizationRequest;
+import com.twintransition.energy.dto.SiteRecommendationResult;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Fans a portfolio batch out to the agent with bounded concurrency.
+ * Each site is validated and executed independently: a validation failure or an agent
+ * error only marks that site's result as failed.
+ */
+@Service
+public class BatchRecommendationService {
+
+    private final OptimizationService optimizationService;
+    private final Validator validator;
+    private final int maxConcurrency;
+    private final int maxItems;
+
+    public BatchRecommendationService(
+            OptimizationService optimizationService,
+            Validator validator,
+            @Value("${optimization.batch.max-concurrency:16}") int maxConcurrency,
+            @Value("${optimization.batch.max-items:1000}") int maxItems) {
+        this.optimizationService = optimizationService;
+        this.validator = validator;
+        this.maxConcurrency = maxConcurrency;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Generates recommendations for every site of the batch.
+     * @param batch The keyed requests.
+     * @return A Mono emitting the per-site results (in request order) and the batch latency.
+     */
+    public Mono<BatchOptimizationResponse> generateBatch(BatchOptimizationRequest batch) {
+        List<SiteOptimizationRequest> items = batch.items();
+        if (items.size() > maxItems) {
+            throw new BatchTooLargeException("Batch cannot contain more than " + maxItems + " sites.", maxItems);
+        }
+
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Flux.fromIterable(items)
+                    .flatMapSequential(this::generateForSite, maxConcurrency)
+                    .collectList()
+                    .map(results -> {
+                        int succeeded = (int) results.stream().filter(result -> result.error() == null).count();
+                        long latencyMs = (System.nanoTime() - start) / 1_000_000;
+                        return new BatchOptimizationResponse(results, succeeded, results.size() - succeeded, latencyMs);
+                    });
+        });
+    }
+
+    private Mono<SiteRecommendationResult> generateForSite(SiteOptimizationRequest item) {
+        String siteId = item == null ? null : item.siteId();
+        Set<ConstraintViolation<SiteOptimizationRequest>> violations = item == null ? Set.of() : validator.validate(item);
+        if (item == null || !violations.isEmpty()) {
+            String error = item == null
+                    ? "Batch item cannot be null."
+                    : violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(" "));
+            return Mono.just(SiteRecommendationResult.failure(siteId, error));
+        }
+
+        return Mono.defer(() -> optimizationService.generateRecommendationAsync(siteId, item.request(), AdmissionLane.BATCH))
+                .map(recommendation -> SiteRecommendationResult.success(siteId, recommendation))
+                .switchIfEmpty(Mono.fromSupplier(() -> SiteRecommendationResult.failure(siteId, "Agent returned no recommendation.")))
+                .onErrorResume(error -> Mono.just(SiteRecommendationResult.failure(siteId, error.getMessage())));
+    }
+}
@@ -0,0 +1,18 @@
+package com.twintransition.energy.service;
+
+/**
+ * Thrown when a batch or sweep request holds more items than the configured maximum.
+ */
+public class BatchTooLargeException extends InvalidRequestException {
+
+    private final int maxItems;
+
+    public BatchTooLargeException(String message, int maxItems) {
+        super(message);
+        this.maxItems = maxItems;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+}
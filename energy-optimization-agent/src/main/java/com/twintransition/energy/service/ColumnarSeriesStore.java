@@ -0,0 +1,543 @@
+package com.twintransition.energy.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.twintransition.energy.dto.IngestionResult;
+import com.twintransition.energy.dto.SeriesRange;
+import com.twintransition.energy.dto.TimeSeries;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Local columnar store for long consumption histories.
+ *
+ * Each site has three append-only files of fixed-width little-endian values in the store
+ * directory: {@code <site>.ts} (epoch millis), {@code <site>.kwh} and {@code <site>.temp}.
+ * Readers and writers go through {@link java.nio.MappedByteBuffer}s, so a range scan is a bulk copy
+ * out of the page cache with no parsing. The mapping grows geometrically ahead of the data
+ * (the spare capacity is zero-filled and trimmed when the store is closed), so appends remap a
+ * site's files only O(log n) times; superseded mappings are released once no snapshot uses them. Records are kept in time order; a sparse index
+ * holding the first timestamp of every block of {@code blockSize} records stays on the heap
+ * and narrows a lookup to one block before the final binary search in the mapped file.
+ *
+ * Appends are serialized per site and publish a new immutable {@link Snapshot};
+ * reads are lock-free and never create files for sites that have no history. A single mapping is limited to 2 GB, i.e. ~268M records per site.
+ */
+@Component
+public class ColumnarSeriesStore {
+
+    static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    /**
+     * Site ids: 1 to 128 letters, digits, '.', '_' or '-', not starting with '.'.
+     */
+    public static final String SITE_ID_REGEX = "[A-Za-z0-9_-][A-Za-z0-9._-]{0,127}";
+
+    private static final Pattern SITE_ID = Pattern.compile(SITE_ID_REGEX);
+    private static final int MAX_RECORDS = Integer.MAX_VALUE / Long.BYTES;
+
+    private final Path directory;
+    private final ZoneId csvZone;
+    private final int blockSize;
+    private final Map<String, SiteColumns> sites = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ColumnarSeriesStore(
+            @Value("${optimization.store.directory:data/series}") Path directory,
+            @Value("${optimization.store.csv-zone-id:UTC}") String csvZoneId) {
+        this(directory, ZoneId.of(csvZoneId), DEFAULT_BLOCK_SIZE);
+    }
+
+    ColumnarSeriesStore(Path directory, ZoneId csvZone, int blockSize) {
+        this.directory = directory;
+        this.csvZone = csvZone;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Appends readings to the end of a site's history.
+     * @param timestamps Epoch millis, non-decreasing and not older than the last stored reading.
+     * @param temperatureC Temperatures, or NaN where unknown.
+     */
+    public void append(String siteId, long[] timestamps, double[] consumptionKwh, double[] temperatureC) {
+        if (timestamps.length != consumptionKwh.length || timestamps.length != temperatureC.length) {
+            throw new IllegalArgumentException("All columns must have the same length.");
+        }
+        for (int i = 1; i < timestamps.length; i++) {
+            if (timestamps[i] < timestamps[i - 1]) {
+                throw new IllegalArgumentException("Timestamps must be in ascending order.");
+            }
+        }
+        site(siteId).append(timestamps, consumptionKwh, temperatureC);
+    }
+
+    /**
+     * Reads the readings of {@code [from, to)}.
+     * @return The range, empty when the site has no readings in it.
+     */
+    public SeriesRange read(String siteId, Instant from, Instant to) {
+        Snapshot snapshot = snapshot(siteId);
+        int start = snapshot.lowerBound(from.toEpochMilli());
+        int end = Math.max(start, snapshot.lowerBound(to.toEpochMilli()));
+        int length = end - start;
+
+        long[] timestamps = new long[length];
+        double[] consumption = new double[length];
+        double[] temperature = new double[length];
+        if (length > 0) {
+            snapshot.timestamps.get(start, timestamps);
+            snapshot.consumption.get(start, consumption);
+            snapshot.temperature.get(start, temperature);
+        }
+        return new SeriesRange(siteId, timestamps, TimeSeries.wrap(consumption), TimeSeries.wrap(temperature));
+    }
+
+    /**
+     * Sums the consumption of {@code [from, to)} directly over the mapped column, without copying.
+     */
+    public double sumConsumption(String siteId, Instant from, Instant to) {
+        Snapshot snapshot = snapshot(siteId);
+        int start = snapshot.lowerBound(from.toEpochMilli());
+        int end = snapshot.lowerBound(to.toEpochMilli());
+        double sum = 0;
+        for (int i = start; i < end; i++) {
+            sum += snapshot.consumption.get(i);
+        }
+        return sum;
+    }
+
+    public int size(String siteId) {
+        return snapshot(siteId).count;
+    }
+
+    /**
+     * Epoch millis of the newest stored reading: appended readings cannot be older.
+     * @return {@link Long#MIN_VALUE} when the site has no readings.
+     */
+    public long lastTimestamp(String siteId) {
+        Snapshot snapshot = snapshot(siteId);
+        return snapshot.count == 0 ? Long.MIN_VALUE : snapshot.timestamps.get(snapshot.count - 1);
+    }
+
+    /**
+     * Appends readings in any order, e.g. a telemetry batch: they are sorted by time and those
+     * older than the stored history are skipped.
+     * @param temperatureC Temperatures, or NaN where unknown.
+     * @return How many readings were appended.
+     */
+    public int merge(String siteId, long[] timestamps, double[] consumptionKwh, double[] temperatureC) {
+        if (timestamps.length != consumptionKwh.length || timestamps.length != temperatureC.length) {
+            throw new IllegalArgumentException("All columns must have the same length.");
+        }
+        Rows rows = new Rows(timestamps, consumptionKwh, temperatureC);
+        return mergeRows(site(siteId), rows);
+    }
+
+    /**
+     * Whether the id can name a site of the store (it becomes part of the file names).
+     */
+    public static boolean isValidSiteId(String siteId) {
+        return siteId != null && SITE_ID.matcher(siteId).matches();
+    }
+
+    /**
+     * Imports a CSV in the agent's {@code simulated_energy_data.csv} layout
+     * ({@code timestamp,consumption_kwh,temperature_c}, local timestamps such as
+     * {@code 2025-10-31 00:39:47.119134} interpreted in {@code optimization.store.csv-zone-id}).
+     * Rows are sorted by time; malformed rows and rows older than the stored history are skipped.
+     */
+    public IngestionResult importCsv(String siteId, InputStream csv) throws IOException {
+        long started = System.nanoTime();
+        SiteColumns site = site(siteId);
+        Rows rows = new Rows();
+        long invalid = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            return new IngestionResult(0, 0, 0, 0);
+        }
+        String[] columns = header.trim().split(",");
+        int timestampColumn = indexOf(columns, "timestamp");
+        int consumptionColumn = indexOf(columns, "consumption_kwh");
+        int temperatureColumn = indexOf(columns, "temperature_c");
+        if (timestampColumn < 0 || consumptionColumn < 0) {
+            throw new InvalidRequestException("CSV header must contain 'timestamp' and 'consumption_kwh'.");
+        }
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            try {
+                long timestamp = LocalDateTime.parse(fields[timestampColumn].trim().replace(' ', 'T'))
+                        .atZone(csvZone).toInstant().toEpochMilli();
+                double consumption = Double.parseDouble(fields[consumptionColumn]);
+                double temperature = temperatureColumn >= 0 && !fields[temperatureColumn].isBlank()
+                        ? Double.parseDouble(fields[temperatureColumn]) : Double.NaN;
+                if (!Double.isFinite(consumption)) {
+                    invalid++;
+                    continue;
+                }
+                rows.add(timestamp, consumption, temperature);
+            } catch (DateTimeParseException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                invalid++;
+            }
+        }
+
+        int accepted = mergeRows(site, rows);
+        return new IngestionResult(accepted, invalid, rows.size - accepted, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static int mergeRows(SiteColumns site, Rows rows) {
+        synchronized (site) {
+            long lastStored = site.snapshot.count == 0 ? Long.MIN_VALUE : site.snapshot.timestamps.get(site.snapshot.count - 1);
+            int accepted = rows.sortFrom(lastStored);
+            site.append(Arrays.copyOfRange(rows.timestamps, 0, accepted),
+                    Arrays.copyOfRange(rows.consumption, 0, accepted),
+                    Arrays.copyOfRange(rows.temperature, 0, accepted));
+            return accepted;
+        }
+    }
+
+    private static int indexOf(String[] columns, String name) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].trim().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Current snapshot of a site, opening its files only if they already exist.
+     */
+    private Snapshot snapshot(String siteId) {
+        SiteColumns site = sites.get(siteId);
+        if (site == null) {
+            if (!isValidSiteId(siteId)) {
+                throw new InvalidRequestException("Invalid site id: " + siteId);
+            }
+            if (!Files.exists(directory.resolve(siteId + ".ts"))) {
+                return Snapshot.EMPTY;
+            }
+            site = site(siteId);
+        }
+        return site.snapshot;
+    }
+
+    private SiteColumns site(String siteId) {
+        if (!isValidSiteId(siteId)) {
+            throw new InvalidRequestException("Invalid site id: " + siteId);
+        }
+        return sites.computeIfAbsent(siteId, id -> {
+            try {
+                Files.createDirectories(directory);
+                return new SiteColumns(directory, id, blockSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        for (SiteColumns site : sites.values()) {
+            site.close();
+        }
+        sites.clear();
+    }
+
+    /**
+     * Immutable view of a site's columns up to {@code count} records.
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0, LongBuffer.allocate(0), DoubleBuffer.allocate(0),
+                DoubleBuffer.allocate(0), new long[0], 1);
+
+        final int count;
+        final LongBuffer timestamps;
+        final DoubleBuffer consumption;
+        final DoubleBuffer temperature;
+        final long[] blockIndex;
+        final int blockSize;
+
+        Snapshot(int count, LongBuffer timestamps, DoubleBuffer consumption, DoubleBuffer temperature,
+                 long[] blockIndex, int blockSize) {
+            this.count = count;
+            this.timestamps = timestamps;
+            this.consumption = consumption;
+            this.temperature = temperature;
+            this.blockIndex = blockIndex;
+            this.blockSize = blockSize;
+        }
+
+        /**
+         * Position of the first record with timestamp >= {@code timestamp} (count if none).
+         */
+        int lowerBound(long timestamp) {
+            // Last block whose first timestamp is < timestamp: the answer lies in it or at the start of the next one
+            int low = 0;
+            int high = blockIndex.length - 1;
+            int block = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (blockIndex[mid] < timestamp) {
+                    block = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (block < 0) {
+                return 0;
+            }
+            low = block * blockSize + 1;
+            high = Math.min(count, (block + 1) * blockSize);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestamps.get(mid) < timestamp) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class SiteColumns {
+
+        private final int blockSize;
+        private final Path timestampFile;
+        private final Path consumptionFile;
+        private final Path temperatureFile;
+        private LongBuffer timestampColumn;
+        private DoubleBuffer consumptionColumn;
+        private DoubleBuffer temperatureColumn;
+        private int capacity;
+        private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+        SiteColumns(Path directory, String siteId, int blockSize) throws IOException {
+            this.blockSize = blockSize;
+            this.timestampFile = directory.resolve(siteId + ".ts");
+            this.consumptionFile = directory.resolve(siteId + ".kwh");
+            this.temperatureFile = directory.resolve(siteId + ".temp");
+
+            // A crash can leave the columns with different lengths: keep only complete records
+            long records = Math.min(size(timestampFile), Math.min(size(consumptionFile), size(temperatureFile))) / Long.BYTES;
+            map((int) Math.min(records, MAX_RECORDS));
+            // ...and the zero-filled spare capacity of the last mapping (no reading is stamped at the epoch)
+            int count = capacity;
+            while (count > 0 && timestampColumn.get(count - 1) == 0) {
+                count--;
+            }
+            publish(count);
+        }
+
+        private static FileChannel open(Path path) throws IOException {
+            return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        private static long size(Path path) throws IOException {
+            return Files.exists(path) ? Files.size(path) : 0;
+        }
+
+        synchronized void append(long[] timestamps, double[] consumption, double[] temperature) {
+            if (timestamps.length == 0) {
+                return;
+            }
+            Snapshot current = snapshot;
+            if (current.count > 0 && timestamps[0] < current.timestamps.get(current.count - 1)) {
+                throw new IllegalArgumentException("Readings older than the stored history cannot be appended.");
+            }
+            long count = (long) current.count + timestamps.length;
+            if (count > MAX_RECORDS) {
+                throw new InvalidRequestException("Site history would exceed " + MAX_RECORDS + " records.");
+            }
+            if (count > capacity) {
+                try {
+                    map((int) Math.min(MAX_RECORDS, Math.max(count, Math.max(blockSize, 2L * capacity))));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            // Past the published count: readers of the current snapshot never look there
+            timestampColumn.put(current.count, timestamps);
+            consumptionColumn.put(current.count, consumption);
+            temperatureColumn.put(current.count, temperature);
+            publish((int) count);
+        }
+
+        /**
+         * Maps {@code capacity} records of each column, extending the files with zeros if needed.
+         * The channels are closed right away (a mapping outlives its channel), so a store with
+         * thousands of sites holds no file descriptors between remaps.
+         */
+        private void map(int capacity) throws IOException {
+            timestampColumn = map(timestampFile, capacity).asLongBuffer();
+            consumptionColumn = map(consumptionFile, capacity).asDoubleBuffer();
+            temperatureColumn = map(temperatureFile, capacity).asDoubleBuffer();
+            this.capacity = capacity;
+        }
+
+        private static ByteBuffer map(Path path, int capacity) throws IOException {
+            try (FileChannel channel = open(path)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * Long.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        private void publish(int count) {
+            if (count == 0) {
+                snapshot = Snapshot.EMPTY;
+                return;
+            }
+            // Extend the sparse index from the previous snapshot instead of rebuilding it
+            long[] previous = snapshot.blockIndex;
+            long[] blockIndex = Arrays.copyOf(previous, (count + blockSize - 1) / blockSize);
+            int firstStale = Math.max(0, previous.length - 1);
+            for (int block = firstStale; block < blockIndex.length; block++) {
+                blockIndex[block] = timestampColumn.get(block * blockSize);
+            }
+            snapshot = new Snapshot(count, timestampColumn, consumptionColumn, temperatureColumn, blockIndex, blockSize);
+        }
+
+        synchronized void close() {
+            long bytes = (long) snapshot.count * Long.BYTES;
+            try {
+                for (Path file : List.of(timestampFile, consumptionFile, temperatureFile)) {
+                    try (FileChannel channel = open(file)) {
+                        channel.truncate(bytes);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Growable parallel arrays for rows to merge (CSV rows or a telemetry batch).
+     */
+    private static final class Rows {
+
+        long[] timestamps;
+        double[] consumption;
+        double[] temperature;
+        int size;
+
+        Rows() {
+            this(new long[1024], new double[1024], new double[1024]);
+            size = 0;
+        }
+
+        Rows(long[] timestamps, double[] consumption, double[] temperature) {
+            this.timestamps = timestamps;
+            this.consumption = consumption;
+            this.temperature = temperature;
+            this.size = timestamps.length;
+        }
+
+        void add(long timestamp, double consumptionKwh, double temperatureC) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                consumption = Arrays.copyOf(consumption, size * 2);
+                temperature = Arrays.copyOf(temperature, size * 2);
+            }
+            timestamps[size] = timestamp;
+            consumption[size] = consumptionKwh;
+            temperature[size] = temperatureC;
+            size++;
+        }
+
+        /**
+         * Sorts the rows by time (stable) and moves those not older than {@code minTimestamp} to the front.
+         * @return How many rows were kept.
+         */
+        int sortFrom(long minTimestamp) {
+            int[] order = sortedOrder();
+            long[] sortedTimestamps = new long[size];
+            double[] sortedConsumption = new double[size];
+            double[] sortedTemperature = new double[size];
+            int kept = 0;
+            for (int i : order) {
+                if (timestamps[i] >= minTimestamp) {
+                    sortedTimestamps[kept] = timestamps[i];
+                    sortedConsumption[kept] = consumption[i];
+                    sortedTemperature[kept] = temperature[i];
+                    kept++;
+                }
+            }
+            timestamps = sortedTimestamps;
+            consumption = sortedConsumption;
+            temperature = sortedTemperature;
+            return kept;
+        }
+
+        /**
+         * Row indexes in time order: a bottom-up merge sort over primitive ints (stable),
+         * skipped when the rows already arrive in order, as they usually do.
+         */
+        private int[] sortedOrder() {
+            int[] order = new int[size];
+            boolean sorted = true;
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+                sorted &= i == 0 || timestamps[i - 1] <= timestamps[i];
+            }
+            if (sorted) {
+                return order;
+            }
+            int[] buffer = new int[size];
+            for (int width = 1; width < size; width *= 2) {
+                for (int low = 0; low < size; low += 2 * width) {
+                    int middle = Math.min(low + width, size);
+                    int high = Math.min(low + 2 * width, size);
+                    int left = low;
+                    int right = middle;
+                    for (int k = low; k < high; k++) {
+                        if (left < middle && (right >= high || timestamps[order[left]] <= timestamps[order[right]])) {
+                            buffer[k] = order[left++];
+                        } else {
+                            buffer[k] = order[right++];
+                        }
+                    }
+                }
+                int[] merged = buffer;
+                buffer = order;
+                order = merged;
+            }
+            return order;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.twintransition.energy.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.twintransition.energy.dto.ComfortScenarioResult;
+import com.twintransition.energy.dto.ComfortSweepRequest;
+import com.twintransition.energy.dto.ComfortSweepResponse;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.TimeSeries;
+
+/**
+ * What-if comparison of comfort limits. The demand forecast only depends on the history, so it is
+ * fitted once and every scenario reuses it; only the HVAC decision runs per scenario.
+ * Scenarios are always evaluated by the {@link EmbeddedOptimizationEngine}, whatever
+ * {@code optimization.engine.mode} says: one agent round trip per grid point would not fit
+ * a sub-second budget for grids of thousands of points.
+ */
+@Service
+public class ComfortSweepService {
+
+    private final EmbeddedOptimizationEngine engine;
+    private final int maxScenarios;
+    private final int parallelThreshold;
+
+    public ComfortSweepService(
+            EmbeddedOptimizationEngine engine,
+            @Value("${optimization.sweep.max-scenarios:10000}") int maxScenarios,
+            @Value("${optimization.sweep.parallel-threshold:2048}") int parallelThreshold) {
+        if (maxScenarios > ComfortSweepRequest.MAX_SCENARIOS) {
+            throw new IllegalArgumentException("optimization.sweep.max-scenarios cannot exceed " + ComfortSweepRequest.MAX_SCENARIOS + ".");
+        }
+        this.engine = engine;
+        this.maxScenarios = maxScenarios;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Evaluates every scenario of the sweep against a single demand forecast.
+     * @param request The history, weather forecast and comfort limit scenarios.
+     * @return The shared forecast and the per-scenario savings, in request order.
+     */
+    public ComfortSweepResponse sweep(ComfortSweepRequest request) {
+        List<OptimizationLimitsDto> scenarios = request.scenarios();
+        if (scenarios.size() > maxScenarios) {
+            throw new BatchTooLargeException("Sweep cannot contain more than " + maxScenarios + " scenarios.", maxScenarios);
+        }
+
+        long start = System.nanoTime();
+        double[] forecast = engine.forecastDemand(request.historicalConsumptionKwH());
+        double[] temperatures = request.weatherForecastDegreesC().array();
+
+        ComfortScenarioResult[] results = new ComfortScenarioResult[scenarios.size()];
+        // Each scenario costs well under a microsecond: forking only pays off on large grids
+        IntStream indexes = IntStream.range(0, results.length);
+        if (results.length >= parallelThreshold) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> results[i] = evaluate(forecast, temperatures, scenarios.get(i)));
+
+        int actions = 0;
+        for (ComfortScenarioResult result : results) {
+            if (!EmbeddedOptimizationEngine.HvacDecision.NONE.actionType().equals(result.actionType())) {
+                actions++;
+            }
+        }
+        long latencyMs = (System.nanoTime() - start) / 1_000_000;
+        return new ComfortSweepResponse(TimeSeries.wrap(forecast), Arrays.asList(results), actions, latencyMs);
+    }
+
+    private ComfortScenarioResult evaluate(double[] forecast, double[] temperatures, OptimizationLimitsDto limits) {
+        EmbeddedOptimizationEngine.HvacDecision decision = engine.decide(forecast, temperatures, limits);
+        return new ComfortScenarioResult(
+                limits.maxTemp(),
+                limits.minComfortTemp(),
+                decision.actionType(),
+                decision.estimatedSavingsKwh() * EmbeddedOptimizationEngine.EUR_PER_KWH,
+                decision.estimatedSavingsKwh() * EmbeddedOptimizationEngine.KGCO2_PER_KWH);
+    }
+}
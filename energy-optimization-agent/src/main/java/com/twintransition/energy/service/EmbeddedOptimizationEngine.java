@@ -0,0 +1,210 @@
+package com.twintransition.energy.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Component;
+
+import com.twintransition.energy.dto.HourlyAction;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.TimeSeries;
+
+/**
+ * In-JVM port of the Python agent (optimization_agent.py): hour-of-day demand forecast and
+ * HVAC decision computed directly on the request series, with no serialization or socket I/O.
+ *
+ * Differences with the agent: the forecast is fitted on the request history (assumed hourly,
+ * starting at midnight) instead of re-reading simulated_energy_data.csv, and the justification
+ * texts come from the i18n message bundles.
+ *
+ * With {@code optimization.engine.strategy=schedule} the threshold decision is replaced by an
+ * hourly setpoint schedule over {@code optimization.schedule.zones} identical zones
+ * ({@link HvacScheduleOptimizer}); the default {@code threshold} keeps parity with the agent.
+ */
+@Component
+public class EmbeddedOptimizationEngine {
+
+    // Same constants as optimization_agent.py
+    public static final double EUR_PER_KWH = 0.25;
+    public static final double KGCO2_PER_KWH = 0.233;
+    public static final double DEMO_KWH_SAVINGS = 20.0;
+    public static final double DEFAULT_MAX_TEMP = 24.0;
+
+    private static final Set<String> SUPPORTED_LANGUAGES = Set.of("en", "es", "pt");
+
+    private final MessageSource messageSource;
+    private final HvacScheduleOptimizer scheduleOptimizer;
+    private final int scheduleZones;
+    private final double zoneSensitivityPerC;
+
+    public EmbeddedOptimizationEngine(MessageSource messageSource) {
+        this(messageSource, null, "threshold", 1, 0.0);
+    }
+
+    @Autowired
+    public EmbeddedOptimizationEngine(
+            MessageSource messageSource,
+            HvacScheduleOptimizer scheduleOptimizer,
+            @Value("${optimization.engine.strategy:threshold}") String strategy,
+            @Value("${optimization.schedule.zones:1}") int scheduleZones,
+            @Value("${optimization.schedule.zone-sensitivity-per-degree:0.06}") double zoneSensitivityPerC) {
+        boolean schedule = switch (strategy) {
+            case "threshold" -> false;
+            case "schedule" -> true;
+            default -> throw new IllegalArgumentException("Unknown optimization.engine.strategy: " + strategy);
+        };
+        if (schedule && scheduleZones < 1) {
+            throw new IllegalArgumentException("optimization.schedule.zones must be at least 1.");
+        }
+        this.messageSource = messageSource;
+        this.scheduleOptimizer = schedule ? scheduleOptimizer : null;
+        this.scheduleZones = scheduleZones;
+        this.zoneSensitivityPerC = zoneSensitivityPerC;
+    }
+
+    /**
+     * Equivalent of {@code run_optimization_agent}.
+     * @param request The optimization input (history, temperature forecast, limits, language).
+     * @return The recommendation.
+     */
+    public OptimizationRecommendation recommend(OptimizationRequest request) {
+        double[] forecast = forecastDemand(request);
+        if (scheduleOptimizer != null) {
+            return schedule(forecast, request);
+        }
+        HvacDecision decision = decide(forecast, request.weatherForecastDegreesC().array(), request.limits());
+        return toRecommendation(decision, request.selectedLanguage());
+    }
+
+    /**
+     * Equivalent of {@code get_demand_forecast}: 24-hour demand forecast in kWh.
+     */
+    public double[] forecastDemand(OptimizationRequest request) {
+        return forecastDemand(request.historicalConsumptionKwH());
+    }
+
+    /**
+     * Demand forecast of an hourly history that starts at midnight.
+     */
+    public double[] forecastDemand(TimeSeries history) {
+        return HourOfDayStatistics.ofHourlySeries(history.array()).forecast();
+    }
+
+    /**
+     * Equivalent of {@code determine_optimal_action}. The forecast is accepted for parity with
+     * the agent, whose current decision only looks at the first forecast temperature.
+     */
+    public HvacDecision decide(double[] demandForecast, double[] temperatureForecast, OptimizationLimitsDto limits) {
+        double firstTemp = temperatureForecast.length > 0 ? temperatureForecast[0] : 0.0;
+        double maxTemp = limits.maxTemp() != null ? limits.maxTemp() : DEFAULT_MAX_TEMP;
+
+        if (firstTemp > maxTemp) {
+            return new HvacDecision(
+                    "HVAC_Adjustment",
+                    "Reduce HVAC usage in high-demand zones by 15% between peak hours. Suggested target temperature: "
+                            + limits.minComfortTemp() + "C",
+                    DEMO_KWH_SAVINGS);
+        }
+        return HvacDecision.NONE;
+    }
+
+    /**
+     * Builds the final recommendation (savings conversion, justification and id) from a decision.
+     */
+    public OptimizationRecommendation toRecommendation(HvacDecision decision, String language) {
+        String key = decision.isAction() ? "justification.action" : "justification.none";
+        return new OptimizationRecommendation(
+                decision.details(),
+                messageSource.getMessage(key, null, justificationLocale(language)),
+                decision.estimatedSavingsKwh() * EUR_PER_KWH,
+                decision.estimatedSavingsKwh() * KGCO2_PER_KWH,
+                String.valueOf(ThreadLocalRandom.current().nextInt(10000, 100000)));
+    }
+
+    /**
+     * Per-hour view of the recommendation, for the streaming endpoint. With the threshold strategy
+     * every hour carries the single decision of {@link #decide}; with the schedule strategy the
+     * setpoint of each hour is the mean over the zones.
+     * @param demandForecast The result of {@link #forecastDemand(OptimizationRequest)}.
+     */
+    public List<HourlyAction> hourlyActions(double[] demandForecast, OptimizationRequest request) {
+        OptimizationLimitsDto limits = request.limits();
+        double maxTemp = limits.maxTemp() != null ? limits.maxTemp() : DEFAULT_MAX_TEMP;
+        double[] temperatures = request.weatherForecastDegreesC().array();
+        HvacScheduleOptimizer.HvacSchedule schedule = scheduleOptimizer != null ? optimizeSchedule(demandForecast, request) : null;
+        HvacDecision decision = schedule == null ? decide(demandForecast, temperatures, limits) : null;
+
+        List<HourlyAction> actions = new ArrayList<>(demandForecast.length);
+        for (int hour = 0; hour < demandForecast.length; hour++) {
+            double outdoor = temperatures.length > 0 ? temperatures[Math.min(hour, temperatures.length - 1)] : maxTemp;
+            if (schedule != null) {
+                double setpoint = 0.0;
+                for (int zone = 0; zone < schedule.zoneCount(); zone++) {
+                    setpoint += schedule.setpoint(zone, hour);
+                }
+                actions.add(new HourlyAction(hour, demandForecast[hour], outdoor, "HVAC_Adjustment",
+                        setpoint / schedule.zoneCount()));
+            } else {
+                actions.add(new HourlyAction(hour, demandForecast[hour], outdoor, decision.actionType(),
+                        decision.isAction() ? limits.minComfortTemp() : null));
+            }
+        }
+        return actions;
+    }
+
+    private HvacScheduleOptimizer.HvacSchedule optimizeSchedule(double[] forecast, OptimizationRequest request) {
+        OptimizationLimitsDto limits = request.limits();
+        double maxTemp = limits.maxTemp() != null ? limits.maxTemp() : DEFAULT_MAX_TEMP;
+        double minComfortTemp = limits.minComfortTemp() != null ? limits.minComfortTemp() : maxTemp;
+        HvacScheduleOptimizer.ZoneSpec[] zones = new HvacScheduleOptimizer.ZoneSpec[scheduleZones];
+        for (int i = 0; i < zones.length; i++) {
+            zones[i] = new HvacScheduleOptimizer.ZoneSpec("zone-" + (i + 1), 1.0 / zones.length, zoneSensitivityPerC,
+                    minComfortTemp, maxTemp);
+        }
+        double[] temperatures = request.weatherForecastDegreesC().array();
+        return scheduleOptimizer.optimize(forecast, temperatures.length > 0 ? temperatures : new double[] { maxTemp }, zones);
+    }
+
+    private OptimizationRecommendation schedule(double[] forecast, OptimizationRequest request) {
+        HvacScheduleOptimizer.HvacSchedule schedule = optimizeSchedule(forecast, request);
+
+        double savedEur = Math.max(0.0, schedule.savedCostEur());
+        double savedKgCO2 = Math.max(0.0, schedule.savedKwh()) * KGCO2_PER_KWH;
+        return new OptimizationRecommendation(
+                schedule.toScript(),
+                messageSource.getMessage("justification.schedule", new Object[] { schedule.zoneCount(), savedEur, savedKgCO2 },
+                        justificationLocale(request.selectedLanguage())),
+                savedEur,
+                savedKgCO2,
+                String.valueOf(ThreadLocalRandom.current().nextInt(10000, 100000)));
+    }
+
+    // Same fallback as the agent: unknown languages get the English text
+    private static Locale justificationLocale(String language) {
+        String normalized = language == null ? "" : language.trim().toLowerCase(Locale.ROOT);
+        return SUPPORTED_LANGUAGES.contains(normalized) ? Locale.forLanguageTag(normalized) : Locale.ENGLISH;
+    }
+
+    /**
+     * Outcome of the HVAC decision.
+     * @param actionType "HVAC_Adjustment" or "None".
+     * @param details The actionable script ("" when no action is needed).
+     * @param estimatedSavingsKwh Estimated savings in kWh.
+     */
+    public record HvacDecision(String actionType, String details, double estimatedSavingsKwh) {
+
+        public static final HvacDecision NONE = new HvacDecision("None", "", 0.0);
+
+        public boolean isAction() {
+            return !"None".equals(actionType);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.twintransition.energy.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.twintransition.energy.dto.FleetRunReport;
+import com.twintransition.energy.dto.FleetSiteRegistration;
+import com.twintransition.energy.dto.FleetSiteStatus;
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Re-optimizes every registered site on a schedule ({@code optimization.fleet.cron}, by default
+ * ten minutes before each hour, ahead of the tariff and weather change).
+ *
+ * Sites are spread over {@code partitions} by a stable hash of their id; each partition is
+ * processed sequentially by one of {@code workers} threads, and every agent call goes through
+ * a shared {@link RateLimiter}. A site whose request (history window, forecast, limits, language)
+ * has the same fingerprint as at its last successful run is skipped. The latest recommendation
+ * of each site is kept in memory and served without recomputation. Runs are coordinated on a
+ * dedicated thread, so neither the scheduler nor an HTTP request thread waits for them.
+ */
+@Service
+public class FleetReoptimizationService {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetReoptimizationService.class);
+
+    /**
+     * What a run did with one site.
+     */
+    enum Outcome { OPTIMIZED, UNCHANGED, NO_DATA, FAILED }
+
+    private final FleetSiteRegistry registry;
+    private final OptimizationService optimizationService;
+    private final OptimizationMetrics metrics;
+    private final int partitions;
+    private final RateLimiter rateLimiter;
+    private final Duration historyWindow;
+    private final Duration callTimeout;
+    private final int precision;
+    private final Clock clock;
+    private final ExecutorService workers;
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fleet-run");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ConcurrentHashMap<String, SiteEntry> latest = new ConcurrentHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile FleetRunReport lastReport;
+
+    @Autowired
+    public FleetReoptimizationService(
+            FleetSiteRegistry registry,
+            OptimizationService optimizationService,
+            OptimizationMetrics metrics,
+            @Value("${optimization.fleet.partitions:64}") int partitions,
+            @Value("${optimization.fleet.workers:8}") int workers,
+            @Value("${optimization.fleet.agent-calls-per-second:50}") double agentCallsPerSecond,
+            @Value("${optimization.fleet.history-window:P7D}") Duration historyWindow,
+            @Value("${optimization.fleet.call-timeout:PT60S}") Duration callTimeout,
+            @Value("${optimization.cache.precision:3}") int precision) {
+        this(registry, optimizationService, metrics, partitions, workers, new RateLimiter(agentCallsPerSecond),
+                historyWindow, callTimeout, precision, Clock.systemUTC());
+    }
+
+    FleetReoptimizationService(FleetSiteRegistry registry, OptimizationService optimizationService,
+                               OptimizationMetrics metrics, int partitions, int workers, RateLimiter rateLimiter,
+                               Duration historyWindow, Duration callTimeout, int precision, Clock clock) {
+        if (partitions < 1 || workers < 1) {
+            throw new IllegalArgumentException("Fleet partitions and workers must be at least 1.");
+        }
+        this.registry = registry;
+        this.optimizationService = optimizationService;
+        this.metrics = metrics;
+        this.partitions = partitions;
+        this.rateLimiter = rateLimiter;
+        this.historyWindow = historyWindow;
+        this.callTimeout = callTimeout;
+        this.precision = precision;
+        this.clock = clock;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "fleet-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(cron = "${optimization.fleet.cron:0 50 * * * *}")
+    void scheduledRun() {
+        if (!startRun()) {
+            log.warn("Fleet run skipped: the previous run is still in progress");
+        }
+    }
+
+    /**
+     * Starts the re-optimization of every registered site in the background; its report
+     * becomes {@link #lastReport()} when it completes.
+     * @return false if another run is already in progress.
+     */
+    public boolean startRun() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            coordinator.execute(() -> {
+                try {
+                    runAndPublish();
+                } catch (RuntimeException e) {
+                    log.error("Fleet run failed", e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Runs the re-optimization of every registered site and waits for it to finish.
+     * @return The run report, or empty if another run is already in progress or this one was interrupted.
+     */
+    public Optional<FleetRunReport> runNow() {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            return runAndPublish();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * An interrupted run (e.g. at shutdown) has only the partitions that finished: its report
+     * would understate the fleet, so it is neither published nor recorded in the metrics.
+     */
+    private Optional<FleetRunReport> runAndPublish() {
+        Optional<FleetRunReport> completed = run();
+        if (completed.isEmpty()) {
+            log.warn("Fleet run interrupted: its partial report was discarded");
+            return completed;
+        }
+        FleetRunReport report = completed.get();
+        lastReport = report;
+        metrics.recordFleetRun(report);
+        log.info("Fleet run: {} sites in {} ms ({} optimized, {} unchanged, {} without data, {} failed)",
+                report.sites(), report.durationMs(), report.optimized(), report.unchanged(),
+                report.noData(), report.failed());
+        return completed;
+    }
+
+    private Optional<FleetRunReport> run() {
+        Instant startedAt = clock.instant();
+        long start = System.nanoTime();
+        Instant from = startedAt.minus(historyWindow);
+
+        List<List<Map.Entry<String, FleetSiteRegistration>>> buckets = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (Map.Entry<String, FleetSiteRegistration> site : registry.sites().entrySet()) {
+            buckets.get(partitionOf(site.getKey())).add(site);
+        }
+
+        List<Future<FleetRunReport.Partition>> futures = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            if (!buckets.get(i).isEmpty()) {
+                int index = i;
+                futures.add(workers.submit(() -> runPartition(index, buckets.get(index), from, startedAt, start)));
+            }
+        }
+
+        List<FleetRunReport.Partition> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<FleetRunReport.Partition> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Fleet partition failed", e.getCause());
+        }
+
+        long nanos = System.nanoTime() - start;
+        int sites = 0, optimized = 0, unchanged = 0, noData = 0, failed = 0;
+        for (FleetRunReport.Partition partition : results) {
+            sites += partition.sites();
+            optimized += partition.optimized();
+            unchanged += partition.unchanged();
+            noData += partition.noData();
+            failed += partition.failed();
+        }
+        return Optional.of(new FleetRunReport(startedAt, TimeUnit.NANOSECONDS.toMillis(nanos), sites, optimized, unchanged,
+                noData, failed, sites * 1e9 / Math.max(1, nanos), results));
+    }
+
+    int partitionOf(String siteId) {
+        return Math.floorMod(siteId.hashCode(), partitions);
+    }
+
+    private FleetRunReport.Partition runPartition(int index, List<Map.Entry<String, FleetSiteRegistration>> sites,
+                                                  Instant from, Instant to, long runStart) {
+        long start = System.nanoTime();
+        int[] outcomes = new int[Outcome.values().length];
+        for (Map.Entry<String, FleetSiteRegistration> site : sites) {
+            outcomes[optimizeSite(site.getKey(), site.getValue(), from, to).ordinal()]++;
+        }
+        long end = System.nanoTime();
+        return new FleetRunReport.Partition(index, sites.size(),
+                outcomes[Outcome.OPTIMIZED.ordinal()], outcomes[Outcome.UNCHANGED.ordinal()],
+                outcomes[Outcome.NO_DATA.ordinal()], outcomes[Outcome.FAILED.ordinal()],
+                TimeUnit.NANOSECONDS.toMillis(start - runStart), TimeUnit.NANOSECONDS.toMillis(end - start),
+                TimeUnit.NANOSECONDS.toMillis(end - runStart));
+    }
+
+    Outcome optimizeSite(String siteId, FleetSiteRegistration site, Instant from, Instant runAt) {
+        SiteEntry previous = latest.get(siteId);
+        OptimizationRequest request;
+        try {
+            request = optimizationService.buildRequestFromHistory(siteId, from, runAt, null,
+                    site.limits(), site.selectedLanguage());
+        } catch (SiteNotFoundException e) {
+            return recordVisit(siteId, previous, runAt, Outcome.NO_DATA, null);
+        } catch (RuntimeException e) {
+            return recordVisit(siteId, previous, runAt, Outcome.FAILED, e.getMessage());
+        }
+
+        RequestFingerprint fingerprint = RequestFingerprint.of(request, precision);
+        if (previous != null && fingerprint.equals(previous.fingerprint())) {
+            return recordVisit(siteId, previous, runAt, Outcome.UNCHANGED, null);
+        }
+
+        try {
+            rateLimiter.acquire();
+            OptimizationRecommendation recommendation = optimizationService.generateRecommendationAsync(siteId, request, AdmissionLane.SCHEDULED)
+                    .block(callTimeout);
+            if (recommendation == null) {
+                return recordVisit(siteId, previous, runAt, Outcome.FAILED, "Agent returned no recommendation.");
+            }
+            latest.put(siteId, new SiteEntry(fingerprint,
+                    new FleetSiteStatus(siteId, recommendation, runAt, runAt, Outcome.OPTIMIZED.name(), null)));
+            return Outcome.OPTIMIZED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return recordVisit(siteId, previous, runAt, Outcome.FAILED, "Fleet run interrupted.");
+        } catch (RuntimeException e) {
+            return recordVisit(siteId, previous, runAt, Outcome.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Records a visit that produced no new recommendation: the previous one (and its
+     * fingerprint) is kept, so a failed site is retried on the next run.
+     */
+    private Outcome recordVisit(String siteId, SiteEntry previous, Instant runAt, Outcome outcome, String error) {
+        FleetSiteStatus status = previous == null
+                ? new FleetSiteStatus(siteId, null, null, runAt, outcome.name(), error)
+                : new FleetSiteStatus(siteId, previous.status().recommendation(), previous.status().computedAt(),
+                        runAt, outcome.name(), error);
+        latest.put(siteId, new SiteEntry(previous == null ? null : previous.fingerprint(), status));
+        return outcome;
+    }
+
+    /**
+     * Enrolls a site; a change of limits or language changes its fingerprint, so the next run recomputes it.
+     */
+    public void register(String siteId, FleetSiteRegistration registration) {
+        registry.register(siteId, registration);
+    }
+
+    /**
+     * Removes a site from the fleet together with its stored recommendation.
+     * @throws SiteNotFoundException if the site was not enrolled.
+     */
+    public void unregister(String siteId) {
+        latest.remove(siteId);
+        if (!registry.unregister(siteId)) {
+            throw new SiteNotFoundException(siteId, "Site " + siteId + " is not registered for fleet re-optimization.");
+        }
+    }
+
+    /**
+     * @throws SiteNotFoundException if no run has visited the site yet.
+     */
+    public FleetSiteStatus latest(String siteId) {
+        SiteEntry entry = latest.get(siteId);
+        if (entry == null) {
+            throw new SiteNotFoundException(siteId, "No fleet run has visited site " + siteId + " yet.");
+        }
+        return entry.status();
+    }
+
+    /**
+     * @throws ResourceNotFoundException if no run has completed since startup.
+     */
+    public FleetRunReport lastReport() {
+        FleetRunReport report = lastReport;
+        if (report == null) {
+            throw new ResourceNotFoundException("No fleet run has completed yet.");
+        }
+        return report;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private record SiteEntry(RequestFingerprint fingerprint, FleetSiteStatus status) {}
+}
@@ -0,0 +1,76 @@
+package com.twintransition.energy.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.twintransition.energy.dto.FleetSiteRegistration;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Sites enrolled in the scheduled fleet re-optimization. Registrations are written through
+ * to the {@code fleet_site} table and served from memory, so a run never touches the database.
+ */
+@Service
+public class FleetSiteRegistry {
+
+    private static final int MAX_SITE_ID_LENGTH = 128;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentHashMap<String, FleetSiteRegistration> sites = new ConcurrentHashMap<>();
+
+    public FleetSiteRegistry(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void load() {
+        jdbcTemplate.query("SELECT site_id, max_temp, min_comfort_temp, selected_language FROM fleet_site",
+                row -> {
+                    sites.put(row.getString("site_id"), new FleetSiteRegistration(
+                            new OptimizationLimitsDto(row.getDouble("max_temp"), row.getDouble("min_comfort_temp")),
+                            row.getString("selected_language")));
+                });
+    }
+
+    /**
+     * Enrolls a site, or replaces its limits and language if it is already enrolled.
+     */
+    public void register(String siteId, FleetSiteRegistration registration) {
+        if (siteId == null || siteId.isBlank() || siteId.length() > MAX_SITE_ID_LENGTH) {
+            throw new InvalidRequestException("Site id must have between 1 and " + MAX_SITE_ID_LENGTH + " characters.");
+        }
+        jdbcTemplate.update(
+                "MERGE INTO fleet_site (site_id, max_temp, min_comfort_temp, selected_language, registered_at) "
+                        + "KEY (site_id) VALUES (?, ?, ?, ?, ?)",
+                siteId, registration.limits().maxTemp(), registration.limits().minComfortTemp(),
+                registration.selectedLanguage(), Timestamp.from(Instant.now()));
+        sites.put(siteId, registration);
+    }
+
+    /**
+     * @return false if the site was not enrolled.
+     */
+    public boolean unregister(String siteId) {
+        jdbcTemplate.update("DELETE FROM fleet_site WHERE site_id = ?", siteId);
+        return sites.remove(siteId) != null;
+    }
+
+    /**
+     * Snapshot of the enrolled sites, ordered by site id.
+     */
+    public Map<String, FleetSiteRegistration> sites() {
+        return new TreeMap<>(sites);
+    }
+
+    public int size() {
+        return sites.size();
+    }
+}
@@ -0,0 +1,110 @@
+package com.twintransition.energy.service;
+
+/**
+ * Sufficient statistics of an hour-of-day regression: per-hour reading weight and sum.
+ * They are enough to rebuild the least squares fit {@code consumption ~ hour} that the
+ * Python agent computes with sklearn's LinearRegression, without keeping the readings.
+ */
+public class HourOfDayStatistics {
+
+    public static final int HOURS = 24;
+
+    private final double[] weights = new double[HOURS];
+    private final double[] sums = new double[HOURS];
+
+    /**
+     * Accumulates a series whose first point is at midnight and that has one point per hour.
+     */
+    public static HourOfDayStatistics ofHourlySeries(double[] series) {
+        HourOfDayStatistics statistics = new HourOfDayStatistics();
+        for (int i = 0; i < series.length; i++) {
+            statistics.add(i % HOURS, series[i]);
+        }
+        return statistics;
+    }
+
+    public void add(int hour, double value) {
+        add(hour, value, 1.0);
+    }
+
+    public void add(int hour, double value, double weight) {
+        weights[hour] += weight;
+        sums[hour] += weight * value;
+    }
+
+    public double totalWeight() {
+        double total = 0.0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        return total;
+    }
+
+    /**
+     * Least squares fit of value against hour, evaluated for hours 0..23 and clipped at 0
+     * (same as {@code get_demand_forecast} in optimization_agent.py).
+     * @return The 24-hour demand forecast in kWh.
+     */
+    public double[] forecast() {
+        return forecast(new double[HOURS]);
+    }
+
+    /**
+     * Allocation-free variant writing the forecast into {@code target}.
+     */
+    public double[] forecast(double[] target) {
+        double n = 0.0;
+        double sumX = 0.0;
+        double sumY = 0.0;
+        double sumXY = 0.0;
+        double sumXX = 0.0;
+        for (int hour = 0; hour < HOURS; hour++) {
+            n += weights[hour];
+            sumX += hour * weights[hour];
+            sumXX += (double) hour * hour * weights[hour];
+            sumY += sums[hour];
+            sumXY += hour * sums[hour];
+        }
+        if (n == 0.0) {
+            throw new IllegalStateException("Historical data is empty, cannot run forecast.");
+        }
+
+        double variance = n * sumXX - sumX * sumX;
+        // A single distinct hour has no slope: sklearn then predicts the mean everywhere
+        double slope = Math.abs(variance) < 1e-12 ? 0.0 : (n * sumXY - sumX * sumY) / variance;
+        double intercept = (sumY - slope * sumX) / n;
+
+        for (int hour = 0; hour < HOURS; hour++) {
+            target[hour] = Math.max(0.0, intercept + slope * hour);
+        }
+        return target;
+    }
+
+    /**
+     * Multiplies every accumulated weight and sum by {@code factor} (exponential decay).
+     */
+    public void scale(double factor) {
+        for (int hour = 0; hour < HOURS; hour++) {
+            weights[hour] *= factor;
+            sums[hour] *= factor;
+        }
+    }
+
+    double[] weights() {
+        return weights;
+    }
+
+    double[] sums() {
+        return sums;
+    }
+
+    /**
+     * Restores statistics previously read through {@link #weights()} and {@link #sums()}.
+     */
+    static HourOfDayStatistics restore(double[] weights, double[] sums) {
+        HourOfDayStatistics statistics = new HourOfDayStatistics();
+        System.arraycopy(weights, 0, statistics.weights, 0, HOURS);
+        System.arraycopy(sums, 0, statistics.sums, 0, HOURS);
+        return statistics;
+    }
+}
@@ -0,0 +1,328 @@
+package com.twintransition.energy.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hourly setpoint schedule over the next 24 hours for many HVAC zones, by dynamic programming
+ * over discretized setpoints ({@code optimization.schedule}).
+ *
+ * <p>Model, per zone: the zone's share of the forecast demand is what it consumes at its reference
+ * setpoint (the middle of its comfort band). Each degree the setpoint moves towards the outdoor
+ * temperature saves {@code sensitivityPerC} of that load, each degree away costs as much. An hour
+ * costs {@code kWh x (tariff[hour] + co2Price x KGCO2_PER_KWH)}. The setpoint stays within
+ * [minComfortTemp, maxTemp], starts within one ramp of the reference and moves by at most
+ * {@code max-ramp-per-hour} between hours; {@code switch-penalty} charges each degree of change.
+ *
+ * <p>Zones are split across the common ForkJoinPool. Each leaf task allocates one workspace and
+ * reuses it for all its zones, so the DP inner loop allocates nothing.
+ */
+@Component
+public class HvacScheduleOptimizer {
+
+    public static final int HOURS = 24;
+
+    private final double setpointStep;
+    private final double maxRampPerHour;
+    private final double switchPenaltyEurPerDegree;
+    private final double[] tariffEurPerKwh;
+    private final double co2PriceEurPerKg;
+    private final int zonesPerTask;
+
+    public HvacScheduleOptimizer(
+            @Value("${optimization.schedule.setpoint-step:0.5}") double setpointStep,
+            @Value("${optimization.schedule.max-ramp-per-hour:1.0}") double maxRampPerHour,
+            @Value("${optimization.schedule.switch-penalty-eur-per-degree:0.0}") double switchPenaltyEurPerDegree,
+            @Value("${optimization.schedule.tariff-eur-per-kwh:0.25}") double[] tariffEurPerKwh,
+            @Value("${optimization.schedule.co2-price-eur-per-kg:0.1}") double co2PriceEurPerKg,
+            @Value("${optimization.schedule.zones-per-task:16}") int zonesPerTask) {
+        if (setpointStep <= 0 || maxRampPerHour < 0 || zonesPerTask < 1) {
+            throw new IllegalArgumentException("Schedule setpoint step must be positive, ramp non-negative and zones-per-task at least 1.");
+        }
+        if (tariffEurPerKwh.length != 1 && tariffEurPerKwh.length != HOURS) {
+            throw new IllegalArgumentException("Schedule tariff must have 1 or 24 hourly values.");
+        }
+        this.setpointStep = setpointStep;
+        this.maxRampPerHour = maxRampPerHour;
+        this.switchPenaltyEurPerDegree = switchPenaltyEurPerDegree;
+        this.tariffEurPerKwh = tariffEurPerKwh.length == HOURS ? tariffEurPerKwh.clone() : filled(tariffEurPerKwh[0]);
+        this.co2PriceEurPerKg = co2PriceEurPerKg;
+        this.zonesPerTask = zonesPerTask;
+    }
+
+    private static double[] filled(double value) {
+        double[] values = new double[HOURS];
+        Arrays.fill(values, value);
+        return values;
+    }
+
+    /**
+     * Optimizes every zone against the same demand and outdoor temperature forecasts.
+     * @param demandForecastKwh Site demand per hour (24 values).
+     * @param outdoorTempC Outdoor temperature per hour; shorter forecasts hold their last value.
+     * @param zones The zones to schedule.
+     * @return The per-zone schedules and energy/cost totals.
+     */
+    public HvacSchedule optimize(double[] demandForecastKwh, double[] outdoorTempC, ZoneSpec[] zones) {
+        if (demandForecastKwh.length != HOURS) {
+            throw new IllegalArgumentException("Demand forecast must have 24 hourly values.");
+        }
+        if (outdoorTempC.length == 0) {
+            throw new IllegalArgumentException("Outdoor temperature forecast must contain at least one value.");
+        }
+        double[] outdoor = new double[HOURS];
+        double[] pricePerKwh = new double[HOURS];
+        for (int hour = 0; hour < HOURS; hour++) {
+            outdoor[hour] = outdoorTempC[Math.min(hour, outdoorTempC.length - 1)];
+            pricePerKwh[hour] = tariffEurPerKwh[hour] + co2PriceEurPerKg * EmbeddedOptimizationEngine.KGCO2_PER_KWH;
+        }
+        HvacSchedule schedule = new HvacSchedule(zones);
+        Problem problem = new Problem(demandForecastKwh, outdoor, pricePerKwh, zones, schedule);
+        if (zones.length <= zonesPerTask) {
+            new ZoneTask(problem, 0, zones.length).compute();
+        } else {
+            ForkJoinPool.commonPool().invoke(new ZoneTask(problem, 0, zones.length));
+        }
+        return schedule;
+    }
+
+    private record Problem(double[] demand, double[] outdoor, double[] pricePerKwh, ZoneSpec[] zones, HvacSchedule schedule) {}
+
+    private final class ZoneTask extends RecursiveAction {
+
+        private final Problem problem;
+        private final int from;
+        private final int to;
+
+        ZoneTask(Problem problem, int from, int to) {
+            this.problem = problem;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > zonesPerTask) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ZoneTask(problem, from, middle), new ZoneTask(problem, middle, to));
+                return;
+            }
+            int maxStates = 1;
+            for (int zone = from; zone < to; zone++) {
+                maxStates = Math.max(maxStates, states(problem.zones()[zone]));
+            }
+            Workspace workspace = new Workspace(maxStates);
+            for (int zone = from; zone < to; zone++) {
+                optimizeZone(problem, zone, workspace);
+            }
+        }
+    }
+
+    /**
+     * Per-task DP buffers, sized for the widest comfort band of the task's zones.
+     */
+    private static final class Workspace {
+
+        final double[] previous;
+        final double[] current;
+        final int[] backPointers;
+
+        Workspace(int maxStates) {
+            previous = new double[maxStates];
+            current = new double[maxStates];
+            backPointers = new int[HOURS * maxStates];
+        }
+    }
+
+    private int states(ZoneSpec zone) {
+        double band = Math.abs(zone.maxTemp() - zone.minComfortTemp());
+        return (int) Math.floor(band / setpointStep + 1e-9) + 1;
+    }
+
+    private void optimizeZone(Problem problem, int zone, Workspace workspace) {
+        ZoneSpec spec = problem.zones()[zone];
+        double low = Math.min(spec.minComfortTemp(), spec.maxTemp());
+        int states = states(spec);
+        int reference = (states - 1) / 2;
+        double referenceTemp = low + reference * setpointStep;
+        int ramp = (int) Math.floor(maxRampPerHour / setpointStep + 1e-9);
+        double penaltyPerStep = switchPenaltyEurPerDegree * setpointStep;
+        double sensitivity = spec.sensitivityPerC();
+        double[] previous = workspace.previous;
+        double[] current = workspace.current;
+        int[] back = workspace.backPointers;
+        double[] demand = problem.demand();
+        double[] outdoor = problem.outdoor();
+        double[] price = problem.pricePerKwh();
+
+        // Hour 0: reachable from the reference setpoint within one ramp
+        double load = Math.max(0.0, demand[0] * spec.loadShare());
+        for (int i = 0; i < states; i++) {
+            int distance = Math.abs(i - reference);
+            previous[i] = distance > ramp
+                    ? Double.POSITIVE_INFINITY
+                    : energy(load, sensitivity, outdoor[0], low + i * setpointStep, referenceTemp) * price[0]
+                        + distance * penaltyPerStep;
+        }
+        for (int hour = 1; hour < HOURS; hour++) {
+            load = Math.max(0.0, demand[hour] * spec.loadShare());
+            int row = hour * states;
+            for (int j = 0; j < states; j++) {
+                int first = Math.max(0, j - ramp);
+                int last = Math.min(states - 1, j + ramp);
+                double best = Double.POSITIVE_INFINITY;
+                int bestFrom = j;
+                for (int i = first; i <= last; i++) {
+                    double candidate = previous[i] + Math.abs(i - j) * penaltyPerStep;
+                    if (candidate < best) {
+                        best = candidate;
+                        bestFrom = i;
+                    }
+                }
+                current[j] = best + energy(load, sensitivity, outdoor[hour], low + j * setpointStep, referenceTemp) * price[hour];
+                back[row + j] = bestFrom;
+            }
+            double[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        int state = 0;
+        for (int j = 1; j < states; j++) {
+            if (previous[j] < previous[state]) {
+                state = j;
+            }
+        }
+        HvacSchedule schedule = problem.schedule();
+        double optimizedKwh = 0.0;
+        double optimizedCost = 0.0;
+        double baselineKwh = 0.0;
+        double baselineCost = 0.0;
+        for (int hour = HOURS - 1; hour >= 0; hour--) {
+            double setpoint = low + state * setpointStep;
+            load = Math.max(0.0, demand[hour] * spec.loadShare());
+            double kwh = energy(load, sensitivity, outdoor[hour], setpoint, referenceTemp);
+            schedule.setpoints[zone * HOURS + hour] = setpoint;
+            optimizedKwh += kwh;
+            optimizedCost += kwh * price[hour];
+            baselineKwh += load;
+            baselineCost += load * price[hour];
+            if (hour > 0) {
+                state = back[hour * states + state];
+            }
+        }
+        schedule.baselineKwh[zone] = baselineKwh;
+        schedule.optimizedKwh[zone] = optimizedKwh;
+        schedule.baselineCostEur[zone] = baselineCost;
+        schedule.optimizedCostEur[zone] = optimizedCost;
+    }
+
+    /**
+     * Zone consumption at a setpoint, relative to its consumption at the reference setpoint.
+     */
+    private static double energy(double load, double sensitivity, double outdoor, double setpoint, double referenceTemp) {
+        double factor = 1.0 + sensitivity * (Math.abs(outdoor - setpoint) - Math.abs(outdoor - referenceTemp));
+        return factor > 0.0 ? load * factor : 0.0;
+    }
+
+    /**
+     * One HVAC zone of the site.
+     * @param loadShare Fraction of the site demand consumed by the zone.
+     * @param sensitivityPerC Fraction of the zone load saved per degree the setpoint moves towards the outdoor temperature.
+     */
+    public record ZoneSpec(String id, double loadShare, double sensitivityPerC, double minComfortTemp, double maxTemp) {}
+
+    /**
+     * Optimized schedules, flat: the setpoint of zone z at hour h is {@code setpoints[z * 24 + h]}.
+     */
+    public static final class HvacSchedule {
+
+        private final ZoneSpec[] zones;
+        final double[] setpoints;
+        final double[] baselineKwh;
+        final double[] optimizedKwh;
+        final double[] baselineCostEur;
+        final double[] optimizedCostEur;
+
+        HvacSchedule(ZoneSpec[] zones) {
+            this.zones = zones;
+            this.setpoints = new double[zones.length * HOURS];
+            this.baselineKwh = new double[zones.length];
+            this.optimizedKwh = new double[zones.length];
+            this.baselineCostEur = new double[zones.length];
+            this.optimizedCostEur = new double[zones.length];
+        }
+
+        public int zoneCount() {
+            return zones.length;
+        }
+
+        public ZoneSpec zone(int zone) {
+            return zones[zone];
+        }
+
+        public double setpoint(int zone, int hour) {
+            return setpoints[zone * HOURS + hour];
+        }
+
+        public double baselineKwh(int zone) {
+            return baselineKwh[zone];
+        }
+
+        public double optimizedKwh(int zone) {
+            return optimizedKwh[zone];
+        }
+
+        public double baselineCostEur(int zone) {
+            return baselineCostEur[zone];
+        }
+
+        public double optimizedCostEur(int zone) {
+            return optimizedCostEur[zone];
+        }
+
+        public double savedKwh() {
+            return sum(baselineKwh) - sum(optimizedKwh);
+        }
+
+        public double savedCostEur() {
+            return sum(baselineCostEur) - sum(optimizedCostEur);
+        }
+
+        private static double sum(double[] values) {
+            double total = 0.0;
+            for (double value : values) {
+                total += value;
+            }
+            return total;
+        }
+
+        /**
+         * Human-readable schedule, one line per zone with consecutive equal setpoints merged,
+         * e.g. {@code zone-1: 00-06h 23.0C, 06-24h 24.0C}.
+         */
+        public String toScript() {
+            StringBuilder script = new StringBuilder(zones.length * 64);
+            for (int zone = 0; zone < zones.length; zone++) {
+                if (zone > 0) {
+                    script.append('\n');
+                }
+                script.append(zones[zone].id()).append(':');
+                int start = 0;
+                for (int hour = 1; hour <= HOURS; hour++) {
+                    if (hour == HOURS || setpoint(zone, hour) != setpoint(zone, start)) {
+                        script.append(start == 0 ? " " : ", ")
+                                .append(String.format(Locale.ROOT, "%02d-%02dh %.1fC", start, hour, setpoint(zone, start)));
+                        start = hour;
+                    }
+                }
+            }
+            return script.toString();
+        }
+    }
+}
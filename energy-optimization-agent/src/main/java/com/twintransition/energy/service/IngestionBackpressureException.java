@@ -0,0 +1,25 @@
+package com.twintransition.energy.service;
+
+/**
+ * Thrown when the telemetry write buffer stays full for longer than the configured wait.
+ * Readings enqueued before the rejection are kept; the client should retry the rest later.
+ */
+public class IngestionBackpressureException extends RuntimeException {
+
+    private final long accepted;
+    private final long retryAfterSeconds;
+
+    public IngestionBackpressureException(long accepted, long retryAfterSeconds) {
+        super("Telemetry buffer is full: " + accepted + " readings accepted before rejection.");
+        this.accepted = accepted;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,16 @@
+package com.twintransition.energy.service;
+
+/**
+ * Thrown when a request breaks a rule the services check beyond bean validation
+ * (e.g. a page size out of range or a history interval that does not divide the bucket).
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
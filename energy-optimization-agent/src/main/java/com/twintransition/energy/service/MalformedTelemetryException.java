@@ -0,0 +1,25 @@
+package com.twintransition.energy.service;
+
+/**
+ * Thrown when a telemetry body stops being valid JSON. Readings enqueued before the
+ * malformed line are kept; the client can resend from {@code line}.
+ */
+public class MalformedTelemetryException extends RuntimeException {
+
+    private final long accepted;
+    private final long line;
+
+    public MalformedTelemetryException(long accepted, long line, String detail, Throwable cause) {
+        super("Malformed telemetry at line " + line + " (" + accepted + " readings accepted before it): " + detail, cause);
+        this.accepted = accepted;
+        this.line = line;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getLine() {
+        return line;
+    }
+}
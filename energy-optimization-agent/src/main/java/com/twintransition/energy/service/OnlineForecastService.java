@@ -0,0 +1,219 @@
+package com.twintransition.energy.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.twintransition.energy.dto.SiteForecastDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Per-site incremental forecaster. Each site keeps only its {@link HourOfDayStatistics}
+ * (24 weights and 24 sums), so a new reading is absorbed in O(1) and the 24-hour forecast is
+ * served without rescanning history, whatever its length.
+ *
+ * With {@code optimization.forecast.decay-half-life} set, older readings are exponentially
+ * down-weighted by elapsed time. States are snapshotted to the database on a fixed delay
+ * and at shutdown, and reloaded at startup.
+ */
+@Service
+public class OnlineForecastService {
+
+    private static final Logger log = LoggerFactory.getLogger(OnlineForecastService.class);
+    private static final int STATISTICS_BYTES = HourOfDayStatistics.HOURS * Double.BYTES;
+    private static final String MERGE_STATE =
+            "MERGE INTO site_forecast_state (site_id, hour_weights, hour_sums, reading_count, last_reading_at, updated_at) "
+                    + "KEY (site_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ZoneId zoneId;
+    private final double halfLifeSeconds;
+    private final ConcurrentHashMap<String, SiteState> sites = new ConcurrentHashMap<>();
+
+    public OnlineForecastService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${optimization.forecast.zone-id:UTC}") String zoneId,
+            @Value("${optimization.forecast.decay-half-life:PT0S}") Duration decayHalfLife) {
+        // Readings are timed to the second, so a shorter half-life cannot be applied
+        if (decayHalfLife.isNegative() || (!decayHalfLife.isZero() && decayHalfLife.compareTo(Duration.ofSeconds(1)) < 0)) {
+            throw new IllegalArgumentException("optimization.forecast.decay-half-life must be zero or at least 1 second.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.zoneId = ZoneId.of(zoneId).normalized();
+        this.halfLifeSeconds = decayHalfLife.toMillis() / 1000.0;
+    }
+
+    /**
+     * Absorbs one reading into the site state in constant time.
+     */
+    public void addReading(String siteId, Instant timestamp, double consumptionKwh) {
+        SiteState state = sites.get(siteId);
+        if (state == null) {
+            // The id is the key of site_forecast_state: an id it cannot hold would never be snapshotted
+            if (!ColumnarSeriesStore.isValidSiteId(siteId)) {
+                throw new InvalidRequestException("Invalid site id: " + siteId);
+            }
+            state = sites.computeIfAbsent(siteId, id -> new SiteState(new HourOfDayStatistics(), 0, Long.MIN_VALUE));
+        }
+        long epochSecond = timestamp.getEpochSecond();
+        int hour = hourOf(timestamp);
+
+        synchronized (state) {
+            double weight = 1.0;
+            if (halfLifeSeconds > 0 && state.lastReadingAt != Long.MIN_VALUE) {
+                long elapsed = epochSecond - state.lastReadingAt;
+                if (elapsed > 0) {
+                    state.statistics.scale(decayFactor(elapsed));
+                } else if (elapsed < 0) {
+                    // Late reading: weight it as if the decay had already been applied to it
+                    weight = decayFactor(-elapsed);
+                }
+            }
+            state.statistics.add(hour, consumptionKwh, weight);
+            state.readingCount++;
+            state.lastReadingAt = Math.max(state.lastReadingAt, epochSecond);
+            state.dirty = true;
+        }
+    }
+
+    /**
+     * Serves the 24-hour forecast from the current state.
+     * @throws SiteNotFoundException if the site has never received a reading.
+     */
+    public SiteForecastDto forecast(String siteId) {
+        SiteState state = sites.get(siteId);
+        if (state == null) {
+            throw new SiteNotFoundException(siteId, "No readings received for site " + siteId + ".");
+        }
+        synchronized (state) {
+            return new SiteForecastDto(siteId, state.statistics.forecast(), state.readingCount,
+                    Instant.ofEpochSecond(state.lastReadingAt));
+        }
+    }
+
+    @PostConstruct
+    void loadStates() {
+        jdbcTemplate.query("SELECT site_id, hour_weights, hour_sums, reading_count, last_reading_at FROM site_forecast_state",
+                row -> {
+                    HourOfDayStatistics statistics = HourOfDayStatistics.restore(
+                            decode(row.getBytes("hour_weights")), decode(row.getBytes("hour_sums")));
+                    sites.put(row.getString("site_id"),
+                            new SiteState(statistics, row.getLong("reading_count"), row.getLong("last_reading_at")));
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${optimization.forecast.persist-interval:PT30S}")
+    @PreDestroy
+    void snapshot() {
+        persistDirtyStates();
+    }
+
+    /**
+     * Writes the states changed since the last snapshot in a single JDBC batch. If the batch
+     * fails, the states are written one by one so that a single bad row does not hold back the
+     * others; the states that still fail stay dirty and are retried by the next snapshot.
+     * @return The number of sites persisted.
+     * @throws DataAccessException if no state could be written (e.g. the database is down).
+     */
+    public int persistDirtyStates() {
+        List<Object[]> rows = new ArrayList<>();
+        List<SiteState> states = new ArrayList<>();
+        Timestamp now = Timestamp.from(Instant.now());
+        sites.forEach((siteId, state) -> {
+            synchronized (state) {
+                if (state.dirty) {
+                    states.add(state);
+                    rows.add(new Object[] {
+                            siteId,
+                            encode(state.statistics.weights()),
+                            encode(state.statistics.sums()),
+                            state.readingCount,
+                            state.lastReadingAt,
+                            now
+                    });
+                    // Cleared before the write so that readings arriving meanwhile mark the state again
+                    state.dirty = false;
+                }
+            }
+        });
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        try {
+            jdbcTemplate.batchUpdate(MERGE_STATE, rows);
+            return rows.size();
+        } catch (RuntimeException batchFailure) {
+            List<Integer> failed = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                try {
+                    jdbcTemplate.update(MERGE_STATE, rows.get(i));
+                } catch (RuntimeException e) {
+                    failed.add(i);
+                    SiteState state = states.get(i);
+                    synchronized (state) {
+                        state.dirty = true;
+                    }
+                }
+            }
+            if (failed.size() == rows.size()) {
+                throw batchFailure;
+            }
+            for (int i : failed) {
+                log.warn("Could not snapshot the forecast state of site {}; it will be retried", rows.get(i)[0]);
+            }
+            return rows.size() - failed.size();
+        }
+    }
+
+    private int hourOf(Instant timestamp) {
+        return ZoneOffset.UTC.equals(zoneId)
+                ? (int) Math.floorMod(timestamp.getEpochSecond() / 3600, 24L)
+                : timestamp.atZone(zoneId).getHour();
+    }
+
+    private double decayFactor(long elapsedSeconds) {
+        return Math.pow(0.5, elapsedSeconds / halfLifeSeconds);
+    }
+
+    private static byte[] encode(double[] values) {
+        ByteBuffer buffer = ByteBuffer.allocate(STATISTICS_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asDoubleBuffer().put(values);
+        return buffer.array();
+    }
+
+    private static double[] decode(byte[] bytes) {
+        double[] values = new double[HourOfDayStatistics.HOURS];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values);
+        return values;
+    }
+
+    private static final class SiteState {
+        private final HourOfDayStatistics statistics;
+        private long readingCount;
+        private long lastReadingAt;
+        private boolean dirty;
+
+        private SiteState(HourOfDayStatistics statistics, long readingCount, long lastReadingAt) {
+            this.statistics = statistics;
+            this.readingCount = readingCount;
+            this.lastReadingAt = lastReadingAt;
+        }
+    }
+}
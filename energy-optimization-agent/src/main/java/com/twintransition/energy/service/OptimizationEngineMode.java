@@ -0,0 +1,25 @@
+package com.twintransition.energy.service;
+
+import java.util.Locale;
+
+/**
+ * Where recommendations are computed, selected per deployment with {@code optimization.engine.mode}.
+ */
+public enum OptimizationEngineMode {
+
+    /** Every recommendation is computed by the Python agent over HTTP. */
+    REMOTE,
+
+    /** Every recommendation is computed in-process by {@link EmbeddedOptimizationEngine}. */
+    EMBEDDED,
+
+    /** In-process first; the Python agent is only called if the embedded engine fails. */
+    EMBEDDED_WITH_REMOTE_FALLBACK;
+
+    /**
+     * Parses the property value ({@code remote}, {@code embedded}, {@code embedded-with-remote-fallback}).
+     */
+    public static OptimizationEngineMode fromProperty(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
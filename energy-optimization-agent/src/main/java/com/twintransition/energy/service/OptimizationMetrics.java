@@ -0,0 +1,298 @@
+package com.twintransition.energy.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.twintransition.energy.dto.FleetRunReport;
+import com.twintransition.energy.dto.OptimizationRequest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+/**
+ * Micrometer instrumentation of the recommendation hot path, exported on /actuator/prometheus.
+ *
+ * <ul>
+ *   <li>{@code optimization.stage} (timer, tag stage): json.read, validation, service, message,
+ *       stream.first-event and stream.complete (streamed recommendations)</li>
+ *   <li>{@code optimization.recommendations} (timer, tag outcome) and {@code optimization.recommendations.in.flight}</li>
+ *   <li>{@code optimization.agent.requests} (timer, tags status, exception) and {@code optimization.agent.in.flight}</li>
+ *   <li>{@code optimization.agent.errors} (counter, tags status, exception)</li>
+ *   <li>{@code optimization.request.series.size} (summary, tag series) and {@code optimization.request.payload}</li>
+ *   <li>{@code optimization.fleet.run} (timer), {@code optimization.fleet.partition.completion} (timer)
+ *       and {@code optimization.fleet.sites} (counter, tag outcome)</li>
+ *   <li>{@code optimization.admission.limit}, {@code optimization.admission.in.flight} and
+ *       {@code optimization.admission.queued} (gauges, tag lane), {@code optimization.admission.admitted}
+ *       and {@code optimization.admission.rejected} (counters, tag lane)</li>
+ * </ul>
+ * Timers publish percentile histograms. Meters are registered once and cached per tag value,
+ * so recording is a map lookup plus the meter update. With {@code optimization.metrics.enabled=false}
+ * every method is a no-op.
+ */
+@Component
+public class OptimizationMetrics {
+
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> agentTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> agentErrors = new ConcurrentHashMap<>();
+    private final Map<String, Timer> recommendationTimers = new ConcurrentHashMap<>();
+    private final AtomicInteger agentInFlight = new AtomicInteger();
+    private final AtomicInteger recommendationsInFlight = new AtomicInteger();
+    private final DistributionSummary historicalSize;
+    private final DistributionSummary forecastSize;
+    private final DistributionSummary payloadBytes;
+
+    @Autowired
+    public OptimizationMetrics(MeterRegistry registry, @Value("${optimization.metrics.enabled:true}") boolean enabled) {
+        this.registry = registry;
+        this.enabled = enabled && registry != null;
+        if (!this.enabled) {
+            historicalSize = null;
+            forecastSize = null;
+            payloadBytes = null;
+            return;
+        }
+        Gauge.builder("optimization.agent.in.flight", agentInFlight, AtomicInteger::get)
+                .description("Calls to the optimization agent awaiting a response")
+                .register(registry);
+        Gauge.builder("optimization.recommendations.in.flight", recommendationsInFlight, AtomicInteger::get)
+                .description("Recommendations being computed")
+                .register(registry);
+        historicalSize = seriesSummary("historical");
+        forecastSize = seriesSummary("forecast");
+        payloadBytes = DistributionSummary.builder("optimization.request.payload")
+                .description("Size of recommendation request bodies")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Instance that records nothing (tests, or callers built without Spring).
+     */
+    public static OptimizationMetrics disabled() {
+        return new OptimizationMetrics(null, false);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private DistributionSummary seriesSummary(String series) {
+        return DistributionSummary.builder("optimization.request.series.size")
+                .description("Number of points in the request series")
+                .baseUnit("points")
+                .tag("series", series)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Runs a stage of the request and records its duration, whether it succeeds or throws.
+     */
+    public <T> T timeStage(String stage, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            recordStage(stage, System.nanoTime() - start);
+        }
+    }
+
+    public void recordStage(String stage, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        Timer timer = stageTimers.get(stage);
+        if (timer == null) {
+            timer = stageTimers.computeIfAbsent(stage, key -> Timer.builder("optimization.stage")
+                    .description("Duration of each stage of a recommendation request")
+                    .tag("stage", key)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRequest(OptimizationRequest request) {
+        if (!enabled) {
+            return;
+        }
+        if (request.historicalConsumptionKwH() != null) {
+            historicalSize.record(request.historicalConsumptionKwH().size());
+        }
+        if (request.weatherForecastDegreesC() != null) {
+            forecastSize.record(request.weatherForecastDegreesC().size());
+        }
+    }
+
+    public void recordPayloadBytes(long bytes) {
+        if (enabled && bytes >= 0) {
+            payloadBytes.record(bytes);
+        }
+    }
+
+    /**
+     * Wraps the end-to-end recommendation (cache, coalescing and computation) with a timer
+     * tagged by outcome and the in-flight gauge.
+     */
+    public <T> Mono<T> instrumentRecommendation(Mono<T> recommendation) {
+        if (!enabled) {
+            return recommendation;
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            recommendationsInFlight.incrementAndGet();
+            // Recorded before the result reaches the subscriber (doFinally runs after block() has returned)
+            return recommendation
+                    .doOnSuccess(value -> recordRecommendation("success", start))
+                    .doOnError(error -> recordRecommendation("error", start))
+                    .doOnCancel(() -> recordRecommendation("cancelled", start));
+        });
+    }
+
+    private void recordRecommendation(String outcome, long start) {
+        recommendationsInFlight.decrementAndGet();
+        long nanos = System.nanoTime() - start;
+        Timer timer = recommendationTimers.get(outcome);
+        if (timer == null) {
+            timer = recommendationTimers.computeIfAbsent(outcome, key -> Timer.builder("optimization.recommendations")
+                    .description("End-to-end recommendation latency inside the service")
+                    .tag("outcome", key)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Wraps one HTTP call to the agent: latency by status class and exception type,
+     * error counter and in-flight gauge.
+     */
+    public <T> Mono<T> instrumentAgentCall(Mono<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            agentInFlight.incrementAndGet();
+            return call
+                    .doOnSuccess(value -> recordAgentCall("2xx", "none", start))
+                    .doOnError(error -> {
+                        String status = error instanceof AgentException agentError ? agentError.getStatusClass() : "none";
+                        String exception = exceptionTag(error);
+                        recordAgentCall(status, exception, start);
+                        agentErrors.computeIfAbsent(status + '|' + exception, key -> Counter.builder("optimization.agent.errors")
+                                        .description("Failed calls to the optimization agent")
+                                        .tag("status", status)
+                                        .tag("exception", exception)
+                                        .register(registry))
+                                .increment();
+                    })
+                    .doOnCancel(agentInFlight::decrementAndGet);
+        });
+    }
+
+    private void recordAgentCall(String status, String exception, long start) {
+        agentInFlight.decrementAndGet();
+        agentTimers.computeIfAbsent(status + '|' + exception, key -> Timer.builder("optimization.agent.requests")
+                        .description("Latency of calls to the optimization agent")
+                        .tag("status", status)
+                        .tag("exception", exception)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a fleet re-optimization run: its duration, when each partition completed
+     * relative to the start of the run, and the per-outcome site counts.
+     */
+    public void recordFleetRun(FleetRunReport report) {
+        if (!enabled) {
+            return;
+        }
+        Timer.builder("optimization.fleet.run")
+                .description("Duration of the scheduled fleet re-optimization runs")
+                .register(registry)
+                .record(report.durationMs(), TimeUnit.MILLISECONDS);
+        Timer partitionCompletion = Timer.builder("optimization.fleet.partition.completion")
+                .description("Time from the start of a fleet run to the end of each partition")
+                .publishPercentileHistogram()
+                .register(registry);
+        for (FleetRunReport.Partition partition : report.partitions()) {
+            partitionCompletion.record(partition.completionLagMs(), TimeUnit.MILLISECONDS);
+        }
+        fleetSites("optimized", report.optimized());
+        fleetSites("unchanged", report.unchanged());
+        fleetSites("no-data", report.noData());
+        fleetSites("failed", report.failed());
+    }
+
+    /**
+     * Exposes the admission limiter state; the meters read it on scrape, nothing is recorded per request.
+     */
+    public void registerAdmission(AdmissionLimiter limiter) {
+        if (!enabled || !limiter.isEnabled()) {
+            return;
+        }
+        Gauge.builder("optimization.admission.limit", limiter, AdmissionLimiter::getLimit)
+                .description("Current concurrency limit of the recommendation computation")
+                .register(registry);
+        for (AdmissionLane lane : AdmissionLane.values()) {
+            Gauge.builder("optimization.admission.in.flight", limiter, l -> l.inFlight(lane))
+                    .description("Admitted recommendations being computed")
+                    .tag("lane", lane.tag())
+                    .register(registry);
+            Gauge.builder("optimization.admission.queued", limiter, l -> l.queued(lane))
+                    .description("Recommendations waiting for a slot")
+                    .tag("lane", lane.tag())
+                    .register(registry);
+            FunctionCounter.builder("optimization.admission.admitted", limiter, l -> l.admitted(lane))
+                    .description("Recommendations admitted by the limiter")
+                    .tag("lane", lane.tag())
+                    .register(registry);
+            FunctionCounter.builder("optimization.admission.rejected", limiter, l -> l.rejected(lane))
+                    .description("Recommendations rejected with 429 (queue full or wait expired)")
+                    .tag("lane", lane.tag())
+                    .register(registry);
+        }
+    }
+
+    private void fleetSites(String outcome, int count) {
+        Counter.builder("optimization.fleet.sites")
+                .description("Sites visited by the fleet re-optimization runs")
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment(count);
+    }
+
+    /**
+     * Simple name of the innermost cause, e.g. ConnectException or ReadTimeoutException;
+     * an AgentException that carries no cause is tagged by its own name.
+     */
+    static String exceptionTag(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getClass().getSimpleName();
+    }
+}
@@ -1,13 +1,21 @@
 package com.twintransition.energy.service;
 
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import com.twintransition.energy.dto.OptimizationLimitsDto;
 import com.twintransition.energy.dto.OptimizationRecommendation;
 import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.SeriesRange;
+import com.twintransition.energy.dto.SiteHistoryOptimizationRequest;
+import com.twintransition.energy.dto.TimeSeries;
 
 import reactor.core.publisher.Mono;
 
@@ -18,48 +26,241 @@ import reactor.core.publisher.Mono;
 @Service
 public class OptimizationService {
 
-    private final WebClient webClient;
+    private final AgentEndpointPool agentPool;
     private final String optimizationEndpoint;
+    private final RecommendationCache recommendationCache;
+    private final RequestCoalescer requestCoalescer;
+    private final EmbeddedOptimizationEngine embeddedEngine;
+    private final OptimizationEngineMode engineMode;
+    private final ColumnarSeriesStore seriesStore;
+    private final OptimizationMetrics metrics;
+    private final AgentRequestEncoder requestEncoder;
+    private final AdmissionLimiter admissionLimiter;
+    private final SeriesResampler resampler;
+    private final RecommendationHistoryService history;
 
     /**
      * Construtor do Serviço, injetando o WebClient e carregando a configuração 
      * dos endpoints do application.yml.
      */
+    @Autowired
     public OptimizationService(
-        WebClient.Builder webClientBuilder, 
-        @Value("${optimization.agent.base-url}") String baseUrl,
-        @Value("${optimization.agent.optimize-path}") String optimizePath) {
+        AgentEndpointPool agentPool,
+        @Value("${optimization.agent.optimize-path}") String optimizePath,
+        RecommendationCache recommendationCache,
+        RequestCoalescer requestCoalescer,
+        EmbeddedOptimizationEngine embeddedEngine,
+        @Value("${optimization.engine.mode:remote}") String engineMode,
+        ColumnarSeriesStore seriesStore,
+        OptimizationMetrics metrics,
+        AgentRequestEncoder requestEncoder,
+        AdmissionLimiter admissionLimiter,
+        SeriesResampler resampler,
+        RecommendationHistoryService history) {
         
-        // Inicializa a instância do WebClient e a URL base
-        this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+        // Instâncias do Agente (balanceamento, hedge e circuit breaker ficam no pool)
+        this.agentPool = agentPool;
         this.optimizationEndpoint = optimizePath;
+        this.recommendationCache = recommendationCache;
+        this.requestCoalescer = requestCoalescer;
+        this.embeddedEngine = embeddedEngine;
+        this.engineMode = OptimizationEngineMode.fromProperty(engineMode);
+        this.seriesStore = seriesStore;
+        this.metrics = metrics;
+        // Formato do corpo enviado ao Agente (JSON ou CBOR, com ou sem gzip)
+        this.requestEncoder = requestEncoder;
+        // Limite de concorrência e filas por prioridade antes do cálculo (429 quando saturado)
+        this.admissionLimiter = admissionLimiter;
+        // Históricos mais finos que o bucket configurado são agregados antes do cache e do Agente
+        this.resampler = resampler;
+        // Toda recomendação calculada é gravada em segundo plano (write-behind), fora do caminho da resposta
+        this.history = history;
+        if (this.engineMode != OptimizationEngineMode.REMOTE && embeddedEngine == null) {
+            throw new IllegalStateException("Engine mode " + engineMode + " requires the embedded engine.");
+        }
     }
 
     /**
      * Chama o Agente de Otimização Python externo via requisição HTTP POST.
+     * Variante bloqueante, mantida para o modo de execução 'blocking' do Controller.
      * * @param request Os dados de entrada necessários para o Agente (consumo, clima, limites).
      * @return A OptimizationRecommendation gerada pelo Agente.
      */
     public OptimizationRecommendation generateRecommendation(OptimizationRequest request) {
+        // Bloqueia a chamada reativa para retornar um resultado síncrono
+        return generateRecommendationAsync(request).block();
+    }
+
+    /**
+     * Igual a {@link #generateRecommendation(OptimizationRequest)}, gravando a recomendação no histórico do site.
+     * @param siteId O site (nulo = RecommendationHistoryService.ANONYMOUS_SITE).
+     */
+    public OptimizationRecommendation generateRecommendation(String siteId, OptimizationRequest request) {
+        return generateRecommendationAsync(siteId, request, AdmissionLane.INTERACTIVE).block();
+    }
+
+    /**
+     * Variante não bloqueante: devolve o Mono da chamada ao Agente sem ocupar a thread
+     * chamadora durante o round-trip HTTP (usada pelo modo de execução 'async').
+     * Um acerto no RecommendationCache devolve a recomendação armazenada sem chamada HTTP;
+     * chamadas equivalentes simultâneas compartilham uma única chamada ao Agente (RequestCoalescer).
+     * * @param request Os dados de entrada necessários para o Agente (consumo, clima, limites).
+     * @return Um Mono que emite a OptimizationRecommendation gerada pelo Agente.
+     */
+    public Mono<OptimizationRecommendation> generateRecommendationAsync(OptimizationRequest request) {
+        return generateRecommendationAsync(request, AdmissionLane.INTERACTIVE);
+    }
+
+    /**
+     * Igual a {@link #generateRecommendationAsync(OptimizationRequest)}, na fila de prioridade informada.
+     * Acertos no cache não passam pelo controle de admissão.
+     * @param lane INTERACTIVE (usuário aguardando), BATCH (lotes) ou SCHEDULED (reotimização da frota).
+     * @throws AdmissionRejectedException (no Mono) quando a fila está cheia ou a espera esgota.
+     */
+    public Mono<OptimizationRecommendation> generateRecommendationAsync(OptimizationRequest request, AdmissionLane lane) {
+        return generateRecommendationAsync(null, request, lane);
+    }
+
+    /**
+     * Igual a {@link #generateRecommendationAsync(OptimizationRequest, AdmissionLane)}, gravando a recomendação
+     * no histórico do site (a gravação é enfileirada e nunca atrasa o Mono). Somente recomendações calculadas
+     * são gravadas: acertos no cache e chamadas que aproveitam uma requisição em voo não geram nova linha.
+     * @param siteId O site (nulo = RecommendationHistoryService.ANONYMOUS_SITE).
+     */
+    public Mono<OptimizationRecommendation> generateRecommendationAsync(String siteId, OptimizationRequest request, AdmissionLane lane) {
+        metrics.recordRequest(request);
+        return metrics.instrumentRecommendation(Mono.defer(() -> {
+            OptimizationRequest normalized = resampler.normalize(request);
+            // A mesma impressão digital serve de chave do cache e de inputs_hash no histórico
+            RequestFingerprint fingerprint = recommendationCache.isEnabled() || requestCoalescer.isEnabled() || history.isEnabled()
+                    ? recommendationCache.fingerprint(normalized)
+                    : null;
+            Mono<OptimizationRecommendation> computed = Mono.defer(() -> admitted(normalized, lane));
+            if (history.isEnabled()) {
+                computed = computed.doOnNext(result -> history.record(siteId, fingerprint, result));
+            }
+            return cachedOrComputed(fingerprint, computed);
+        }));
+    }
+
+    private Mono<OptimizationRecommendation> cachedOrComputed(RequestFingerprint fingerprint,
+                                                              Mono<OptimizationRecommendation> computed) {
+        if (!recommendationCache.isEnabled() && !requestCoalescer.isEnabled()) {
+            return computed;
+        }
+        if (recommendationCache.isEnabled()) {
+            OptimizationRecommendation cached = recommendationCache.get(fingerprint);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+        }
+        return requestCoalescer.execute(fingerprint, () -> computed
+                .doOnNext(recommendation -> recommendationCache.put(fingerprint, recommendation)));
+    }
+
+    /**
+     * Gera a recomendação de um site a partir do histórico guardado no ColumnarSeriesStore,
+     * sem trafegar a série de consumo no corpo da requisição.
+     * @param siteId O site cujo histórico será lido.
+     * @param request O intervalo do histórico, a previsão do tempo (opcional) e os limites.
+     * @return Um Mono que emite a OptimizationRecommendation.
+     */
+    public Mono<OptimizationRecommendation> generateRecommendationForSite(String siteId, SiteHistoryOptimizationRequest request) {
+        return Mono.fromCallable(() -> buildRequestFromHistory(siteId, request.from(), request.to(),
+                        request.weatherForecastDegreesC(), request.limits(), request.selectedLanguage()))
+                .flatMap(historyRequest -> generateRecommendationAsync(siteId, historyRequest, AdmissionLane.INTERACTIVE));
+    }
+
+    /**
+     * Monta uma OptimizationRequest com o consumo de [from, to) lido do armazenamento de séries.
+     * Com optimization.resampling habilitado, as leituras são agregadas em buckets (horários por padrão).
+     * Sem previsão do tempo informada, usa as últimas 24 temperaturas registradas no intervalo.
+     * @throws SiteNotFoundException se o site não tiver leituras no intervalo.
+     * @throws InvalidRequestException se faltar a previsão do tempo e não houver temperaturas no intervalo.
+     */
+    public OptimizationRequest buildRequestFromHistory(
+            String siteId, Instant from, Instant to,
+            TimeSeries weatherForecast, OptimizationLimitsDto limits, String selectedLanguage) {
+        if (seriesStore == null) {
+            throw new IllegalStateException("The series store is not configured.");
+        }
+        SeriesRange history = seriesStore.read(siteId, from, to);
+        if (history.size() == 0) {
+            throw new SiteNotFoundException(siteId, "No stored history for site " + siteId + " between " + from + " and " + to + ".");
+        }
+        // Leituras de minuto viram buckets horários (as 24 temperaturas abaixo passam a ser médias horárias)
+        history = resampler.resample(history);
+        if (weatherForecast == null) {
+            double[] temperatures = history.temperatureC().array();
+            weatherForecast = TimeSeries.wrap(Arrays.stream(temperatures, Math.max(0, temperatures.length - 24), temperatures.length)
+                    .filter(Double::isFinite)
+                    .toArray());
+            if (weatherForecast.size() == 0) {
+                throw new InvalidRequestException("Weather forecast must be provided: no temperatures are stored for the range.");
+            }
+        }
+        return new OptimizationRequest(history.consumptionKwh(), weatherForecast, limits, selectedLanguage);
+    }
+
+    private Mono<OptimizationRecommendation> admitted(OptimizationRequest request, AdmissionLane lane) {
+        return admissionLimiter.admit(lane, () -> compute(request));
+    }
+
+    /**
+     * Calcula a recomendação conforme optimization.engine.mode: Agente remoto, motor embutido
+     * ou motor embutido com fallback para o Agente.
+     */
+    private Mono<OptimizationRecommendation> compute(OptimizationRequest request) {
+        switch (engineMode) {
+            case EMBEDDED:
+                return Mono.fromCallable(() -> embeddedEngine.recommend(request));
+            case EMBEDDED_WITH_REMOTE_FALLBACK:
+                return Mono.fromCallable(() -> embeddedEngine.recommend(request))
+                        .onErrorResume(error -> callAgent(request));
+            default:
+                return callAgent(request);
+        }
+    }
+
+    private Mono<OptimizationRecommendation> callAgent(OptimizationRequest request) {
         
-        Mono<OptimizationRecommendation> responseMono = webClient.post()
+        return metrics.instrumentAgentCall(Mono.defer(() -> {
+            // Codificado uma única vez: tentativas em outras instâncias (hedge) reutilizam os mesmos bytes
+            AgentRequestEncoder.EncodedRequest body = requestEncoder.encode(request);
+            return postToAgent(body)
+                // Agente sem suporte ao formato negociado: repete em JSON puro e passa a usá-lo
+                .onErrorResume(error -> requestEncoder.isEncodingRejection(error, body),
+                               error -> postToAgent(requestEncoder.encodeJson(request))
+                                       .doOnSuccess(recommendation -> requestEncoder.fallBackToJson()));
+        }));
+    }
+
+    private Mono<OptimizationRecommendation> postToAgent(AgentRequestEncoder.EncodedRequest body) {
+
+        return agentPool.execute(webClient -> webClient.post()
             .uri(optimizationEndpoint)
-            .contentType(MediaType.APPLICATION_JSON)
-            .bodyValue(request)
+            .contentType(body.contentType())
+            .headers(headers -> {
+                if (body.contentEncoding() != null) {
+                    headers.set(HttpHeaders.CONTENT_ENCODING, body.contentEncoding());
+                }
+            })
+            .accept(MediaType.APPLICATION_JSON)
+            .bodyValue(body.body())
             .retrieve()
-            // Configura o tratamento de erro: se receber 4xx ou 5xx, mapeia para uma RuntimeException.
+            // Configura o tratamento de erro: se receber 4xx ou 5xx, mapeia para uma AgentException com o status.
             .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(), 
                       response -> response.bodyToMono(String.class)
                                           // Garante que o corpo do erro (se existir) seja incluído na exceção
-                                          .map(errorBody -> new RuntimeException("External Agent Error: " + errorBody)))
-            .bodyToMono(OptimizationRecommendation.class);
-            
-        // Bloqueia a chamada reativa para retornar um resultado síncrono (necessário para o Controller)
-        try {
-            return responseMono.block();
-        } catch (WebClientResponseException e) {
-            // Captura exceções específicas do WebClient e relança como RuntimeException
-            throw new RuntimeException("External Agent HTTP Error: " + e.getRawStatusCode(), e);
-        }
+                                          .defaultIfEmpty("")
+                                          .map(errorBody -> new AgentException("External Agent Error: " + errorBody,
+                                                  response.statusCode().value())))
+            .bodyToMono(OptimizationRecommendation.class)
+            // Captura exceções específicas do WebClient e relança como AgentException
+            .onErrorMap(WebClientResponseException.class,
+                        e -> new AgentException("External Agent HTTP Error: " + e.getStatusCode().value(), e.getStatusCode().value(), e))
+            // Falhas sem resposta (conexão recusada, timeout, corpo ilegível)
+            .onErrorMap(e -> !(e instanceof AgentException),
+                        e -> new AgentException("External Agent Unreachable: " + e.getMessage(), 0, e)));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,159 @@
+package com.twintransition.energy.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+
+/**
+ * In-memory recommendation cache placed in front of the Python agent.
+ * Entries are keyed on the {@link RequestFingerprint} of the normalized request and evicted
+ * by TTL, by entry count (LRU) and by an estimated memory bound.
+ *
+ * A hit returns the originally generated recommendation unchanged, including its
+ * {@code recommendationId}: every poll served from the cache within the TTL reports the same id.
+ */
+@Component
+public class RecommendationCache {
+
+    // Rough per-entry overhead: map node, entry record, fingerprint and recommendation headers
+    private static final long ENTRY_OVERHEAD_BYTES = 256;
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final long maxMemoryBytes;
+    private final int precision;
+    private final LongSupplier nanoClock;
+
+    private final LinkedHashMap<RequestFingerprint, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long estimatedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    @Autowired
+    public RecommendationCache(
+            @Value("${optimization.cache.enabled:true}") boolean enabled,
+            @Value("${optimization.cache.ttl:PT60S}") Duration ttl,
+            @Value("${optimization.cache.max-entries:10000}") int maxEntries,
+            @Value("${optimization.cache.max-memory-bytes:16777216}") long maxMemoryBytes,
+            @Value("${optimization.cache.precision:3}") int precision) {
+        this(enabled, ttl, maxEntries, maxMemoryBytes, precision, System::nanoTime);
+    }
+
+    RecommendationCache(boolean enabled, Duration ttl, int maxEntries, long maxMemoryBytes, int precision, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.precision = precision;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * A cache that never stores anything (used when the service is built without Spring).
+     * Its fingerprints still use the default precision.
+     */
+    public static RecommendationCache disabled() {
+        return new RecommendationCache(false, Duration.ZERO, 0, 0, 3, System::nanoTime);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public RequestFingerprint fingerprint(OptimizationRequest request) {
+        return RequestFingerprint.of(request, precision);
+    }
+
+    /**
+     * @return The cached recommendation, or null on a miss (absent or expired).
+     */
+    public synchronized OptimizationRecommendation get(RequestFingerprint key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (nanoClock.getAsLong() - entry.expiresAtNanos() > 0) {
+            remove(key, entry);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.recommendation();
+    }
+
+    public synchronized void put(RequestFingerprint key, OptimizationRecommendation recommendation) {
+        if (!enabled || recommendation == null) {
+            return;
+        }
+        long bytes = estimateBytes(recommendation);
+        if (bytes > maxMemoryBytes) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(recommendation, nanoClock.getAsLong() + ttlNanos, bytes));
+        if (previous != null) {
+            estimatedBytes -= previous.bytes();
+        }
+        estimatedBytes += bytes;
+        evictIfNeeded();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(enabled, entries.size(), estimatedBytes, hits, misses, evictions, expirations);
+    }
+
+    private void evictIfNeeded() {
+        // Access order: the iterator starts at the least recently used entry
+        Iterator<Map.Entry<RequestFingerprint, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || estimatedBytes > maxMemoryBytes) && eldest.hasNext()) {
+            Entry entry = eldest.next().getValue();
+            eldest.remove();
+            estimatedBytes -= entry.bytes();
+            evictions++;
+        }
+    }
+
+    private void remove(RequestFingerprint key, Entry entry) {
+        entries.remove(key);
+        estimatedBytes -= entry.bytes();
+    }
+
+    private static long estimateBytes(OptimizationRecommendation recommendation) {
+        return ENTRY_OVERHEAD_BYTES
+                + 2L * length(recommendation.actionableScript())
+                + 2L * length(recommendation.naturalLanguageJustification())
+                + 2L * length(recommendation.recommendationId());
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private record Entry(OptimizationRecommendation recommendation, long expiresAtNanos, long bytes) {}
+
+    /**
+     * Snapshot of the cache counters.
+     */
+    public record Stats(
+            boolean enabled,
+            int size,
+            long estimatedBytes,
+            long hits,
+            long misses,
+            long evictions,
+            long expirations
+    ) {}
+}
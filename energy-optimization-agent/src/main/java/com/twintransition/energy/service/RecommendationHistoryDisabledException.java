@@ -0,0 +1,11 @@
+package com.twintransition.energy.service;
+
+/**
+ * Thrown when the recommendation history is read while {@code optimization.history.enabled} is false.
+ */
+public class RecommendationHistoryDisabledException extends RuntimeException {
+
+    public RecommendationHistoryDisabledException() {
+        super("The recommendation history is disabled.");
+    }
+}
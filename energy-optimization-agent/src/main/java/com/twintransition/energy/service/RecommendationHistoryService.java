@@ -0,0 +1,238 @@
+package com.twintransition.energy.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.RecommendationHistoryEntry;
+import com.twintransition.energy.dto.RecommendationHistoryPage;
+import com.twintransition.energy.dto.RecommendationWindowTotal;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * History of every recommendation computed, in the {@code recommendation_history} table
+ * (cache hits and callers joining an in-flight computation are not recorded again, so each
+ * {@code recommendation_id} appears once and the totals are not inflated).
+ *
+ * Recording never blocks the response: entries go to a {@link WriteBehindQueue} with
+ * {@link WriteBehindQueue#tryOffer} and are written with JDBC batch inserts; when the buffer is
+ * full the entry is dropped and counted as rejected. Pages are read newest first by keyset on
+ * the {@code (site_id, recorded_at DESC, id DESC)} index, so a page costs the same at any depth.
+ */
+@Service
+public class RecommendationHistoryService {
+
+    /**
+     * Site of recommendations requested without one (inline /recommend calls without X-Site-Id).
+     */
+    public static final String ANONYMOUS_SITE = "anonymous";
+
+    private static final int MAX_SITE_ID_LENGTH = 128;
+    private static final int MAX_WINDOWS = 10_000;
+
+    private static final String INSERT_SQL = "INSERT INTO recommendation_history "
+            + "(site_id, recorded_at, inputs_hash, recommendation_id, savings_eur, co2_reduction_kg, actionable_script) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String PAGE_SQL = "SELECT id, site_id, recorded_at, inputs_hash, recommendation_id, savings_eur, "
+            + "co2_reduction_kg, actionable_script FROM recommendation_history "
+            + "WHERE site_id = ? AND recorded_at >= ? AND recorded_at < ? ";
+    // recorded_at <= ? bounds the index range; the OR only filters the ties of the cursor's millisecond
+    private static final String AFTER_CURSOR_SQL = "AND recorded_at <= ? AND (recorded_at < ? OR id < ?) ";
+    // site_id leads the ORDER BY (it is fixed) so H2 reads the descending index in order instead of sorting the range
+    private static final String PAGE_ORDER_SQL = "ORDER BY site_id, recorded_at DESC, id DESC LIMIT ?";
+    private static final String TOTALS_SQL = "SELECT (recorded_at - ?) / ? AS window_index, COUNT(*) AS recommendations, "
+            + "SUM(savings_eur) AS savings_eur, SUM(co2_reduction_kg) AS co2_reduction_kg FROM recommendation_history "
+            + "WHERE site_id = ? AND recorded_at >= ? AND recorded_at < ? GROUP BY window_index ORDER BY window_index";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int maxPageSize;
+    private final LongSupplier clock;
+    private final WriteBehindQueue<Row> queue;
+
+    @Autowired
+    public RecommendationHistoryService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${optimization.history.enabled:true}") boolean enabled,
+            @Value("${optimization.history.buffer-capacity:100000}") int bufferCapacity,
+            @Value("${optimization.history.batch-size:1000}") int batchSize,
+            @Value("${optimization.history.flush-interval-ms:200}") long flushIntervalMillis,
+            @Value("${optimization.history.max-page-size:1000}") int maxPageSize) {
+        this(jdbcTemplate, enabled, bufferCapacity, batchSize, flushIntervalMillis, maxPageSize, System::currentTimeMillis);
+    }
+
+    RecommendationHistoryService(JdbcTemplate jdbcTemplate, boolean enabled, int bufferCapacity, int batchSize,
+            long flushIntervalMillis, int maxPageSize, LongSupplier clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.maxPageSize = maxPageSize;
+        this.clock = clock;
+        this.queue = enabled
+                ? new WriteBehindQueue<>("recommendation-history", bufferCapacity, batchSize, flushIntervalMillis, this::insertBatch)
+                : null;
+    }
+
+    /**
+     * History that records nothing (no database).
+     */
+    public static RecommendationHistoryService disabled() {
+        return new RecommendationHistoryService(null, false, 1, 1, 0, 1, System::currentTimeMillis);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enqueues a recommendation for the next batch insert, without waiting.
+     * @param siteId The site, or null for {@link #ANONYMOUS_SITE}.
+     * @param fingerprint The fingerprint of the normalized request, if it was computed.
+     * @return false if the history is disabled or its buffer is full (the entry is dropped).
+     */
+    public boolean record(String siteId, RequestFingerprint fingerprint, OptimizationRecommendation recommendation) {
+        if (!enabled) {
+            return false;
+        }
+        String site = siteId == null || siteId.isBlank() ? ANONYMOUS_SITE : siteId;
+        if (site.length() > MAX_SITE_ID_LENGTH) {
+            site = site.substring(0, MAX_SITE_ID_LENGTH);
+        }
+        return queue.tryOffer(new Row(site, clock.getAsLong(), fingerprint == null ? null : fingerprint.digest(), recommendation));
+    }
+
+    /**
+     * Reads a page of a site's history in {@code [from, to)}, newest first.
+     * @param limit Page size, at most {@code optimization.history.max-page-size}.
+     * @param cursor The {@code nextCursor} of the previous page, or null for the first page.
+     * @throws InvalidRequestException if the limit or the cursor is invalid.
+     * @throws RecommendationHistoryDisabledException if the history is disabled.
+     */
+    public RecommendationHistoryPage page(String siteId, Instant from, Instant to, int limit, String cursor) {
+        requireEnabled();
+        if (limit < 1 || limit > maxPageSize) {
+            throw new InvalidRequestException("Page size must be between 1 and " + maxPageSize + ".");
+        }
+        List<Object> arguments = new ArrayList<>(List.of(siteId, from.toEpochMilli(), to.toEpochMilli()));
+        String sql = PAGE_SQL;
+        if (cursor != null) {
+            long[] position = decodeCursor(cursor);
+            sql += AFTER_CURSOR_SQL;
+            arguments.add(position[0]);
+            arguments.add(position[0]);
+            arguments.add(position[1]);
+        }
+        // One extra row tells whether there is a next page
+        arguments.add(limit + 1);
+        List<RecommendationHistoryEntry> entries = jdbcTemplate.query(sql + PAGE_ORDER_SQL, (row, index) ->
+                new RecommendationHistoryEntry(
+                        row.getLong("id"),
+                        row.getString("site_id"),
+                        Instant.ofEpochMilli(row.getLong("recorded_at")),
+                        row.getString("inputs_hash"),
+                        row.getString("recommendation_id"),
+                        row.getDouble("savings_eur"),
+                        row.getDouble("co2_reduction_kg"),
+                        row.getString("actionable_script")),
+                arguments.toArray());
+
+        if (entries.size() <= limit) {
+            return new RecommendationHistoryPage(entries, null);
+        }
+        RecommendationHistoryEntry last = entries.get(limit - 1);
+        return new RecommendationHistoryPage(entries.subList(0, limit),
+                encodeCursor(last.recordedAt().toEpochMilli(), last.id()));
+    }
+
+    /**
+     * Sums the recommendations of a site in {@code [from, to)} per window, windows starting at {@code from}.
+     * @throws InvalidRequestException if the window is not positive or the range spans too many windows.
+     * @throws RecommendationHistoryDisabledException if the history is disabled.
+     */
+    public List<RecommendationWindowTotal> totals(String siteId, Instant from, Instant to, Duration window) {
+        requireEnabled();
+        long windowMillis = window.toMillis();
+        if (windowMillis <= 0) {
+            throw new InvalidRequestException("Window must be positive.");
+        }
+        long start = from.toEpochMilli();
+        long end = to.toEpochMilli();
+        if ((end - start) / windowMillis > MAX_WINDOWS) {
+            throw new InvalidRequestException("Range cannot span more than " + MAX_WINDOWS + " windows.");
+        }
+        return jdbcTemplate.query(TOTALS_SQL, (row, index) -> new RecommendationWindowTotal(
+                        Instant.ofEpochMilli(start + row.getLong("window_index") * windowMillis),
+                        row.getLong("recommendations"),
+                        row.getDouble("savings_eur"),
+                        row.getDouble("co2_reduction_kg")),
+                start, windowMillis, siteId, start, end);
+    }
+
+    public WriteBehindQueue.Stats stats() {
+        return enabled ? queue.stats() : new WriteBehindQueue.Stats(0, 0, 0, 0, 0, 0, 0);
+    }
+
+    private void requireEnabled() {
+        if (!enabled) {
+            throw new RecommendationHistoryDisabledException();
+        }
+    }
+
+    private static String encodeCursor(long recordedAt, long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((recordedAt + ":" + id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static long[] decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = decoded.indexOf(':');
+            return new long[] { Long.parseLong(decoded.substring(0, separator)), Long.parseLong(decoded.substring(separator + 1)) };
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidRequestException("Invalid history cursor.", e);
+        }
+    }
+
+    private void insertBatch(List<Row> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                Row row = batch.get(i);
+                statement.setString(1, row.siteId());
+                statement.setLong(2, row.recordedAt());
+                statement.setString(3, row.inputsHash());
+                statement.setString(4, row.recommendation().recommendationId());
+                statement.setDouble(5, row.recommendation().estimatedCostSavingsEur());
+                statement.setDouble(6, row.recommendation().estimatedCarbonFootprintReductionKgCO2());
+                statement.setString(7, row.recommendation().actionableScript());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batch.size();
+            }
+        });
+    }
+
+    @PreDestroy
+    void flushOnShutdown() throws InterruptedException {
+        if (enabled) {
+            queue.close();
+        }
+    }
+
+    private record Row(String siteId, long recordedAt, String inputsHash, OptimizationRecommendation recommendation) {}
+}
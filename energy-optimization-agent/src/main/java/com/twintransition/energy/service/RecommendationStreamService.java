@@ -0,0 +1,115 @@
+package com.twintransition.energy.service;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.MessageSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.twintransition.energy.dto.ApiResponse;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.RecommendationStage;
+import com.twintransition.energy.dto.TimeSeries;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Progressive recommendation: the demand forecast and the per-hour actions come from the
+ * {@link EmbeddedOptimizationEngine} and are emitted as soon as they are computed, while the
+ * final recommendation goes through {@link OptimizationService} as usual (engine mode, cache,
+ * admission, history) and is emitted last. The agent call is subscribed together with the local
+ * stages, so streaming adds nothing to the total latency.
+ *
+ * Once the first event is out the HTTP status can no longer change: failures of the final
+ * recommendation end the stream with an {@code error} event carrying the status instead.
+ * Time to the first event and to completion are recorded as the {@code stream.first-event}
+ * and {@code stream.complete} stages of {@code optimization.stage}.
+ */
+@Service
+public class RecommendationStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationStreamService.class);
+
+    private final EmbeddedOptimizationEngine engine;
+    private final OptimizationService optimizationService;
+    private final SeriesResampler resampler;
+    private final MessageSource messageSource;
+    private final OptimizationMetrics metrics;
+
+    public RecommendationStreamService(EmbeddedOptimizationEngine engine, OptimizationService optimizationService,
+            SeriesResampler resampler, MessageSource messageSource, OptimizationMetrics metrics) {
+        this.engine = engine;
+        this.optimizationService = optimizationService;
+        this.resampler = resampler;
+        this.messageSource = messageSource;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Streams the forecast, the 24 hourly actions and the summary (or an error), in that order.
+     * Nothing is computed until the stream is subscribed.
+     * @param siteId The site the recommendation is recorded under in the history, or null.
+     * @param locale The locale of the summary message.
+     * @throws InvalidRequestException if the history cannot be resampled (raised before any event).
+     */
+    public Flux<RecommendationStage> stream(String siteId, OptimizationRequest request, Locale locale) {
+        OptimizationRequest normalized = resampler.normalize(request);
+
+        Flux<RecommendationStage> local = Flux.defer(() -> {
+            double[] forecast = engine.forecastDemand(normalized);
+            return Flux.concat(
+                    Flux.just(new RecommendationStage(RecommendationStage.FORECAST, TimeSeries.wrap(forecast))),
+                    Flux.defer(() -> Flux.fromIterable(engine.hourlyActions(forecast, normalized)))
+                            .map(action -> new RecommendationStage(RecommendationStage.ACTION, action)));
+        });
+        Flux<RecommendationStage> summary = optimizationService
+                .generateRecommendationAsync(siteId, normalized, AdmissionLane.INTERACTIVE)
+                .map(recommendation -> new RecommendationStage(RecommendationStage.SUMMARY, new ApiResponse<>(
+                        messageSource.getMessage("recommendation.success", null, locale), recommendation)))
+                .flux();
+
+        // Both are subscribed at once; events still come out in order
+        return timed(Flux.mergeSequential(local, summary)
+                .onErrorResume(error -> Flux.just(errorStage(error))));
+    }
+
+    private Flux<RecommendationStage> timed(Flux<RecommendationStage> stages) {
+        if (!metrics.isEnabled()) {
+            return stages;
+        }
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicBoolean first = new AtomicBoolean();
+            return stages
+                    .doOnNext(stage -> {
+                        if (first.compareAndSet(false, true)) {
+                            metrics.recordStage("stream.first-event", System.nanoTime() - start);
+                        }
+                    })
+                    .doOnComplete(() -> metrics.recordStage("stream.complete", System.nanoTime() - start));
+        });
+    }
+
+    // Same statuses as RestExceptionHandler
+    private static RecommendationStage errorStage(Throwable error) {
+        HttpStatus status;
+        String message = error.getMessage();
+        if (error instanceof AdmissionRejectedException) {
+            status = HttpStatus.TOO_MANY_REQUESTS;
+        } else if (error instanceof AgentException) {
+            status = HttpStatus.BAD_GATEWAY;
+        } else if (error instanceof InvalidRequestException) {
+            status = HttpStatus.BAD_REQUEST;
+        } else if (error instanceof ResourceNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else {
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+            message = "The recommendation could not be completed.";
+            log.error("Streamed recommendation failed", error);
+        }
+        return new RecommendationStage(RecommendationStage.ERROR, new ApiResponse<>(message, null, status.value()));
+    }
+}
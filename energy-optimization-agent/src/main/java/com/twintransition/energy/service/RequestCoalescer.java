@@ -0,0 +1,103 @@
+package com.twintransition.energy.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.twintransition.energy.dto.OptimizationRecommendation;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Single-flight coalescing of identical in-flight agent calls.
+ * While a call for a given {@link RequestFingerprint} is outstanding, equivalent callers
+ * subscribe to the same result (or error) instead of issuing their own WebClient call.
+ * Nothing is kept once the call completes, so results are never stale.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final boolean enabled;
+    private final ConcurrentHashMap<RequestFingerprint, CompletableFuture<OptimizationRecommendation>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public RequestCoalescer(@Value("${optimization.coalescing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * A coalescer that always executes the call (used when the service is built without Spring).
+     */
+    public static RequestCoalescer disabled() {
+        return new RequestCoalescer(false);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Executes the call, or joins the outstanding call for the same fingerprint.
+     * A caller cancelling its subscription does not cancel the shared call.
+     * @param key Fingerprint of the normalized request.
+     * @param call Supplier of the agent call, invoked only by the first caller.
+     * @return A Mono emitting the shared result.
+     */
+    public Mono<OptimizationRecommendation> execute(RequestFingerprint key, Supplier<Mono<OptimizationRecommendation>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        return Mono.defer(() -> {
+            CompletableFuture<OptimizationRecommendation> promise = new CompletableFuture<>();
+            CompletableFuture<OptimizationRecommendation> existing = inFlight.putIfAbsent(key, promise);
+            if (existing != null) {
+                coalesced.increment();
+                return Mono.fromFuture(existing, true);
+            }
+
+            executions.increment();
+            Mono<OptimizationRecommendation> source;
+            try {
+                source = call.get();
+            } catch (RuntimeException e) {
+                source = Mono.error(e);
+            }
+            // The entry is removed before the promise completes, so late arrivals start a fresh call
+            source.subscribe(
+                    recommendation -> {
+                        inFlight.remove(key, promise);
+                        promise.complete(recommendation);
+                    },
+                    error -> {
+                        inFlight.remove(key, promise);
+                        promise.completeExceptionally(error);
+                    },
+                    () -> {
+                        inFlight.remove(key, promise);
+                        promise.complete(null);
+                    });
+            return Mono.fromFuture(promise, true);
+        });
+    }
+
+    public Stats stats() {
+        return new Stats(enabled, inFlight.size(), executions.sum(), coalesced.sum());
+    }
+
+    /**
+     * Snapshot of the coalescing counters.
+     * @param executions Calls actually sent to the agent.
+     * @param coalesced Callers that joined an outstanding call instead of sending their own.
+     */
+    public record Stats(
+            boolean enabled,
+            int inFlight,
+            long executions,
+            long coalesced
+    ) {}
+}
@@ -0,0 +1,85 @@
+package com.twintransition.energy.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.TimeSeries;
+
+/**
+ * Stable content hash (SHA-256) of a normalized OptimizationRequest.
+ * Series values and limits are rounded to a fixed number of decimals and the language is
+ * lower-cased, so requests that only differ by floating point noise share the same fingerprint.
+ */
+public record RequestFingerprint(String digest) {
+
+    /**
+     * Computes the fingerprint of a request.
+     * @param request The optimization request.
+     * @param precision Number of decimals kept for series values and limits.
+     * @return The fingerprint of the normalized request content.
+     */
+    public static RequestFingerprint of(OptimizationRequest request, int precision) {
+        double scale = Math.pow(10, precision);
+        MessageDigest sha256 = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 64);
+
+        buffer = putSeries(sha256, buffer, request.historicalConsumptionKwH(), scale);
+        buffer = putSeries(sha256, buffer, request.weatherForecastDegreesC(), scale);
+
+        OptimizationLimitsDto limits = request.limits();
+        buffer = putLong(sha256, buffer, limits == null ? Long.MIN_VALUE : quantize(limits.maxTemp(), scale));
+        buffer = putLong(sha256, buffer, limits == null ? Long.MIN_VALUE : quantize(limits.minComfortTemp(), scale));
+        // Only non-hourly histories hash their interval, so hourly fingerprints are unchanged
+        if (request.historyIntervalMinutes() != null) {
+            buffer = putLong(sha256, buffer, request.historyIntervalMinutes());
+        }
+        flush(sha256, buffer);
+
+        String language = request.selectedLanguage() == null ? "" : request.selectedLanguage().trim().toLowerCase(Locale.ROOT);
+        sha256.update(language.getBytes(StandardCharsets.UTF_8));
+
+        return new RequestFingerprint(HexFormat.of().formatHex(sha256.digest()));
+    }
+
+    private static ByteBuffer putSeries(MessageDigest sha256, ByteBuffer buffer, TimeSeries series, double scale) {
+        // The length prefix keeps [1,2]+[3] and [1]+[2,3] apart
+        buffer = putLong(sha256, buffer, series == null ? -1 : series.size());
+        if (series != null) {
+            for (double value : series.array()) {
+                buffer = putLong(sha256, buffer, Math.round(value * scale));
+            }
+        }
+        return buffer;
+    }
+
+    private static long quantize(Double value, double scale) {
+        return value == null ? Long.MIN_VALUE : Math.round(value * scale);
+    }
+
+    private static ByteBuffer putLong(MessageDigest sha256, ByteBuffer buffer, long value) {
+        if (!buffer.hasRemaining()) {
+            flush(sha256, buffer);
+        }
+        return buffer.putLong(value);
+    }
+
+    private static void flush(MessageDigest sha256, ByteBuffer buffer) {
+        buffer.flip();
+        sha256.update(buffer);
+        buffer.clear();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available on this JVM", e);
+        }
+    }
+}
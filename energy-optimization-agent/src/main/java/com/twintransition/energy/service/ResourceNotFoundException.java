@@ -0,0 +1,11 @@
+package com.twintransition.energy.service;
+
+/**
+ * Thrown when a request looks up something that does not exist (e.g. the result of a fleet run before the first one).
+ */
+public class ResourceNotFoundException extends RuntimeException {
+
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
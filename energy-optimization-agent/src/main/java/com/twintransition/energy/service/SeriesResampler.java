@@ -0,0 +1,330 @@
+package com.twintransition.energy.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.SeriesRange;
+import com.twintransition.energy.dto.TimeSeries;
+
+/**
+ * Pre-processing stage that brings high-frequency meter series down to the forecaster's
+ * resolution ({@code optimization.resampling}) before the agent call.
+ *
+ * <p>Readings are aggregated into fixed buckets aligned on the epoch (UTC hours for PT1H):
+ * consumption by sum, temperature by mean by default. NaN readings are ignored, and buckets
+ * left without a reading are gap-filled. Each resampling is a single pass over the primitive
+ * columns into output arrays sized up front. {@link #lttb(SeriesRange, int)} is a separate
+ * shape-preserving downsampling for previews; it keeps peaks that bucket means would flatten.
+ */
+@Component
+public class SeriesResampler {
+
+    public enum Aggregation { SUM, MEAN, MAX }
+
+    /**
+     * How buckets without any reading are filled. Leading and trailing gaps always hold the
+     * nearest value unless the strategy is NONE, which leaves NaN.
+     */
+    public enum GapFill { NONE, PREVIOUS, LINEAR }
+
+    private final boolean enabled;
+    private final Duration bucket;
+    private final Aggregation consumptionAggregation;
+    private final Aggregation temperatureAggregation;
+    private final GapFill gapFill;
+    private final int maxBuckets;
+
+    @Autowired
+    public SeriesResampler(
+            @Value("${optimization.resampling.enabled:true}") boolean enabled,
+            @Value("${optimization.resampling.bucket:PT1H}") Duration bucket,
+            @Value("${optimization.resampling.consumption-aggregation:sum}") String consumptionAggregation,
+            @Value("${optimization.resampling.temperature-aggregation:mean}") String temperatureAggregation,
+            @Value("${optimization.resampling.gap-fill:linear}") String gapFill,
+            @Value("${optimization.resampling.max-buckets:100000}") int maxBuckets) {
+        this(enabled, bucket, parse(Aggregation.class, consumptionAggregation), parse(Aggregation.class, temperatureAggregation),
+                parse(GapFill.class, gapFill), maxBuckets);
+    }
+
+    SeriesResampler(boolean enabled, Duration bucket, Aggregation consumptionAggregation, Aggregation temperatureAggregation,
+            GapFill gapFill, int maxBuckets) {
+        if (bucket.toMillis() <= 0) {
+            throw new IllegalArgumentException("optimization.resampling.bucket must be positive.");
+        }
+        if (maxBuckets < 1) {
+            throw new IllegalArgumentException("optimization.resampling.max-buckets must be at least 1.");
+        }
+        this.enabled = enabled;
+        this.bucket = bucket;
+        this.consumptionAggregation = consumptionAggregation;
+        this.temperatureAggregation = temperatureAggregation;
+        this.gapFill = gapFill;
+        this.maxBuckets = maxBuckets;
+    }
+
+    /**
+     * Resampler that leaves every series as it is.
+     */
+    public static SeriesResampler disabled() {
+        return new SeriesResampler(false, Duration.ofHours(1), Aggregation.SUM, Aggregation.MEAN, GapFill.LINEAR, 100_000);
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown optimization.resampling value: " + value, e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Aggregates an inline history sampled every {@code historyIntervalMinutes} into buckets.
+     * Hourly requests, and histories already at or above the bucket size, are returned as they are.
+     * @throws InvalidRequestException if the interval does not divide the bucket.
+     */
+    public OptimizationRequest normalize(OptimizationRequest request) {
+        Integer interval = request.historyIntervalMinutes();
+        long bucketMinutes = bucket.toMinutes();
+        if (!enabled || interval == null || interval >= bucketMinutes) {
+            return request;
+        }
+        if (bucketMinutes % interval != 0) {
+            throw new InvalidRequestException("History interval must divide " + bucketMinutes + " minutes.");
+        }
+        double[] history = resample(request.historicalConsumptionKwH().array(), (int) (bucketMinutes / interval),
+                consumptionAggregation, gapFill);
+        return new OptimizationRequest(TimeSeries.wrap(history), request.weatherForecastDegreesC(), request.limits(),
+                request.selectedLanguage());
+    }
+
+    /**
+     * Aggregates a stored range into buckets with the configured aggregations and gap filling.
+     * Returns the range as it is when resampling is disabled.
+     */
+    public SeriesRange resample(SeriesRange range) {
+        return enabled ? resample(range, bucket, consumptionAggregation, temperatureAggregation, gapFill) : range;
+    }
+
+    /**
+     * Aggregates a stored range into buckets of the given size, from the bucket of its first
+     * reading to the bucket of its last one. Timestamps of the result are the bucket starts.
+     * @throws InvalidRequestException if the bucket is not positive or the range spans more than
+     * {@code optimization.resampling.max-buckets} buckets.
+     */
+    public SeriesRange resample(SeriesRange range, Duration bucketSize) {
+        return resample(range, bucketSize, consumptionAggregation, temperatureAggregation, gapFill);
+    }
+
+    private SeriesRange resample(SeriesRange range, Duration bucketSize, Aggregation consumptionAggregation,
+            Aggregation temperatureAggregation, GapFill gapFill) {
+        long bucketMillis = bucketSize.toMillis();
+        if (bucketMillis <= 0) {
+            throw new InvalidRequestException("Bucket must be positive.");
+        }
+        long[] timestamps = range.timestamps();
+        if (timestamps.length == 0) {
+            return range;
+        }
+        long first = Math.floorDiv(timestamps[0], bucketMillis);
+        long span = Math.floorDiv(timestamps[timestamps.length - 1], bucketMillis) - first + 1;
+        // Sized up front: a small bucket over a long range would allocate without bound
+        if (span > maxBuckets) {
+            throw new InvalidRequestException("Range cannot span more than " + maxBuckets + " buckets.");
+        }
+        int buckets = (int) span;
+        double[] consumption = range.consumptionKwh().array();
+        double[] temperature = range.temperatureC().array();
+        Column consumptionColumn = new Column(buckets, consumptionAggregation, gapFill, 0);
+        Column temperatureColumn = new Column(buckets, temperatureAggregation, gapFill, 0);
+
+        int current = 0;
+        for (int i = 0; i < timestamps.length; i++) {
+            int index = (int) (Math.floorDiv(timestamps[i], bucketMillis) - first);
+            if (index != current) {
+                consumptionColumn.emit(current);
+                temperatureColumn.emit(current);
+                current = index;
+            }
+            consumptionColumn.add(consumption[i]);
+            temperatureColumn.add(temperature[i]);
+        }
+        consumptionColumn.emit(current);
+        temperatureColumn.emit(current);
+
+        long[] starts = new long[buckets];
+        for (int i = 0; i < buckets; i++) {
+            starts[i] = (first + i) * bucketMillis;
+        }
+        return new SeriesRange(range.siteId(), starts, TimeSeries.wrap(consumptionColumn.finish()),
+                TimeSeries.wrap(temperatureColumn.finish()));
+    }
+
+    /**
+     * Aggregates an evenly spaced series, {@code pointsPerBucket} consecutive points per bucket.
+     * A bucket with NaN points (or the truncated last bucket) sums its mean times
+     * {@code pointsPerBucket}, so missing points do not read as a drop in consumption.
+     */
+    static double[] resample(double[] values, int pointsPerBucket, Aggregation aggregation, GapFill gapFill) {
+        if (pointsPerBucket < 1) {
+            throw new IllegalArgumentException("Points per bucket must be at least 1.");
+        }
+        int buckets = (values.length + pointsPerBucket - 1) / pointsPerBucket;
+        Column column = new Column(buckets, aggregation, gapFill, pointsPerBucket);
+        for (int index = 0, i = 0; index < buckets; index++) {
+            int end = Math.min(values.length, i + pointsPerBucket);
+            for (; i < end; i++) {
+                column.add(values[i]);
+            }
+            column.emit(index);
+        }
+        return column.finish();
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets downsampling of a range to at most {@code threshold}
+     * readings, chosen on the consumption column; the temperature of each kept reading
+     * comes along. The first and last readings are always kept.
+     */
+    public static SeriesRange lttb(SeriesRange range, int threshold) {
+        int size = range.size();
+        if (threshold < 3) {
+            throw new InvalidRequestException("LTTB needs at least 3 points.");
+        }
+        if (size <= threshold) {
+            return range;
+        }
+        long[] timestamps = range.timestamps();
+        double[] consumption = range.consumptionKwh().array();
+        double[] temperature = range.temperatureC().array();
+        long[] keptTimestamps = new long[threshold];
+        double[] keptConsumption = new double[threshold];
+        double[] keptTemperature = new double[threshold];
+
+        keptTimestamps[0] = timestamps[0];
+        keptConsumption[0] = consumption[0];
+        keptTemperature[0] = temperature[0];
+        int selected = 0;
+        // The first and last points are fixed; the others split into threshold - 2 buckets
+        double every = (double) (size - 2) / (threshold - 2);
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int nextStart = (int) Math.floor((bucket + 1) * every) + 1;
+            int nextEnd = Math.min(size, (int) Math.floor((bucket + 2) * every) + 1);
+            double averageX = 0.0;
+            double averageY = 0.0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += timestamps[i];
+                averageY += consumption[i];
+            }
+            int nextLength = nextEnd - nextStart;
+            averageX /= nextLength;
+            averageY /= nextLength;
+
+            int start = (int) Math.floor(bucket * every) + 1;
+            int end = (int) Math.floor((bucket + 1) * every) + 1;
+            double anchorX = timestamps[selected];
+            double anchorY = consumption[selected];
+            double maxArea = -1.0;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((anchorX - averageX) * (consumption[i] - anchorY)
+                        - (anchorX - timestamps[i]) * (averageY - anchorY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            keptTimestamps[bucket + 1] = timestamps[chosen];
+            keptConsumption[bucket + 1] = consumption[chosen];
+            keptTemperature[bucket + 1] = temperature[chosen];
+            selected = chosen;
+        }
+        keptTimestamps[threshold - 1] = timestamps[size - 1];
+        keptConsumption[threshold - 1] = consumption[size - 1];
+        keptTemperature[threshold - 1] = temperature[size - 1];
+        return new SeriesRange(range.siteId(), keptTimestamps, TimeSeries.wrap(keptConsumption), TimeSeries.wrap(keptTemperature));
+    }
+
+    /**
+     * Running aggregate of the current bucket and gap filling of one output column.
+     */
+    private static final class Column {
+
+        private final double[] out;
+        private final Aggregation aggregation;
+        private final GapFill gapFill;
+        private final int expectedPoints;
+        private double sum;
+        private double max = Double.NEGATIVE_INFINITY;
+        private int count;
+        private int lastIndex = -1;
+
+        Column(int buckets, Aggregation aggregation, GapFill gapFill, int expectedPoints) {
+            this.out = new double[buckets];
+            this.aggregation = aggregation;
+            this.gapFill = gapFill;
+            this.expectedPoints = expectedPoints;
+        }
+
+        void add(double value) {
+            if (Double.isNaN(value)) {
+                return;
+            }
+            sum += value;
+            max = Math.max(max, value);
+            count++;
+        }
+
+        void emit(int index) {
+            if (count == 0) {
+                return;
+            }
+            double value = switch (aggregation) {
+                case SUM -> expectedPoints > count ? sum / count * expectedPoints : sum;
+                case MEAN -> sum / count;
+                case MAX -> max;
+            };
+            fillGap(index, value);
+            out[index] = value;
+            lastIndex = index;
+            sum = 0.0;
+            max = Double.NEGATIVE_INFINITY;
+            count = 0;
+        }
+
+        private void fillGap(int index, double value) {
+            if (lastIndex == index - 1) {
+                return;
+            }
+            if (gapFill == GapFill.NONE || lastIndex < 0) {
+                // Leading gap: hold the first value back (or NaN with NONE)
+                Arrays.fill(out, lastIndex + 1, index, gapFill == GapFill.NONE ? Double.NaN : value);
+                return;
+            }
+            double previous = out[lastIndex];
+            for (int i = lastIndex + 1; i < index; i++) {
+                out[i] = gapFill == GapFill.PREVIOUS
+                        ? previous
+                        : previous + (value - previous) * (i - lastIndex) / (index - lastIndex);
+            }
+        }
+
+        double[] finish() {
+            if (lastIndex < 0) {
+                Arrays.fill(out, Double.NaN);
+            } else if (lastIndex < out.length - 1) {
+                Arrays.fill(out, lastIndex + 1, out.length, gapFill == GapFill.NONE ? Double.NaN : out[lastIndex]);
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.twintransition.energy.service;
+
+/**
+ * Thrown when a site has no data for the lookup: no stored history in the range, no readings
+ * received or no fleet enrollment.
+ */
+public class SiteNotFoundException extends ResourceNotFoundException {
+
+    private final String siteId;
+
+    public SiteNotFoundException(String siteId, String message) {
+        super(message);
+        this.siteId = siteId;
+    }
+
+    public String getSiteId() {
+        return siteId;
+    }
+}
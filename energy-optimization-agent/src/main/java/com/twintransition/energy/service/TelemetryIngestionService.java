@@ -0,0 +1,207 @@
+package com.twintransition.energy.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.twintransition.energy.dto.IngestionResult;
+import com.twintransition.energy.dto.MeterReading;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Streaming telemetry ingestion: readings are parsed one by one from the request body
+ * (NDJSON or a JSON array, possibly chunked), placed in a bounded {@link WriteBehindQueue}
+ * and appended in batches to the site histories of the {@link ColumnarSeriesStore}, the store
+ * that site recommendations, resampling and fleet runs read.
+ *
+ * The site histories are append-only, so a reading older than the newest one accepted for
+ * its site is rejected while the request is parsed and reported back as {@code late}; the
+ * readings of a site are therefore queued in time order and no accepted reading is dropped
+ * between flushes. Readings must carry an ISO-8601 timestamp no later than now plus
+ * {@code optimization.telemetry.max-clock-skew}: a single reading far in the future would
+ * otherwise make every later one late. The incremental forecaster is fed at write time with
+ * exactly the readings the store appended.
+ *
+ * When the buffer is full the request thread waits up to {@code optimization.telemetry.max-wait}
+ * (slowing the client down through TCP flow control) and then fails with
+ * {@link IngestionBackpressureException}. A body that stops being valid JSON fails with
+ * {@link MalformedTelemetryException}; in both cases the readings accepted so far are kept.
+ */
+@Service
+public class TelemetryIngestionService {
+
+    private final ObjectReader readingReader;
+    private final ColumnarSeriesStore seriesStore;
+    private final OnlineForecastService onlineForecastService;
+    private final boolean updateForecaster;
+    private final long maxWaitMillis;
+    private final WriteBehindQueue<MeterReading> queue;
+    private final AtomicLong lateReadings = new AtomicLong();
+    private final long maxClockSkewMillis;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, SiteWatermark> watermarks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TelemetryIngestionService(
+            ObjectMapper objectMapper,
+            ColumnarSeriesStore seriesStore,
+            OnlineForecastService onlineForecastService,
+            @Value("${optimization.telemetry.buffer-capacity:200000}") int bufferCapacity,
+            @Value("${optimization.telemetry.batch-size:5000}") int batchSize,
+            @Value("${optimization.telemetry.flush-interval-ms:200}") long flushIntervalMillis,
+            @Value("${optimization.telemetry.max-wait-ms:2000}") long maxWaitMillis,
+            @Value("${optimization.telemetry.update-forecaster:true}") boolean updateForecaster,
+            @Value("${optimization.telemetry.max-clock-skew:PT5M}") Duration maxClockSkew) {
+        this(objectMapper, seriesStore, onlineForecastService, bufferCapacity, batchSize, flushIntervalMillis, maxWaitMillis,
+                updateForecaster, maxClockSkew, System::currentTimeMillis);
+    }
+
+    TelemetryIngestionService(ObjectMapper objectMapper, ColumnarSeriesStore seriesStore,
+            OnlineForecastService onlineForecastService, int bufferCapacity, int batchSize, long flushIntervalMillis,
+            long maxWaitMillis, boolean updateForecaster, Duration maxClockSkew, LongSupplier clock) {
+        this.readingReader = objectMapper.readerFor(MeterReading.class);
+        this.seriesStore = seriesStore;
+        this.onlineForecastService = onlineForecastService;
+        this.updateForecaster = updateForecaster;
+        this.maxWaitMillis = maxWaitMillis;
+        this.maxClockSkewMillis = maxClockSkew.toMillis();
+        this.clock = clock;
+        this.queue = new WriteBehindQueue<>("telemetry", bufferCapacity, batchSize, flushIntervalMillis, this::appendBatch);
+    }
+
+    /**
+     * Parses and enqueues every reading of the body without materializing the whole payload.
+     * @param body NDJSON lines or a JSON array of readings.
+     * @return How many readings were accepted, skipped as invalid and rejected as late.
+     * @throws MalformedTelemetryException if the body is not valid JSON, with the line where parsing stopped.
+     */
+    public IngestionResult ingest(InputStream body) throws IOException {
+        long start = System.nanoTime();
+        long accepted = 0;
+        long invalid = 0;
+        long late = 0;
+
+        try (MappingIterator<MeterReading> readings = readingReader.readValues(body)) {
+            while (readings.hasNextValue()) {
+                MeterReading reading = readings.nextValue();
+                if (!isValid(reading) || !isPlausible(reading.timestamp())) {
+                    invalid++;
+                    continue;
+                }
+                long timestamp = reading.timestamp().toEpochMilli();
+                SiteWatermark watermark = watermarks.computeIfAbsent(reading.siteId(),
+                        id -> new SiteWatermark(seriesStore.lastTimestamp(id)));
+                // Check and enqueue under the site's lock, so the site's readings reach the queue in time order
+                synchronized (watermark) {
+                    if (timestamp < watermark.latest) {
+                        late++;
+                        continue;
+                    }
+                    if (!queue.offer(reading, maxWaitMillis)) {
+                        throw new IngestionBackpressureException(accepted, Math.max(1, maxWaitMillis / 1000));
+                    }
+                    watermark.latest = timestamp;
+                }
+                accepted++;
+            }
+        } catch (JsonProcessingException e) {
+            long line = e.getLocation() != null ? e.getLocation().getLineNr() : -1;
+            throw new MalformedTelemetryException(accepted, line, e.getOriginalMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IngestionBackpressureException(accepted, 1);
+        }
+
+        return new IngestionResult(accepted, invalid, late, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public WriteBehindQueue.Stats stats() {
+        return queue.stats();
+    }
+
+    /**
+     * Readings dropped at write time because the site's history moved past them after they were
+     * accepted (e.g. by a CSV import of newer readings). Late readings of a request are rejected
+     * before that and reported in its {@link IngestionResult}.
+     */
+    public long lateReadings() {
+        return lateReadings.get();
+    }
+
+    private static boolean isValid(MeterReading reading) {
+        return reading != null
+                && ColumnarSeriesStore.isValidSiteId(reading.siteId())
+                && reading.timestamp() != null
+                && reading.consumptionKwh() != null && Double.isFinite(reading.consumptionKwh());
+    }
+
+    /**
+     * Not before the epoch and not later than now plus the allowed clock skew.
+     */
+    private boolean isPlausible(Instant timestamp) {
+        return !timestamp.isBefore(Instant.EPOCH)
+                && !timestamp.isAfter(Instant.ofEpochMilli(clock.getAsLong() + maxClockSkewMillis));
+    }
+
+    private void appendBatch(List<MeterReading> batch) {
+        Map<String, List<MeterReading>> bySite = new HashMap<>();
+        for (MeterReading reading : batch) {
+            bySite.computeIfAbsent(reading.siteId(), id -> new ArrayList<>()).add(reading);
+        }
+        for (Map.Entry<String, List<MeterReading>> site : bySite.entrySet()) {
+            List<MeterReading> readings = site.getValue();
+            // Already in order unless a CSV import raced the request; the store keeps the newest suffix
+            readings.sort(Comparator.comparing(MeterReading::timestamp));
+            long[] timestamps = new long[readings.size()];
+            double[] consumption = new double[readings.size()];
+            double[] temperature = new double[readings.size()];
+            for (int i = 0; i < timestamps.length; i++) {
+                MeterReading reading = readings.get(i);
+                timestamps[i] = reading.timestamp().toEpochMilli();
+                consumption[i] = reading.consumptionKwh();
+                temperature[i] = reading.temperatureC() != null ? reading.temperatureC() : Double.NaN;
+            }
+            int appended = seriesStore.merge(site.getKey(), timestamps, consumption, temperature);
+            lateReadings.addAndGet(timestamps.length - appended);
+            if (updateForecaster) {
+                for (MeterReading reading : readings.subList(readings.size() - appended, readings.size())) {
+                    onlineForecastService.addReading(reading.siteId(), reading.timestamp(), reading.consumptionKwh());
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() throws InterruptedException {
+        queue.close();
+    }
+
+    /**
+     * Newest timestamp accepted for a site, starting from its stored history.
+     */
+    private static final class SiteWatermark {
+        private long latest;
+
+        private SiteWatermark(long latest) {
+            this.latest = latest;
+        }
+    }
+}
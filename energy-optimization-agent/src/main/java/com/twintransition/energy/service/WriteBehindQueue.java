@@ -0,0 +1,147 @@
+package com.twintransition.energy.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded in-memory buffer drained by a single background thread that hands items to a
+ * batch writer. A batch is flushed when it reaches {@code batchSize} items or when
+ * {@code flushInterval} has elapsed since its first item, whichever comes first.
+ *
+ * Producers choose their backpressure policy: {@link #offer} waits up to a timeout for free
+ * space, {@link #tryOffer} never waits and drops the item when the buffer is full.
+ */
+public class WriteBehindQueue<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    private final String name;
+    private final ArrayBlockingQueue<T> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Consumer<List<T>> batchWriter;
+    private final Thread flusher;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile boolean running = true;
+
+    public WriteBehindQueue(String name, int capacity, int batchSize, long flushIntervalMillis, Consumer<List<T>> batchWriter) {
+        this.name = name;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.batchWriter = batchWriter;
+        this.flusher = new Thread(this::drainLoop, name + "-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Enqueues an item, waiting up to {@code timeoutMillis} for free space.
+     * @return false if the buffer stayed full for the whole timeout (the item is not enqueued).
+     */
+    public boolean offer(T item, long timeoutMillis) throws InterruptedException {
+        if (buffer.offer(item, timeoutMillis, TimeUnit.MILLISECONDS)) {
+            accepted.incrementAndGet();
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Enqueues an item without waiting.
+     * @return false if the buffer is full (the item is dropped).
+     */
+    public boolean tryOffer(T item) {
+        if (buffer.offer(item)) {
+            accepted.incrementAndGet();
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    private void drainLoop() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                T first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    if (buffer.drainTo(batch, batchSize - batch.size()) == 0) {
+                        long remaining = deadline - System.nanoTime();
+                        T next = remaining > 0 ? buffer.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<T> batch) {
+        try {
+            batchWriter.accept(batch);
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.addAndGet(batch.size());
+            log.error("{}: failed to write a batch of {} items", name, batch.size(), e);
+        }
+    }
+
+    /**
+     * Stops accepting new work and waits for the buffered items to be written.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    public Stats stats() {
+        return new Stats(buffer.size(), buffer.remainingCapacity() + buffer.size(),
+                accepted.get(), rejected.get(), written.get(), failed.get(), batches.get());
+    }
+
+    /**
+     * Snapshot of the queue counters.
+     * @param depth Items currently buffered.
+     * @param accepted Items enqueued since startup.
+     * @param rejected Items refused because the buffer was full.
+     * @param written Items handed to the batch writer successfully.
+     * @param failed Items whose batch write threw.
+     * @param batches Successful batch writes.
+     */
+    public record Stats(
+            int depth,
+            int capacity,
+            long accepted,
+            long rejected,
+            long written,
+            long failed,
+            long batches
+    ) {}
+}
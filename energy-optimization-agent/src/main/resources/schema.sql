@@ -0,0 +1,35 @@
+-- Schema for the JDBC-backed stores (H2 dialect, executed by spring.sql.init).
+
+-- Sufficient statistics of the per-site online forecaster (24 doubles each, little-endian).
+CREATE TABLE IF NOT EXISTS site_forecast_state (
+    site_id          VARCHAR(128) PRIMARY KEY,
+    hour_weights     VARBINARY(192) NOT NULL,
+    hour_sums        VARBINARY(192) NOT NULL,
+    reading_count    BIGINT NOT NULL,
+    last_reading_at  BIGINT NOT NULL,
+    updated_at       TIMESTAMP NOT NULL
+);
+
+-- Sites re-optimized by the scheduled fleet run, with the limits and language of their recommendations.
+CREATE TABLE IF NOT EXISTS fleet_site (
+    site_id            VARCHAR(128) PRIMARY KEY,
+    max_temp           DOUBLE PRECISION NOT NULL,
+    min_comfort_temp   DOUBLE PRECISION NOT NULL,
+    selected_language  VARCHAR(16),
+    registered_at      TIMESTAMP NOT NULL
+);
+
+-- Every recommendation served, written behind the response (JDBC batch inserts).
+-- recorded_at is epoch milliseconds; pages are read newest first by keyset on (site_id, recorded_at DESC, id DESC)
+-- (descending, since H2 does not scan an index backwards).
+CREATE TABLE IF NOT EXISTS recommendation_history (
+    id                 BIGINT AUTO_INCREMENT PRIMARY KEY,
+    site_id            VARCHAR(128) NOT NULL,
+    recorded_at        BIGINT NOT NULL,
+    inputs_hash        CHAR(64),
+    recommendation_id  VARCHAR(128),
+    savings_eur        DOUBLE PRECISION NOT NULL,
+    co2_reduction_kg   DOUBLE PRECISION NOT NULL,
+    actionable_script  CLOB
+);
+CREATE INDEX IF NOT EXISTS idx_recommendation_history_site_time ON recommendation_history (site_id, recorded_at DESC, id DESC);
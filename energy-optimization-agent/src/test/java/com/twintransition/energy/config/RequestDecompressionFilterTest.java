@@ -0,0 +1,139 @@
+package com.twintransition.energy.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+@DisplayName("Request Decompression Filter Unit Tests")
+public class RequestDecompressionFilterTest {
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(data);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static ServletInputStream decompressedBody(RequestDecompressionFilter filter, byte[] compressed) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/telemetry/readings");
+        request.addHeader("Content-Encoding", "gzip");
+        HttpServletRequest container = new HttpServletRequestWrapper(request) {
+            private final ServletInputStream body = new ContainerInputStream(compressed);
+
+            @Override
+            public ServletInputStream getInputStream() {
+                return body;
+            }
+        };
+        AtomicReference<ServletRequest> forwarded = new AtomicReference<>();
+        filter.doFilter(container, new MockHttpServletResponse(), (req, res) -> forwarded.set(req));
+        return forwarded.get().getInputStream();
+    }
+
+    @Test
+    @DisplayName("A ReadListener should receive the whole decompressed body, then onAllDataRead")
+    void readListenerShouldReceiveDecompressedBody() throws Exception {
+        byte[] data = "{\"siteId\":\"site-a\"}\n".repeat(2000).getBytes(StandardCharsets.UTF_8);
+        ServletInputStream body = decompressedBody(new RequestDecompressionFilter(1 << 20), gzip(data));
+
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        AtomicBoolean allRead = new AtomicBoolean();
+        body.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] chunk = new byte[1024];
+                while (body.isReady() && !body.isFinished()) {
+                    int count = body.read(chunk);
+                    if (count > 0) {
+                        received.write(chunk, 0, count);
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allRead.set(true);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                throw new AssertionError(error);
+            }
+        });
+
+        assertTrue(allRead.get());
+        assertArrayEquals(data, received.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Reading past the decompressed limit should fail with RequestBodyTooLargeException")
+    void oversizedBodyShouldFailTheRead() throws Exception {
+        ServletInputStream body = decompressedBody(new RequestDecompressionFilter(1000), gzip(new byte[5000]));
+
+        RequestBodyTooLargeException error = assertThrows(RequestBodyTooLargeException.class, body::readAllBytes);
+        assertEquals(1000, error.getMaxBytes());
+    }
+
+    /**
+     * Container stream that supports blocking reads and, once a listener is set, delivers the
+     * rest of the body through it as a servlet container would.
+     */
+    private static final class ContainerInputStream extends ServletInputStream {
+
+        private final ByteArrayInputStream data;
+
+        ContainerInputStream(byte[] data) {
+            this.data = new ByteArrayInputStream(data);
+        }
+
+        @Override
+        public int read() {
+            return data.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            return data.read(buffer, offset, length);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return data.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            try {
+                readListener.onDataAvailable();
+                readListener.onAllDataRead();
+            } catch (IOException e) {
+                readListener.onError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.twintransition.energy.controller;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.MessageSource;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.service.AdmissionLane;
+import com.twintransition.energy.service.OptimizationService;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for the non-blocking recommendation endpoint (optimization.execution.mode=async).
+ */
+@WebMvcTest(controllers = AsyncOptimizationController.class, properties = "optimization.execution.mode=async")
+@DisplayName("Async Optimization Controller Unit Tests")
+public class AsyncOptimizationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private OptimizationService optimizationService;
+
+    @MockBean
+    private MessageSource messageSource;
+
+    private OptimizationRequest createValidRequest() {
+        OptimizationLimitsDto limits = new OptimizationLimitsDto(24.0, 20.0);
+        return new OptimizationRequest(Arrays.asList(100.0, 110.0), Arrays.asList(22.5, 23.0), limits, "en");
+    }
+
+    @Test
+    @DisplayName("Should complete the recommendation asynchronously")
+    void shouldCompleteRecommendationAsynchronously() throws Exception {
+        // ARRANGE
+        OptimizationRecommendation mockRecommendation = new OptimizationRecommendation(
+                "HVAC: Reduce temp by 2C", "Justification", 50.0, 15.0, "REC-ASYNC-1");
+
+        when(optimizationService.generateRecommendationAsync(any(), any(OptimizationRequest.class), eq(AdmissionLane.INTERACTIVE))).thenReturn(Mono.just(mockRecommendation));
+        when(messageSource.getMessage("recommendation.success", null, Locale.ENGLISH)).thenReturn("Optimization recommendation generated successfully.");
+
+        // ACT: the handler only starts async processing
+        MvcResult started = mockMvc.perform(post("/api/v1/optimization/recommend")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Accept-Language", "en")
+                .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // ASSERT
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Optimization recommendation generated successfully."))
+                .andExpect(jsonPath("$.data.recommendationId").value("REC-ASYNC-1"));
+    }
+
+    @Test
+    @DisplayName("Should still validate the request before going async")
+    void shouldReturnBadRequestForInvalidRequest() throws Exception {
+        OptimizationLimitsDto limits = new OptimizationLimitsDto(24.0, 20.0);
+        OptimizationRequest invalidRequest = new OptimizationRequest(null, Arrays.asList(22.5, 23.0), limits, "en");
+
+        mockMvc.perform(post("/api/v1/optimization/recommend")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(invalidRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Historical data cannot be null."));
+    }
+}
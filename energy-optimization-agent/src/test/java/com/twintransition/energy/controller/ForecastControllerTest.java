@@ -0,0 +1,68 @@
+package com.twintransition.energy.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.MessageSource;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.twintransition.energy.service.OnlineForecastService;
+
+@WebMvcTest(ForecastController.class)
+@DisplayName("Forecast Controller Unit Tests")
+public class ForecastControllerTest {
+
+    private static final String READING = "[{\"timestamp\":\"2025-10-01T00:00:00Z\",\"consumptionKwh\":10.0}]";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OnlineForecastService onlineForecastService;
+
+    @MockBean
+    private MessageSource messageSource;
+
+    @Test
+    @DisplayName("Should return 400 for a site id the forecast state table cannot hold")
+    void shouldRejectInvalidSiteId() throws Exception {
+        mockMvc.perform(post("/api/v1/forecast/sites/{siteId}/readings", "s".repeat(200))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(READING))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.errors[0]").value("Site id must be 1 to 128 letters, digits, '.', '_' or '-'."));
+
+        verify(onlineForecastService, never()).addReading(any(), any(), any(Double.class));
+    }
+
+    @Test
+    @DisplayName("Should return 400 with the validation message for an empty reading list")
+    void shouldRejectEmptyReadings() throws Exception {
+        mockMvc.perform(post("/api/v1/forecast/sites/{siteId}/readings", "site-a")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Validation Failed"))
+                .andExpect(jsonPath("$.errors[0]").value("At least one reading is required."));
+    }
+
+    @Test
+    @DisplayName("Should return 400 for a reading without consumption")
+    void shouldRejectIncompleteReading() throws Exception {
+        mockMvc.perform(post("/api/v1/forecast/sites/{siteId}/readings", "site-a")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"timestamp\":\"2025-10-01T00:00:00Z\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("Reading consumption is required."));
+    }
+}
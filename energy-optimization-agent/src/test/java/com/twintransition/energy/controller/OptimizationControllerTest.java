@@ -1,27 +1,48 @@
 package com.twintransition.energy.controller;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.MessageSource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.twintransition.energy.dto.OptimizationLimitsDto;
 import com.twintransition.energy.dto.OptimizationRecommendation;
 import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.service.AdmissionLane;
+import com.twintransition.energy.service.AdmissionRejectedException;
 import com.twintransition.energy.service.OptimizationService;
+import com.twintransition.energy.service.SiteNotFoundException;
+
+import jakarta.servlet.ServletException;
 
 /**
  * Unit tests for the OptimizationController layer, focusing on validation, 
@@ -29,9 +50,12 @@ import com.twintransition.energy.service.OptimizationService;
  * Assumes a RestExceptionHandler is present to handle validation errors (@Valid).
  */
 @WebMvcTest(OptimizationController.class)
+@TestPropertySource(properties = "optimization.wire.max-decompressed-bytes=" + OptimizationControllerTest.MAX_DECOMPRESSED_BYTES)
 @DisplayName("Optimization Controller Unit Tests")
 public class OptimizationControllerTest {
 
+    static final int MAX_DECOMPRESSED_BYTES = 65536;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -69,7 +93,7 @@ public class OptimizationControllerTest {
         OptimizationRequest request = createValidRequest();
         OptimizationRecommendation mockRecommendation = createMockRecommendation();
         
-        when(optimizationService.generateRecommendation(any(OptimizationRequest.class))).thenReturn(mockRecommendation);
+        when(optimizationService.generateRecommendation(any(), any(OptimizationRequest.class))).thenReturn(mockRecommendation);
         when(messageSource.getMessage("recommendation.success", null, Locale.ENGLISH)).thenReturn("Optimization recommendation generated successfully.");
 
         // ACT & ASSERT
@@ -106,7 +130,7 @@ public class OptimizationControllerTest {
         OptimizationRequest request = createValidRequest();
         OptimizationRecommendation mockRecommendation = createMockRecommendation();
         
-        when(optimizationService.generateRecommendation(any(OptimizationRequest.class))).thenReturn(mockRecommendation);
+        when(optimizationService.generateRecommendation(any(), any(OptimizationRequest.class))).thenReturn(mockRecommendation);
         when(messageSource.getMessage("recommendation.success", null, new Locale("pt"))).thenReturn("Recomendação de otimização de energia gerada com sucesso.");
 
         // ACT & ASSERT
@@ -117,4 +141,155 @@ public class OptimizationControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value("Recomendação de otimização de energia gerada com sucesso."));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should accept a gzipped CBOR request and answer in CBOR")
+    void shouldAcceptGzippedCborRequest() throws Exception {
+        // ARRANGE
+        OptimizationRequest request = createValidRequest();
+        CBORMapper cborMapper = new CBORMapper();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(cborMapper.writeValueAsBytes(request));
+        }
+
+        when(optimizationService.generateRecommendation(isNull(), eq(request))).thenReturn(createMockRecommendation());
+        when(messageSource.getMessage("recommendation.success", null, Locale.ENGLISH)).thenReturn("Optimization recommendation generated successfully.");
+
+        // ACT
+        MvcResult result = mockMvc.perform(post("/api/v1/optimization/recommend")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .accept(MediaType.APPLICATION_CBOR)
+                .header("Accept-Language", "en")
+                .content(compressed.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        // ASSERT
+        JsonNode body = cborMapper.readTree(result.getResponse().getContentAsByteArray());
+        assertEquals("REC-123", body.path("data").path("recommendationId").asText());
+    }
+
+    @Test
+    @DisplayName("Should return 400 for a body that is not valid gzip")
+    void shouldRejectCorruptGzipBody() throws Exception {
+        mockMvc.perform(post("/api/v1/optimization/recommend")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/v1/optimization/recommend")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .content(new byte[0]))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should accept a deflate request and reject a body without a zlib header")
+    void shouldHandleDeflateBodies() throws Exception {
+        OptimizationRequest request = createValidRequest();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(compressed)) {
+            deflate.write(objectMapper.writeValueAsBytes(request));
+        }
+        when(optimizationService.generateRecommendation(isNull(), eq(request))).thenReturn(createMockRecommendation());
+
+        mockMvc.perform(post("/api/v1/optimization/recommend")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "deflate")
+                .content(compressed.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.recommendationId").value("REC-123"));
+
+        mockMvc.perform(post("/api/v1/optimization/recommend")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "deflate")
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Request body is not valid deflate: bad zlib header"));
+    }
+
+    @Test
+    @DisplayName("Should return 400 for a compressed body corrupted past its header")
+    void shouldRejectBodyCorruptedPastHeader() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(objectMapper.writeValueAsBytes(createValidRequest()));
+        }
+        byte[] corrupt = Arrays.copyOf(compressed.toByteArray(), 14); // header plus a few bytes of the deflate stream
+
+        mockMvc.perform(post("/api/v1/optimization/recommend")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .content(corrupt))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Corrupt Request Body"));
+    }
+
+    @Test
+    @DisplayName("Should return 413 when a compressed body inflates past the configured limit")
+    void shouldRejectOversizedCompressedBody() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(("{\"language\":\"" + " ".repeat(MAX_DECOMPRESSED_BYTES) + "\"}").getBytes(StandardCharsets.UTF_8));
+        }
+
+        mockMvc.perform(post("/api/v1/optimization/recommend")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .content(compressed.toByteArray()))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.maxBytes").value(MAX_DECOMPRESSED_BYTES));
+    }
+
+    @Test
+    @DisplayName("Should return 415 for an unsupported Content-Encoding")
+    void shouldRejectUnsupportedContentEncoding() throws Exception {
+        mockMvc.perform(post("/api/v1/optimization/recommend")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "br")
+                .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(status().isUnsupportedMediaType())
+                .andExpect(header().string("Accept-Encoding", "gzip, deflate"));
+    }
+
+    @Test
+    @DisplayName("Should return 429 with Retry-After when admission control rejects the request")
+    void shouldReturnTooManyRequestsWhenSaturated() throws Exception {
+        when(optimizationService.generateRecommendation(any(), any(OptimizationRequest.class)))
+                .thenThrow(new AdmissionRejectedException(AdmissionLane.INTERACTIVE, "queue full", 3));
+
+        mockMvc.perform(post("/api/v1/optimization/recommend")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"))
+                .andExpect(jsonPath("$.lane").value("interactive"))
+                .andExpect(jsonPath("$.errors[0]").value("Too many concurrent recommendation requests (interactive lane, queue full)."));
+    }
+
+    @Test
+    @DisplayName("Should return 404 for a site without data, and leave other service errors as server errors")
+    void shouldMapOnlyDedicatedExceptionsToClientErrors() throws Exception {
+        when(optimizationService.generateRecommendation(any(), any(OptimizationRequest.class)))
+                .thenThrow(new SiteNotFoundException("site-a", "No stored history for site site-a."));
+
+        mockMvc.perform(post("/api/v1/optimization/recommend")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createValidRequest())))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errors[0]").value("No stored history for site site-a."));
+
+        when(optimizationService.generateRecommendation(any(), any(OptimizationRequest.class)))
+                .thenThrow(new IllegalArgumentException("Unknown agent wire compression: brotli"));
+
+        ServletException error = assertThrows(ServletException.class, () -> mockMvc.perform(post("/api/v1/optimization/recommend")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createValidRequest()))));
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+    }
+}
@@ -0,0 +1,118 @@
+package com.twintransition.energy.controller;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twintransition.energy.dto.ApiResponse;
+import com.twintransition.energy.dto.HourlyAction;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.RecommendationStage;
+import com.twintransition.energy.dto.TimeSeries;
+import com.twintransition.energy.service.RecommendationStreamService;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Unit tests for the streaming recommendation endpoint (SSE and NDJSON framing).
+ */
+@WebMvcTest(controllers = RecommendationStreamController.class)
+@DisplayName("Recommendation Stream Controller Unit Tests")
+public class RecommendationStreamControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private RecommendationStreamService streamService;
+
+    private final OptimizationRequest request = new OptimizationRequest(Arrays.asList(100.0, 110.0), Arrays.asList(25.5),
+            new OptimizationLimitsDto(24.0, 20.0), "en");
+
+    private Flux<RecommendationStage> stages() {
+        return Flux.just(
+                new RecommendationStage(RecommendationStage.FORECAST, TimeSeries.of(1.5, 2.5)),
+                new RecommendationStage(RecommendationStage.ACTION, new HourlyAction(0, 1.5, 25.5, "HVAC_Adjustment", 20.0)),
+                new RecommendationStage(RecommendationStage.SUMMARY, new ApiResponse<>("done",
+                        new OptimizationRecommendation("HVAC", "ok", 5.0, 4.66, "REC-1"))));
+    }
+
+    @Test
+    @DisplayName("Should frame each stage as a named Server-Sent Event")
+    void shouldStreamServerSentEvents() throws Exception {
+        when(streamService.stream(eq("site-a"), any(OptimizationRequest.class), eq(Locale.ENGLISH))).thenReturn(stages());
+
+        MvcResult started = mockMvc.perform(post("/api/v1/optimization/recommend/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Accept-Language", "en")
+                        .header("X-Site-Id", "site-a")
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string("event:forecast\ndata:[1.5,2.5]\n\n"
+                        + "event:action\ndata:{\"hour\":0,\"forecastDemandKwh\":1.5,\"outdoorTempC\":25.5,"
+                        + "\"actionType\":\"HVAC_Adjustment\",\"setpointC\":20.0}\n\n"
+                        + "event:summary\ndata:{\"message\":\"done\",\"data\":{\"actionableScript\":\"HVAC\","
+                        + "\"naturalLanguageJustification\":\"ok\",\"estimatedCostSavingsEur\":5.0,"
+                        + "\"estimatedCarbonFootprintReductionKgCO2\":4.66,\"recommendationId\":\"REC-1\"},\"status\":200}\n\n"));
+    }
+
+    @Test
+    @DisplayName("Should write one JSON stage per line for NDJSON clients")
+    void shouldStreamNdjson() throws Exception {
+        when(streamService.stream(any(), any(OptimizationRequest.class), any())).thenReturn(stages().take(2));
+
+        MvcResult started = mockMvc.perform(post("/api/v1/optimization/recommend/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"stage\":\"forecast\",\"data\":[1.5,2.5]}\n"
+                        + "{\"stage\":\"action\",\"data\":{\"hour\":0,\"forecastDemandKwh\":1.5,\"outdoorTempC\":25.5,"
+                        + "\"actionType\":\"HVAC_Adjustment\",\"setpointC\":20.0}}\n"));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid requests with 400 before streaming")
+    void shouldRejectInvalidRequest() throws Exception {
+        OptimizationRequest invalid = new OptimizationRequest(Arrays.asList(100.0), Arrays.asList(25.5),
+                new OptimizationLimitsDto(24.0, 20.0), null);
+
+        mockMvc.perform(post("/api/v1/optimization/recommend/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content(objectMapper.writeValueAsString(invalid)))
+                .andExpect(status().isBadRequest());
+    }
+}
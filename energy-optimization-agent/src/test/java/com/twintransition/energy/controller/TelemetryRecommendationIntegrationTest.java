@@ -0,0 +1,149 @@
+package com.twintransition.energy.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twintransition.energy.service.TelemetryIngestionService;
+
+/**
+ * End to end: readings streamed to /api/v1/telemetry/readings become the history that
+ * /api/v1/series/sites/{siteId}/recommend reads.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("Telemetry to recommendation integration")
+public class TelemetryRecommendationIntegrationTest {
+
+    private static final Instant DAY = Instant.parse("2025-10-01T00:00:00Z");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TelemetryIngestionService telemetryIngestionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws Exception {
+        String directory = Files.createTempDirectory("telemetry-series").toString();
+        registry.add("optimization.store.directory", () -> directory);
+        registry.add("optimization.engine.mode", () -> "embedded");
+        registry.add("optimization.telemetry.flush-interval-ms", () -> "10");
+        registry.add("optimization.wire.max-decompressed-bytes", () -> "65536");
+    }
+
+    @Test
+    @DisplayName("A site fed only through telemetry should get a recommendation from its stored history")
+    void ingestedReadingsShouldFeedSiteRecommendations() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        StringBuilder ndjson = new StringBuilder();
+        for (int hour = 0; hour < 48; hour++) {
+            ndjson.append("{\"siteId\":\"telemetry-site\",\"timestamp\":\"").append(DAY.plusSeconds(3600L * hour))
+                    .append("\",\"consumptionKwh\":").append(hour % 24 >= 18 ? 140.0 : 90.0)
+                    .append(",\"temperatureC\":").append(hour % 24 >= 12 ? 27.0 : 22.0).append("}\n");
+        }
+        long writtenBefore = telemetryIngestionService.stats().written();
+
+        HttpResponse<String> ingested = client.send(HttpRequest.newBuilder(uri("/api/v1/telemetry/readings"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(202, ingested.statusCode(), ingested.body());
+        assertEquals(48, objectMapper.readTree(ingested.body()).path("data").path("accepted").asLong());
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (telemetryIngestionService.stats().written() < writtenBefore + 48 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        HttpResponse<String> recommended = client.send(HttpRequest.newBuilder(uri("/api/v1/series/sites/telemetry-site/recommend"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"from\":\"" + DAY + "\",\"to\":\"" + DAY.plusSeconds(48 * 3600L)
+                        + "\",\"limits\":{\"maxTemp\":24.0,\"minComfortTemp\":20.0},\"selectedLanguage\":\"en\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, recommended.statusCode(), recommended.body());
+        JsonNode recommendation = objectMapper.readTree(recommended.body()).get("data");
+        assertTrue(recommendation.get("recommendationId").asText().length() > 0);
+        assertTrue(recommendation.get("estimatedCostSavingsEur").asDouble() >= 0);
+    }
+
+    @Test
+    @DisplayName("A malformed line should be a 400 with its line number, not a 500")
+    void malformedTelemetryShouldBeRejectedWithItsLine() throws Exception {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(uri("/api/v1/telemetry/readings"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"siteId\":\"malformed-site\",\"timestamp\":\"" + DAY + "\",\"consumptionKwh\":1.0}\n{not json}\n"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode(), response.body());
+        JsonNode error = objectMapper.readTree(response.body());
+        assertEquals(1, error.get("accepted").asLong());
+        assertEquals(2, error.get("line").asLong());
+    }
+
+    @Test
+    @DisplayName("Readings older than the site's history should be reported as late, not accepted")
+    void lateTelemetryShouldBeReported() throws Exception {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(uri("/api/v1/telemetry/readings"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"siteId\":\"late-site\",\"timestamp\":\"" + DAY.plusSeconds(3600) + "\",\"consumptionKwh\":1.0}\n"
+                                + "{\"siteId\":\"late-site\",\"timestamp\":\"" + DAY + "\",\"consumptionKwh\":1.0}\n"
+                                + "{\"siteId\":\"late-site\",\"timestamp\":1759276800000,\"consumptionKwh\":1.0}\n"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(202, response.statusCode(), response.body());
+        JsonNode result = objectMapper.readTree(response.body()).get("data");
+        assertEquals(1, result.get("accepted").asLong());
+        assertEquals(1, result.get("late").asLong());
+        assertEquals(1, result.get("invalid").asLong());
+    }
+
+    @Test
+    @DisplayName("A gzip body inflating past the limit should be a 413, not a 500")
+    void oversizedCompressedTelemetryShouldBeRejected() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int minute = 0; ndjson.length() <= 65536; minute++) {
+            ndjson.append("{\"siteId\":\"oversized-site\",\"timestamp\":\"").append(DAY.plusSeconds(60L * minute))
+                    .append("\",\"consumptionKwh\":1.0}\n");
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(ndjson.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(uri("/api/v1/telemetry/readings"))
+                .header("Content-Type", "application/x-ndjson")
+                .header("Content-Encoding", "gzip")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(compressed.toByteArray()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(413, response.statusCode(), response.body());
+        assertEquals(65536, objectMapper.readTree(response.body()).get("maxBytes").asLong());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,70 @@
+package com.twintransition.energy.dto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+@DisplayName("TimeSeries (de)serialization and validation")
+public class TimeSeriesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    @DisplayName("Should round-trip a request as plain JSON number arrays")
+    void shouldRoundTripRequest() throws Exception {
+        String json = "{\"historicalConsumptionKwH\":[100,110.5,120.25],\"weatherForecastDegreesC\":[22.5],"
+                + "\"limits\":{\"maxTemp\":24.0,\"minComfortTemp\":20.0},\"selectedLanguage\":\"en\"}";
+
+        OptimizationRequest request = objectMapper.readValue(json, OptimizationRequest.class);
+
+        assertArrayEquals(new double[] { 100.0, 110.5, 120.25 }, request.historicalConsumptionKwH().array());
+        assertEquals(request, objectMapper.readValue(objectMapper.writeValueAsString(request), OptimizationRequest.class));
+        assertEquals("[100.0,110.5,120.25]", objectMapper.writeValueAsString(request.historicalConsumptionKwH()));
+    }
+
+    @Test
+    @DisplayName("Should reject non-numeric values")
+    void shouldRejectNonNumericValues() {
+        assertThrows(JsonMappingException.class, () -> objectMapper.readValue("[1.0,\"x\"]", TimeSeries.class));
+    }
+
+    @Test
+    @DisplayName("Should validate series size without converting the values")
+    void shouldValidateSeriesSize() {
+        OptimizationRequest emptyHistory = new OptimizationRequest(
+                TimeSeries.of(), TimeSeries.of(22.5), new OptimizationLimitsDto(24.0, 20.0), "en");
+
+        assertEquals("Historical consumption must contain at least one data point.",
+                validator.validate(emptyHistory).iterator().next().getMessage());
+    }
+
+    @Test
+    @DisplayName("Should pack series as little-endian doubles in CBOR")
+    void shouldPackSeriesInCbor() throws Exception {
+        CBORMapper cborMapper = new CBORMapper();
+        double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 100 + i * 0.125;
+        }
+        TimeSeries series = TimeSeries.wrap(values);
+
+        byte[] cbor = cborMapper.writeValueAsBytes(series);
+
+        // One byte string: 3 bytes of header (major type 2, 16-bit length) + 8 bytes per point
+        assertEquals(3 + 8 * values.length, cbor.length);
+        assertEquals(series, cborMapper.readValue(cbor, TimeSeries.class));
+        assertEquals(series, TimeSeries.fromLittleEndianBytes(series.toLittleEndianBytes()));
+        // Plain arrays of numbers are still accepted in CBOR
+        assertArrayEquals(new double[] { 1.5, 2.0 }, cborMapper.readValue(cborMapper.writeValueAsBytes(new double[] { 1.5, 2.0 }), TimeSeries.class).array());
+    }
+}
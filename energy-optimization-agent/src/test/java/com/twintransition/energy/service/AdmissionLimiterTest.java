@@ -0,0 +1,164 @@
+package com.twintransition.energy.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+@DisplayName("Admission Limiter Unit Tests")
+public class AdmissionLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1);
+
+    private AdmissionLimiter limiter(boolean adaptive, int limit, double backgroundShare, int maxQueue, Duration maxWait) {
+        AdmissionLimiter.LaneSettings lane = new AdmissionLimiter.LaneSettings(maxQueue, maxWait);
+        return new AdmissionLimiter(new AdmissionLimiter.Settings(true, adaptive, limit, 1, 100, 0.5, 2.0,
+                backgroundShare, Map.of(AdmissionLane.INTERACTIVE, lane, AdmissionLane.BATCH, lane,
+                        AdmissionLane.SCHEDULED, lane)), clock::get);
+    }
+
+    /**
+     * Subscribes an admitted call whose work only completes when the returned sink is fed.
+     */
+    private Sinks.One<String> hold(AdmissionLimiter limiter, AdmissionLane lane, List<String> order, List<Throwable> errors) {
+        Sinks.One<String> work = Sinks.one();
+        limiter.admit(lane, () -> {
+            order.add(lane.tag());
+            return work.asMono();
+        }).subscribe(value -> { }, errors::add);
+        return work;
+    }
+
+    @Test
+    @DisplayName("Should queue past the limit and serve interactive requests ahead of batch and scheduled ones")
+    void shouldServeInteractiveFirst() {
+        AdmissionLimiter limiter = limiter(false, 1, 1.0, 10, Duration.ofSeconds(10));
+        List<String> order = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+
+        Sinks.One<String> first = hold(limiter, AdmissionLane.BATCH, order, errors);
+        Sinks.One<String> scheduled = hold(limiter, AdmissionLane.SCHEDULED, order, errors);
+        Sinks.One<String> batch = hold(limiter, AdmissionLane.BATCH, order, errors);
+        Sinks.One<String> interactive = hold(limiter, AdmissionLane.INTERACTIVE, order, errors);
+        assertEquals(List.of("batch"), order);
+        assertEquals(1, limiter.queued(AdmissionLane.INTERACTIVE));
+        assertEquals(1, limiter.queued(AdmissionLane.BATCH));
+
+        first.tryEmitValue("done");
+        interactive.tryEmitValue("done");
+        batch.tryEmitValue("done");
+        scheduled.tryEmitValue("done");
+
+        assertEquals(List.of("batch", "interactive", "batch", "scheduled"), order);
+        assertTrue(errors.isEmpty());
+        assertEquals(0, limiter.stats().inFlight());
+    }
+
+    @Test
+    @DisplayName("Should keep headroom for interactive requests when background lanes are saturated")
+    void shouldReserveInteractiveHeadroom() {
+        AdmissionLimiter limiter = limiter(false, 4, 0.5, 10, Duration.ofSeconds(10));
+        List<String> order = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            hold(limiter, AdmissionLane.BATCH, order, errors);
+        }
+        hold(limiter, AdmissionLane.INTERACTIVE, order, errors);
+        hold(limiter, AdmissionLane.INTERACTIVE, order, errors);
+
+        assertEquals(List.of("batch", "batch", "interactive", "interactive"), order);
+        assertEquals(1, limiter.queued(AdmissionLane.BATCH));
+        assertEquals(4, limiter.stats().inFlight());
+    }
+
+    @Test
+    @DisplayName("Should reject with a Retry-After hint when the lane queue is full or the wait expires")
+    void shouldRejectExcessRequests() {
+        AdmissionLimiter limiter = limiter(false, 1, 1.0, 1, Duration.ofMillis(100));
+        List<String> order = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+
+        hold(limiter, AdmissionLane.INTERACTIVE, order, errors);
+
+        AdmissionRejectedException expired = assertThrows(AdmissionRejectedException.class,
+                () -> limiter.admit(AdmissionLane.INTERACTIVE, () -> Mono.just("late")).block(Duration.ofSeconds(5)));
+        assertTrue(expired.getMessage().contains("no slot within 100 ms"));
+
+        limiter.admit(AdmissionLane.INTERACTIVE, () -> Mono.just("queued")).subscribe(value -> { }, errors::add);
+        hold(limiter, AdmissionLane.INTERACTIVE, order, errors);
+
+        assertEquals(1, errors.size());
+        AdmissionRejectedException full = assertInstanceOf(AdmissionRejectedException.class, errors.get(0));
+        assertEquals(AdmissionLane.INTERACTIVE, full.getLane());
+        assertTrue(full.getMessage().contains("queue full"));
+        assertTrue(full.getRetryAfterSeconds() >= 1);
+        assertEquals(1, limiter.queued(AdmissionLane.INTERACTIVE));
+        assertEquals(2, limiter.rejected(AdmissionLane.INTERACTIVE));
+        assertEquals(List.of("interactive"), order);
+    }
+
+    @Test
+    @DisplayName("Should free the slot when an admitted call is cancelled")
+    void shouldReleaseOnCancel() {
+        AdmissionLimiter limiter = limiter(false, 1, 1.0, 10, Duration.ofSeconds(10));
+
+        limiter.admit(AdmissionLane.INTERACTIVE, Mono::never).subscribe().dispose();
+        limiter.admit(AdmissionLane.INTERACTIVE, Mono::never).subscribe();
+        limiter.admit(AdmissionLane.INTERACTIVE, Mono::never).subscribe().dispose();
+
+        assertEquals(1, limiter.inFlight(AdmissionLane.INTERACTIVE));
+        assertEquals(0, limiter.queued(AdmissionLane.INTERACTIVE));
+        assertEquals(2, limiter.admitted(AdmissionLane.INTERACTIVE));
+    }
+
+    @Test
+    @DisplayName("Should back off on agent overload and latency growth, and grow again while calls are fast")
+    void shouldAdaptLimit() {
+        AdmissionLimiter limiter = limiter(true, 8, 1.0, 100, Duration.ofSeconds(10));
+
+        // Baseline latency of 10 ms with the limit fully used: additive increase
+        for (int round = 0; round < 20; round++) {
+            List<Sinks.One<String>> calls = new ArrayList<>();
+            for (int i = 0; i < limiter.getLimit(); i++) {
+                calls.add(hold(limiter, AdmissionLane.INTERACTIVE, new ArrayList<>(), new ArrayList<>()));
+            }
+            clock.addAndGet(10_000_000);
+            calls.forEach(call -> call.tryEmitValue("ok"));
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 8, "limit should grow, was " + grown);
+
+        // Overload answers: multiplicative decrease, at most once per observed latency
+        Sinks.One<String> first = hold(limiter, AdmissionLane.INTERACTIVE, new ArrayList<>(), new ArrayList<>());
+        Sinks.One<String> second = hold(limiter, AdmissionLane.INTERACTIVE, new ArrayList<>(), new ArrayList<>());
+        clock.addAndGet(10_000_000);
+        first.tryEmitError(new AgentException("External Agent HTTP Error: 503", 503));
+        second.tryEmitError(new AgentException("External Agent HTTP Error: 503", 503));
+        assertEquals(grown / 2, limiter.getLimit());
+
+        // Latency far above the baseline: another decrease
+        Sinks.One<String> slow = hold(limiter, AdmissionLane.INTERACTIVE, new ArrayList<>(), new ArrayList<>());
+        clock.addAndGet(100_000_000);
+        slow.tryEmitValue("slow");
+        assertEquals(grown / 4, limiter.getLimit());
+        assertEquals(2, limiter.stats().limitDecreases());
+
+        // Client errors are not a load signal
+        Sinks.One<String> invalid = hold(limiter, AdmissionLane.INTERACTIVE, new ArrayList<>(), new ArrayList<>());
+        clock.addAndGet(200_000_000);
+        invalid.tryEmitError(new AgentException("External Agent Error: bad request", 400));
+        assertEquals(2, limiter.stats().limitDecreases());
+    }
+}
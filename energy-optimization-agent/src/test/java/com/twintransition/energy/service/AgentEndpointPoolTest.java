@@ -0,0 +1,184 @@
+package com.twintransition.energy.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+@DisplayName("Agent Endpoint Pool Unit Tests")
+public class AgentEndpointPoolTest {
+
+    private MockWebServer agentA;
+    private MockWebServer agentB;
+    private final AtomicLong clock = new AtomicLong();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        agentA = new MockWebServer();
+        agentB = new MockWebServer();
+        agentA.start();
+        agentB.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        agentA.shutdown();
+        agentB.shutdown();
+    }
+
+    private AgentEndpointPool pool(boolean hedging, int failureThreshold, LongClock clockSource) {
+        AgentEndpointPool.Settings settings = new AgentEndpointPool.Settings(hedging, 0.95, Duration.ofMillis(100),
+                Duration.ZERO, failureThreshold, Duration.ofSeconds(10));
+        return new AgentEndpointPool(List.of(endpoint(agentA), endpoint(agentB)), settings, clockSource::now);
+    }
+
+    private static AgentEndpointPool.Endpoint endpoint(MockWebServer server) {
+        String url = server.url("/").toString();
+        return new AgentEndpointPool.Endpoint(url, WebClient.builder().baseUrl(url).build());
+    }
+
+    private static Mono<String> call(WebClient client) {
+        return client.get().uri("/optimize").retrieve().bodyToMono(String.class);
+    }
+
+    /**
+     * Like the service: a 4xx from the agent becomes an AgentException with its status.
+     */
+    private static Mono<String> callMappingClientErrors(WebClient client) {
+        return client.get().uri("/optimize").retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError,
+                        response -> Mono.just(new AgentException("rejected", response.statusCode().value())))
+                .bodyToMono(String.class);
+    }
+
+    private interface LongClock {
+        long now();
+    }
+
+    @Test
+    @DisplayName("Should route around the instance with outstanding requests")
+    void shouldBalanceByOutstandingRequests() {
+        AgentEndpointPool pool = pool(false, 5, System::nanoTime);
+        agentA.enqueue(new MockResponse().setBody("slow").setHeadersDelay(1, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            agentB.enqueue(new MockResponse().setBody("fast"));
+        }
+
+        Disposable slowCall = pool.execute(AgentEndpointPoolTest::call).subscribe();
+        waitUntil(() -> pool.stats().endpoints().get(0).outstanding() == 1);
+        for (int i = 0; i < 3; i++) {
+            assertEquals("fast", pool.execute(AgentEndpointPoolTest::call).block(Duration.ofSeconds(10)));
+        }
+
+        assertEquals(1, pool.stats().endpoints().get(0).requests());
+        assertEquals(3, pool.stats().endpoints().get(1).requests());
+        slowCall.dispose();
+    }
+
+    @Test
+    @DisplayName("Should eject a failing instance and readmit it after a successful trial call")
+    void shouldEjectAndRecoverFailingInstance() {
+        AgentEndpointPool pool = pool(false, 2, clock::get);
+        agentA.enqueue(new MockResponse().setResponseCode(503));
+        agentA.enqueue(new MockResponse().setResponseCode(503));
+        agentA.enqueue(new MockResponse().setBody("recovered"));
+        for (int i = 0; i < 6; i++) {
+            agentB.enqueue(new MockResponse().setBody("ok"));
+        }
+
+        assertThrows(RuntimeException.class, () -> pool.execute(AgentEndpointPoolTest::call).block(Duration.ofSeconds(10)));
+        pool.execute(AgentEndpointPoolTest::call).block(Duration.ofSeconds(10));
+        assertThrows(RuntimeException.class, () -> pool.execute(AgentEndpointPoolTest::call).block(Duration.ofSeconds(10)));
+        assertEquals("OPEN", pool.stats().endpoints().get(0).state());
+        for (int i = 0; i < 4; i++) {
+            assertEquals("ok", pool.execute(AgentEndpointPoolTest::call).block(Duration.ofSeconds(10)));
+        }
+        assertEquals(2, agentA.getRequestCount());
+
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+        pool.execute(AgentEndpointPoolTest::call).block(Duration.ofSeconds(10));
+        pool.execute(AgentEndpointPoolTest::call).block(Duration.ofSeconds(10));
+
+        assertEquals(3, agentA.getRequestCount());
+        assertEquals("CLOSED", pool.stats().endpoints().get(0).state());
+        assertEquals(1, pool.stats().endpoints().get(0).ejections());
+    }
+
+    @Test
+    @DisplayName("Should fail fast when every instance is ejected")
+    void shouldRejectWhenAllInstancesAreEjected() {
+        AgentEndpointPool pool = pool(false, 1, clock::get);
+        agentA.enqueue(new MockResponse().setResponseCode(500));
+        agentB.enqueue(new MockResponse().setResponseCode(500));
+
+        assertThrows(RuntimeException.class, () -> pool.execute(AgentEndpointPoolTest::call).block(Duration.ofSeconds(10)));
+        assertThrows(RuntimeException.class, () -> pool.execute(AgentEndpointPoolTest::call).block(Duration.ofSeconds(10)));
+        AgentException error = assertThrows(AgentException.class, () -> pool.execute(AgentEndpointPoolTest::call).block(Duration.ofSeconds(10)));
+
+        assertEquals(0, error.getStatusCode());
+        assertEquals(1, pool.stats().rejected());
+        assertEquals(2, agentA.getRequestCount() + agentB.getRequestCount());
+    }
+
+    @Test
+    @DisplayName("Should answer from the hedged instance when the first one is slow")
+    void shouldHedgeSlowRequests() {
+        AgentEndpointPool pool = pool(true, 5, System::nanoTime);
+        agentA.enqueue(new MockResponse().setBody("slow").setHeadersDelay(3, TimeUnit.SECONDS));
+        agentB.enqueue(new MockResponse().setBody("hedged"));
+
+        long start = System.nanoTime();
+        String result = pool.execute(AgentEndpointPoolTest::call).block(Duration.ofSeconds(10));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("hedged", result);
+        assertTrue(elapsedMs < 2_000, "hedged call took " + elapsedMs + " ms");
+        assertEquals(1, pool.stats().hedgesSent());
+        waitUntil(() -> pool.stats().endpoints().get(0).outstanding() == 0);
+    }
+
+    @Test
+    @DisplayName("Should fail at once on a rejected request and cancel the hedge")
+    void shouldNotWaitForTheHedgeOnClientErrors() {
+        AgentEndpointPool pool = pool(true, 5, System::nanoTime);
+        agentA.enqueue(new MockResponse().setResponseCode(422).setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        agentB.enqueue(new MockResponse().setBody("slow").setHeadersDelay(3, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        AgentException error = assertThrows(AgentException.class,
+                () -> pool.execute(AgentEndpointPoolTest::callMappingClientErrors).block(Duration.ofSeconds(10)));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(422, error.getStatusCode());
+        assertTrue(elapsedMs < 2_000, "rejected call took " + elapsedMs + " ms");
+        assertEquals(1, pool.stats().hedgesSent());
+        waitUntil(() -> pool.stats().endpoints().get(1).outstanding() == 0);
+        assertEquals("CLOSED", pool.stats().endpoints().get(0).state());
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("condition not reached in time");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.twintransition.energy.service;
+
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.TimeSeries;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+@DisplayName("Agent Request Encoder Unit Tests")
+public class AgentRequestEncoderTest {
+
+    private static final String RECOMMENDATION = "{\"actionableScript\":\"a\",\"naturalLanguageJustification\":\"b\","
+            + "\"estimatedCostSavingsEur\":5.0,\"estimatedCarbonFootprintReductionKgCO2\":4.66,\"recommendationId\":\"1\"}";
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final CBORMapper cborMapper = new CBORMapper();
+    private MockWebServer agent;
+    private OptimizationRequest request;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        agent = new MockWebServer();
+        agent.start();
+        double[] history = new double[5000];
+        for (int i = 0; i < history.length; i++) {
+            history[i] = 100 + 25 * Math.sin(i * Math.PI / 12) + (i % 7) * 0.37;
+        }
+        request = new OptimizationRequest(TimeSeries.wrap(history), TimeSeries.of(22.5, 23.0),
+                new OptimizationLimitsDto(24.0, 20.0), "en");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        agent.shutdown();
+    }
+
+    private OptimizationService service(AgentRequestEncoder encoder) {
+        String url = agent.url("/").toString();
+        return OptimizationServiceBuilder.remote(url)
+                .requestEncoder(encoder)
+                .build();
+    }
+
+    private static MockResponse recommendation() {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(RECOMMENDATION);
+    }
+
+    @Test
+    @DisplayName("Should send a gzipped CBOR body the agent can decode back to the request")
+    void shouldSendGzippedCbor() throws Exception {
+        AgentRequestEncoder encoder = new AgentRequestEncoder(jsonMapper, cborMapper, "cbor", "gzip", 1024);
+        agent.enqueue(recommendation());
+
+        service(encoder).generateRecommendation(request);
+
+        RecordedRequest sent = agent.takeRequest();
+        assertEquals("application/cbor", sent.getHeader("Content-Type"));
+        assertEquals("gzip", sent.getHeader("Content-Encoding"));
+        byte[] body = new GZIPInputStream(sent.getBody().inputStream()).readAllBytes();
+        assertEquals(request, cborMapper.readValue(body, OptimizationRequest.class));
+
+        AgentRequestEncoder.WireStats stats = encoder.stats();
+        assertTrue(stats.wireBytes() < stats.encodedBytes());
+        assertTrue(stats.encodedBytes() < jsonMapper.writeValueAsBytes(request).length / 2);
+    }
+
+    @Test
+    @DisplayName("Should retry as plain JSON and keep using it when the agent rejects the encoding")
+    void shouldFallBackToJson() throws Exception {
+        AgentRequestEncoder encoder = new AgentRequestEncoder(jsonMapper, cborMapper, "cbor", "gzip", 1024);
+        OptimizationService service = service(encoder);
+        agent.enqueue(new MockResponse().setResponseCode(415));
+        agent.enqueue(recommendation());
+        agent.enqueue(recommendation());
+
+        service.generateRecommendation(request);
+        service.generateRecommendation(request);
+
+        assertEquals("application/cbor", agent.takeRequest().getHeader("Content-Type"));
+        for (int i = 0; i < 2; i++) {
+            RecordedRequest sent = agent.takeRequest();
+            assertEquals("application/json", sent.getHeader("Content-Type"));
+            assertNull(sent.getHeader("Content-Encoding"));
+            assertEquals(request, jsonMapper.readValue(sent.getBody().readByteArray(), OptimizationRequest.class));
+        }
+        assertEquals("json", encoder.stats().format());
+        assertEquals(1, encoder.stats().fallbacks());
+    }
+
+    @Test
+    @DisplayName("Should leave small bodies uncompressed")
+    void shouldSkipCompressionBelowThreshold() {
+        AgentRequestEncoder encoder = new AgentRequestEncoder(jsonMapper, cborMapper, "json", "gzip", 1_000_000);
+
+        AgentRequestEncoder.EncodedRequest encoded = encoder.encode(request);
+
+        assertNull(encoded.contentEncoding());
+        assertEquals(encoder.stats().encodedBytes(), encoder.stats().wireBytes());
+    }
+}
@@ -0,0 +1,92 @@
+package com.twintransition.energy.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.twintransition.energy.dto.BatchOptimizationRequest;
+import com.twintransition.energy.dto.BatchOptimizationResponse;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.SiteOptimizationRequest;
+
+import jakarta.validation.Validation;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Batch Recommendation Service Unit Tests")
+public class BatchRecommendationServiceTest {
+
+    @Mock
+    private OptimizationService optimizationService;
+
+    private BatchRecommendationService batchService;
+
+    @BeforeEach
+    void setUp() {
+        batchService = new BatchRecommendationService(
+                optimizationService,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                4,
+                3);
+    }
+
+    private OptimizationRequest request(double firstReading) {
+        return new OptimizationRequest(
+                Arrays.asList(firstReading, 110.0),
+                Arrays.asList(22.5, 23.0),
+                new OptimizationLimitsDto(24.0, 20.0),
+                "en");
+    }
+
+    @Test
+    @DisplayName("Should report per-site errors without failing the batch")
+    void shouldReportPerSiteErrors() {
+        OptimizationRequest okRequest = request(100.0);
+        OptimizationRequest failingRequest = request(200.0);
+        OptimizationRequest invalidRequest = new OptimizationRequest(null, Arrays.asList(22.5), new OptimizationLimitsDto(24.0, 20.0), "en");
+
+        when(optimizationService.generateRecommendationAsync(eq("site-a"), argThat(r -> r == okRequest), eq(AdmissionLane.BATCH)))
+                .thenReturn(Mono.just(new OptimizationRecommendation("HVAC", "ok", 5.0, 4.66, "REC-A")));
+        when(optimizationService.generateRecommendationAsync(eq("site-b"), argThat(r -> r == failingRequest), eq(AdmissionLane.BATCH)))
+                .thenReturn(Mono.error(new RuntimeException("External Agent Error: boom")));
+
+        BatchOptimizationResponse response = batchService.generateBatch(new BatchOptimizationRequest(List.of(
+                new SiteOptimizationRequest("site-a", okRequest),
+                new SiteOptimizationRequest("site-b", failingRequest),
+                new SiteOptimizationRequest("site-c", invalidRequest)))).block();
+
+        assertEquals(1, response.succeeded());
+        assertEquals(2, response.failed());
+        assertEquals("site-a", response.results().get(0).siteId());
+        assertEquals("REC-A", response.results().get(0).recommendation().recommendationId());
+        assertNull(response.results().get(0).error());
+        assertEquals("External Agent Error: boom", response.results().get(1).error());
+        assertEquals("Historical data cannot be null.", response.results().get(2).error());
+    }
+
+    @Test
+    @DisplayName("Should reject batches above the configured size")
+    void shouldRejectOversizedBatch() {
+        List<SiteOptimizationRequest> items = List.of(
+                new SiteOptimizationRequest("a", request(1.0)),
+                new SiteOptimizationRequest("b", request(2.0)),
+                new SiteOptimizationRequest("c", request(3.0)),
+                new SiteOptimizationRequest("d", request(4.0)));
+
+        assertThrows(BatchTooLargeException.class, () -> batchService.generateBatch(new BatchOptimizationRequest(items)));
+    }
+}
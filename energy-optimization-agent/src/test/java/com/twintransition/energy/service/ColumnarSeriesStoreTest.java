@@ -0,0 +1,171 @@
+package com.twintransition.energy.service;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.twintransition.energy.dto.IngestionResult;
+import com.twintransition.energy.dto.SeriesRange;
+
+@DisplayName("Columnar Series Store Unit Tests")
+public class ColumnarSeriesStoreTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final Instant START = Instant.parse("2025-10-01T00:00:00Z");
+
+    @TempDir
+    private Path directory;
+
+    private ColumnarSeriesStore newStore() {
+        // Tiny blocks so that lookups cross several index entries
+        return new ColumnarSeriesStore(directory, ZoneOffset.UTC, 8);
+    }
+
+    private static void appendHours(ColumnarSeriesStore store, String siteId, int fromHour, int hours) {
+        long[] timestamps = new long[hours];
+        double[] consumption = new double[hours];
+        double[] temperature = new double[hours];
+        for (int i = 0; i < hours; i++) {
+            timestamps[i] = START.toEpochMilli() + (fromHour + i) * HOUR;
+            consumption[i] = fromHour + i;
+            temperature[i] = 20 + (fromHour + i) % 5;
+        }
+        store.append(siteId, timestamps, consumption, temperature);
+    }
+
+    @Test
+    @DisplayName("Should return exactly the readings of [from, to) across index blocks and appends")
+    void shouldReadRanges() {
+        ColumnarSeriesStore store = newStore();
+        appendHours(store, "site-a", 0, 50);
+        appendHours(store, "site-a", 50, 50);
+
+        SeriesRange range = store.read("site-a", START.plusSeconds(7 * 3600), START.plusSeconds(42 * 3600));
+
+        assertEquals(35, range.size());
+        assertEquals(START.toEpochMilli() + 7 * HOUR, range.timestamps()[0]);
+        assertEquals(7.0, range.consumptionKwh().get(0));
+        assertEquals(41.0, range.consumptionKwh().get(34));
+        assertEquals(20 + 41 % 5, range.temperatureC().get(34));
+        assertEquals(100, store.read("site-a", START.minusSeconds(3600), START.plusSeconds(1000 * 3600)).size());
+        assertEquals(0, store.read("site-a", START.plusSeconds(500 * 3600), START.plusSeconds(600 * 3600)).size());
+        assertEquals(0, store.read("site-b", START, START.plusSeconds(3600)).size());
+        assertEquals((7 + 41) * 35 / 2.0, store.sumConsumption("site-a", START.plusSeconds(7 * 3600), START.plusSeconds(42 * 3600)));
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Should reopen the column files with the stored history")
+    void shouldPersistAcrossRestarts() {
+        ColumnarSeriesStore store = newStore();
+        appendHours(store, "site-a", 0, 30);
+        SeriesRange before = store.read("site-a", START, START.plusSeconds(30 * 3600));
+        store.close();
+
+        ColumnarSeriesStore reopened = newStore();
+        SeriesRange after = reopened.read("site-a", START, START.plusSeconds(30 * 3600));
+
+        assertArrayEquals(before.timestamps(), after.timestamps());
+        assertEquals(before.consumptionKwh(), after.consumptionKwh());
+        appendHours(reopened, "site-a", 30, 1);
+        assertEquals(31, reopened.size("site-a"));
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Should not create files when reading a site without history")
+    void shouldNotCreateFilesOnReads() {
+        ColumnarSeriesStore store = newStore();
+
+        assertEquals(0, store.read("unknown", START, START.plusSeconds(3600)).size());
+        assertEquals(0, store.size("unknown"));
+        assertEquals(0.0, store.sumConsumption("unknown", START, START.plusSeconds(3600)));
+
+        assertFalse(Files.exists(directory.resolve("unknown.ts")));
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Should keep many small appends and ignore spare mapped capacity after a crash")
+    void shouldRecoverFromSpareCapacity() throws Exception {
+        ColumnarSeriesStore store = newStore();
+        for (int hour = 0; hour < 100; hour++) {
+            appendHours(store, "site-a", hour, 1);
+        }
+        // Not closed, as after a crash: the files still hold the zero-filled capacity ahead of the data
+        assertTrue(Files.size(directory.resolve("site-a.ts")) > 100L * Long.BYTES);
+
+        ColumnarSeriesStore reopened = newStore();
+        SeriesRange range = reopened.read("site-a", START, START.plusSeconds(1000 * 3600));
+
+        assertEquals(100, range.size());
+        assertEquals(99.0, range.consumptionKwh().get(99));
+        reopened.close();
+        store.close();
+        assertEquals(100L * Long.BYTES, Files.size(directory.resolve("site-a.ts")));
+    }
+
+    @Test
+    @DisplayName("Should sort merged readings and skip those older than the stored history")
+    void shouldMergeUnorderedReadings() {
+        ColumnarSeriesStore store = newStore();
+        appendHours(store, "site-a", 10, 1);
+        long base = START.toEpochMilli();
+
+        int merged = store.merge("site-a", new long[] {base + 13 * HOUR, base + 11 * HOUR, base + 2 * HOUR, base + 12 * HOUR},
+                new double[] {13, 11, 2, 12}, new double[] {20, 20, 20, 20});
+
+        assertEquals(3, merged);
+        assertEquals(11.0, store.read("site-a", START, START.plusSeconds(24 * 3600)).consumptionKwh().get(1));
+        assertEquals(13.0, store.read("site-a", START, START.plusSeconds(24 * 3600)).consumptionKwh().get(3));
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Should reject out-of-order appends and unsafe site ids")
+    void shouldRejectInvalidAppends() {
+        ColumnarSeriesStore store = newStore();
+        appendHours(store, "site-a", 10, 5);
+
+        assertThrows(IllegalArgumentException.class, () -> appendHours(store, "site-a", 0, 5));
+        assertThrows(IllegalArgumentException.class, () -> store.append("site-a",
+                new long[] {2, 1}, new double[] {1, 1}, new double[] {1, 1}));
+        assertThrows(InvalidRequestException.class, () -> appendHours(store, "../etc", 0, 1));
+        assertEquals(5, store.size("site-a"));
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Should import the simulated_energy_data.csv format")
+    void shouldImportAgentCsv() throws Exception {
+        ColumnarSeriesStore store = newStore();
+        String csv = "timestamp,consumption_kwh,temperature_c\n"
+                + "2025-10-31 01:39:47.119134,11.006615060470539,12.644314273821026\n"
+                + "2025-10-31 00:39:47.119134,10.08621328071624,12.041492510326957\n"
+                + "not-a-date,1.0,1.0\n"
+                + "2025-10-31 02:39:47.119134,9.5,\n";
+
+        IngestionResult result = store.importCsv("site-a", new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        SeriesRange range = store.read("site-a", Instant.parse("2025-10-31T00:00:00Z"), Instant.parse("2025-11-01T00:00:00Z"));
+
+        assertEquals(3, result.accepted());
+        assertEquals(1, result.invalid());
+        assertEquals(Instant.parse("2025-10-31T00:39:47.119Z").toEpochMilli(), range.timestamps()[0]);
+        assertEquals(10.08621328071624, range.consumptionKwh().get(0));
+        assertEquals(11.006615060470539, range.consumptionKwh().get(1));
+        assertTrue(Double.isNaN(range.temperatureC().get(2)));
+        store.close();
+    }
+}
@@ -0,0 +1,123 @@
+package com.twintransition.energy.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import com.twintransition.energy.dto.ComfortScenarioResult;
+import com.twintransition.energy.dto.ComfortSweepRequest;
+import com.twintransition.energy.dto.ComfortSweepResponse;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.TimeSeries;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+@DisplayName("Comfort Sweep Service Unit Tests")
+public class ComfortSweepServiceTest {
+
+    private EmbeddedOptimizationEngine reference;
+    private EmbeddedOptimizationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        reference = new EmbeddedOptimizationEngine(messageSource);
+        engine = spy(new EmbeddedOptimizationEngine(messageSource));
+    }
+
+    private static TimeSeries history() {
+        double[] history = new double[72];
+        for (int i = 0; i < history.length; i++) {
+            history[i] = 10 + (i % 24) * 0.5;
+        }
+        return TimeSeries.wrap(history);
+    }
+
+    private static List<OptimizationLimitsDto> grid() {
+        List<OptimizationLimitsDto> scenarios = new ArrayList<>();
+        for (double maxTemp = 20.0; maxTemp <= 28.0; maxTemp += 0.5) {
+            for (double minComfort = 16.0; minComfort <= 22.0; minComfort += 1.0) {
+                scenarios.add(new OptimizationLimitsDto(maxTemp, minComfort));
+            }
+        }
+        return scenarios;
+    }
+
+    @Test
+    @DisplayName("Should forecast once and match a recommendation per scenario, in parallel or not")
+    void shouldMatchPerScenarioRecommendations() {
+        TimeSeries weather = TimeSeries.of(24.2, 25.0, 23.0);
+        List<OptimizationLimitsDto> scenarios = grid();
+
+        for (int threshold : new int[] { Integer.MAX_VALUE, 1 }) {
+            ComfortSweepResponse response = new ComfortSweepService(engine, 10_000, threshold)
+                    .sweep(new ComfortSweepRequest(history(), weather, scenarios));
+
+            assertArrayEquals(reference.forecastDemand(history()), response.demandForecastKwh().array(), 1e-12);
+            assertEquals(scenarios.size(), response.scenarios().size());
+            int actions = 0;
+            for (int i = 0; i < scenarios.size(); i++) {
+                OptimizationLimitsDto limits = scenarios.get(i);
+                OptimizationRecommendation expected = reference.recommend(new OptimizationRequest(history(), weather, limits, "en"));
+                ComfortScenarioResult result = response.scenarios().get(i);
+                assertEquals(limits.maxTemp(), result.maxTemp());
+                assertEquals(limits.minComfortTemp(), result.minComfortTemp());
+                assertEquals(expected.estimatedCostSavingsEur(), result.estimatedCostSavingsEur(), 1e-12);
+                assertEquals(expected.estimatedCarbonFootprintReductionKgCO2(),
+                        result.estimatedCarbonFootprintReductionKgCO2(), 1e-12);
+                actions += expected.estimatedCostSavingsEur() > 0 ? 1 : 0;
+            }
+            assertEquals(actions, response.actionScenarios());
+        }
+        // One forecast per sweep, however many scenarios
+        verify(engine, times(2)).forecastDemand(any(TimeSeries.class));
+    }
+
+    @Test
+    @DisplayName("Should reject sweeps larger than the configured maximum")
+    void shouldRejectOversizedSweep() {
+        ComfortSweepService service = new ComfortSweepService(engine, 10, 2048);
+
+        BatchTooLargeException error = assertThrows(BatchTooLargeException.class,
+                () -> service.sweep(new ComfortSweepRequest(history(), TimeSeries.of(25.0), grid())));
+
+        assertEquals("Sweep cannot contain more than 10 scenarios.", error.getMessage());
+        assertEquals(10, error.getMaxItems());
+    }
+
+    @Test
+    @DisplayName("Bean validation should reject sweeps above the hard ceiling")
+    void validationShouldRejectSweepsAboveCeiling() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        List<OptimizationLimitsDto> scenarios = new ArrayList<>();
+        for (int i = 0; i <= ComfortSweepRequest.MAX_SCENARIOS; i++) {
+            scenarios.add(new OptimizationLimitsDto(24.0, 20.0));
+        }
+
+        Set<ConstraintViolation<ComfortSweepRequest>> violations = validator.validate(
+                new ComfortSweepRequest(history(), TimeSeries.of(25.0), scenarios));
+
+        assertEquals(1, violations.size());
+        assertEquals("Sweep must contain between 1 and 10000 scenarios.", violations.iterator().next().getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> new ComfortSweepService(engine, ComfortSweepRequest.MAX_SCENARIOS + 1, 2048));
+    }
+}
@@ -0,0 +1,154 @@
+package com.twintransition.energy.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import com.twintransition.energy.dto.HourlyAction;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.TimeSeries;
+
+/**
+ * Parity tests against the Python agent (optimization_agent.py). Expected forecast values
+ * were computed with an ordinary least squares fit of consumption on hour-of-day.
+ */
+@DisplayName("Embedded Optimization Engine Unit Tests (parity with the Python agent)")
+public class EmbeddedOptimizationEngineTest {
+
+    private EmbeddedOptimizationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setFallbackToSystemLocale(false);
+        engine = new EmbeddedOptimizationEngine(messageSource);
+    }
+
+    private OptimizationRequest request(double[] history, double firstTemp, String language) {
+        return new OptimizationRequest(
+                TimeSeries.wrap(history), TimeSeries.of(firstTemp, 22.0), new OptimizationLimitsDto(24.0, 20.0), language);
+    }
+
+    private static double[] twoDaysOfReadings() {
+        double[] history = new double[48];
+        double[] pattern = { 2.0, 4.0, 12.5, 8.0 };
+        for (int i = 0; i < history.length; i++) {
+            int hour = i % 24;
+            history[i] = pattern[i % 4] + hour * 0.5 - (hour > 18 ? 3.0 : 0.0);
+        }
+        return history;
+    }
+
+    @Test
+    @DisplayName("Forecast should match the hour-of-day linear regression")
+    void forecastShouldMatchLinearRegression() {
+        double[] forecast = engine.forecastDemand(request(twoDaysOfReadings(), 20.0, "en"));
+
+        assertEquals(24, forecast.length);
+        assertEquals(6.63, forecast[0], 1e-9);
+        assertEquals(11.9726086957, forecast[12], 1e-9);
+        assertEquals(16.87, forecast[23], 1e-9);
+    }
+
+    @Test
+    @DisplayName("Forecast should be clipped at zero")
+    void forecastShouldBeClippedAtZero() {
+        double[] history = new double[24];
+        for (int hour = 0; hour < 24; hour++) {
+            history[hour] = 30 - 2.0 * hour;
+        }
+
+        double[] forecast = engine.forecastDemand(request(history, 20.0, "en"));
+
+        assertEquals(30.0, forecast[0], 1e-9);
+        assertEquals(0.0, forecast[15]);
+        assertEquals(0.0, forecast[23]);
+    }
+
+    @Test
+    @DisplayName("Should recommend the HVAC adjustment when the first temperature exceeds maxTemp")
+    void shouldRecommendHvacAdjustment() {
+        OptimizationRecommendation recommendation = engine.recommend(request(twoDaysOfReadings(), 25.5, "pt"));
+
+        assertEquals("Reduce HVAC usage in high-demand zones by 15% between peak hours. Suggested target temperature: 20.0C",
+                recommendation.actionableScript());
+        assertEquals(5.0, recommendation.estimatedCostSavingsEur(), 1e-9);
+        assertEquals(4.66, recommendation.estimatedCarbonFootprintReductionKgCO2(), 1e-9);
+        assertTrue(recommendation.naturalLanguageJustification().startsWith("Decisão Estratégica"));
+        int id = Integer.parseInt(recommendation.recommendationId());
+        assertTrue(id >= 10000 && id <= 99999);
+    }
+
+    @Test
+    @DisplayName("Should recommend no action within limits and fall back to English for unknown languages")
+    void shouldRecommendNoAction() {
+        OptimizationRecommendation recommendation = engine.recommend(request(twoDaysOfReadings(), 24.0, "de"));
+
+        assertEquals("", recommendation.actionableScript());
+        assertEquals(0.0, recommendation.estimatedCostSavingsEur());
+        assertEquals("No action is required at this time. Consumption is within optimization and comfort limits.",
+                recommendation.naturalLanguageJustification());
+    }
+
+    @Test
+    @DisplayName("Single-hour history should forecast its mean")
+    void singleHourHistoryShouldForecastMean() {
+        double[] forecast = engine.forecastDemand(request(new double[] { 10.0 }, 20.0, "en"));
+
+        assertTrue(Arrays.stream(forecast).allMatch(value -> value == 10.0));
+    }
+
+    @Test
+    @DisplayName("Schedule strategy should emit the per-zone setpoint schedule as the actionable script")
+    void scheduleStrategyShouldEmitSetpointSchedule() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setFallbackToSystemLocale(false);
+        EmbeddedOptimizationEngine scheduling = new EmbeddedOptimizationEngine(messageSource,
+                new HvacScheduleOptimizer(0.5, 1.0, 0.0, new double[] { 0.25 }, 0.1, 16), "schedule", 2, 0.06);
+
+        OptimizationRecommendation recommendation = scheduling.recommend(new OptimizationRequest(
+                TimeSeries.wrap(twoDaysOfReadings()), TimeSeries.of(29.0), new OptimizationLimitsDto(24.0, 20.0), "en"));
+
+        assertEquals("zone-1: 00-01h 23.0C, 01-24h 24.0C\nzone-2: 00-01h 23.0C, 01-24h 24.0C",
+                recommendation.actionableScript());
+        assertTrue(recommendation.estimatedCostSavingsEur() > 0);
+        assertTrue(recommendation.naturalLanguageJustification().startsWith("Hourly setpoint schedule for 2 HVAC zone(s)"));
+    }
+
+    @Test
+    @DisplayName("Hourly actions should follow the decision, or the mean zone setpoint with the schedule strategy")
+    void shouldBreakTheRecommendationDownPerHour() {
+        OptimizationRequest hot = request(twoDaysOfReadings(), 25.5, "en");
+        double[] forecast = engine.forecastDemand(hot);
+
+        List<HourlyAction> actions = engine.hourlyActions(forecast, hot);
+
+        assertEquals(24, actions.size());
+        assertEquals(new HourlyAction(0, forecast[0], 25.5, "HVAC_Adjustment", 20.0), actions.get(0));
+        assertEquals(new HourlyAction(23, forecast[23], 22.0, "HVAC_Adjustment", 20.0), actions.get(23));
+        assertEquals(new HourlyAction(5, forecast[5], 22.0, "None", null),
+                engine.hourlyActions(forecast, request(twoDaysOfReadings(), 22.0, "en")).get(5));
+
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        EmbeddedOptimizationEngine scheduling = new EmbeddedOptimizationEngine(messageSource,
+                new HvacScheduleOptimizer(0.5, 1.0, 0.0, new double[] { 0.25 }, 0.1, 16), "schedule", 2, 0.06);
+        List<HourlyAction> schedule = scheduling.hourlyActions(forecast, new OptimizationRequest(
+                TimeSeries.wrap(twoDaysOfReadings()), TimeSeries.of(29.0), new OptimizationLimitsDto(24.0, 20.0), "en"));
+
+        assertEquals(23.0, schedule.get(0).setpointC());
+        assertEquals(24.0, schedule.get(12).setpointC());
+    }
+}
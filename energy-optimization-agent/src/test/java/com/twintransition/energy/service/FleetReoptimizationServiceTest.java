@@ -0,0 +1,242 @@
+package com.twintransition.energy.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.twintransition.energy.dto.FleetRunReport;
+import com.twintransition.energy.dto.FleetSiteRegistration;
+import com.twintransition.energy.dto.FleetSiteStatus;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+@DisplayName("Fleet Re-optimization Service Unit Tests")
+public class FleetReoptimizationServiceTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final Instant START = Instant.parse("2025-10-01T00:00:00Z");
+    private static final Clock CLOCK = Clock.fixed(START.plusSeconds(100 * 3600), ZoneOffset.UTC);
+    private static final FleetSiteRegistration SITE = new FleetSiteRegistration(new OptimizationLimitsDto(24.0, 20.0), "en");
+
+    @TempDir
+    private Path directory;
+
+    private final AtomicBoolean agentFailing = new AtomicBoolean();
+    private final AtomicLong agentDelayMs = new AtomicLong();
+    private MockWebServer agent;
+    private EmbeddedDatabase database;
+    private ColumnarSeriesStore store;
+    private FleetSiteRegistry registry;
+    private OptimizationService optimizationService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        agent = new MockWebServer();
+        agent.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest recordedRequest) {
+                if (agentFailing.get()) {
+                    return new MockResponse().setResponseCode(503).setBody("overloaded");
+                }
+                return new MockResponse().setHeader("Content-Type", "application/json")
+                        .setHeadersDelay(agentDelayMs.get(), TimeUnit.MILLISECONDS)
+                        .setBody("{\"actionableScript\":\"HVAC\",\"naturalLanguageJustification\":\"ok\","
+                                + "\"estimatedCostSavingsEur\":5.0,\"estimatedCarbonFootprintReductionKgCO2\":4.66,"
+                                + "\"recommendationId\":\"REC-FLEET\"}");
+            }
+        });
+        agent.start();
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2).generateUniqueName(true).addScript("schema.sql").build();
+        registry = new FleetSiteRegistry(new JdbcTemplate(database));
+        store = new ColumnarSeriesStore(directory, ZoneOffset.UTC, 64);
+        optimizationService = OptimizationServiceBuilder.remote(agent.url("/").toString())
+                .seriesStore(store)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+        database.shutdown();
+        agent.shutdown();
+    }
+
+    private FleetReoptimizationService newService(int partitions, int workers, RateLimiter rateLimiter) {
+        return newService(partitions, workers, rateLimiter, OptimizationMetrics.disabled());
+    }
+
+    private FleetReoptimizationService newService(int partitions, int workers, RateLimiter rateLimiter,
+                                                  OptimizationMetrics metrics) {
+        return new FleetReoptimizationService(registry, optimizationService, metrics,
+                partitions, workers, rateLimiter, Duration.ofDays(7), Duration.ofSeconds(10), 3, CLOCK);
+    }
+
+    private void appendHours(String siteId, int fromHour, int hours) {
+        long[] timestamps = new long[hours];
+        double[] consumption = new double[hours];
+        double[] temperature = new double[hours];
+        for (int i = 0; i < hours; i++) {
+            timestamps[i] = START.toEpochMilli() + (fromHour + i) * HOUR;
+            consumption[i] = 100 + (fromHour + i) % 7;
+            temperature[i] = 20 + (fromHour + i) % 5;
+        }
+        store.append(siteId, timestamps, consumption, temperature);
+    }
+
+    @Test
+    @DisplayName("Should optimize every site once and skip sites whose inputs did not change")
+    void shouldSkipUnchangedSites() {
+        FleetReoptimizationService service = newService(4, 2, RateLimiter.unlimited());
+        appendHours("site-a", 0, 48);
+        appendHours("site-b", 0, 48);
+        registry.register("site-a", SITE);
+        registry.register("site-b", SITE);
+        registry.register("site-empty", SITE);
+
+        FleetRunReport first = service.runNow().orElseThrow();
+        assertEquals(3, first.sites());
+        assertEquals(2, first.optimized());
+        assertEquals(1, first.noData());
+        assertEquals(2, agent.getRequestCount());
+        assertEquals("REC-FLEET", service.latest("site-a").recommendation().recommendationId());
+
+        FleetRunReport second = service.runNow().orElseThrow();
+        assertEquals(2, second.unchanged());
+        assertEquals(2, agent.getRequestCount());
+
+        appendHours("site-a", 48, 1);
+        FleetRunReport third = service.runNow().orElseThrow();
+        assertEquals(1, third.optimized());
+        assertEquals(1, third.unchanged());
+        assertEquals(3, agent.getRequestCount());
+        assertEquals("OPTIMIZED", service.latest("site-a").lastOutcome());
+        assertEquals("UNCHANGED", service.latest("site-b").lastOutcome());
+        assertEquals("NO_DATA", service.latest("site-empty").lastOutcome());
+    }
+
+    @Test
+    @DisplayName("Should keep the last recommendation of a failed site and retry it on the next run")
+    void shouldRetryFailedSites() {
+        FleetReoptimizationService service = newService(4, 2, RateLimiter.unlimited());
+        appendHours("site-a", 0, 48);
+        registry.register("site-a", SITE);
+        agentFailing.set(true);
+
+        FleetRunReport failedRun = service.runNow().orElseThrow();
+        FleetSiteStatus failed = service.latest("site-a");
+        assertEquals(1, failedRun.failed());
+        assertNull(failed.recommendation());
+        assertTrue(failed.error().contains("overloaded"));
+
+        agentFailing.set(false);
+        FleetRunReport retry = service.runNow().orElseThrow();
+        assertEquals(1, retry.optimized());
+        assertNotNull(service.latest("site-a").recommendation());
+
+        service.unregister("site-a");
+        assertThrows(SiteNotFoundException.class, () -> service.latest("site-a"));
+    }
+
+    @Test
+    @DisplayName("Should spread sites over the partitions and respect the agent call rate")
+    void shouldPartitionAndRateLimit() {
+        FleetReoptimizationService service = newService(4, 2, new RateLimiter(20));
+        int[] expectedPerPartition = new int[4];
+        for (int i = 0; i < 10; i++) {
+            String siteId = "site-" + i;
+            appendHours(siteId, 0, 24);
+            registry.register(siteId, SITE);
+            expectedPerPartition[service.partitionOf(siteId)]++;
+        }
+
+        FleetRunReport report = service.runNow().orElseThrow();
+
+        assertEquals(10, report.optimized());
+        for (FleetRunReport.Partition partition : report.partitions()) {
+            assertEquals(expectedPerPartition[partition.partition()], partition.sites());
+            assertTrue(partition.completionLagMs() <= report.durationMs());
+        }
+        // 10 calls spaced at 20 per second cannot finish in less than 9 intervals
+        assertTrue(report.durationMs() >= 440, "run took " + report.durationMs() + " ms");
+    }
+
+    @Test
+    @DisplayName("A started run should complete in the background and publish its report")
+    void startedRunShouldPublishItsReport() throws InterruptedException {
+        FleetReoptimizationService service = newService(4, 2, RateLimiter.unlimited());
+        appendHours("site-a", 0, 24);
+        registry.register("site-a", SITE);
+        agentDelayMs.set(300);
+
+        assertTrue(service.startRun());
+        assertFalse(service.startRun(), "Only one run at a time");
+        assertThrows(ResourceNotFoundException.class, service::lastReport);
+
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!reportPublished(service) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, service.lastReport().optimized());
+        assertTrue(service.startRun(), "The next run can start once the report is published");
+    }
+
+    @Test
+    @DisplayName("An interrupted run should publish neither its partial report nor its metrics")
+    void interruptedRunShouldNotBePublished() throws InterruptedException {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        FleetReoptimizationService service = newService(4, 2, RateLimiter.unlimited(), new OptimizationMetrics(meters, true));
+        appendHours("site-a", 0, 24);
+        registry.register("site-a", SITE);
+        agentDelayMs.set(2000);
+
+        AtomicReference<Optional<FleetRunReport>> result = new AtomicReference<>();
+        Thread caller = new Thread(() -> result.set(service.runNow()));
+        caller.start();
+        Thread.sleep(300);
+        caller.interrupt();
+        caller.join(5000);
+
+        assertTrue(result.get().isEmpty());
+        assertThrows(ResourceNotFoundException.class, service::lastReport);
+        assertNull(meters.find("optimization.fleet.run").timer());
+    }
+
+    private static boolean reportPublished(FleetReoptimizationService service) {
+        try {
+            service.lastReport();
+            return true;
+        } catch (ResourceNotFoundException e) {
+            return false;
+        }
+    }
+}
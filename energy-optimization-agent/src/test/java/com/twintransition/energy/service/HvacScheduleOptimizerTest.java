@@ -0,0 +1,118 @@
+package com.twintransition.energy.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.twintransition.energy.service.HvacScheduleOptimizer.HvacSchedule;
+import com.twintransition.energy.service.HvacScheduleOptimizer.ZoneSpec;
+
+@DisplayName("HVAC Schedule Optimizer Unit Tests")
+public class HvacScheduleOptimizerTest {
+
+    private static final double[] FLAT_TARIFF = { 0.25 };
+
+    private static HvacScheduleOptimizer optimizer(int zonesPerTask) {
+        return new HvacScheduleOptimizer(0.5, 1.0, 0.0, FLAT_TARIFF, 0.1, zonesPerTask);
+    }
+
+    private static double[] demand() {
+        double[] demand = new double[HvacScheduleOptimizer.HOURS];
+        for (int hour = 0; hour < demand.length; hour++) {
+            demand[hour] = 10 + 4 * Math.sin(2 * Math.PI * hour / 24.0);
+        }
+        return demand;
+    }
+
+    private static double[] setpoints(HvacSchedule schedule, int zone) {
+        double[] setpoints = new double[HvacScheduleOptimizer.HOURS];
+        for (int hour = 0; hour < setpoints.length; hour++) {
+            setpoints[hour] = schedule.setpoint(zone, hour);
+        }
+        return setpoints;
+    }
+
+    @Test
+    @DisplayName("Should ramp from the middle of the band towards the outdoor temperature")
+    void shouldRampTowardsOutdoorTemperature() {
+        ZoneSpec zone = new ZoneSpec("zone-1", 1.0, 0.06, 20.0, 24.0);
+
+        HvacSchedule hot = optimizer(16).optimize(demand(), new double[] { 30.0 }, new ZoneSpec[] { zone });
+        HvacSchedule cold = optimizer(16).optimize(demand(), new double[] { 5.0 }, new ZoneSpec[] { zone });
+
+        // The reference is 22C and the setpoint moves at most 1C per hour
+        double[] expectedHot = new double[24];
+        Arrays.fill(expectedHot, 24.0);
+        expectedHot[0] = 23.0;
+        double[] expectedCold = new double[24];
+        Arrays.fill(expectedCold, 20.0);
+        expectedCold[0] = 21.0;
+        assertArrayEquals(expectedHot, setpoints(hot, 0), 1e-12);
+        assertArrayEquals(expectedCold, setpoints(cold, 0), 1e-12);
+        assertTrue(hot.savedKwh() > 0 && hot.savedCostEur() > 0);
+        assertEquals("zone-1: 00-01h 23.0C, 01-24h 24.0C", hot.toScript());
+
+        // The script must not depend on the JVM default locale (no decimal commas)
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.GERMANY);
+            assertEquals("zone-1: 00-01h 23.0C, 01-24h 24.0C", hot.toScript());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    @DisplayName("Should respect comfort bounds and ramp limits, never cost more than the baseline and match when forked")
+    void shouldStayFeasibleAndMatchWhenForked() {
+        Random random = new Random(17);
+        ZoneSpec[] zones = new ZoneSpec[200];
+        for (int i = 0; i < zones.length; i++) {
+            double min = 16.0 + random.nextInt(12) * 0.5;
+            zones[i] = new ZoneSpec("zone-" + i, 1.0 / zones.length, 0.02 + random.nextDouble() * 0.08, min,
+                    min + random.nextInt(16) * 0.5);
+        }
+        double[] outdoor = new double[24];
+        for (int hour = 0; hour < outdoor.length; hour++) {
+            outdoor[hour] = 18 + 10 * Math.sin(2 * Math.PI * (hour - 9) / 24.0);
+        }
+        double[] peakTariff = new double[24];
+        Arrays.fill(peakTariff, 0.25);
+        Arrays.fill(peakTariff, 17, 21, 0.38);
+        HvacScheduleOptimizer sequential = new HvacScheduleOptimizer(0.5, 1.0, 0.01, peakTariff, 0.1, Integer.MAX_VALUE);
+        HvacScheduleOptimizer forked = new HvacScheduleOptimizer(0.5, 1.0, 0.01, peakTariff, 0.1, 1);
+
+        HvacSchedule expected = sequential.optimize(demand(), outdoor, zones);
+        HvacSchedule actual = forked.optimize(demand(), outdoor, zones);
+
+        for (int z = 0; z < zones.length; z++) {
+            assertArrayEquals(setpoints(expected, z), setpoints(actual, z), 0.0);
+            assertEquals(expected.optimizedCostEur(z), actual.optimizedCostEur(z), 0.0);
+            assertTrue(actual.optimizedCostEur(z) <= actual.baselineCostEur(z) + 1e-12);
+            double previous = zones[z].minComfortTemp() + Math.floor((zones[z].maxTemp() - zones[z].minComfortTemp()) / 1.0) * 0.5;
+            for (int hour = 0; hour < 24; hour++) {
+                double setpoint = actual.setpoint(z, hour);
+                assertTrue(setpoint >= zones[z].minComfortTemp() - 1e-9 && setpoint <= zones[z].maxTemp() + 1e-9);
+                assertTrue(Math.abs(setpoint - previous) <= 1.0 + 1e-9);
+                previous = setpoint;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject forecasts that do not cover 24 hours")
+    void shouldRejectPartialDemandForecast() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> optimizer(16).optimize(new double[12], new double[] { 25.0 },
+                        new ZoneSpec[] { new ZoneSpec("zone-1", 1.0, 0.06, 20.0, 24.0) }));
+
+        assertEquals("Demand forecast must have 24 hourly values.", error.getMessage());
+    }
+}
@@ -0,0 +1,160 @@
+package com.twintransition.energy.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.twintransition.energy.dto.SiteForecastDto;
+
+@DisplayName("Online Forecast Service Unit Tests")
+public class OnlineForecastServiceTest {
+
+    private static final Instant MIDNIGHT = Instant.parse("2025-10-01T00:00:00Z");
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    private static double[] readings(int count) {
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = 10 + (i % 24) * 0.4 + (i % 7);
+        }
+        return values;
+    }
+
+    @Test
+    @DisplayName("Incremental updates should give the same forecast as a full refit")
+    void incrementalForecastShouldMatchFullRefit() {
+        OnlineForecastService service = new OnlineForecastService(jdbcTemplate, "UTC", Duration.ZERO);
+        double[] history = readings(24 * 10);
+
+        for (int i = 0; i < history.length; i++) {
+            service.addReading("site-a", MIDNIGHT.plusSeconds(3600L * i), history[i]);
+        }
+
+        SiteForecastDto forecast = service.forecast("site-a");
+        assertArrayEquals(HourOfDayStatistics.ofHourlySeries(history).forecast(), forecast.forecastKwh(), 1e-9);
+        assertEquals(history.length, forecast.readingCount());
+    }
+
+    @Test
+    @DisplayName("Decay should let recent readings dominate the forecast")
+    void decayShouldFavourRecentReadings() {
+        OnlineForecastService service = new OnlineForecastService(jdbcTemplate, "UTC", Duration.ofDays(1));
+
+        for (int i = 0; i < 24 * 30; i++) {
+            service.addReading("site-a", MIDNIGHT.plusSeconds(3600L * i), 100.0);
+        }
+        for (int i = 24 * 30; i < 24 * 40; i++) {
+            service.addReading("site-a", MIDNIGHT.plusSeconds(3600L * i), 10.0);
+        }
+
+        // Ten half-lives later the old level weighs ~0.1%
+        assertTrue(service.forecast("site-a").forecastKwh()[12] < 10.2);
+    }
+
+    @Test
+    @DisplayName("State should survive a snapshot and reload")
+    void stateShouldSurviveSnapshot() {
+        OnlineForecastService service = new OnlineForecastService(jdbcTemplate, "UTC", Duration.ZERO);
+        double[] history = readings(48);
+        for (int i = 0; i < history.length; i++) {
+            service.addReading("site-a", MIDNIGHT.plusSeconds(3600L * i), history[i]);
+        }
+
+        assertEquals(1, service.persistDirtyStates());
+        assertEquals(0, service.persistDirtyStates());
+
+        OnlineForecastService restarted = new OnlineForecastService(jdbcTemplate, "UTC", Duration.ZERO);
+        restarted.loadStates();
+
+        assertArrayEquals(service.forecast("site-a").forecastKwh(), restarted.forecast("site-a").forecastKwh(), 1e-12);
+        assertEquals(48, restarted.forecast("site-a").readingCount());
+    }
+
+    @Test
+    @DisplayName("A failed snapshot should leave the states to the next one")
+    void failedSnapshotShouldKeepStatesDirty() {
+        OnlineForecastService service = new OnlineForecastService(jdbcTemplate, "UTC", Duration.ZERO);
+        service.addReading("site-a", MIDNIGHT, 10.0);
+
+        jdbcTemplate.execute("ALTER TABLE site_forecast_state RENAME TO site_forecast_state_offline");
+        assertThrows(DataAccessException.class, service::persistDirtyStates);
+        jdbcTemplate.execute("ALTER TABLE site_forecast_state_offline RENAME TO site_forecast_state");
+
+        assertEquals(1, service.persistDirtyStates());
+        assertEquals(1L, (long) jdbcTemplate.queryForObject("SELECT reading_count FROM site_forecast_state WHERE site_id = 'site-a'",
+                Long.class));
+    }
+
+    @Test
+    @DisplayName("A state that cannot be written should not hold back the others")
+    void badStateShouldNotFailTheSnapshot() {
+        OnlineForecastService service = new OnlineForecastService(jdbcTemplate, "UTC", Duration.ZERO);
+        service.addReading("site-a", MIDNIGHT, 10.0);
+        service.addReading("site-b", MIDNIGHT, 20.0);
+        service.addReading("site-c", MIDNIGHT, 30.0);
+
+        jdbcTemplate.execute("ALTER TABLE site_forecast_state ADD CONSTRAINT no_site_b CHECK (site_id <> 'site-b')");
+        assertEquals(2, service.persistDirtyStates());
+        assertEquals(2L, (long) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM site_forecast_state", Long.class));
+
+        jdbcTemplate.execute("ALTER TABLE site_forecast_state DROP CONSTRAINT no_site_b");
+        assertEquals(1, service.persistDirtyStates());
+    }
+
+    @Test
+    @DisplayName("Site ids the state table cannot hold should be rejected")
+    void invalidSiteIdShouldBeRejected() {
+        OnlineForecastService service = new OnlineForecastService(jdbcTemplate, "UTC", Duration.ZERO);
+
+        assertThrows(InvalidRequestException.class, () -> service.addReading("s".repeat(200), MIDNIGHT, 10.0));
+        assertThrows(InvalidRequestException.class, () -> service.addReading("../site", MIDNIGHT, 10.0));
+        assertEquals(0, service.persistDirtyStates());
+    }
+
+    @Test
+    @DisplayName("A half-life below the one-second resolution of the readings should be rejected")
+    void subSecondHalfLifeShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new OnlineForecastService(jdbcTemplate, "UTC", Duration.ofMillis(500)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OnlineForecastService(jdbcTemplate, "UTC", Duration.ofSeconds(-1)));
+    }
+
+    @Test
+    @DisplayName("Unknown sites should be reported as missing")
+    void unknownSiteShouldBeMissing() {
+        OnlineForecastService service = new OnlineForecastService(jdbcTemplate, "UTC", Duration.ZERO);
+
+        assertThrows(SiteNotFoundException.class, () -> service.forecast("unknown"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.twintransition.energy.service;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRequest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+@DisplayName("Optimization Metrics Unit Tests")
+public class OptimizationMetricsTest {
+
+    private MockWebServer agent;
+    private SimpleMeterRegistry registry;
+    private OptimizationService optimizationService;
+
+    private final OptimizationRequest request = new OptimizationRequest(
+            Arrays.asList(100.0, 110.0, 120.0), Arrays.asList(22.5, 23.0), new OptimizationLimitsDto(24.0, 20.0), "en");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        agent = new MockWebServer();
+        agent.start();
+        registry = new SimpleMeterRegistry();
+        optimizationService = OptimizationServiceBuilder.remote(agent.url("/").toString())
+                .metrics(new OptimizationMetrics(registry, true))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        agent.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should time successful agent calls and record the series sizes")
+    void shouldRecordSuccessfulCall() {
+        agent.enqueue(new MockResponse().setHeader("Content-Type", "application/json")
+                .setBody("{\"actionableScript\":\"a\",\"naturalLanguageJustification\":\"b\","
+                        + "\"estimatedCostSavingsEur\":5.0,\"estimatedCarbonFootprintReductionKgCO2\":4.66,\"recommendationId\":\"1\"}"));
+
+        optimizationService.generateRecommendation(request);
+
+        assertEquals(1, registry.get("optimization.agent.requests").tags("status", "2xx", "exception", "none").timer().count());
+        assertEquals(1, registry.get("optimization.recommendations").tag("outcome", "success").timer().count());
+        assertEquals(3.0, registry.get("optimization.request.series.size").tag("series", "historical").summary().max());
+        assertEquals(0.0, registry.get("optimization.agent.in.flight").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should tag agent failures by status class and exception type")
+    void shouldBreakDownAgentErrors() throws IOException {
+        agent.enqueue(new MockResponse().setResponseCode(503).setBody("overloaded"));
+
+        AgentException error = assertThrows(AgentException.class, () -> optimizationService.generateRecommendation(request));
+        assertEquals(503, error.getStatusCode());
+
+        agent.shutdown();
+        AgentException unreachable = assertThrows(AgentException.class, () -> optimizationService.generateRecommendation(request));
+        assertEquals(0, unreachable.getStatusCode());
+
+        assertEquals(1, registry.get("optimization.agent.errors").tags("status", "5xx", "exception", "AgentException").counter().count());
+        assertEquals(1, registry.get("optimization.agent.errors").tag("status", "none").counter().count());
+        assertEquals(2, registry.get("optimization.recommendations").tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should record nothing when disabled")
+    void shouldBeNoOpWhenDisabled() {
+        SimpleMeterRegistry emptyRegistry = new SimpleMeterRegistry();
+        OptimizationMetrics disabled = new OptimizationMetrics(emptyRegistry, false);
+
+        assertEquals("x", disabled.timeStage("service", () -> "x"));
+        disabled.recordRequest(request);
+        assertEquals(0, emptyRegistry.getMeters().size());
+    }
+}
@@ -0,0 +1,104 @@
+package com.twintransition.energy.service;
+
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Test fixture for {@link OptimizationService}: every collaborator starts as its no-op variant
+ * (no cache, no coalescing, JSON bodies, unlimited admission, no resampling, no history),
+ * so a test only sets what it exercises.
+ */
+final class OptimizationServiceBuilder {
+
+    private AgentEndpointPool agentPool;
+    private String optimizePath = "/api/v1/optimize";
+    private RecommendationCache cache = RecommendationCache.disabled();
+    private RequestCoalescer coalescer = RequestCoalescer.disabled();
+    private EmbeddedOptimizationEngine embeddedEngine;
+    private String engineMode = "remote";
+    private ColumnarSeriesStore seriesStore;
+    private OptimizationMetrics metrics = OptimizationMetrics.disabled();
+    private AgentRequestEncoder requestEncoder = AgentRequestEncoder.json();
+    private AdmissionLimiter admissionLimiter = AdmissionLimiter.unlimited();
+    private SeriesResampler resampler = SeriesResampler.disabled();
+    private RecommendationHistoryService history = RecommendationHistoryService.disabled();
+
+    private OptimizationServiceBuilder() {
+    }
+
+    /**
+     * A service calling a single agent instance at {@code baseUrl}.
+     */
+    static OptimizationServiceBuilder remote(String baseUrl) {
+        return remote(WebClient.builder(), baseUrl);
+    }
+
+    static OptimizationServiceBuilder remote(WebClient.Builder webClientBuilder, String baseUrl) {
+        return agentPool(AgentEndpointPool.single(baseUrl, webClientBuilder.baseUrl(baseUrl).build()));
+    }
+
+    static OptimizationServiceBuilder agentPool(AgentEndpointPool agentPool) {
+        OptimizationServiceBuilder builder = new OptimizationServiceBuilder();
+        builder.agentPool = agentPool;
+        return builder;
+    }
+
+    /**
+     * A service computing every recommendation in-process, without an agent.
+     */
+    static OptimizationServiceBuilder embedded(EmbeddedOptimizationEngine engine) {
+        OptimizationServiceBuilder builder = new OptimizationServiceBuilder();
+        builder.embeddedEngine = engine;
+        builder.engineMode = "embedded";
+        return builder;
+    }
+
+    OptimizationServiceBuilder optimizePath(String optimizePath) {
+        this.optimizePath = optimizePath;
+        return this;
+    }
+
+    OptimizationServiceBuilder cache(RecommendationCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    OptimizationServiceBuilder coalescer(RequestCoalescer coalescer) {
+        this.coalescer = coalescer;
+        return this;
+    }
+
+    OptimizationServiceBuilder seriesStore(ColumnarSeriesStore seriesStore) {
+        this.seriesStore = seriesStore;
+        return this;
+    }
+
+    OptimizationServiceBuilder metrics(OptimizationMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    OptimizationServiceBuilder requestEncoder(AgentRequestEncoder requestEncoder) {
+        this.requestEncoder = requestEncoder;
+        return this;
+    }
+
+    OptimizationServiceBuilder admissionLimiter(AdmissionLimiter admissionLimiter) {
+        this.admissionLimiter = admissionLimiter;
+        return this;
+    }
+
+    OptimizationServiceBuilder resampler(SeriesResampler resampler) {
+        this.resampler = resampler;
+        return this;
+    }
+
+    OptimizationServiceBuilder history(RecommendationHistoryService history) {
+        this.history = history;
+        return this;
+    }
+
+    OptimizationService build() {
+        return new OptimizationService(agentPool, optimizePath, cache, coalescer, embeddedEngine, engineMode, seriesStore,
+                metrics, requestEncoder, admissionLimiter, resampler, history);
+    }
+}
@@ -1,5 +1,9 @@
 package com.twintransition.energy.service;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -9,6 +13,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.Mock;
@@ -20,9 +25,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.twintransition.energy.dto.OptimizationLimitsDto;
 import com.twintransition.energy.dto.OptimizationRecommendation;
 import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.SiteHistoryOptimizationRequest;
 
 import reactor.core.publisher.Mono;
 
@@ -59,18 +67,19 @@ public class OptimizationServiceTest {
         when(webClientBuilder.build()).thenReturn(webClient);
         
         // Inicialização manual do serviço (CORREÇÃO DE CONSTRUTOR)
-        this.optimizationService = new OptimizationService(
-            webClientBuilder, 
-            MOCK_BASE_URL, 
-            MOCK_OPTIMIZE_PATH
-        );
+        this.optimizationService = OptimizationServiceBuilder.remote(webClientBuilder, MOCK_BASE_URL)
+            .optimizePath(MOCK_OPTIMIZE_PATH)
+            .build();
 
         
         when(webClient.post()).thenReturn(requestBodyUriSpec);
         
         doReturn(requestBodySpec).when(requestBodyUriSpec).uri(MOCK_OPTIMIZE_PATH);
         doReturn(requestBodySpec).when(requestBodySpec).contentType(MediaType.APPLICATION_JSON);
-        doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(any(OptimizationRequest.class)); 
+        doReturn(requestBodySpec).when(requestBodySpec).headers(any());
+        doReturn(requestBodySpec).when(requestBodySpec).accept(MediaType.APPLICATION_JSON);
+        // O corpo é codificado pelo AgentRequestEncoder (JSON puro por padrão) e enviado como bytes
+        doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(any(byte[].class)); 
         
         when(requestHeadersSpec.retrieve()).thenReturn(responseSpec); 
 
@@ -91,6 +100,14 @@ public class OptimizationServiceTest {
         );
     }
 
+    private static byte[] jsonBytes(OptimizationRequest request) {
+        try {
+            return new ObjectMapper().writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     @Test
     @DisplayName("Should generate a valid recommendation using mocked web client")
     void shouldGenerateValidRecommendation() {
@@ -102,9 +119,54 @@ public class OptimizationServiceTest {
         assertEquals(50.0, result.estimatedCostSavingsEur(), "Cost savings should match the mocked value.");
         assertEquals("REC-MOCK-456", result.recommendationId());
         verify(webClient, times(1)).post();
-        verify(requestBodySpec, times(1)).bodyValue(validRequest); 
+        verify(requestBodySpec, times(1)).bodyValue(jsonBytes(validRequest)); 
     }
     
+    @Test
+    @DisplayName("Should serve repeated requests from the cache without a second HTTP call")
+    void shouldServeRepeatedRequestFromCache() {
+
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+
+        OptimizationService cachingService = OptimizationServiceBuilder.remote(webClientBuilder, MOCK_BASE_URL)
+            .optimizePath(MOCK_OPTIMIZE_PATH)
+            .cache(new RecommendationCache(true, Duration.ofMinutes(1), 100, 1_000_000, 3))
+            .build();
+
+        OptimizationRecommendation first = cachingService.generateRecommendation(validRequest);
+        OptimizationRecommendation second = cachingService.generateRecommendation(validRequest);
+
+        assertEquals(first.recommendationId(), second.recommendationId());
+        verify(webClient, times(1)).post();
+    }
+
+    @Test
+    @DisplayName("Should build the agent request from the stored site history")
+    void shouldGenerateRecommendationFromStoredHistory(@TempDir Path storeDirectory) {
+
+        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
+
+        ColumnarSeriesStore store = new ColumnarSeriesStore(storeDirectory, ZoneOffset.UTC, 4);
+        long start = Instant.parse("2025-10-01T00:00:00Z").toEpochMilli();
+        store.append("site-a",
+            new long[] {start, start + 3_600_000, start + 7_200_000, start + 10_800_000},
+            new double[] {100.0, 110.0, 120.0, 130.0},
+            new double[] {22.5, 23.0, 24.0, Double.NaN});
+        OptimizationService historyService = OptimizationServiceBuilder.remote(webClientBuilder, MOCK_BASE_URL)
+            .optimizePath(MOCK_OPTIMIZE_PATH)
+            .seriesStore(store)
+            .build();
+
+        OptimizationRecommendation result = historyService.generateRecommendationForSite("site-a",
+            new SiteHistoryOptimizationRequest(Instant.parse("2025-10-01T00:00:00Z"), Instant.parse("2025-10-01T03:00:00Z"),
+                null, new OptimizationLimitsDto(24.0, 20.0), "en")).block();
+
+        assertEquals("REC-MOCK-456", result.recommendationId());
+        // Only [from, to) is read; without a forecast the stored temperatures of the range are used
+        verify(requestBodySpec, times(1)).bodyValue(jsonBytes(validRequest));
+        store.close();
+    }
+
     @Test
     @DisplayName("Should throw RuntimeException when WebClient returns 5xx error")
     void shouldThrowExceptionOnExternalServerError() {
@@ -0,0 +1,111 @@
+package com.twintransition.energy.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+
+@DisplayName("Recommendation Cache Unit Tests")
+public class RecommendationCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private RecommendationCache newCache(int maxEntries, long maxMemoryBytes) {
+        return new RecommendationCache(true, Duration.ofSeconds(60), maxEntries, maxMemoryBytes, 3, clock::get);
+    }
+
+    private OptimizationRequest request(double firstReading, String language) {
+        return new OptimizationRequest(
+                Arrays.asList(firstReading, 110.0, 120.0),
+                Arrays.asList(22.5, 23.0, 24.0),
+                new OptimizationLimitsDto(24.0, 20.0),
+                language);
+    }
+
+    private OptimizationRecommendation recommendation(String id) {
+        return new OptimizationRecommendation("HVAC: Reduce temp", "Justified.", 50.0, 15.0, id);
+    }
+
+    @Test
+    @DisplayName("Fingerprint should ignore noise below the configured precision and language case")
+    void fingerprintShouldNormalizeRequest() {
+        RecommendationCache cache = newCache(10, 1_000_000);
+
+        assertEquals(cache.fingerprint(request(100.0, "en")), cache.fingerprint(request(100.0000001, "EN ")));
+        assertNotEquals(cache.fingerprint(request(100.0, "en")), cache.fingerprint(request(100.01, "en")));
+        assertNotEquals(cache.fingerprint(request(100.0, "en")), cache.fingerprint(request(100.0, "pt")));
+    }
+
+    @Test
+    @DisplayName("Should count hits and misses and keep the original recommendationId")
+    void shouldCountHitsAndMisses() {
+        RecommendationCache cache = newCache(10, 1_000_000);
+        RequestFingerprint key = cache.fingerprint(request(100.0, "en"));
+
+        assertNull(cache.get(key));
+        cache.put(key, recommendation("REC-1"));
+        assertEquals("REC-1", cache.get(key).recommendationId());
+
+        RecommendationCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    @DisplayName("Should expire entries after the TTL")
+    void shouldExpireEntriesAfterTtl() {
+        RecommendationCache cache = newCache(10, 1_000_000);
+        RequestFingerprint key = cache.fingerprint(request(100.0, "en"));
+        cache.put(key, recommendation("REC-1"));
+
+        clock.addAndGet(Duration.ofSeconds(61).toNanos());
+
+        assertNull(cache.get(key));
+        assertEquals(1, cache.stats().expirations());
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entry when the entry bound is reached")
+    void shouldEvictLeastRecentlyUsed() {
+        RecommendationCache cache = newCache(2, 1_000_000);
+        RequestFingerprint first = cache.fingerprint(request(1.0, "en"));
+        RequestFingerprint second = cache.fingerprint(request(2.0, "en"));
+        RequestFingerprint third = cache.fingerprint(request(3.0, "en"));
+
+        cache.put(first, recommendation("REC-1"));
+        cache.put(second, recommendation("REC-2"));
+        cache.get(first); // 'second' becomes the eldest
+        cache.put(third, recommendation("REC-3"));
+
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    @DisplayName("Should evict entries to stay under the memory bound")
+    void shouldRespectMemoryBound() {
+        RecommendationCache cache = newCache(100, 700);
+
+        for (int i = 0; i < 10; i++) {
+            cache.put(cache.fingerprint(request(i, "en")), recommendation("REC-" + i));
+        }
+
+        RecommendationCache.Stats stats = cache.stats();
+        assertEquals(2, stats.size());
+        assertEquals(8, stats.evictions());
+    }
+}
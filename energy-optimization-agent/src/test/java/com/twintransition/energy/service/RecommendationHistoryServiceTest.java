@@ -0,0 +1,187 @@
+package com.twintransition.energy.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.RecommendationHistoryEntry;
+import com.twintransition.energy.dto.RecommendationHistoryPage;
+import com.twintransition.energy.dto.RecommendationWindowTotal;
+import com.twintransition.energy.dto.TimeSeries;
+
+@DisplayName("Recommendation History Service Unit Tests (embedded H2)")
+public class RecommendationHistoryServiceTest {
+
+    private static final Instant MIDNIGHT = Instant.parse("2025-10-01T00:00:00Z");
+    private static final long MINUTE = 60_000L;
+
+    private EmbeddedDatabase database;
+    private final AtomicLong clock = new AtomicLong(MIDNIGHT.toEpochMilli());
+    private RecommendationHistoryService history;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        history = new RecommendationHistoryService(new JdbcTemplate(database), true, 10_000, 64, 10, 100, clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    private static OptimizationRecommendation recommendation(int index) {
+        return new OptimizationRecommendation("HVAC", "ok", index, index * 0.5, "REC-" + index);
+    }
+
+    @Test
+    @DisplayName("Should page a site's history newest first by keyset, ties included, without gaps or repeats")
+    void shouldPageByKeyset() throws InterruptedException {
+        // 250 recommendations for site-a, two per minute (same millisecond), interleaved with site-b
+        for (int i = 0; i < 250; i++) {
+            clock.set(MIDNIGHT.toEpochMilli() + (i / 2) * MINUTE);
+            assertTrue(history.record("site-a", null, recommendation(i)));
+            assertTrue(history.record("site-b", null, recommendation(1000 + i)));
+        }
+        history.flushOnShutdown();
+
+        List<RecommendationHistoryEntry> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            RecommendationHistoryPage page = history.page("site-a", MIDNIGHT, MIDNIGHT.plus(Duration.ofDays(1)), 100, cursor);
+            seen.addAll(page.entries());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(250, seen.size());
+        assertEquals("REC-249", seen.get(0).recommendationId());
+        assertEquals("REC-0", seen.get(249).recommendationId());
+        for (int i = 1; i < seen.size(); i++) {
+            RecommendationHistoryEntry previous = seen.get(i - 1);
+            RecommendationHistoryEntry entry = seen.get(i);
+            assertEquals("site-a", entry.siteId());
+            assertTrue(entry.recordedAt().isBefore(previous.recordedAt())
+                    || entry.recordedAt().equals(previous.recordedAt()) && entry.id() < previous.id());
+        }
+
+        // [from, to) bounds the range
+        RecommendationHistoryPage firstHour = history.page("site-a", MIDNIGHT, MIDNIGHT.plus(Duration.ofHours(1)), 100, null);
+        assertEquals(100, firstHour.entries().size());
+        assertEquals("REC-119", firstHour.entries().get(0).recommendationId());
+        assertNull(history.page("site-a", MIDNIGHT, MIDNIGHT.plus(Duration.ofMinutes(30)), 100, null).nextCursor());
+    }
+
+    @Test
+    @DisplayName("Should sum savings and CO2 reductions per window")
+    void shouldSumPerWindow() throws InterruptedException {
+        for (int i = 0; i < 180; i++) {
+            clock.set(MIDNIGHT.toEpochMilli() + i * MINUTE);
+            history.record("site-a", null, recommendation(1));
+        }
+        history.flushOnShutdown();
+
+        List<RecommendationWindowTotal> totals = history.totals("site-a", MIDNIGHT.plus(Duration.ofMinutes(30)),
+                MIDNIGHT.plus(Duration.ofHours(4)), Duration.ofHours(1));
+
+        assertEquals(3, totals.size());
+        assertEquals(MIDNIGHT.plus(Duration.ofMinutes(30)), totals.get(0).windowStart());
+        assertEquals(60, totals.get(0).recommendations());
+        assertEquals(60.0, totals.get(0).estimatedCostSavingsEur(), 1e-9);
+        assertEquals(30.0, totals.get(0).estimatedCarbonFootprintReductionKgCO2(), 1e-9);
+        assertEquals(30, totals.get(2).recommendations());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid page sizes and cursors")
+    void shouldRejectInvalidPageRequests() {
+        Instant to = MIDNIGHT.plus(Duration.ofDays(1));
+
+        assertEquals("Page size must be between 1 and 100.", assertThrows(InvalidRequestException.class,
+                () -> history.page("site-a", MIDNIGHT, to, 101, null)).getMessage());
+        assertEquals("Invalid history cursor.", assertThrows(InvalidRequestException.class,
+                () -> history.page("site-a", MIDNIGHT, to, 10, "not a cursor")).getMessage());
+    }
+
+    @Test
+    @DisplayName("Should record what the service serves, keyed by site and request fingerprint")
+    void shouldRecordServedRecommendations() throws InterruptedException {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        OptimizationService service = OptimizationServiceBuilder.embedded(new EmbeddedOptimizationEngine(messageSource))
+                .history(history)
+                .build();
+        OptimizationRequest request = new OptimizationRequest(TimeSeries.of(10, 12, 14), TimeSeries.of(25.5),
+                new OptimizationLimitsDto(24.0, 20.0), "en");
+
+        OptimizationRecommendation served = service.generateRecommendationAsync("site-a", request, AdmissionLane.INTERACTIVE).block();
+        service.generateRecommendation(request);
+        history.flushOnShutdown();
+
+        RecommendationHistoryEntry entry = history.page("site-a", MIDNIGHT, MIDNIGHT.plusSeconds(1), 10, null).entries().get(0);
+        assertEquals(served.recommendationId(), entry.recommendationId());
+        assertEquals(served.estimatedCostSavingsEur(), entry.estimatedCostSavingsEur());
+        assertEquals(RecommendationCache.disabled().fingerprint(request).digest(), entry.inputsHash());
+        assertEquals(1, history.page(RecommendationHistoryService.ANONYMOUS_SITE, MIDNIGHT, MIDNIGHT.plusSeconds(1), 10, null)
+                .entries().size());
+    }
+
+    @Test
+    @DisplayName("Should record a recommendation once, not again for each cache hit")
+    void shouldNotRecordCacheHits() throws InterruptedException {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        OptimizationService service = OptimizationServiceBuilder.embedded(new EmbeddedOptimizationEngine(messageSource))
+                .cache(new RecommendationCache(true, Duration.ofMinutes(1), 100, 1_000_000, 3))
+                .coalescer(new RequestCoalescer(true))
+                .history(history)
+                .build();
+        OptimizationRequest request = new OptimizationRequest(TimeSeries.of(10, 12, 14), TimeSeries.of(25.5),
+                new OptimizationLimitsDto(24.0, 20.0), "en");
+
+        for (int i = 0; i < 5; i++) {
+            service.generateRecommendationAsync("site-a", request, AdmissionLane.INTERACTIVE).block();
+        }
+        history.flushOnShutdown();
+
+        assertEquals(1, history.page("site-a", MIDNIGHT, MIDNIGHT.plusSeconds(1), 10, null).entries().size());
+        assertEquals(1, history.totals("site-a", MIDNIGHT, MIDNIGHT.plusSeconds(1), Duration.ofSeconds(1)).get(0)
+                .recommendations());
+    }
+
+    @Test
+    @DisplayName("Should reject reads while the history is disabled")
+    void shouldRejectReadsWhenDisabled() {
+        RecommendationHistoryService disabled = RecommendationHistoryService.disabled();
+
+        assertThrows(RecommendationHistoryDisabledException.class,
+                () -> disabled.page("site-a", MIDNIGHT, MIDNIGHT.plusSeconds(1), 10, null));
+        assertThrows(RecommendationHistoryDisabledException.class,
+                () -> disabled.totals("site-a", MIDNIGHT, MIDNIGHT.plusSeconds(1), Duration.ofSeconds(1)));
+    }
+}
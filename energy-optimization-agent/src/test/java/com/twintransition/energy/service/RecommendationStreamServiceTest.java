@@ -0,0 +1,124 @@
+package com.twintransition.energy.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import com.twintransition.energy.dto.ApiResponse;
+import com.twintransition.energy.dto.HourlyAction;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.RecommendationStage;
+import com.twintransition.energy.dto.TimeSeries;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import reactor.util.function.Tuple2;
+
+@DisplayName("Recommendation Stream Service Unit Tests")
+public class RecommendationStreamServiceTest {
+
+    private static final int AGENT_DELAY_MS = 300;
+
+    private MockWebServer agent;
+    private SimpleMeterRegistry registry;
+    private RecommendationStreamService streamService;
+
+    private final OptimizationRequest request = new OptimizationRequest(TimeSeries.of(100.0, 110.0, 120.0),
+            TimeSeries.of(25.5, 26.0), new OptimizationLimitsDto(24.0, 20.0), "en");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        agent = new MockWebServer();
+        agent.start();
+        registry = new SimpleMeterRegistry();
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setFallbackToSystemLocale(false);
+        OptimizationMetrics metrics = new OptimizationMetrics(registry, true);
+        OptimizationService optimizationService = OptimizationServiceBuilder.remote(agent.url("/").toString())
+                .metrics(metrics)
+                .build();
+        streamService = new RecommendationStreamService(new EmbeddedOptimizationEngine(messageSource), optimizationService,
+                new SeriesResampler(true, Duration.ofHours(1), SeriesResampler.Aggregation.SUM, SeriesResampler.Aggregation.MEAN,
+                        SeriesResampler.GapFill.LINEAR, 100_000),
+                messageSource, metrics);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        agent.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should emit the forecast and the hourly actions before the agent answers, then the summary")
+    void shouldStreamLocalStagesBeforeTheAgentAnswers() {
+        agent.enqueue(new MockResponse().setHeader("Content-Type", "application/json")
+                .setHeadersDelay(AGENT_DELAY_MS, TimeUnit.MILLISECONDS)
+                .setBody("{\"actionableScript\":\"HVAC\",\"naturalLanguageJustification\":\"ok\","
+                        + "\"estimatedCostSavingsEur\":5.0,\"estimatedCarbonFootprintReductionKgCO2\":4.66,"
+                        + "\"recommendationId\":\"REC-STREAM\"}"));
+
+        long start = System.currentTimeMillis();
+        List<Tuple2<Long, RecommendationStage>> stages = streamService.stream("site-a", request, Locale.ENGLISH)
+                .timestamp().collectList().block();
+
+        assertEquals(26, stages.size());
+        RecommendationStage forecast = stages.get(0).getT2();
+        assertEquals(RecommendationStage.FORECAST, forecast.stage());
+        assertEquals(24, ((TimeSeries) forecast.data()).size());
+        for (int hour = 0; hour < 24; hour++) {
+            RecommendationStage action = stages.get(1 + hour).getT2();
+            assertEquals(RecommendationStage.ACTION, action.stage());
+            assertEquals(hour, ((HourlyAction) action.data()).hour());
+        }
+        RecommendationStage summary = stages.get(25).getT2();
+        assertEquals(RecommendationStage.SUMMARY, summary.stage());
+        ApiResponse<?> response = (ApiResponse<?>) summary.data();
+        assertEquals("Optimization recommendation generated successfully.", response.message());
+        assertEquals("REC-STREAM", ((OptimizationRecommendation) response.data()).recommendationId());
+
+        assertTrue(stages.get(24).getT1() - start < AGENT_DELAY_MS, "Local stages should not wait for the agent");
+        assertTrue(stages.get(25).getT1() - start >= AGENT_DELAY_MS);
+        assertEquals(1, registry.get("optimization.stage").tag("stage", "stream.first-event").timer().count());
+        assertEquals(1, registry.get("optimization.stage").tag("stage", "stream.complete").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should end the stream with an error event when the agent fails")
+    void shouldEndWithErrorEvent() {
+        agent.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest recordedRequest) {
+                return new MockResponse().setResponseCode(500);
+            }
+        });
+
+        List<RecommendationStage> stages = streamService.stream(null, request, Locale.ENGLISH).collectList().block();
+
+        assertEquals(26, stages.size());
+        RecommendationStage error = stages.get(25);
+        assertEquals(RecommendationStage.ERROR, error.stage());
+        assertEquals(502, ((ApiResponse<?>) error.data()).status());
+
+        // Invalid requests fail before the stream starts, so they still get a 400
+        OptimizationRequest invalid = new OptimizationRequest(TimeSeries.of(1, 2), TimeSeries.of(22.0),
+                new OptimizationLimitsDto(24.0, 20.0), "en", 7);
+        assertThrows(InvalidRequestException.class, () -> streamService.stream(null, invalid, Locale.ENGLISH));
+    }
+}
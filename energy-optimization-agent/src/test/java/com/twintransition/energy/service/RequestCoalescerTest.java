@@ -0,0 +1,75 @@
+package com.twintransition.energy.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.twintransition.energy.dto.OptimizationRecommendation;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+@DisplayName("Request Coalescer Unit Tests")
+public class RequestCoalescerTest {
+
+    private static final RequestFingerprint KEY = new RequestFingerprint("abc");
+
+    private final OptimizationRecommendation recommendation =
+            new OptimizationRecommendation("HVAC: Reduce temp", "Justified.", 50.0, 15.0, "REC-1");
+
+    @Test
+    @DisplayName("Concurrent equivalent callers should share one outstanding call")
+    void shouldShareOutstandingCall() {
+        RequestCoalescer coalescer = new RequestCoalescer(true);
+        Sinks.One<OptimizationRecommendation> agent = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+
+        Mono<OptimizationRecommendation> first = coalescer.execute(KEY, () -> { calls.incrementAndGet(); return agent.asMono(); }).cache();
+        Mono<OptimizationRecommendation> second = coalescer.execute(KEY, () -> { calls.incrementAndGet(); return agent.asMono(); }).cache();
+        first.subscribe();
+        second.subscribe();
+
+        agent.tryEmitValue(recommendation);
+
+        assertEquals("REC-1", first.block(Duration.ofSeconds(1)).recommendationId());
+        assertEquals("REC-1", second.block(Duration.ofSeconds(1)).recommendationId());
+        assertEquals(1, calls.get());
+        assertEquals(1, coalescer.stats().executions());
+        assertEquals(1, coalescer.stats().coalesced());
+        assertEquals(0, coalescer.stats().inFlight());
+    }
+
+    @Test
+    @DisplayName("Joined callers should receive the error of the shared call")
+    void shouldShareError() {
+        RequestCoalescer coalescer = new RequestCoalescer(true);
+        Sinks.One<OptimizationRecommendation> agent = Sinks.one();
+
+        Mono<OptimizationRecommendation> first = coalescer.execute(KEY, agent::asMono).cache();
+        Mono<OptimizationRecommendation> second = coalescer.execute(KEY, agent::asMono).cache();
+        first.subscribe(r -> {}, e -> {});
+        second.subscribe(r -> {}, e -> {});
+
+        agent.tryEmitError(new RuntimeException("External Agent Error: boom"));
+
+        assertThrows(RuntimeException.class, () -> first.block(Duration.ofSeconds(1)));
+        assertThrows(RuntimeException.class, () -> second.block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    @DisplayName("A completed call should not be reused by later callers")
+    void shouldNotReuseCompletedCall() {
+        RequestCoalescer coalescer = new RequestCoalescer(true);
+        AtomicInteger calls = new AtomicInteger();
+
+        coalescer.execute(KEY, () -> { calls.incrementAndGet(); return Mono.just(recommendation); }).block();
+        coalescer.execute(KEY, () -> { calls.incrementAndGet(); return Mono.just(recommendation); }).block();
+
+        assertEquals(2, calls.get());
+        assertEquals(0, coalescer.stats().coalesced());
+    }
+}
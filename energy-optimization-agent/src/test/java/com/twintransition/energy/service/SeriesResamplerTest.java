@@ -0,0 +1,132 @@
+package com.twintransition.energy.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.SeriesRange;
+import com.twintransition.energy.dto.TimeSeries;
+import com.twintransition.energy.service.SeriesResampler.Aggregation;
+import com.twintransition.energy.service.SeriesResampler.GapFill;
+
+@DisplayName("Series Resampler Unit Tests")
+public class SeriesResamplerTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final double NaN = Double.NaN;
+
+    private final SeriesResampler resampler = new SeriesResampler(true, Duration.ofHours(1), Aggregation.SUM,
+            Aggregation.MEAN, GapFill.LINEAR, 100_000);
+
+    @Test
+    @DisplayName("Should aggregate minute readings into hourly buckets and interpolate missing hours")
+    void shouldAggregateStoredRangeIntoHours() {
+        long start = Instant.parse("2025-10-01T00:00:00Z").toEpochMilli();
+        // Hours 0 and 2 have one reading per minute, hour 1 has none
+        long[] timestamps = new long[120];
+        double[] consumption = new double[120];
+        double[] temperature = new double[120];
+        for (int minute = 0; minute < 60; minute++) {
+            timestamps[minute] = start + minute * 60_000L;
+            consumption[minute] = 1.0;
+            temperature[minute] = minute % 2 == 0 ? 20.0 : NaN;
+            timestamps[60 + minute] = start + 2 * HOUR + minute * 60_000L;
+            consumption[60 + minute] = 2.0;
+            temperature[60 + minute] = 24.0;
+        }
+
+        SeriesRange hourly = resampler.resample(new SeriesRange("site-a", timestamps, TimeSeries.wrap(consumption),
+                TimeSeries.wrap(temperature)));
+
+        assertArrayEquals(new long[] { start, start + HOUR, start + 2 * HOUR }, hourly.timestamps());
+        assertArrayEquals(new double[] { 60.0, 90.0, 120.0 }, hourly.consumptionKwh().array(), 1e-9);
+        // NaN temperatures are left out of the mean
+        assertArrayEquals(new double[] { 20.0, 22.0, 24.0 }, hourly.temperatureC().array(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should reject ranges spanning more buckets than the configured maximum")
+    void shouldRejectTooManyBuckets() {
+        long start = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+        // Two readings a year apart: 525,600 one-minute buckets
+        SeriesRange sparse = new SeriesRange("site-a", new long[] { start, start + 8_760 * HOUR },
+                TimeSeries.of(1.0, 1.0), TimeSeries.of(20.0, 20.0));
+
+        InvalidRequestException error = assertThrows(InvalidRequestException.class,
+                () -> resampler.resample(sparse, Duration.ofMinutes(1)));
+        assertEquals("Range cannot span more than 100000 buckets.", error.getMessage());
+        assertEquals(8_761, resampler.resample(sparse, Duration.ofHours(1)).size());
+    }
+
+    @Test
+    @DisplayName("Should aggregate inline sub-hourly histories and leave hourly ones untouched")
+    void shouldNormalizeInlineHistory() {
+        OptimizationLimitsDto limits = new OptimizationLimitsDto(24.0, 20.0);
+        OptimizationRequest quarterHourly = new OptimizationRequest(TimeSeries.of(1, 2, 3, 4, 1, 1, NaN, 1, 5),
+                TimeSeries.of(22.0), limits, "en", 15);
+        OptimizationRequest hourly = new OptimizationRequest(TimeSeries.of(1, 2, 3), TimeSeries.of(22.0), limits, "en");
+
+        OptimizationRequest normalized = resampler.normalize(quarterHourly);
+
+        // The NaN point and the truncated last hour are extrapolated from the points that are there
+        assertArrayEquals(new double[] { 10.0, 4.0, 20.0 }, normalized.historicalConsumptionKwH().array(), 1e-9);
+        assertEquals(null, normalized.historyIntervalMinutes());
+        assertEquals(quarterHourly.weatherForecastDegreesC(), normalized.weatherForecastDegreesC());
+        assertSame(hourly, resampler.normalize(hourly));
+        assertSame(quarterHourly, SeriesResampler.disabled().normalize(quarterHourly));
+        InvalidRequestException error = assertThrows(InvalidRequestException.class, () -> resampler.normalize(
+                new OptimizationRequest(TimeSeries.of(1, 2), TimeSeries.of(22.0), limits, "en", 7)));
+        assertEquals("History interval must divide 60 minutes.", error.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should apply each aggregation and gap-filling strategy")
+    void shouldApplyAggregationsAndGapFills() {
+        double[] values = { NaN, NaN, NaN, NaN, 2, 4, NaN, NaN, 6, 8 };
+
+        assertArrayEquals(new double[] { 3, 3, 3, 5, 7 }, SeriesResampler.resample(values, 2, Aggregation.MEAN, GapFill.LINEAR), 1e-9);
+        assertArrayEquals(new double[] { 3, 3, 3, 3, 7 }, SeriesResampler.resample(values, 2, Aggregation.MEAN, GapFill.PREVIOUS), 1e-9);
+        assertArrayEquals(new double[] { NaN, NaN, 3, NaN, 7 }, SeriesResampler.resample(values, 2, Aggregation.MEAN, GapFill.NONE), 1e-9);
+        assertArrayEquals(new double[] { 4, 4, 4, 6, 8 }, SeriesResampler.resample(values, 2, Aggregation.MAX, GapFill.LINEAR), 1e-9);
+        assertArrayEquals(new double[] { 6, 6, 6, 10, 14 }, SeriesResampler.resample(values, 2, Aggregation.SUM, GapFill.LINEAR), 1e-9);
+    }
+
+    @Test
+    @DisplayName("LTTB should keep the endpoints and the peaks that bucket means would flatten")
+    void lttbShouldKeepShape() {
+        int size = 10_080;
+        long[] timestamps = new long[size];
+        double[] consumption = new double[size];
+        double[] temperature = new double[size];
+        for (int i = 0; i < size; i++) {
+            timestamps[i] = i * 60_000L;
+            consumption[i] = 10 + 4 * Math.sin(2 * Math.PI * i / 1440.0);
+            temperature[i] = i;
+        }
+        consumption[5_000] = 500.0;
+        SeriesRange range = new SeriesRange("site-a", timestamps, TimeSeries.wrap(consumption), TimeSeries.wrap(temperature));
+
+        SeriesRange preview = SeriesResampler.lttb(range, 100);
+
+        assertEquals(100, preview.size());
+        assertEquals(0L, preview.timestamps()[0]);
+        assertEquals(timestamps[size - 1], preview.timestamps()[99]);
+        assertTrue(Arrays.stream(preview.consumptionKwh().array()).anyMatch(value -> value == 500.0));
+        for (int i = 1; i < preview.size(); i++) {
+            assertTrue(preview.timestamps()[i] > preview.timestamps()[i - 1]);
+            // The temperature column follows the kept readings
+            assertEquals(preview.timestamps()[i] / 60_000.0, preview.temperatureC().get(i), 0.0);
+        }
+        assertSame(range, SeriesResampler.lttb(range, size));
+    }
+}
@@ -0,0 +1,210 @@
+package com.twintransition.energy.service;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.twintransition.energy.dto.IngestionResult;
+import com.twintransition.energy.dto.SeriesRange;
+
+@DisplayName("Telemetry Ingestion Service Unit Tests")
+public class TelemetryIngestionServiceTest {
+
+    private static final Instant DAY = Instant.parse("2025-10-01T00:00:00Z");
+    private static final Instant NOW = DAY.plus(Duration.ofDays(1));
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @TempDir
+    Path directory;
+
+    private EmbeddedDatabase database;
+    private ColumnarSeriesStore seriesStore;
+    private OnlineForecastService onlineForecastService;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2).generateUniqueName(true).addScript("schema.sql").build();
+        seriesStore = new ColumnarSeriesStore(directory, ZoneOffset.UTC, 64);
+        onlineForecastService = new OnlineForecastService(new JdbcTemplate(database), "UTC", Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        seriesStore.close();
+        database.shutdown();
+    }
+
+    private TelemetryIngestionService newService(int capacity, long maxWaitMillis) {
+        return new TelemetryIngestionService(objectMapper, seriesStore, onlineForecastService,
+                capacity, 100, 500, maxWaitMillis, true, Duration.ofMinutes(5), NOW::toEpochMilli);
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should ingest NDJSON and append the readings to the site history in batches")
+    void shouldIngestNdjson() throws Exception {
+        TelemetryIngestionService service = newService(1000, 100);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 250; i++) {
+            ndjson.append("{\"siteId\":\"site-a\",\"timestamp\":\"").append(DAY.plusSeconds(60L * i))
+                    .append("\",\"consumptionKwh\":").append(10 + i % 5)
+                    .append(",\"temperatureC\":21.5}\n");
+        }
+        ndjson.append("{\"siteId\":\"site-a\",\"timestamp\":null,\"consumptionKwh\":1.0}\n");
+        // Not usable as a store site id
+        ndjson.append("{\"siteId\":\"../etc\",\"timestamp\":\"2025-10-01T00:00:00Z\",\"consumptionKwh\":1.0}\n");
+
+        IngestionResult result = service.ingest(body(ndjson.toString()));
+        service.flushOnShutdown();
+
+        assertEquals(250, result.accepted());
+        assertEquals(2, result.invalid());
+        SeriesRange stored = seriesStore.read("site-a", DAY, DAY.plus(Duration.ofDays(1)));
+        assertEquals(250, stored.size());
+        assertEquals(21.5, stored.temperatureC().get(249));
+        assertEquals(250, onlineForecastService.forecast("site-a").readingCount());
+        assertEquals(3, service.stats().batches());
+    }
+
+    @Test
+    @DisplayName("Should accept a JSON array body and report readings older than the stored history as late")
+    void shouldIngestJsonArray() throws Exception {
+        TelemetryIngestionService service = newService(1000, 100);
+
+        IngestionResult result = service.ingest(body("[{\"siteId\":\"b\",\"timestamp\":\"2025-10-01T00:00:00Z\",\"consumptionKwh\":3.5},"
+                + "{\"siteId\":\"b\",\"timestamp\":\"2025-10-01T01:00:00Z\",\"consumptionKwh\":4.5}]"));
+        service.flushOnShutdown();
+        TelemetryIngestionService late = newService(1000, 100);
+        IngestionResult lateResult = late.ingest(body("{\"siteId\":\"b\",\"timestamp\":\"2025-10-01T00:30:00Z\",\"consumptionKwh\":1.0}\n"));
+        late.flushOnShutdown();
+
+        assertEquals(2, result.accepted());
+        SeriesRange stored = seriesStore.read("b", DAY, DAY.plus(Duration.ofDays(1)));
+        assertEquals(2, stored.size());
+        assertEquals(3.5, stored.consumptionKwh().get(0));
+        assertTrue(Double.isNaN(stored.temperatureC().get(0)));
+        assertEquals(0, lateResult.accepted());
+        assertEquals(1, lateResult.late());
+        assertEquals(0, late.lateReadings());
+        assertEquals(2, onlineForecastService.forecast("b").readingCount());
+    }
+
+    @Test
+    @DisplayName("Should count future and numeric timestamps as invalid so they cannot make later readings late")
+    void shouldRejectImplausibleTimestamps() throws Exception {
+        TelemetryIngestionService service = newService(1000, 100);
+        String ndjson = "{\"siteId\":\"e\",\"timestamp\":1759276800000,\"consumptionKwh\":1.0}\n"
+                + "{\"siteId\":\"e\",\"timestamp\":1759276800.5,\"consumptionKwh\":1.0}\n"
+                + "{\"siteId\":\"e\",\"timestamp\":\"" + NOW.plus(Duration.ofHours(1)) + "\",\"consumptionKwh\":1.0}\n"
+                + "{\"siteId\":\"e\",\"timestamp\":\"1969-12-31T23:00:00Z\",\"consumptionKwh\":1.0}\n"
+                + "{\"siteId\":\"e\",\"timestamp\":\"" + NOW.plus(Duration.ofMinutes(1)) + "\",\"consumptionKwh\":3.0}\n"
+                + "{\"siteId\":\"e\",\"timestamp\":\"" + DAY + "\",\"consumptionKwh\":2.0}\n";
+
+        IngestionResult result = service.ingest(body(ndjson));
+        service.flushOnShutdown();
+
+        // Within the clock skew the reading is kept, and the older one after it is late
+        assertEquals(1, result.accepted());
+        assertEquals(4, result.invalid());
+        assertEquals(1, result.late());
+        assertEquals(1, seriesStore.size("e"));
+        assertEquals(1, onlineForecastService.forecast("e").readingCount());
+    }
+
+    @Test
+    @DisplayName("Should keep readings that arrive out of order across flushes within one request")
+    void shouldQueueEachSiteInTimeOrder() throws Exception {
+        // One reading per batch: a reading older than an already flushed one is rejected up front, not lost
+        TelemetryIngestionService service = new TelemetryIngestionService(objectMapper, seriesStore, onlineForecastService,
+                1000, 1, 1, 100, true, Duration.ofMinutes(5), NOW::toEpochMilli);
+        StringBuilder ndjson = new StringBuilder();
+        for (int hour : new int[] { 0, 2, 1, 3 }) {
+            ndjson.append("{\"siteId\":\"f\",\"timestamp\":\"").append(DAY.plusSeconds(3600L * hour))
+                    .append("\",\"consumptionKwh\":1.0}\n");
+        }
+
+        IngestionResult result = service.ingest(body(ndjson.toString()));
+        service.flushOnShutdown();
+
+        assertEquals(3, result.accepted());
+        assertEquals(1, result.late());
+        assertEquals(3, seriesStore.size("f"));
+        assertEquals(0, service.lateReadings());
+        assertEquals(3, onlineForecastService.forecast("f").readingCount());
+    }
+
+    @Test
+    @DisplayName("Should report the malformed line and keep the readings accepted before it")
+    void shouldRejectMalformedLines() throws Exception {
+        TelemetryIngestionService service = newService(1000, 100);
+        String ndjson = "{\"siteId\":\"d\",\"timestamp\":\"2025-10-01T00:00:00Z\",\"consumptionKwh\":1.0}\n"
+                + "{\"siteId\":\"d\",\"timestamp\":\"2025-10-01T01:00:00Z\",\"consumptionKwh\":2.0}\n"
+                + "{\"siteId\":\"d\",\"timestamp\":\"2025-10-01T02:00:00Z\",\"consumptionKwh\":oops}\n"
+                + "{\"siteId\":\"d\",\"timestamp\":\"2025-10-01T03:00:00Z\",\"consumptionKwh\":4.0}\n";
+
+        MalformedTelemetryException error = assertThrows(MalformedTelemetryException.class,
+                () -> service.ingest(body(ndjson)));
+        service.flushOnShutdown();
+
+        assertEquals(2, error.getAccepted());
+        assertEquals(3, error.getLine());
+        assertEquals(2, seriesStore.size("d"));
+    }
+
+    @Test
+    @DisplayName("Should apply backpressure when the buffer stays full")
+    void shouldApplyBackpressure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        // A store that cannot keep up: every batch waits for the test to release it
+        ColumnarSeriesStore stalledStore = new ColumnarSeriesStore(directory, ZoneOffset.UTC, 64) {
+            @Override
+            public int merge(String siteId, long[] timestamps, double[] consumptionKwh, double[] temperatureC) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.merge(siteId, timestamps, consumptionKwh, temperatureC);
+            }
+        };
+        TelemetryIngestionService service = new TelemetryIngestionService(objectMapper, stalledStore, onlineForecastService,
+                2, 1, 1, 50, false, Duration.ofMinutes(5), NOW::toEpochMilli);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            ndjson.append("{\"siteId\":\"c\",\"timestamp\":\"2025-10-01T00:00:00Z\",\"consumptionKwh\":1.0}\n");
+        }
+
+        IngestionBackpressureException error = assertThrows(IngestionBackpressureException.class,
+                () -> service.ingest(body(ndjson.toString())));
+
+        release.countDown();
+        service.flushOnShutdown();
+        stalledStore.close();
+        assertEquals(1, service.stats().rejected());
+        assertEquals(error.getAccepted(), service.stats().written());
+    }
+}
@@ -0,0 +1,207 @@
+package com.twintransition.energy.benchmark;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.service.AdmissionLane;
+import com.twintransition.energy.service.AdmissionLimiter;
+import com.twintransition.energy.service.AdmissionRejectedException;
+import com.twintransition.energy.service.OptimizationMetrics;
+import com.twintransition.energy.service.OptimizationService;
+import com.twintransition.energy.service.SeriesResampler;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Goodput under overload, with {@code optimization.admission} off and adaptive. The stand-in
+ * agent serves 8 requests at full speed and slows down quadratically past that (like a worker
+ * pool thrashing), and keeps working on requests whose callers gave up. 24 interactive clients
+ * give up after 1 s and 24 batch clients after 10 s. The secondary results count, per lane and
+ * measurement iteration, the calls served within the deadline, rejected by admission, and timed out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class AdmissionBenchmark {
+
+    private static final int CAPACITY = 8;
+    private static final int SERVICE_MS = 50;
+    private static final Duration INTERACTIVE_DEADLINE = Duration.ofSeconds(1);
+    private static final Duration BATCH_DEADLINE = Duration.ofSeconds(10);
+
+    @Param({"unlimited", "adaptive"})
+    public String admission;
+
+    private final AtomicInteger agentConcurrency = new AtomicInteger();
+    private final AtomicInteger clients = new AtomicInteger();
+    private MockWebServer agent;
+    private ConnectionProvider provider;
+    private OptimizationService optimizationService;
+
+    @Setup
+    public void setUp() throws IOException {
+        agent = new MockWebServer();
+        String body = Fixtures.objectMapper().writeValueAsString(Fixtures.recommendation());
+        agent.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest recordedRequest) throws InterruptedException {
+                int concurrent = agentConcurrency.incrementAndGet();
+                try {
+                    double overload = Math.max(1.0, (double) concurrent / CAPACITY);
+                    Thread.sleep((long) (SERVICE_MS * overload * overload));
+                } finally {
+                    agentConcurrency.decrementAndGet();
+                }
+                return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+            }
+        });
+        agent.start(InetAddress.getLoopbackAddress(), 0);
+
+        provider = ConnectionProvider.builder("admission-benchmark").maxConnections(500).build();
+        AdmissionLimiter limiter = admission.equals("adaptive")
+                ? new AdmissionLimiter(true, "adaptive", 20, 2, 200, 0.9, 2.0, 0.75,
+                        100, Duration.ofMillis(500), 1000, Duration.ofSeconds(30), 1000, Duration.ofSeconds(30),
+                        OptimizationMetrics.disabled())
+                : AdmissionLimiter.unlimited();
+        optimizationService = Fixtures.optimizationService(
+                WebClient.builder().clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider))),
+                Fixtures.url(agent), null, null, OptimizationMetrics.disabled(), limiter, SeriesResampler.disabled());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        provider.disposeLater().block(Duration.ofSeconds(5));
+        agent.shutdown();
+    }
+
+    @Benchmark
+    @Group("overload")
+    @GroupThreads(24)
+    public void interactive(InteractiveCalls calls, Control control) throws InterruptedException {
+        Outcome outcome = call(calls.request(), AdmissionLane.INTERACTIVE, INTERACTIVE_DEADLINE);
+        if (!control.startMeasurement || control.stopMeasurement) {
+            return;
+        }
+        switch (outcome) {
+            case SERVED -> calls.interactiveServed++;
+            case REJECTED -> calls.interactiveRejected++;
+            case TIMED_OUT -> calls.interactiveTimedOut++;
+        }
+    }
+
+    @Benchmark
+    @Group("overload")
+    @GroupThreads(24)
+    public void batch(BatchCalls calls, Control control) throws InterruptedException {
+        Outcome outcome = call(calls.request(), AdmissionLane.BATCH, BATCH_DEADLINE);
+        if (!control.startMeasurement || control.stopMeasurement) {
+            return;
+        }
+        switch (outcome) {
+            case SERVED -> calls.batchServed++;
+            case REJECTED -> calls.batchRejected++;
+            case TIMED_OUT -> calls.batchTimedOut++;
+        }
+    }
+
+    private Outcome call(OptimizationRequest request, AdmissionLane lane, Duration deadline) throws InterruptedException {
+        try {
+            optimizationService.generateRecommendationAsync(request, lane).block(deadline);
+            return Outcome.SERVED;
+        } catch (AdmissionRejectedException e) {
+            Thread.sleep(20);
+            return Outcome.REJECTED;
+        } catch (IllegalStateException e) {
+            // block(timeout) expired: the caller gave up, the agent keeps working on it
+            return Outcome.TIMED_OUT;
+        }
+    }
+
+    private enum Outcome { SERVED, REJECTED, TIMED_OUT }
+
+    /**
+     * One client's requests, all different so nothing is answered from a cache.
+     */
+    @State(Scope.Thread)
+    public abstract static class Client {
+
+        private int client;
+        private int sequence;
+
+        @Setup
+        public void assign(AdmissionBenchmark benchmark) {
+            client = benchmark.clients.incrementAndGet();
+        }
+
+        OptimizationRequest request() {
+            return new OptimizationRequest(Arrays.asList(100.0 + client, sequence++ * 1.0), Arrays.asList(22.5, 23.0),
+                    new OptimizationLimitsDto(24.0, 20.0), "en");
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class InteractiveCalls extends Client {
+
+        public long interactiveServed;
+        public long interactiveRejected;
+        public long interactiveTimedOut;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            interactiveServed = 0;
+            interactiveRejected = 0;
+            interactiveTimedOut = 0;
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class BatchCalls extends Client {
+
+        public long batchServed;
+        public long batchRejected;
+        public long batchTimedOut;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            batchServed = 0;
+            batchRejected = 0;
+            batchTimedOut = 0;
+        }
+    }
+}
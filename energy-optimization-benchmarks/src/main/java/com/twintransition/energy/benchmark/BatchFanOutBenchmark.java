@@ -0,0 +1,86 @@
+package com.twintransition.energy.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.twintransition.energy.dto.BatchOptimizationRequest;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.SiteOptimizationRequest;
+import com.twintransition.energy.service.BatchRecommendationService;
+import com.twintransition.energy.service.OptimizationMetrics;
+import com.twintransition.energy.service.OptimizationService;
+
+import jakarta.validation.Validation;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * Time to get recommendations for 96 sites against a stand-in agent answering in 40 ms: the
+ * sequential single-call loop a client would otherwise run vs one call to the batch endpoint's
+ * fan-out ({@code optimization.batch.max-concurrency} 16).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BatchFanOutBenchmark {
+
+    private static final int SITES = 96;
+    private static final int AGENT_DELAY_MS = 40;
+    private static final int MAX_CONCURRENCY = 16;
+
+    @Param({"sequential", "batch"})
+    public String mode;
+
+    private MockWebServer agent;
+    private OptimizationService optimizationService;
+    private BatchRecommendationService batchService;
+    private List<SiteOptimizationRequest> sites;
+
+    @Setup
+    public void setUp() throws Exception {
+        agent = Fixtures.agent(AGENT_DELAY_MS);
+        optimizationService = Fixtures.optimizationService(Fixtures.url(agent), null, OptimizationMetrics.disabled());
+        batchService = new BatchRecommendationService(
+                optimizationService, Validation.buildDefaultValidatorFactory().getValidator(), MAX_CONCURRENCY, SITES);
+        sites = new ArrayList<>();
+        for (int i = 0; i < SITES; i++) {
+            sites.add(new SiteOptimizationRequest("site-" + i, new OptimizationRequest(
+                    Arrays.asList(100.0 + i, 110.0), Arrays.asList(25.0, 26.0), new OptimizationLimitsDto(24.0, 20.0), "en")));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        agent.shutdown();
+    }
+
+    @Benchmark
+    public Object recommendations() {
+        if (mode.equals("batch")) {
+            return batchService.generateBatch(new BatchOptimizationRequest(sites)).block();
+        }
+        List<Object> recommendations = new ArrayList<>(SITES);
+        for (SiteOptimizationRequest site : sites) {
+            recommendations.add(optimizationService.generateRecommendation(site.request()));
+        }
+        return recommendations;
+    }
+}
@@ -0,0 +1,88 @@
+package com.twintransition.energy.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.twintransition.energy.dto.SeriesRange;
+import com.twintransition.energy.service.ColumnarSeriesStore;
+
+/**
+ * Reads from the memory-mapped series store holding ~10 years of 1-minute readings for one
+ * site: a one-month range at a random start, and the consumption sum over the whole history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarSeriesStoreBenchmark {
+
+    private static final int RECORDS = 5_000_000;
+    private static final int CHUNK = 100_000;
+    private static final int RANGE_LENGTH = 30 * 24 * 60;
+    private static final long MINUTE = 60_000L;
+    private static final long START = Instant.parse("2015-01-01T00:00:00Z").toEpochMilli();
+
+    private Path directory;
+    private ColumnarSeriesStore store;
+    private Random random;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("series-store-benchmark");
+        store = new ColumnarSeriesStore(directory, "UTC");
+        for (int offset = 0; offset < RECORDS; offset += CHUNK) {
+            long[] timestamps = new long[CHUNK];
+            double[] consumption = new double[CHUNK];
+            double[] temperature = new double[CHUNK];
+            for (int i = 0; i < CHUNK; i++) {
+                timestamps[i] = START + (offset + i) * MINUTE;
+                consumption[i] = 10 + (offset + i) % 60;
+                temperature[i] = 18 + (offset + i) % 7;
+            }
+            store.append("bench", timestamps, consumption, temperature);
+        }
+        random = new Random(42);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public SeriesRange readMonth() {
+        long from = START + random.nextInt(RECORDS - RANGE_LENGTH) * MINUTE;
+        return store.read("bench", Instant.ofEpochMilli(from), Instant.ofEpochMilli(from + RANGE_LENGTH * MINUTE));
+    }
+
+    @Benchmark
+    public double sumAll() {
+        Instant from = Instant.ofEpochMilli(START);
+        return store.sumConsumption("bench", from, from.plusMillis(RECORDS * MINUTE));
+    }
+}
@@ -0,0 +1,84 @@
+package com.twintransition.energy.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twintransition.energy.dto.ComfortSweepRequest;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.TimeSeries;
+import com.twintransition.energy.service.ComfortSweepService;
+import com.twintransition.energy.service.EmbeddedOptimizationEngine;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+/**
+ * A comfort sweep on the full inbound path (deserialize, validate, sweep, serialize) over a year
+ * of hourly history, for grids of 1k and 10k scenarios. Target: p99 under a second at 10k.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComfortSweepBenchmark {
+
+    private static final int HISTORY_POINTS = 8_760;
+
+    @Param({"1000", "10000"})
+    public int scenarios;
+
+    private ObjectMapper objectMapper;
+    private Validator validator;
+    private ComfortSweepService sweepService;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setFallbackToSystemLocale(false);
+        sweepService = new ComfortSweepService(new EmbeddedOptimizationEngine(messageSource), 10_000, 2048);
+        objectMapper = Fixtures.objectMapper();
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+        Random random = new Random(7);
+        double[] history = new double[HISTORY_POINTS];
+        for (int i = 0; i < history.length; i++) {
+            history[i] = 10 + 4 * Math.sin(2 * Math.PI * (i % 24) / 24.0) + random.nextDouble();
+        }
+        List<OptimizationLimitsDto> grid = new ArrayList<>(scenarios);
+        for (int i = 0; i < scenarios; i++) {
+            grid.add(new OptimizationLimitsDto(15.0 + (i % 100) * 0.15, 10.0 + (i / 100 % 100) * 0.15));
+        }
+        payload = objectMapper.writeValueAsBytes(new ComfortSweepRequest(
+                TimeSeries.wrap(history), TimeSeries.of(25.5, 26.0, 24.0), grid));
+    }
+
+    @Benchmark
+    public byte[] sweep() throws Exception {
+        ComfortSweepRequest request = objectMapper.readValue(payload, ComfortSweepRequest.class);
+        if (!validator.validate(request).isEmpty()) {
+            throw new IllegalStateException("Benchmark payload should be valid");
+        }
+        return objectMapper.writeValueAsBytes(sweepService.sweep(request));
+    }
+}
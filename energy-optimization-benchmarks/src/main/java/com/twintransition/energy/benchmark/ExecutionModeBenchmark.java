@@ -0,0 +1,99 @@
+package com.twintransition.energy.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.service.OptimizationMetrics;
+import com.twintransition.energy.service.OptimizationService;
+
+import okhttp3.mockwebserver.MockWebServer;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Time to serve a burst of 128 concurrent recommendations against a stand-in agent answering
+ * in 200 ms ({@code optimization.execution.mode}). In blocking mode the burst goes through a
+ * pool of 8 threads playing the Tomcat workers, so it takes ~128 / 8 x 200 ms; in async mode
+ * every call stays in flight on the event loop and the burst takes about one agent delay.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    private static final int AGENT_DELAY_MS = 200;
+    private static final int WORKER_THREADS = 8;
+    private static final int CONCURRENT_REQUESTS = 128;
+
+    @Param({"blocking", "async"})
+    public String mode;
+
+    private MockWebServer agent;
+    private ExecutorService workers;
+    private OptimizationService optimizationService;
+    private OptimizationRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        agent = Fixtures.agent(AGENT_DELAY_MS);
+        ConnectionProvider provider = ConnectionProvider.builder("execution-mode")
+                .maxConnections(CONCURRENT_REQUESTS)
+                .build();
+        WebClient.Builder webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)));
+        optimizationService = Fixtures.optimizationService(webClient, Fixtures.url(agent), null, OptimizationMetrics.disabled());
+        workers = Executors.newFixedThreadPool(WORKER_THREADS);
+        request = Fixtures.request(24);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        workers.shutdownNow();
+        agent.shutdown();
+    }
+
+    @Benchmark
+    public List<OptimizationRecommendation> burst() throws Exception {
+        if (mode.equals("async")) {
+            return Flux.range(0, CONCURRENT_REQUESTS)
+                    .flatMap(i -> optimizationService.generateRecommendationAsync(request), CONCURRENT_REQUESTS)
+                    .collectList()
+                    .block(Duration.ofSeconds(60));
+        }
+        List<Future<OptimizationRecommendation>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            futures.add(workers.submit(() -> optimizationService.generateRecommendation(request)));
+        }
+        List<OptimizationRecommendation> results = new ArrayList<>(CONCURRENT_REQUESTS);
+        for (Future<OptimizationRecommendation> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,141 @@
+package com.twintransition.energy.benchmark;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.twintransition.energy.dto.ApiResponse;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.TimeSeries;
+import com.twintransition.energy.service.AdmissionLimiter;
+import com.twintransition.energy.service.AgentEndpointPool;
+import com.twintransition.energy.service.AgentRequestEncoder;
+import com.twintransition.energy.service.ColumnarSeriesStore;
+import com.twintransition.energy.service.EmbeddedOptimizationEngine;
+import com.twintransition.energy.service.OptimizationMetrics;
+import com.twintransition.energy.service.OptimizationService;
+import com.twintransition.energy.service.RecommendationCache;
+import com.twintransition.energy.service.RecommendationHistoryService;
+import com.twintransition.energy.service.RequestCoalescer;
+import com.twintransition.energy.service.SeriesResampler;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Deterministic inputs shared by the suites, sized like real requests
+ * (24 = one day of hourly readings, 8760 = one year).
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Mapper configured like the application's (see spring.jackson.* in application.yaml).
+     */
+    static ObjectMapper objectMapper() {
+        return JsonMapper.builder()
+                .enable(StreamReadFeature.USE_FAST_DOUBLE_PARSER)
+                .addModule(new JavaTimeModule())
+                .build();
+    }
+
+    /**
+     * Service calling one agent at {@code agentUrl}, or the embedded engine when one is given, with
+     * the cache, coalescing, admission control, resampling and history turned off.
+     */
+    static OptimizationService optimizationService(String agentUrl, EmbeddedOptimizationEngine embeddedEngine,
+                                                   OptimizationMetrics metrics) {
+        return optimizationService(WebClient.builder(), agentUrl, embeddedEngine, metrics);
+    }
+
+    /**
+     * Same, with the WebClient built from {@code webClient} (e.g. with a larger connection pool).
+     */
+    static OptimizationService optimizationService(WebClient.Builder webClient, String agentUrl,
+                                                   EmbeddedOptimizationEngine embeddedEngine, OptimizationMetrics metrics) {
+        return optimizationService(webClient, agentUrl, embeddedEngine, null, metrics);
+    }
+
+    /**
+     * Same, reading site histories from {@code seriesStore} (e.g. for fleet runs).
+     */
+    static OptimizationService optimizationService(WebClient.Builder webClient, String agentUrl,
+                                                   EmbeddedOptimizationEngine embeddedEngine, ColumnarSeriesStore seriesStore,
+                                                   OptimizationMetrics metrics) {
+        return optimizationService(webClient, agentUrl, embeddedEngine, seriesStore, metrics, AdmissionLimiter.unlimited(),
+                SeriesResampler.disabled());
+    }
+
+    /**
+     * Same, with requests admitted by {@code admissionLimiter} and histories normalized by {@code resampler}.
+     */
+    static OptimizationService optimizationService(WebClient.Builder webClient, String agentUrl,
+                                                   EmbeddedOptimizationEngine embeddedEngine, ColumnarSeriesStore seriesStore,
+                                                   OptimizationMetrics metrics, AdmissionLimiter admissionLimiter,
+                                                   SeriesResampler resampler) {
+        return new OptimizationService(AgentEndpointPool.single(agentUrl, webClient.baseUrl(agentUrl).build()),
+                "/api/v1/optimize", RecommendationCache.disabled(), RequestCoalescer.disabled(), embeddedEngine,
+                embeddedEngine != null ? "embedded" : "remote", seriesStore, metrics, AgentRequestEncoder.json(),
+                admissionLimiter, resampler, RecommendationHistoryService.disabled());
+    }
+
+    /**
+     * In-process stand-in for the Python agent answering every call with {@link #recommendation()}
+     * after {@code delayMs}, like a model call of fixed latency.
+     */
+    static MockWebServer agent(long delayMs) throws IOException {
+        String body = objectMapper().writeValueAsString(recommendation());
+        MockWebServer agent = new MockWebServer();
+        agent.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest recordedRequest) {
+                return new MockResponse().setHeader("Content-Type", "application/json")
+                        .setHeadersDelay(delayMs, TimeUnit.MILLISECONDS)
+                        .setBody(body);
+            }
+        });
+        agent.start(InetAddress.getLoopbackAddress(), 0);
+        return agent;
+    }
+
+    static String url(MockWebServer agent) {
+        return "http://127.0.0.1:" + agent.getPort();
+    }
+
+    static OptimizationRequest request(int seriesSize) {
+        double[] consumption = new double[seriesSize];
+        for (int i = 0; i < seriesSize; i++) {
+            // Daily profile with a little noise, like simulated_energy_data.csv
+            consumption[i] = 10 + 4 * Math.sin(2 * Math.PI * (i % 24) / 24.0) + (i * 7919 % 1000) / 1000.0;
+        }
+        double[] forecast = new double[24];
+        for (int i = 0; i < forecast.length; i++) {
+            forecast[i] = 14 + 6 * Math.sin(2 * Math.PI * i / 24.0);
+        }
+        return new OptimizationRequest(TimeSeries.wrap(consumption), TimeSeries.wrap(forecast),
+                new OptimizationLimitsDto(24.0, 20.0), "en");
+    }
+
+    static OptimizationRecommendation recommendation() {
+        return new OptimizationRecommendation(
+                "Reduce HVAC usage in high-demand zones by 15% between peak hours. Suggested target temperature: 20.0C",
+                "Strategic Decision: We recommend immediate activation of the optimization script.",
+                5.0, 4.66, "12345");
+    }
+
+    static ApiResponse<OptimizationRecommendation> apiResponse() {
+        return new ApiResponse<>("Optimization recommendation generated successfully.", recommendation());
+    }
+}
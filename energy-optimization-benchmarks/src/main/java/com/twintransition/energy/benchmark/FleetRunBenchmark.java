@@ -0,0 +1,132 @@
+package com.twintransition.energy.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.twintransition.energy.dto.FleetRunReport;
+import com.twintransition.energy.dto.FleetSiteRegistration;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.service.ColumnarSeriesStore;
+import com.twintransition.energy.service.EmbeddedOptimizationEngine;
+import com.twintransition.energy.service.FleetReoptimizationService;
+import com.twintransition.energy.service.FleetSiteRegistry;
+import com.twintransition.energy.service.OptimizationMetrics;
+import com.twintransition.energy.service.OptimizationService;
+
+/**
+ * One fleet run over 5,000 sites with a week of hourly history each. The embedded engine replaces
+ * the agent so that the scheduler itself (history reads, fingerprints, partitioning) is what gets
+ * measured. In {@code changed} every site's limits change before the run, so all are re-optimized;
+ * in {@code unchanged} the run only finds the fingerprints of the previous one and skips them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FleetRunBenchmark {
+
+    private static final int SITES = 5_000;
+    private static final int HOURS = 168;
+
+    @Param({"changed", "unchanged"})
+    public String sites;
+
+    private Path directory;
+    private EmbeddedDatabase database;
+    private ColumnarSeriesStore store;
+    private FleetReoptimizationService fleetService;
+    private int iteration;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("fleet-benchmark");
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2).generateUniqueName(true).addScript("schema.sql").build();
+        store = new ColumnarSeriesStore(directory, "UTC");
+
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setFallbackToSystemLocale(false);
+        OptimizationService optimizationService = Fixtures.optimizationService(WebClient.builder(), "http://localhost:8000",
+                new EmbeddedOptimizationEngine(messageSource), store, OptimizationMetrics.disabled());
+        fleetService = new FleetReoptimizationService(new FleetSiteRegistry(new JdbcTemplate(database)), optimizationService,
+                OptimizationMetrics.disabled(), 64, Runtime.getRuntime().availableProcessors(), 0, Duration.ofDays(7),
+                Duration.ofSeconds(60), 3);
+
+        // The run reads the week before the wall clock, so the history ends now
+        long start = Instant.now().truncatedTo(ChronoUnit.MINUTES).minus(HOURS - 1, ChronoUnit.HOURS).toEpochMilli();
+        long[] timestamps = new long[HOURS];
+        double[] consumption = new double[HOURS];
+        double[] temperature = new double[HOURS];
+        for (int s = 0; s < SITES; s++) {
+            for (int h = 0; h < HOURS; h++) {
+                timestamps[h] = start + h * 3_600_000L;
+                consumption[h] = 80 + (s + h) % 40;
+                temperature[h] = 18 + (s + h) % 9;
+            }
+            store.append("site-" + s, timestamps, consumption, temperature);
+        }
+        register(24.0);
+        fleetService.runNow().orElseThrow();
+    }
+
+    @Setup(Level.Iteration)
+    public void changeSites() {
+        if (sites.equals("changed")) {
+            register(++iteration % 2 == 0 ? 24.0 : 24.5);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        database.shutdown();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public FleetRunReport run() {
+        return fleetService.runNow().orElseThrow();
+    }
+
+    private void register(double maxTemperature) {
+        FleetSiteRegistration registration = new FleetSiteRegistration(new OptimizationLimitsDto(maxTemperature, 20.0), "en");
+        for (int s = 0; s < SITES; s++) {
+            fleetService.register("site-" + s, registration);
+        }
+    }
+}
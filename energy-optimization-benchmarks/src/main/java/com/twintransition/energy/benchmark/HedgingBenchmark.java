@@ -0,0 +1,95 @@
+package com.twintransition.energy.benchmark;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.twintransition.energy.service.AgentEndpointPool;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Tail latency of agent calls through the endpoint pool against three stand-in agents that each
+ * stall 2% of requests by 600 ms, like a Python worker busy on a heavy pandas job, with
+ * {@code optimization.agent.hedging} off and on. Compare the p99 of the two runs; warm-up fills
+ * the latency window the hedge delay is derived from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class HedgingBenchmark {
+
+    private static final int AGENTS = 3;
+    private static final double STALL_PROBABILITY = 0.02;
+    private static final int STALL_MS = 600;
+
+    @Param({"false", "true"})
+    public boolean hedging;
+
+    private final List<MockWebServer> agents = new ArrayList<>();
+    private AgentEndpointPool pool;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] urls = new String[AGENTS];
+        for (int i = 0; i < AGENTS; i++) {
+            Random random = new Random(42 + i);
+            MockWebServer agent = new MockWebServer();
+            agent.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest recordedRequest) {
+                    boolean stall;
+                    synchronized (random) {
+                        stall = random.nextDouble() < STALL_PROBABILITY;
+                    }
+                    MockResponse response = new MockResponse().setBody("ok");
+                    return stall ? response.setHeadersDelay(STALL_MS, TimeUnit.MILLISECONDS) : response;
+                }
+            });
+            agent.start(InetAddress.getLoopbackAddress(), 0);
+            agents.add(agent);
+            urls[i] = Fixtures.url(agent);
+        }
+        pool = new AgentEndpointPool(WebClient.builder(), urls, hedging, 0.95,
+                Duration.ofSeconds(1), Duration.ofMillis(20), 5, Duration.ofSeconds(10));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (MockWebServer agent : agents) {
+            agent.shutdown();
+        }
+    }
+
+    @Benchmark
+    public String call() {
+        return pool.execute(client -> client.get().uri("/optimize").retrieve().bodyToMono(String.class))
+                .block(Duration.ofSeconds(10));
+    }
+}
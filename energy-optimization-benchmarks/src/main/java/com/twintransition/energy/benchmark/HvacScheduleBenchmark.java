@@ -0,0 +1,75 @@
+package com.twintransition.energy.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.twintransition.energy.service.HvacScheduleOptimizer;
+import com.twintransition.energy.service.HvacScheduleOptimizer.HvacSchedule;
+import com.twintransition.energy.service.HvacScheduleOptimizer.ZoneSpec;
+
+/**
+ * 24-hour setpoint schedule ({@code optimization.engine.strategy=schedule}) for 1 / 100 / 1,000
+ * zones with heterogeneous comfort bands, forked across the common pool or on the calling thread.
+ * Run with {@code -prof gc} to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HvacScheduleBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int zoneCount;
+
+    @Param({"forked", "sequential"})
+    public String execution;
+
+    private HvacScheduleOptimizer optimizer;
+    private ZoneSpec[] zones;
+    private double[] demand;
+    private double[] outdoor;
+
+    @Setup
+    public void setUp() {
+        double[] tariff = new double[24];
+        Arrays.fill(tariff, 0.25);
+        Arrays.fill(tariff, 0, 7, 0.18);
+        Arrays.fill(tariff, 17, 21, 0.38);
+        optimizer = new HvacScheduleOptimizer(0.5, 1.0, 0.01, tariff, 0.1,
+                execution.equals("forked") ? 16 : Integer.MAX_VALUE);
+
+        Random random = new Random(11);
+        zones = new ZoneSpec[zoneCount];
+        for (int i = 0; i < zones.length; i++) {
+            double min = 10.0 + random.nextInt(20) * 0.5;
+            zones[i] = new ZoneSpec("zone-" + i, 1.0 / zoneCount, 0.02 + random.nextDouble() * 0.08, min,
+                    Math.min(30.0, min + 4.0 + random.nextInt(33) * 0.5));
+        }
+        demand = new double[24];
+        outdoor = new double[24];
+        for (int hour = 0; hour < 24; hour++) {
+            demand[hour] = 400 + 150 * Math.sin(2 * Math.PI * (hour - 6) / 24.0);
+            outdoor[hour] = 18 + 10 * Math.sin(2 * Math.PI * (hour - 9) / 24.0);
+        }
+    }
+
+    @Benchmark
+    public HvacSchedule optimize() {
+        return optimizer.optimize(demand, outdoor, zones);
+    }
+}
@@ -0,0 +1,83 @@
+package com.twintransition.energy.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.twintransition.energy.dto.ApiResponse;
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+
+/**
+ * (De)serialization of the request body the controller receives and forwards to the agent,
+ * and of the response envelope sent back to the frontend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonBenchmark {
+
+    @Param({"24", "720", "8760"})
+    public int seriesSize;
+
+    private ObjectWriter requestWriter;
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private ObjectReader responseReader;
+    private OptimizationRequest request;
+    private byte[] requestJson;
+    private ApiResponse<OptimizationRecommendation> response;
+    private byte[] responseJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = Fixtures.objectMapper();
+        requestWriter = objectMapper.writerFor(OptimizationRequest.class);
+        requestReader = objectMapper.readerFor(OptimizationRequest.class);
+        TypeReference<ApiResponse<OptimizationRecommendation>> responseType = new TypeReference<>() {};
+        responseWriter = objectMapper.writerFor(responseType);
+        responseReader = objectMapper.readerFor(responseType);
+
+        request = Fixtures.request(seriesSize);
+        requestJson = requestWriter.writeValueAsBytes(request);
+        response = Fixtures.apiResponse();
+        responseJson = responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeRequest() throws Exception {
+        return requestWriter.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public OptimizationRequest deserializeRequest() throws Exception {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws Exception {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public ApiResponse<OptimizationRecommendation> deserializeResponse() throws Exception {
+        return responseReader.readValue(responseJson);
+    }
+}
@@ -0,0 +1,75 @@
+package com.twintransition.energy.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.service.EmbeddedOptimizationEngine;
+import com.twintransition.energy.service.OptimizationMetrics;
+import com.twintransition.energy.service.OptimizationService;
+
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+/**
+ * Cost of the hot-path instrumentation (optimization.metrics.enabled) on a recommendation
+ * computed by the embedded engine, so no network time hides the overhead.
+ * Compare the scores of metricsEnabled=true and metricsEnabled=false.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class MetricsOverheadBenchmark {
+
+    @Param({"true", "false"})
+    public boolean metricsEnabled;
+
+    @Param({"24", "8760"})
+    public int seriesSize;
+
+    private OptimizationMetrics metrics;
+    private OptimizationService optimizationService;
+    private OptimizationRequest request;
+
+    @Setup
+    public void setUp() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setFallbackToSystemLocale(false);
+
+        metrics = new OptimizationMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), metricsEnabled);
+        optimizationService = Fixtures.optimizationService("http://localhost:8000",
+                new EmbeddedOptimizationEngine(messageSource), metrics);
+        request = Fixtures.request(seriesSize);
+    }
+
+    /**
+     * Service path plus the stage timers the controller adds around it.
+     */
+    @Benchmark
+    public OptimizationRecommendation recommend() {
+        OptimizationRecommendation recommendation = metrics.timeStage("service",
+                () -> optimizationService.generateRecommendation(request));
+        metrics.recordStage("validation", 1_000);
+        return recommendation;
+    }
+}
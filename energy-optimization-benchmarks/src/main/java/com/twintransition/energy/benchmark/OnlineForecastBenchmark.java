@@ -0,0 +1,77 @@
+package com.twintransition.energy.benchmark;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.twintransition.energy.service.HourOfDayStatistics;
+import com.twintransition.energy.service.OnlineForecastService;
+
+/**
+ * Cost of one reading absorbed by the online forecaster after 1 day to 5 years of hourly
+ * history, next to refitting the hour-of-day profile from the full history (what the Python
+ * agent does on every request). The update should stay flat while the refit grows with history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OnlineForecastBenchmark {
+
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+
+    @Param({"1", "30", "365", "1825"})
+    public int historyDays;
+
+    private EmbeddedDatabase database;
+    private OnlineForecastService forecastService;
+    private double[] history;
+    private long hour;
+
+    @Setup
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2).generateUniqueName(true).addScript("schema.sql").build();
+        forecastService = new OnlineForecastService(new JdbcTemplate(database), "UTC", Duration.ofDays(90));
+        history = new double[historyDays * 24];
+        for (hour = 0; hour < history.length; hour++) {
+            history[(int) hour] = 10 + (hour % 24);
+            forecastService.addReading("site", START.plusSeconds(3600L * hour), history[(int) hour]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Benchmark
+    public void update() {
+        forecastService.addReading("site", START.plusSeconds(3600L * hour), 10 + (hour % 24));
+        hour++;
+    }
+
+    @Benchmark
+    public double[] fullRefit() {
+        return HourOfDayStatistics.ofHourlySeries(history).forecast();
+    }
+}
@@ -0,0 +1,166 @@
+package com.twintransition.energy.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.RecommendationHistoryPage;
+import com.twintransition.energy.dto.RecommendationWindowTotal;
+import com.twintransition.energy.service.RecommendationHistoryService;
+import com.twintransition.energy.service.RequestFingerprint;
+import com.twintransition.energy.service.WriteBehindQueue;
+
+/**
+ * Recommendation history queries on a file-backed H2 database holding one year of rows for 1,000
+ * sites: the first page, a deep page by keyset cursor next to the same page by OFFSET, and daily
+ * totals over the year, for random sites. {@code record} times the write-behind enqueue that the
+ * recommendation path pays (a full buffer drops the row rather than wait on the database).
+ * The rows are loaded again for each benchmark method; with {@code -p rows=10000000} (the
+ * tens-of-millions scale) that takes minutes each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecommendationHistoryBenchmark {
+
+    private static final int SITES = 1_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int DEEP_SITES = 50;
+    private static final Instant YEAR_START = Instant.parse("2025-01-01T00:00:00Z");
+    private static final Instant YEAR_END = YEAR_START.plus(Duration.ofDays(365));
+    private static final String INSERT_SQL = "INSERT INTO recommendation_history "
+            + "(site_id, recorded_at, inputs_hash, recommendation_id, savings_eur, co2_reduction_kg, actionable_script) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String OFFSET_SQL = "SELECT id FROM recommendation_history WHERE site_id = ? "
+            + "AND recorded_at >= ? AND recorded_at < ? ORDER BY site_id, recorded_at DESC, id DESC LIMIT 100 OFFSET ?";
+
+    @Param({"1000000"})
+    public long rows;
+
+    private Path directory;
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private RecommendationHistoryService history;
+    private RequestFingerprint fingerprint;
+    private OptimizationRecommendation recommendation;
+    private int deepOffset;
+    private final List<String> deepSites = new ArrayList<>();
+    private final List<String> deepCursors = new ArrayList<>();
+    private final Random random = new Random(5);
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history-benchmark");
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:file:" + directory.resolve("history") + ";CACHE_SIZE=262144", "sa", "", true);
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        history = new RecommendationHistoryService(jdbcTemplate, true, 100_000, 5_000, 200, 1_000);
+        fingerprint = new RequestFingerprint("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+        recommendation = new OptimizationRecommendation(
+                "Reduce HVAC usage in high-demand zones by 15% between peak hours. Suggested target temperature: 20.0C",
+                "ok", 5.0, 4.66, "REC-LOAD");
+
+        // Rows spread evenly over the year, site after site in each time slot (as a fleet run writes them)
+        long perSite = rows / SITES;
+        long slotMillis = Duration.ofDays(365).toMillis() / perSite;
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (long i = 0; i < perSite * SITES; i++) {
+            batch.add(new Object[] { "site-" + (i % SITES), YEAR_START.toEpochMilli() + (i / SITES) * slotMillis,
+                    fingerprint.digest(), recommendation.recommendationId(), recommendation.estimatedCostSavingsEur(),
+                    recommendation.estimatedCarbonFootprintReductionKgCO2(), recommendation.actionableScript() });
+            if (batch.size() == 10_000) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        }
+
+        // Cursors to the deepest page reached by walking a sample of sites, up to page 51
+        int deepPages = (int) Math.min(50, perSite / PAGE_SIZE - 1);
+        deepOffset = deepPages * PAGE_SIZE;
+        for (int s = 0; s < DEEP_SITES; s++) {
+            String site = "site-" + random.nextInt(SITES);
+            RecommendationHistoryPage page = history.page(site, YEAR_START, YEAR_END, PAGE_SIZE, null);
+            for (int p = 1; p < deepPages; p++) {
+                page = history.page(site, YEAR_START, YEAR_END, PAGE_SIZE, page.nextCursor());
+            }
+            deepSites.add(site);
+            deepCursors.add(page.nextCursor());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        // Let the flusher hand over what record() enqueued before the connection goes away
+        WriteBehindQueue.Stats stats = history.stats();
+        while (stats.written() + stats.failed() < stats.accepted()) {
+            Thread.sleep(50);
+            stats = history.stats();
+        }
+        dataSource.destroy();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public RecommendationHistoryPage firstPage() {
+        return history.page("site-" + random.nextInt(SITES), YEAR_START, YEAR_END, PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public RecommendationHistoryPage keysetDeepPage() {
+        int s = random.nextInt(DEEP_SITES);
+        return history.page(deepSites.get(s), YEAR_START, YEAR_END, PAGE_SIZE, deepCursors.get(s));
+    }
+
+    @Benchmark
+    public List<Long> offsetDeepPage() {
+        return jdbcTemplate.queryForList(OFFSET_SQL, Long.class, deepSites.get(random.nextInt(DEEP_SITES)),
+                YEAR_START.toEpochMilli(), YEAR_END.toEpochMilli(), deepOffset);
+    }
+
+    @Benchmark
+    public List<RecommendationWindowTotal> dailyTotals() {
+        return history.totals("site-" + random.nextInt(SITES), YEAR_START, YEAR_END, Duration.ofDays(1));
+    }
+
+    @Benchmark
+    public boolean record() {
+        return history.record("recorder", fingerprint, recommendation);
+    }
+}
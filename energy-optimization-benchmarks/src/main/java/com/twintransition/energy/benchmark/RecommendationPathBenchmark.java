@@ -0,0 +1,77 @@
+package com.twintransition.energy.benchmark;
+
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.service.OptimizationMetrics;
+import com.twintransition.energy.service.OptimizationService;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Full OptimizationService.generateRecommendation path (serialization, WebClient round trip,
+ * deserialization) against an in-process MockWebServer standing in for the Python agent.
+ * The stand-in answers immediately, so the score is the gateway's own overhead.
+ * Cache and coalescing are off: every invocation is a real HTTP call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(4)
+public class RecommendationPathBenchmark {
+
+    @Param({"24", "720", "8760"})
+    public int seriesSize;
+
+    private MockWebServer agent;
+    private OptimizationService optimizationService;
+    private OptimizationRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        String body = Fixtures.objectMapper().writeValueAsString(Fixtures.recommendation());
+        agent = new MockWebServer();
+        agent.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest recordedRequest) {
+                return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+            }
+        });
+        agent.start(InetAddress.getLoopbackAddress(), 0);
+
+        optimizationService = Fixtures.optimizationService("http://127.0.0.1:" + agent.getPort(), null, OptimizationMetrics.disabled());
+        request = Fixtures.request(seriesSize);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        agent.shutdown();
+    }
+
+    @Benchmark
+    public OptimizationRecommendation generateRecommendation() {
+        return optimizationService.generateRecommendation(request);
+    }
+}
@@ -0,0 +1,84 @@
+package com.twintransition.energy.benchmark;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.RecommendationStage;
+import com.twintransition.energy.service.EmbeddedOptimizationEngine;
+import com.twintransition.energy.service.OptimizationMetrics;
+import com.twintransition.energy.service.OptimizationService;
+import com.twintransition.energy.service.RecommendationStreamService;
+import com.twintransition.energy.service.SeriesResampler;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * What /recommend and /recommend/stream wait for against a stand-in agent that takes a second
+ * to answer, measured at the services behind them: the blocking recommendation, the first
+ * streamed event (the forecast, which should not wait for the agent) and the whole stream
+ * (which should end about when the blocking call does).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RecommendationStreamBenchmark {
+
+    private static final int AGENT_DELAY_MS = 1_000;
+
+    private MockWebServer agent;
+    private OptimizationService optimizationService;
+    private RecommendationStreamService streamService;
+    private OptimizationRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        agent = Fixtures.agent(AGENT_DELAY_MS);
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setFallbackToSystemLocale(false);
+        optimizationService = Fixtures.optimizationService(Fixtures.url(agent), null, OptimizationMetrics.disabled());
+        streamService = new RecommendationStreamService(new EmbeddedOptimizationEngine(messageSource), optimizationService,
+                SeriesResampler.disabled(), messageSource, OptimizationMetrics.disabled());
+        request = Fixtures.request(24);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        agent.shutdown();
+    }
+
+    @Benchmark
+    public OptimizationRecommendation blocking() {
+        return optimizationService.generateRecommendation(request);
+    }
+
+    @Benchmark
+    public RecommendationStage streamFirstEvent() {
+        return streamService.stream(null, request, Locale.ENGLISH).blockFirst(Duration.ofSeconds(10));
+    }
+
+    @Benchmark
+    public RecommendationStage streamComplete() {
+        return streamService.stream(null, request, Locale.ENGLISH).blockLast(Duration.ofSeconds(10));
+    }
+}
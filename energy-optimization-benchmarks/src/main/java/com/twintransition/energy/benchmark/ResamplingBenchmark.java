@@ -0,0 +1,108 @@
+package com.twintransition.energy.benchmark;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRecommendation;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.TimeSeries;
+import com.twintransition.energy.service.AdmissionLimiter;
+import com.twintransition.energy.service.OptimizationMetrics;
+import com.twintransition.energy.service.OptimizationService;
+import com.twintransition.energy.service.SeriesResampler;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * A week of minute readings (10,080 points) sent inline with historyIntervalMinutes=1, from the
+ * raw JSON payload through the service to a stand-in agent, with {@code optimization.resampling}
+ * off and hourly; {@code normalize} times the resampling pass alone. The agent body size of each
+ * setting is printed once per trial as a {@code [resampling]} line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResamplingBenchmark {
+
+    private static final int MINUTES = 7 * 24 * 60;
+
+    @Param({"off", "hourly"})
+    public String resampling;
+
+    private MockWebServer agent;
+    private ObjectMapper objectMapper;
+    private SeriesResampler resampler;
+    private OptimizationService optimizationService;
+    private byte[] payload;
+    private OptimizationRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        agent = Fixtures.agent(0);
+        objectMapper = Fixtures.objectMapper();
+        resampler = resampling.equals("hourly")
+                ? new SeriesResampler(true, Duration.ofHours(1), "sum", "mean", "linear", 100_000)
+                : SeriesResampler.disabled();
+        optimizationService = Fixtures.optimizationService(WebClient.builder(), Fixtures.url(agent), null, null,
+                OptimizationMetrics.disabled(), AdmissionLimiter.unlimited(), resampler);
+
+        Random random = new Random(3);
+        double[] minutes = new double[MINUTES];
+        for (int i = 0; i < minutes.length; i++) {
+            minutes[i] = 0.2 + 0.1 * Math.sin(2 * Math.PI * i / 1440.0) + random.nextDouble() * 0.05;
+        }
+        request = new OptimizationRequest(TimeSeries.wrap(minutes), TimeSeries.of(25.5, 26.0, 24.0),
+                new OptimizationLimitsDto(24.0, 20.0), "en", 1);
+        payload = objectMapper.writeValueAsBytes(request);
+
+        optimizationService.generateRecommendation(request);
+        System.out.printf("%n[resampling] %s, %d-point minute history (%d bytes in): agent body %d bytes%n",
+                resampling, MINUTES, payload.length, agent.takeRequest().getBodySize());
+    }
+
+    /**
+     * MockWebServer keeps every request it receives; drop them so the bodies do not pile up.
+     */
+    @TearDown(Level.Iteration)
+    public void drainAgent() throws InterruptedException {
+        while (agent.takeRequest(0, TimeUnit.MILLISECONDS) != null) {
+            // discard
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        agent.shutdown();
+    }
+
+    @Benchmark
+    public OptimizationRecommendation endToEnd() throws Exception {
+        return optimizationService.generateRecommendation(objectMapper.readValue(payload, OptimizationRequest.class));
+    }
+
+    @Benchmark
+    public OptimizationRequest normalize() {
+        return resampler.normalize(request);
+    }
+}
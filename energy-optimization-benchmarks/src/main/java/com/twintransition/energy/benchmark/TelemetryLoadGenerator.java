@@ -0,0 +1,202 @@
+package com.twintransition.energy.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Bundled load generator for the telemetry pipeline of a running agent: several clients stream
+ * NDJSON bodies to /api/v1/telemetry/readings and the clock stops once /api/v1/optimization/stats
+ * reports every reading as written to the series store, i.e. the sink the service ships with.
+ * Each client feeds its own sites with readings newer than the ones it already sent, so none is late;
+ * a 503 from a full buffer is retried after Retry-After from the first reading not yet accepted.
+ * Target: sustained ingestion of at least 100k readings/s on a laptop-class machine.
+ *
+ * <pre>
+ * java -jar ../energy-optimization-agent/target/energy-optimization-agent-0.0.1-SNAPSHOT-exec.jar &amp;
+ * java -cp target/benchmarks.jar com.twintransition.energy.benchmark.TelemetryLoadGenerator \
+ *     [--url http://localhost:8080] [--clients 4] [--requests 10] [--readings 25000] [--sites 500]
+ * </pre>
+ * The figures are printed and written as JSON to target/telemetry-load-result.json (or --result).
+ */
+public final class TelemetryLoadGenerator {
+
+    private static final Instant BASE = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI readingsUri;
+    private final URI statsUri;
+    private final int clients;
+    private final int requestsPerClient;
+    private final int readingsPerRequest;
+    private final int sites;
+    private final AtomicLong backpressureRetries = new AtomicLong();
+
+    private TelemetryLoadGenerator(String url, int clients, int requestsPerClient, int readingsPerRequest, int sites) {
+        this.readingsUri = URI.create(url + "/api/v1/telemetry/readings");
+        this.statsUri = URI.create(url + "/api/v1/optimization/stats");
+        this.clients = clients;
+        this.requestsPerClient = requestsPerClient;
+        this.readingsPerRequest = readingsPerRequest;
+        this.sites = sites;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        TelemetryLoadGenerator generator = new TelemetryLoadGenerator(
+                options.getOrDefault("url", "http://localhost:8080"),
+                Integer.parseInt(options.getOrDefault("clients", "4")),
+                Integer.parseInt(options.getOrDefault("requests", "10")),
+                Integer.parseInt(options.getOrDefault("readings", "25000")),
+                Integer.parseInt(options.getOrDefault("sites", "500")));
+        Map<String, Object> result = generator.run();
+
+        Path resultFile = Path.of(options.getOrDefault("result", "target/telemetry-load-result.json"));
+        if (resultFile.getParent() != null) {
+            Files.createDirectories(resultFile.getParent());
+        }
+        generator.objectMapper.writerWithDefaultPrettyPrinter().writeValue(resultFile.toFile(), result);
+        System.out.printf("%,d readings from %d clients%n", result.get("readings"), generator.clients);
+        System.out.printf("accepted:  %,.0f readings/s%n", result.get("acceptedPerSecond"));
+        System.out.printf("persisted: %,.0f readings/s%n", result.get("persistedPerSecond"));
+        System.out.println("Result written to " + resultFile);
+    }
+
+    private Map<String, Object> run() throws Exception {
+        // Sites are prefixed per run so that repeated runs against the same agent are never late.
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<List<byte[]>> bodies = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            List<byte[]> requests = new ArrayList<>();
+            for (int r = 0; r < requestsPerClient; r++) {
+                requests.add(ndjson("load-" + run + "-" + c + "-", r));
+            }
+            bodies.add(requests);
+        }
+        long total = (long) clients * requestsPerClient * readingsPerRequest;
+
+        long written = written();
+        send(ndjson("load-" + run + "-warm-up-", 0)); // excluded from the measurement
+        waitForWritten(written + readingsPerRequest);
+        written = written();
+        long lateBefore = lateReadings();
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<byte[]> requests : bodies) {
+            futures.add(pool.submit(() -> {
+                for (byte[] body : requests) {
+                    send(body);
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long acceptedNanos = System.nanoTime() - start;
+        waitForWritten(written + total);
+        long persistedNanos = System.nanoTime() - start;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("readings", total);
+        result.put("clients", clients);
+        result.put("requestsPerClient", requestsPerClient);
+        result.put("readingsPerRequest", readingsPerRequest);
+        result.put("sitesPerClient", sites);
+        result.put("acceptedSeconds", acceptedNanos / 1e9);
+        result.put("persistedSeconds", persistedNanos / 1e9);
+        result.put("acceptedPerSecond", total / (acceptedNanos / 1e9));
+        result.put("persistedPerSecond", total / (persistedNanos / 1e9));
+        result.put("lateReadings", lateReadings() - lateBefore);
+        result.put("backpressureRetries", backpressureRetries.get());
+        return result;
+    }
+
+    /**
+     * Posts a body, resuming after the readings already accepted whenever the agent answers
+     * 503 (buffer full), as a well-behaved client would after Retry-After.
+     */
+    private void send(byte[] body) throws IOException, InterruptedException {
+        int offset = 0;
+        while (true) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(readingsUri)
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body, offset, body.length - offset))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 202) {
+                return;
+            }
+            if (response.statusCode() != 503) {
+                throw new IllegalStateException("Ingestion answered " + response.statusCode() + ": " + response.body());
+            }
+            backpressureRetries.incrementAndGet();
+            long accepted = objectMapper.readTree(response.body()).path("accepted").asLong();
+            for (long line = 0; line < accepted; line++) {
+                while (body[offset++] != '\n') {
+                    // skip to the start of the next reading
+                }
+            }
+            Thread.sleep(1000L * Long.parseLong(response.headers().firstValue("Retry-After").orElse("1")));
+        }
+    }
+
+    private void waitForWritten(long expected) throws IOException, InterruptedException {
+        while (written() < expected) {
+            Thread.sleep(20);
+        }
+    }
+
+    private long written() throws IOException, InterruptedException {
+        return stats().path("telemetry").path("written").asLong();
+    }
+
+    private long lateReadings() throws IOException, InterruptedException {
+        return stats().path("telemetryLateReadings").asLong();
+    }
+
+    private JsonNode stats() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(statsUri).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        return objectMapper.readTree(response.body()).path("data");
+    }
+
+    private byte[] ndjson(String sitePrefix, int request) {
+        Instant base = BASE.plusSeconds(60L * readingsPerRequest * request);
+        StringBuilder body = new StringBuilder(readingsPerRequest * 110);
+        for (int i = 0; i < readingsPerRequest; i++) {
+            body.append("{\"siteId\":\"").append(sitePrefix).append(i % sites)
+                    .append("\",\"timestamp\":\"").append(base.plusSeconds(60L * i))
+                    .append("\",\"consumptionKwh\":").append(10 + (i % 97) / 10.0)
+                    .append(",\"temperatureC\":").append(15 + (i % 13)).append("}\n");
+        }
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
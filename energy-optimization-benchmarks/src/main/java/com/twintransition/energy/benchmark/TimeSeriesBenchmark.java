@@ -0,0 +1,88 @@
+package com.twintransition.energy.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twintransition.energy.dto.OptimizationLimitsDto;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.dto.TimeSeries;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Full inbound path of a year of 15-minute readings (deserialize, validate, serialize for the
+ * agent) with the TimeSeries request vs the boxed List&lt;Double&gt; record it replaced.
+ * Sampled for p50 / p99; run with {@code -prof gc} for the bytes allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeSeriesBenchmark {
+
+    private static final int POINTS = 35_040;
+
+    /** Previous shape of OptimizationRequest, kept here as the baseline. */
+    public record BoxedRequest(
+            @NotNull @Size(min = 1) List<Double> historicalConsumptionKwH,
+            @NotNull @Size(min = 1) List<Double> weatherForecastDegreesC,
+            @NotNull OptimizationLimitsDto limits,
+            @NotNull String selectedLanguage
+    ) {}
+
+    private ObjectMapper objectMapper;
+    private Validator validator;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Fixtures.objectMapper();
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        Random random = new Random(42);
+        double[] history = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            history[i] = 10 + random.nextDouble() * 8;
+        }
+        double[] forecast = new double[24];
+        Arrays.fill(forecast, 25.5);
+        payload = objectMapper.writeValueAsBytes(new OptimizationRequest(
+                TimeSeries.wrap(history), TimeSeries.wrap(forecast), new OptimizationLimitsDto(24.0, 20.0), "en"));
+    }
+
+    @Benchmark
+    public byte[] timeSeries() throws Exception {
+        return roundTrip(OptimizationRequest.class);
+    }
+
+    @Benchmark
+    public byte[] boxedList() throws Exception {
+        return roundTrip(BoxedRequest.class);
+    }
+
+    private byte[] roundTrip(Class<?> type) throws Exception {
+        Object request = objectMapper.readValue(payload, type);
+        if (!validator.validate(request).isEmpty()) {
+            throw new IllegalStateException("Benchmark payload should be valid");
+        }
+        return objectMapper.writeValueAsBytes(request);
+    }
+}
@@ -0,0 +1,73 @@
+package com.twintransition.energy.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.twintransition.energy.dto.OptimizationRequest;
+import com.twintransition.energy.service.AgentRequestEncoder;
+
+/**
+ * Encoding and decoding of the agent request body in each wire format
+ * ({@code optimization.agent.wire}). The body size of each combination is printed
+ * once per trial as a {@code [wire]} line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int seriesSize;
+
+    @Param({"json", "json-gzip", "cbor", "cbor-gzip"})
+    public String wire;
+
+    private AgentRequestEncoder encoder;
+    private ObjectMapper reader;
+    private boolean gzip;
+    private OptimizationRequest request;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        String[] parts = wire.split("-");
+        gzip = parts.length > 1;
+        ObjectMapper jsonMapper = Fixtures.objectMapper();
+        CBORMapper cborMapper = new CBORMapper();
+        encoder = new AgentRequestEncoder(jsonMapper, cborMapper, parts[0], gzip ? "gzip" : "none", 0);
+        reader = parts[0].equals("cbor") ? cborMapper : jsonMapper;
+
+        request = Fixtures.request(seriesSize);
+        body = encoder.encode(request).body();
+        System.out.printf("%n[wire] %s, %d points: %d bytes%n", wire, seriesSize, body.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return encoder.encode(request).body();
+    }
+
+    @Benchmark
+    public OptimizationRequest decode() throws Exception {
+        byte[] decoded = gzip ? new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes() : body;
+        return reader.readValue(decoded, OptimizationRequest.class);
+    }
+}
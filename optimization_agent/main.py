@@ -1,4 +1,10 @@
-from fastapi import FastAPI, HTTPException
+import gzip
+import sys
+import zlib
+from array import array
+
+from fastapi import Depends, FastAPI, HTTPException, Request
+from pydantic import ValidationError
 from models import OptimizationRequest, OptimizationRecommendation 
 from optimization_agent import run_optimization_agent 
 
@@ -8,9 +14,64 @@ app = FastAPI(
     description="Core Microservice for ML forecasting and Gemini-powered prescriptive reasoning."
 )
 
+SERIES_FIELDS = ("historicalConsumptionKwH", "weatherForecastDegreesC")
+
+
+def _unpack_series(value):
+    """Séries em CBOR chegam como bytes: doubles little-endian, 8 bytes por ponto."""
+    if not isinstance(value, (bytes, bytearray)):
+        return value
+    if len(value) % 8 != 0:
+        raise HTTPException(status_code=422, detail="Packed series length must be a multiple of 8 bytes.")
+    series = array("d", value)
+    if sys.byteorder == "big":
+        series.byteswap()
+    return series.tolist()
+
+
+async def decode_optimization_request(request: Request) -> OptimizationRequest:
+    """
+    Lê o corpo enviado pelo Gateway Java: JSON ou CBOR (application/cbor),
+    opcionalmente com Content-Encoding gzip/deflate.
+    """
+    body = await request.body()
+    encoding = request.headers.get("content-encoding", "identity").strip().lower()
+    try:
+        if encoding in ("gzip", "x-gzip"):
+            body = gzip.decompress(body)
+        elif encoding == "deflate":
+            body = zlib.decompress(body)
+        elif encoding not in ("", "identity"):
+            raise HTTPException(status_code=415, detail=f"Unsupported Content-Encoding: {encoding}")
+    except (OSError, zlib.error) as e:
+        raise HTTPException(status_code=422, detail=f"Invalid {encoding} body: {e}")
+
+    content_type = request.headers.get("content-type", "application/json").split(";")[0].strip().lower()
+    try:
+        if content_type == "application/cbor":
+            try:
+                import cbor2
+            except ImportError:
+                raise HTTPException(status_code=415, detail="CBOR bodies are not supported by this agent.")
+            try:
+                payload = cbor2.loads(body)
+            except cbor2.CBORDecodeError as e:
+                raise HTTPException(status_code=422, detail=f"Invalid CBOR body: {e}")
+            if isinstance(payload, dict):
+                for field in SERIES_FIELDS:
+                    if field in payload:
+                        payload[field] = _unpack_series(payload[field])
+            return OptimizationRequest.model_validate(payload)
+        if content_type == "application/json":
+            return OptimizationRequest.model_validate_json(body)
+    except ValidationError as e:
+        raise HTTPException(status_code=422, detail=e.errors(include_url=False, include_context=False))
+    raise HTTPException(status_code=415, detail=f"Unsupported Content-Type: {content_type}")
+
+
 # Endpoint: POST /api/v1/optimize
 @app.post("/api/v1/optimize", response_model=OptimizationRecommendation)
-def optimize_energy(request: OptimizationRequest): 
+def optimize_energy(request: OptimizationRequest = Depends(decode_optimization_request)): 
     """
     Recebe dados de otimização do Gateway Java e retorna a recomendação inteligente.
     """